@@ -0,0 +1,130 @@
+package com.revolsys.benchmark;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import com.revolsys.record.io.format.json.JsonParser;
+
+/**
+ * Compare two JMH JSON result files and report the benchmarks that are slower than the baseline
+ * by more than the threshold percentage.
+ *
+ * <p>Build and run the benchmarks, writing the results for each version to a separate file.</p>
+ *
+ * <pre>
+ * mvn -pl revolsys-benchmark -am package
+ * java -jar revolsys-benchmark/target/benchmarks.jar -rf json -rff baseline.json
+ * java -cp revolsys-benchmark/target/benchmarks.jar com.revolsys.benchmark.BenchmarkCompare baseline.json current.json 10
+ * </pre>
+ *
+ * <p>The comparison is written as tab separated lines sorted by benchmark name and parameters so
+ * the output from different runs can also be compared using diff. The exit code is 1 if any
+ * benchmark regressed.</p>
+ */
+public class BenchmarkCompare {
+
+  /**
+   * Compare the results and print the comparison to standard out.
+   *
+   * @return The number of benchmarks that regressed.
+   */
+  public static int compare(final Path baselineFile, final Path currentFile,
+    final double thresholdPercent) {
+    final Map<String, Map<String, Object>> baselineResults = readResults(baselineFile);
+    final Map<String, Map<String, Object>> currentResults = readResults(currentFile);
+    int regressionCount = 0;
+    System.out.println("benchmark\tunit\tbaseline\tcurrent\tchange%\tstatus");
+    for (final Entry<String, Map<String, Object>> entry : currentResults.entrySet()) {
+      final String key = entry.getKey();
+      final Map<String, Object> current = entry.getValue();
+      final double currentScore = getScore(current);
+      final String unit = getUnit(current);
+      final Map<String, Object> baseline = baselineResults.get(key);
+      if (baseline == null) {
+        System.out.printf("%s\t%s\t\t%.3f\t\tNEW%n", key, unit, currentScore);
+      } else {
+        final double baselineScore = getScore(baseline);
+        final double changePercent = (currentScore - baselineScore) / baselineScore * 100;
+        // Throughput modes (ops/time) are better when higher, time modes when lower
+        final boolean higherIsBetter = "thrpt".equals(current.get("mode"));
+        final double slowerPercent = higherIsBetter ? -changePercent : changePercent;
+        String status;
+        if (slowerPercent > thresholdPercent) {
+          status = "REGRESSION";
+          regressionCount++;
+        } else if (slowerPercent < -thresholdPercent) {
+          status = "IMPROVED";
+        } else {
+          status = "SAME";
+        }
+        System.out.printf("%s\t%s\t%.3f\t%.3f\t%+.1f\t%s%n", key, unit, baselineScore,
+          currentScore, changePercent, status);
+      }
+    }
+    for (final String key : baselineResults.keySet()) {
+      if (!currentResults.containsKey(key)) {
+        System.out.printf("%s\t\t\t\t\tREMOVED%n", key);
+      }
+    }
+    return regressionCount;
+  }
+
+  private static String getKey(final Map<String, Object> result) {
+    final StringBuilder key = new StringBuilder();
+    key.append(result.get("benchmark"));
+    @SuppressWarnings("unchecked")
+    final Map<String, Object> params = (Map<String, Object>)result.get("params");
+    if (params != null) {
+      for (final Entry<String, Object> param : new TreeMap<>(params).entrySet()) {
+        key.append(':');
+        key.append(param.getKey());
+        key.append('=');
+        key.append(param.getValue());
+      }
+    }
+    return key.toString();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static double getScore(final Map<String, Object> result) {
+    final Map<String, Object> primaryMetric = (Map<String, Object>)result.get("primaryMetric");
+    return ((Number)primaryMetric.get("score")).doubleValue();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static String getUnit(final Map<String, Object> result) {
+    final Map<String, Object> primaryMetric = (Map<String, Object>)result.get("primaryMetric");
+    return (String)primaryMetric.get("scoreUnit");
+  }
+
+  public static void main(final String[] args) {
+    if (args.length < 2) {
+      System.err.println("Usage: BenchmarkCompare baseline.json current.json [thresholdPercent]");
+      System.exit(2);
+    }
+    final Path baselineFile = Paths.get(args[0]);
+    final Path currentFile = Paths.get(args[1]);
+    double thresholdPercent = 10;
+    if (args.length > 2) {
+      thresholdPercent = Double.parseDouble(args[2]);
+    }
+    final int regressionCount = compare(baselineFile, currentFile, thresholdPercent);
+    if (regressionCount > 0) {
+      System.exit(1);
+    }
+  }
+
+  private static Map<String, Map<String, Object>> readResults(final Path file) {
+    final List<Map<String, Object>> results = JsonParser.read(file);
+    final Map<String, Map<String, Object>> resultsByKey = new TreeMap<>();
+    for (final Map<String, Object> result : results) {
+      final String key = getKey(result);
+      resultsByKey.put(key, result);
+    }
+    return resultsByKey;
+  }
+}
@@ -0,0 +1,189 @@
+package com.revolsys.benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.jeometry.common.data.type.DataTypes;
+
+import com.revolsys.collection.map.LinkedHashMapEx;
+import com.revolsys.elevation.cloud.las.LasPointCloud;
+import com.revolsys.elevation.cloud.las.pointformat.LasPointFormat;
+import com.revolsys.geometry.model.BoundingBox;
+import com.revolsys.geometry.model.GeometryDataTypes;
+import com.revolsys.geometry.model.GeometryFactory;
+import com.revolsys.geometry.model.LineString;
+import com.revolsys.geometry.model.Polygon;
+import com.revolsys.io.file.Paths;
+import com.revolsys.record.Record;
+import com.revolsys.record.io.RecordWriter;
+import com.revolsys.record.schema.RecordDefinition;
+import com.revolsys.record.schema.RecordDefinitionBuilder;
+import com.revolsys.util.ServiceInitializer;
+
+/**
+ * Reproducible data sets for the benchmarks. All the data is generated from a {@link Random} with
+ * a fixed seed so each run (and each version of the library) benchmarks the same data. The files
+ * are written once to target/benchmark-data/v{@link #DATA_VERSION} and reused by later runs.
+ * Increment the data version if the generated data changes.
+ */
+public class BenchmarkData {
+
+  public static final int DATA_VERSION = 1;
+
+  public static final GeometryFactory GEOMETRY_FACTORY = GeometryFactory.fixed2d(3005, 1000.0,
+    1000.0);
+
+  public static final GeometryFactory GEOMETRY_FACTORY_3D = GeometryFactory.fixed3d(3005, 1000.0,
+    1000.0, 1000.0);
+
+  public static final int LAS_POINT_COUNT = 1000000;
+
+  public static final double MAX_X = 1900000;
+
+  public static final double MAX_Y = 1700000;
+
+  public static final double MIN_X = 200000;
+
+  public static final double MIN_Y = 300000;
+
+  public static final int RECORD_COUNT = 20000;
+
+  public static final long SEED = 20201017;
+
+  static {
+    ServiceInitializer.initializeServices();
+  }
+
+  public static List<BoundingBox> boundingBoxes(final Random random, final int count,
+    final double maxSize) {
+    final List<BoundingBox> boundingBoxes = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      final double x = randomX(random);
+      final double y = randomY(random);
+      final double width = random.nextDouble() * maxSize;
+      final double height = random.nextDouble() * maxSize;
+      boundingBoxes.add(GEOMETRY_FACTORY.newBoundingBox(x, y, x + width, y + height));
+    }
+    return boundingBoxes;
+  }
+
+  private static Path getDataDirectory() {
+    final Path directory = java.nio.file.Paths.get("target", "benchmark-data",
+      "v" + DATA_VERSION);
+    Paths.createDirectories(directory);
+    return directory;
+  }
+
+  /**
+   * Get the LAZ file of {@link #LAS_POINT_COUNT} random points, creating it if required.
+   */
+  public static synchronized Path getLazFile() {
+    final Path file = getDataDirectory().resolve("points.laz");
+    if (!Files.exists(file)) {
+      final Random random = newRandom();
+      try (
+        LasPointCloud cloud = new LasPointCloud(LasPointFormat.GpsTime, GEOMETRY_FACTORY_3D)) {
+        for (int i = 0; i < LAS_POINT_COUNT; i++) {
+          final double x = MIN_X + Math.round(random.nextDouble() * 10000 * 1000) / 1000.0;
+          final double y = MIN_Y + Math.round(random.nextDouble() * 10000 * 1000) / 1000.0;
+          final double z = Math.round(random.nextDouble() * 3500 * 1000) / 1000.0;
+          cloud.addPoint(x, y, z)
+            .setIntensity(random.nextInt(65535))
+            .setClassification((short)random.nextInt(31));
+        }
+        cloud.writePointCloud(file, new LinkedHashMapEx("lasZipVersion", 2));
+      }
+    }
+    return file;
+  }
+
+  /**
+   * Get the file containing {@link #RECORD_COUNT} random polygon records, creating it if
+   * required. The file type is determined from the file extension (e.g. shp, csv, geojson).
+   */
+  public static synchronized Path getRecordsFile(final String fileExtension) {
+    final Path file = getDataDirectory().resolve("records." + fileExtension);
+    if (!Files.exists(file)) {
+      final Random random = newRandom();
+      final RecordDefinition recordDefinition = new RecordDefinitionBuilder("records") //
+        .addField("ID", DataTypes.INT, true) //
+        .addField("NAME", DataTypes.STRING, 30) //
+        .addField("VALUE", DataTypes.DOUBLE) //
+        .addField("GEOMETRY", GeometryDataTypes.POLYGON) //
+        .setGeometryFactory(GEOMETRY_FACTORY) //
+        .getRecordDefinition();
+      try (
+        RecordWriter writer = RecordWriter.newRecordWriter(recordDefinition, file)) {
+        for (int i = 0; i < RECORD_COUNT; i++) {
+          final Record record = recordDefinition.newRecord();
+          record.setValue("ID", i);
+          record.setValue("NAME", "Record " + i);
+          record.setValue("VALUE", random.nextDouble() * 1000);
+          final int vertexCount = 4 + random.nextInt(60);
+          record.setValue("GEOMETRY",
+            polygon(random, randomX(random), randomY(random), 500, vertexCount));
+          writer.write(record);
+        }
+      }
+    }
+    return file;
+  }
+
+  /**
+   * Create a random walk line string with the vertexCount vertices.
+   */
+  public static LineString lineString(final Random random, final int vertexCount) {
+    return GEOMETRY_FACTORY.lineString(2, lineStringCoordinates(random, vertexCount));
+  }
+
+  public static double[] lineStringCoordinates(final Random random, final int vertexCount) {
+    final double[] coordinates = new double[vertexCount * 2];
+    double x = randomX(random);
+    double y = randomY(random);
+    for (int i = 0; i < vertexCount; i++) {
+      coordinates[i * 2] = x;
+      coordinates[i * 2 + 1] = y;
+      x += random.nextDouble() * 20 - 10;
+      y += random.nextDouble() * 20 - 10;
+    }
+    return coordinates;
+  }
+
+  public static Random newRandom() {
+    return new Random(SEED);
+  }
+
+  /**
+   * Create a valid star shaped polygon with vertexCount vertices around the centre.
+   */
+  public static Polygon polygon(final Random random, final double centreX, final double centreY,
+    final double radius, final int vertexCount) {
+    return GEOMETRY_FACTORY.polygon(2,
+      polygonCoordinates(random, centreX, centreY, radius, vertexCount));
+  }
+
+  public static double[] polygonCoordinates(final Random random, final double centreX,
+    final double centreY, final double radius, final int vertexCount) {
+    final double[] coordinates = new double[(vertexCount + 1) * 2];
+    for (int i = 0; i < vertexCount; i++) {
+      final double angle = -Math.PI * 2 * i / vertexCount;
+      final double distance = radius * (0.5 + random.nextDouble() / 2);
+      coordinates[i * 2] = centreX + Math.cos(angle) * distance;
+      coordinates[i * 2 + 1] = centreY + Math.sin(angle) * distance;
+    }
+    coordinates[vertexCount * 2] = coordinates[0];
+    coordinates[vertexCount * 2 + 1] = coordinates[1];
+    return coordinates;
+  }
+
+  public static double randomX(final Random random) {
+    return MIN_X + random.nextDouble() * (MAX_X - MIN_X);
+  }
+
+  public static double randomY(final Random random) {
+    return MIN_Y + random.nextDouble() * (MAX_Y - MIN_Y);
+  }
+}
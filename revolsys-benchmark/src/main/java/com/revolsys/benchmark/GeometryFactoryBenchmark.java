@@ -0,0 +1,55 @@
+package com.revolsys.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revolsys.geometry.model.LineString;
+import com.revolsys.geometry.model.Polygon;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeometryFactoryBenchmark {
+
+  private double[] lineCoordinates;
+
+  private double[] polygonCoordinates;
+
+  @Param({
+    "10", "1000", "100000"
+  })
+  public int vertexCount;
+
+  @Benchmark
+  public LineString lineString() {
+    return BenchmarkData.GEOMETRY_FACTORY.lineString(2, this.lineCoordinates);
+  }
+
+  @Benchmark
+  public Polygon polygon() {
+    return BenchmarkData.GEOMETRY_FACTORY.polygon(2, this.polygonCoordinates);
+  }
+
+  @Setup
+  public void setup() {
+    final Random random = BenchmarkData.newRandom();
+    this.lineCoordinates = BenchmarkData.lineStringCoordinates(random, this.vertexCount);
+    this.polygonCoordinates = BenchmarkData.polygonCoordinates(random, 1000000, 1000000, 1000,
+      this.vertexCount);
+  }
+}
@@ -0,0 +1,59 @@
+package com.revolsys.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revolsys.geometry.model.Geometry;
+import com.revolsys.geometry.model.Polygon;
+import com.revolsys.geometry.operation.overlay.OverlayOp;
+import com.revolsys.geometry.operation.valid.IsValidOp;
+
+/**
+ * Union and validate two overlapping star shaped polygons.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeometryOperationBenchmark {
+
+  private Polygon polygon1;
+
+  private Polygon polygon2;
+
+  @Param({
+    "100", "10000"
+  })
+  public int vertexCount;
+
+  @Benchmark
+  public boolean isValid() {
+    return new IsValidOp(this.polygon1).isValid();
+  }
+
+  @Setup
+  public void setup() {
+    final Random random = BenchmarkData.newRandom();
+    this.polygon1 = BenchmarkData.polygon(random, 1000000, 1000000, 1000, this.vertexCount);
+    this.polygon2 = BenchmarkData.polygon(random, 1000500, 1000000, 1000, this.vertexCount);
+  }
+
+  @Benchmark
+  public Geometry union() {
+    return OverlayOp.overlayOp(this.polygon1, this.polygon2, OverlayOp.UNION);
+  }
+}
@@ -0,0 +1,79 @@
+package com.revolsys.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.revolsys.geometry.model.Geometry;
+import com.revolsys.geometry.model.Polygon;
+import com.revolsys.geometry.wkb.ParseException;
+import com.revolsys.geometry.wkb.WKBReader;
+import com.revolsys.geometry.wkb.WKBWriter;
+import com.revolsys.geometry.wkb.WKTReader;
+
+/**
+ * Parse {@link #GEOMETRY_COUNT} polygons from WKB and WKT.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeometryParseBenchmark {
+
+  private static final int GEOMETRY_COUNT = 1000;
+
+  @Param({
+    "10", "1000"
+  })
+  public int vertexCount;
+
+  private final List<byte[]> wkbs = new ArrayList<>();
+
+  private final List<String> wkts = new ArrayList<>();
+
+  @Setup
+  public void setup() {
+    final Random random = BenchmarkData.newRandom();
+    final WKBWriter wkbWriter = new WKBWriter();
+    for (int i = 0; i < GEOMETRY_COUNT; i++) {
+      final Polygon polygon = BenchmarkData.polygon(random, BenchmarkData.randomX(random),
+        BenchmarkData.randomY(random), 1000, this.vertexCount);
+      this.wkbs.add(wkbWriter.write(polygon));
+      this.wkts.add(polygon.toWkt());
+    }
+  }
+
+  @Benchmark
+  public void wkbReader(final Blackhole blackhole) throws ParseException {
+    final WKBReader reader = new WKBReader(BenchmarkData.GEOMETRY_FACTORY);
+    for (final byte[] wkb : this.wkbs) {
+      final Geometry geometry = reader.read(wkb);
+      blackhole.consume(geometry);
+    }
+  }
+
+  @Benchmark
+  public void wktReader(final Blackhole blackhole) throws ParseException {
+    final WKTReader reader = new WKTReader(BenchmarkData.GEOMETRY_FACTORY);
+    for (final String wkt : this.wkts) {
+      final Geometry geometry = reader.read(wkt);
+      blackhole.consume(geometry);
+    }
+  }
+}
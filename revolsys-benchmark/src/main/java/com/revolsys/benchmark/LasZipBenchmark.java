@@ -0,0 +1,56 @@
+package com.revolsys.benchmark;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revolsys.collection.map.LinkedHashMapEx;
+import com.revolsys.collection.map.MapEx;
+import com.revolsys.elevation.cloud.PointCloud;
+import com.revolsys.elevation.cloud.las.LasPointCloud;
+
+/**
+ * Decode the {@link BenchmarkData#LAS_POINT_COUNT} points from a LAZ file.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LasZipBenchmark {
+
+  private Path file;
+
+  @Param({
+    "1", "4"
+  })
+  public int threadCount;
+
+  @Benchmark
+  public long decode() {
+    final MapEx properties = new LinkedHashMapEx("decompressThreadCount", this.threadCount);
+    final long[] count = new long[1];
+    try (
+      LasPointCloud cloud = PointCloud.newPointCloud(this.file, properties)) {
+      cloud.forEachPoint(point -> count[0] += (long)point.getZ());
+    }
+    return count[0];
+  }
+
+  @Setup
+  public void setup() {
+    this.file = BenchmarkData.getLazFile();
+  }
+}
@@ -0,0 +1,83 @@
+package com.revolsys.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.revolsys.record.ArrayRecord;
+import com.revolsys.record.Record;
+import com.revolsys.record.io.RecordReader;
+import com.revolsys.record.io.format.csv.CsvIterator;
+import com.revolsys.record.io.format.shp.ShapefileRecordReader;
+import com.revolsys.spring.resource.Resource;
+
+/**
+ * Read the {@link BenchmarkData#RECORD_COUNT} polygon records from each file format.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecordReaderBenchmark {
+
+  private Path csvFile;
+
+  private Path geoJsonFile;
+
+  private Path shapefile;
+
+  @Benchmark
+  public void csvIterator(final Blackhole blackhole) throws IOException {
+    try (
+      BufferedReader in = Files.newBufferedReader(this.csvFile)) {
+      for (final List<String> row : new CsvIterator(in)) {
+        blackhole.consume(row);
+      }
+    }
+  }
+
+  @Benchmark
+  public void geoJson(final Blackhole blackhole) {
+    try (
+      RecordReader reader = RecordReader.newRecordReader(this.geoJsonFile)) {
+      for (final Record record : reader) {
+        blackhole.consume(record);
+      }
+    }
+  }
+
+  @Setup
+  public void setup() {
+    this.shapefile = BenchmarkData.getRecordsFile("shp");
+    this.geoJsonFile = BenchmarkData.getRecordsFile("geojson");
+    this.csvFile = BenchmarkData.getRecordsFile("csv");
+  }
+
+  @Benchmark
+  public void shapefile(final Blackhole blackhole) throws IOException {
+    final Resource resource = Resource.getResource(this.shapefile);
+    try (
+      ShapefileRecordReader reader = new ShapefileRecordReader(resource, ArrayRecord.FACTORY)) {
+      for (final Record record : reader) {
+        blackhole.consume(record);
+      }
+    }
+  }
+}
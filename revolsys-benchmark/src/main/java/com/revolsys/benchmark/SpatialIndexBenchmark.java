@@ -0,0 +1,98 @@
+package com.revolsys.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.revolsys.geometry.index.SpatialIndex;
+import com.revolsys.geometry.index.hprtree.HilbertPackedRTree;
+import com.revolsys.geometry.index.quadtree.QuadTree;
+import com.revolsys.geometry.index.rstartree.RStarTree;
+import com.revolsys.geometry.model.BoundingBox;
+
+/**
+ * Insert {@link #itemCount} random bounding boxes into each type of spatial index and query the
+ * index using {@link #QUERY_COUNT} random bounding boxes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpatialIndexBenchmark {
+
+  private static final int QUERY_COUNT = 1000;
+
+  private SpatialIndex<BoundingBox> index;
+
+  @Param({
+    "RStarTree", "QuadTree", "HilbertPackedRTree"
+  })
+  public String indexType;
+
+  @Param({
+    "100000"
+  })
+  public int itemCount;
+
+  private List<BoundingBox> items;
+
+  private List<BoundingBox> queries;
+
+  @Benchmark
+  public SpatialIndex<BoundingBox> insert() {
+    final SpatialIndex<BoundingBox> index = newIndex();
+    for (final BoundingBox item : this.items) {
+      index.insertItem(item, item);
+    }
+    // Packed indexes are built on the first query
+    index.forEach(0, 0, 0, 0, item -> {
+    });
+    return index;
+  }
+
+  private SpatialIndex<BoundingBox> newIndex() {
+    switch (this.indexType) {
+      case "RStarTree":
+        return new RStarTree<>(BenchmarkData.GEOMETRY_FACTORY);
+      case "QuadTree":
+        return new QuadTree<>(BenchmarkData.GEOMETRY_FACTORY);
+      case "HilbertPackedRTree":
+        final HilbertPackedRTree<BoundingBox> tree = new HilbertPackedRTree<>();
+        tree.setGeometryFactory(BenchmarkData.GEOMETRY_FACTORY);
+        return tree;
+      default:
+        throw new IllegalArgumentException("Unknown index type: " + this.indexType);
+    }
+  }
+
+  @Benchmark
+  public void query(final Blackhole blackhole) {
+    final SpatialIndex<BoundingBox> index = this.index;
+    for (final BoundingBox query : this.queries) {
+      index.forEach(query, blackhole::consume);
+    }
+  }
+
+  @Setup
+  public void setup() {
+    final Random random = BenchmarkData.newRandom();
+    this.items = BenchmarkData.boundingBoxes(random, this.itemCount, 1000);
+    this.queries = BenchmarkData.boundingBoxes(random, QUERY_COUNT, 20000);
+    this.index = insert();
+  }
+}
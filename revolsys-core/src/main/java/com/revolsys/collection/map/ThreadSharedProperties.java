@@ -67,10 +67,14 @@ public class ThreadSharedProperties {
   }
 
   public static Map<Object, Object> getThreadGroupProperties() {
+    final Thread thread = Thread.currentThread();
+    final ThreadGroup threadGroup = thread.getThreadGroup();
+    return getThreadGroupProperties(threadGroup);
+  }
+
+  public static Map<Object, Object> getThreadGroupProperties(final ThreadGroup threadGroup) {
     synchronized (threadGroupProperties) {
       Map<Object, Object> properties = null;
-      final Thread thread = Thread.currentThread();
-      final ThreadGroup threadGroup = thread.getThreadGroup();
       if (threadGroup != null) {
         properties = threadGroupProperties.get(threadGroup);
       }
@@ -125,4 +129,21 @@ public class ThreadSharedProperties {
       properties.put(name, value);
     }
   }
+
+  /**
+   * Set the properties for the current thread, used by pooled threads to share the properties of
+   * a thread group they are not in.
+   *
+   * @param properties The properties, or null to use the thread group properties.
+   * @return The previous properties for the thread.
+   */
+  public static Map<Object, Object> setThreadProperties(final Map<Object, Object> properties) {
+    final Map<Object, Object> oldProperties = threadProperties.get();
+    if (properties == null) {
+      threadProperties.remove();
+    } else {
+      threadProperties.set(properties);
+    }
+    return oldProperties;
+  }
 }
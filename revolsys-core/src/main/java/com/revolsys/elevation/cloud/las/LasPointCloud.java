@@ -17,8 +17,10 @@ import com.revolsys.collection.map.MapEx;
 import com.revolsys.elevation.cloud.PointCloud;
 import com.revolsys.elevation.cloud.las.pointformat.LasPoint;
 import com.revolsys.elevation.cloud.las.pointformat.LasPointFormat;
+import com.revolsys.elevation.cloud.las.zip.LasZipChunkTable;
 import com.revolsys.elevation.cloud.las.zip.LasZipCompressorType;
 import com.revolsys.elevation.cloud.las.zip.LasZipHeader;
+import com.revolsys.elevation.cloud.las.zip.LasZipParallelChunkedIterator;
 import com.revolsys.elevation.cloud.las.zip.LasZipPointCloudWriterFactory;
 import com.revolsys.elevation.tin.TriangulatedIrregularNetwork;
 import com.revolsys.elevation.tin.quadedge.QuadEdgeDelaunayTinBuilder;
@@ -65,6 +67,12 @@ public class LasPointCloud extends BaseObjectWithProperties
 
   private boolean classificationsLoaded;
 
+  private boolean decompressOrdered = true;
+
+  private int decompressReadAheadChunkCount = 0;
+
+  private int decompressThreadCount = 1;
+
   private boolean exists;
 
   private double fileGpsTime = 0;
@@ -75,7 +83,7 @@ public class LasPointCloud extends BaseObjectWithProperties
 
   private Resource lasResource;
 
-  private List<LasPoint> points = new ArrayList<>();
+  private List<LasPoint> points;
 
   private ChannelReader reader;
 
@@ -85,6 +93,7 @@ public class LasPointCloud extends BaseObjectWithProperties
     final LasPointCloudHeader header = new LasPointCloudHeader(this, pointFormat, geometryFactory);
     setHeader(header);
     this.geometryFactory = header.getGeometryFactory();
+    this.points = newPoints(0);
   }
 
   public LasPointCloud(final Resource resource, final MapEx properties) {
@@ -107,21 +116,27 @@ public class LasPointCloud extends BaseObjectWithProperties
       }
     }
 
+    this.points = new ArrayList<>();
     this.reader = open();
   }
 
   @SuppressWarnings("unchecked")
   public <P extends LasPoint> P addPoint(final double x, final double y, final double z) {
     final LasPoint lasPoint = newLasPoint(x, y, z);
-    this.points.add(lasPoint);
+    final List<LasPoint> points = this.points;
+    points.add(lasPoint);
     this.header.addCounts(lasPoint);
-    return (P)lasPoint;
+    if (points instanceof LasPointColumns) {
+      return (P)points.get(points.size() - 1);
+    } else {
+      return (P)lasPoint;
+    }
   }
 
   public void clear() {
     closeReader();
     this.header.clear();
-    this.points = new ArrayList<>();
+    this.points = newPoints(0);
   }
 
   @Override
@@ -185,6 +200,14 @@ public class LasPointCloud extends BaseObjectWithProperties
     return point -> LasClassification.GROUND == ((LasPoint)point).getClassification();
   }
 
+  public int getDecompressReadAheadChunkCount() {
+    return this.decompressReadAheadChunkCount;
+  }
+
+  public int getDecompressThreadCount() {
+    return this.decompressThreadCount;
+  }
+
   public double getFileGpsTime() {
     return this.fileGpsTime;
   }
@@ -215,6 +238,10 @@ public class LasPointCloud extends BaseObjectWithProperties
     return this.resource;
   }
 
+  public boolean isDecompressOrdered() {
+    return this.decompressOrdered;
+  }
+
   public boolean isExists() {
     return this.exists;
   }
@@ -242,6 +269,18 @@ public class LasPointCloud extends BaseObjectWithProperties
             return new LasPointCloudIterator(this, reader);
           } else {
             final LasZipCompressorType compressor = lasZipHeader.getCompressor();
+            if (this.decompressThreadCount > 1 && compressor.isChunked()) {
+              final long position = reader.position();
+              final LasZipChunkTable chunkTable = LasZipChunkTable.read(lasZipHeader, reader,
+                getPointCount());
+              if (chunkTable != null) {
+                return new LasZipParallelChunkedIterator(this, reader, chunkTable,
+                  this.decompressThreadCount, this.decompressReadAheadChunkCount,
+                  this.decompressOrdered);
+              } else if (position != -1) {
+                reader.seek(position);
+              }
+            }
             return compressor.newIterator(this, reader);
           }
         } catch (RuntimeException | Error e) {
@@ -259,7 +298,7 @@ public class LasPointCloud extends BaseObjectWithProperties
 
   private synchronized void loadAllPoints() {
     if (!this.allLoaded && this.lasResource != null) {
-      final List<LasPoint> points = new ArrayList<>((int)getPointCount());
+      final List<LasPoint> points = newPoints((int)getPointCount());
       forEachPoint(points::add);
       this.points = points;
       this.allLoaded = true;
@@ -270,6 +309,19 @@ public class LasPointCloud extends BaseObjectWithProperties
     return this.header.newLasPoint(this, x, y, z);
   }
 
+  /**
+   * Construct the list used to hold the points in memory. Points are stored in
+   * {@link LasPointColumns} unless the point format has wave packets.
+   */
+  private List<LasPoint> newPoints(final int capacity) {
+    final LasPointFormat pointFormat = getPointFormat();
+    if (pointFormat != null && LasPointColumns.isSupported(pointFormat)) {
+      return new LasPointColumns(this, pointFormat, capacity);
+    } else {
+      return new ArrayList<>(capacity);
+    }
+  }
+
   @Override
   public TriangulatedIrregularNetwork newTriangulatedIrregularNetwork() {
     final GeometryFactory geometryFactory = getGeometryFactory();
@@ -327,10 +379,15 @@ public class LasPointCloud extends BaseObjectWithProperties
   @Override
   public void refreshClassificationCounts() {
     Arrays.fill(this.classificationCounts, 0);
-    forEachPoint(point -> {
-      final short classification = point.getClassification();
-      this.classificationCounts[classification]++;
-    });
+    if (this.points instanceof LasPointColumns) {
+      final LasPointColumns columns = (LasPointColumns)this.points;
+      columns.countClassifications(this.classificationCounts);
+    } else {
+      forEachPoint(point -> {
+        final short classification = point.getClassification();
+        this.classificationCounts[classification]++;
+      });
+    }
     this.classificationsLoaded = true;
   }
 
@@ -338,6 +395,30 @@ public class LasPointCloud extends BaseObjectWithProperties
     this.byteBuffer = byteBuffer;
   }
 
+  /**
+   * If false the points from a LAZ file decompressed using multiple threads are returned in the
+   * order the chunks finish decompressing instead of the file order.
+   */
+  public void setDecompressOrdered(final boolean decompressOrdered) {
+    this.decompressOrdered = decompressOrdered;
+  }
+
+  /**
+   * The maximum number of chunks to read and decompress ahead of the chunk being iterated over. If
+   * less than the thread count the thread count is used.
+   */
+  public void setDecompressReadAheadChunkCount(final int decompressReadAheadChunkCount) {
+    this.decompressReadAheadChunkCount = decompressReadAheadChunkCount;
+  }
+
+  /**
+   * The number of threads used to decompress the chunks of a chunked LAZ file. If &gt; 1 the chunks
+   * are decompressed in parallel.
+   */
+  public void setDecompressThreadCount(final int decompressThreadCount) {
+    this.decompressThreadCount = decompressThreadCount;
+  }
+
   public void setGeometryFactory(final GeometryFactory geometryFactory) {
     this.geometryFactory = geometryFactory;
   }
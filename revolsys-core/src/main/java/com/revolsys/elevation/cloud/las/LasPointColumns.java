@@ -0,0 +1,435 @@
+package com.revolsys.elevation.cloud.las;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+import com.revolsys.elevation.cloud.las.pointformat.LasPoint;
+import com.revolsys.elevation.cloud.las.pointformat.LasPointFormat;
+
+/**
+ * Column oriented storage of the points in a {@link LasPointCloud}. Each attribute is held in a
+ * primitive array (x, y, z as the scaled integer values), the {@link LasPoint} returned from
+ * {@link #get(int)} is a view over a row of the arrays.
+ *
+ * <p>The raw LAS record values are stored. For the legacy formats (0-5) the return byte,
+ * classification byte and scan angle rank are stored. For the extended formats (6-10) the return
+ * number/number of returns nibbles, classification, classification flags and scan angle are
+ * stored.</p>
+ */
+public class LasPointColumns extends AbstractList<LasPoint> implements RandomAccess {
+
+  public static boolean isSupported(final LasPointFormat pointFormat) {
+    switch (pointFormat) {
+      case GpsTimeWavePackets:
+      case GpsTimeRgbWavePackets:
+      case ExtendedGpsTimeWavePackets:
+      case ExtendedGpsTimeRgbNirWavePackets:
+        return false;
+      default:
+        return true;
+    }
+  }
+
+  private byte[] classifications;
+
+  private byte[] classificationFlags;
+
+  private final boolean extended;
+
+  private double[] gpsTimes;
+
+  private char[] intensities;
+
+  private char[] nirs;
+
+  private final LasPointCloud pointCloud;
+
+  private final LasPointFormat pointFormat;
+
+  private char[] pointSourceIds;
+
+  private char[] reds;
+
+  private char[] greens;
+
+  private char[] blues;
+
+  private byte[] returnBytes;
+
+  private short[] scanAngles;
+
+  private int size = 0;
+
+  private byte[] userDatas;
+
+  private int[] xs;
+
+  private int[] ys;
+
+  private int[] zs;
+
+  public LasPointColumns(final LasPointCloud pointCloud, final LasPointFormat pointFormat,
+    final int capacity) {
+    if (!isSupported(pointFormat)) {
+      throw new IllegalArgumentException("Wave packet point format not supported " + pointFormat);
+    }
+    this.pointCloud = pointCloud;
+    this.pointFormat = pointFormat;
+    final int id = pointFormat.getId();
+    this.extended = id >= 6;
+    final int initialCapacity = Math.max(capacity, 16);
+    this.xs = new int[initialCapacity];
+    this.ys = new int[initialCapacity];
+    this.zs = new int[initialCapacity];
+    this.intensities = new char[initialCapacity];
+    this.returnBytes = new byte[initialCapacity];
+    this.classifications = new byte[initialCapacity];
+    if (this.extended) {
+      this.classificationFlags = new byte[initialCapacity];
+    }
+    this.scanAngles = new short[initialCapacity];
+    this.userDatas = new byte[initialCapacity];
+    this.pointSourceIds = new char[initialCapacity];
+    if (id == 1 || id >= 3) {
+      this.gpsTimes = new double[initialCapacity];
+    }
+    if (id == 2 || id == 3 || id == 7 || id == 8) {
+      this.reds = new char[initialCapacity];
+      this.greens = new char[initialCapacity];
+      this.blues = new char[initialCapacity];
+    }
+    if (id == 8) {
+      this.nirs = new char[initialCapacity];
+    }
+  }
+
+  @Override
+  public boolean add(final LasPoint point) {
+    final int index = this.size;
+    ensureCapacity(index + 1);
+    this.size++;
+    setPoint(index, point);
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    this.size = 0;
+  }
+
+  /**
+   * Add the count of points for each classification to the counts.
+   *
+   * @param counts The counts indexed by classification.
+   */
+  public void countClassifications(final long[] counts) {
+    final byte[] classifications = this.classifications;
+    final int size = this.size;
+    if (this.extended) {
+      for (int i = 0; i < size; i++) {
+        counts[classifications[i] & 0xFF]++;
+      }
+    } else {
+      for (int i = 0; i < size; i++) {
+        counts[classifications[i] & 0b11111]++;
+      }
+    }
+  }
+
+  private void ensureCapacity(final int capacity) {
+    final int oldCapacity = this.xs.length;
+    if (capacity > oldCapacity) {
+      final int newCapacity = (int)Math.min(Integer.MAX_VALUE - 8,
+        Math.max(capacity, oldCapacity + (oldCapacity >> 1)));
+      this.xs = Arrays.copyOf(this.xs, newCapacity);
+      this.ys = Arrays.copyOf(this.ys, newCapacity);
+      this.zs = Arrays.copyOf(this.zs, newCapacity);
+      this.intensities = Arrays.copyOf(this.intensities, newCapacity);
+      this.returnBytes = Arrays.copyOf(this.returnBytes, newCapacity);
+      this.classifications = Arrays.copyOf(this.classifications, newCapacity);
+      if (this.classificationFlags != null) {
+        this.classificationFlags = Arrays.copyOf(this.classificationFlags, newCapacity);
+      }
+      this.scanAngles = Arrays.copyOf(this.scanAngles, newCapacity);
+      this.userDatas = Arrays.copyOf(this.userDatas, newCapacity);
+      this.pointSourceIds = Arrays.copyOf(this.pointSourceIds, newCapacity);
+      if (this.gpsTimes != null) {
+        this.gpsTimes = Arrays.copyOf(this.gpsTimes, newCapacity);
+      }
+      if (this.reds != null) {
+        this.reds = Arrays.copyOf(this.reds, newCapacity);
+        this.greens = Arrays.copyOf(this.greens, newCapacity);
+        this.blues = Arrays.copyOf(this.blues, newCapacity);
+      }
+      if (this.nirs != null) {
+        this.nirs = Arrays.copyOf(this.nirs, newCapacity);
+      }
+    }
+  }
+
+  @Override
+  public void forEach(final Consumer<? super LasPoint> action) {
+    final int size = this.size;
+    for (int i = 0; i < size; i++) {
+      final LasPoint point = new LasPointColumnsPoint(this, i);
+      action.accept(point);
+    }
+  }
+
+  @Override
+  public LasPoint get(final int index) {
+    if (index < 0 || index >= this.size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+    }
+    return new LasPointColumnsPoint(this, index);
+  }
+
+  public int getBlue(final int index) {
+    if (this.blues == null) {
+      return 0;
+    } else {
+      return this.blues[index];
+    }
+  }
+
+  public short getClassification(final int index) {
+    if (this.extended) {
+      return (short)(this.classifications[index] & 0xFF);
+    } else {
+      return (short)(this.classifications[index] & 0b11111);
+    }
+  }
+
+  byte getClassificationByte(final int index) {
+    return this.classifications[index];
+  }
+
+  byte getClassificationFlags(final int index) {
+    if (this.classificationFlags == null) {
+      return 0;
+    } else {
+      return this.classificationFlags[index];
+    }
+  }
+
+  public double getGpsTime(final int index) {
+    if (this.gpsTimes == null) {
+      return 315964800;
+    } else {
+      return this.gpsTimes[index];
+    }
+  }
+
+  public int getGreen(final int index) {
+    if (this.greens == null) {
+      return 0;
+    } else {
+      return this.greens[index];
+    }
+  }
+
+  public int getIntensity(final int index) {
+    return this.intensities[index];
+  }
+
+  public int getNir(final int index) {
+    if (this.nirs == null) {
+      return 0;
+    } else {
+      return this.nirs[index];
+    }
+  }
+
+  public LasPointCloud getPointCloud() {
+    return this.pointCloud;
+  }
+
+  public LasPointFormat getPointFormat() {
+    return this.pointFormat;
+  }
+
+  public int getPointSourceID(final int index) {
+    return this.pointSourceIds[index];
+  }
+
+  public int getRed(final int index) {
+    if (this.reds == null) {
+      return 0;
+    } else {
+      return this.reds[index];
+    }
+  }
+
+  byte getReturnByte(final int index) {
+    return this.returnBytes[index];
+  }
+
+  short getScanAngleValue(final int index) {
+    return this.scanAngles[index];
+  }
+
+  public short getUserData(final int index) {
+    return (short)(this.userDatas[index] & 0xFF);
+  }
+
+  public int getXInt(final int index) {
+    return this.xs[index];
+  }
+
+  public int getYInt(final int index) {
+    return this.ys[index];
+  }
+
+  public int getZInt(final int index) {
+    return this.zs[index];
+  }
+
+  public boolean isExtended() {
+    return this.extended;
+  }
+
+  void setBlue(final int index, final int blue) {
+    if (this.blues != null) {
+      this.blues[index] = (char)blue;
+    }
+  }
+
+  void setClassificationByte(final int index, final byte classification) {
+    this.classifications[index] = classification;
+  }
+
+  void setClassificationFlags(final int index, final byte classificationFlags) {
+    if (this.classificationFlags != null) {
+      this.classificationFlags[index] = classificationFlags;
+    }
+  }
+
+  void setGpsTime(final int index, final double gpsTime) {
+    if (this.gpsTimes != null) {
+      this.gpsTimes[index] = gpsTime;
+    }
+  }
+
+  void setGreen(final int index, final int green) {
+    if (this.greens != null) {
+      this.greens[index] = (char)green;
+    }
+  }
+
+  void setIntensity(final int index, final int intensity) {
+    this.intensities[index] = (char)intensity;
+  }
+
+  void setNir(final int index, final int nir) {
+    if (this.nirs != null) {
+      this.nirs[index] = (char)nir;
+    }
+  }
+
+  void setPoint(final int index, final LasPoint point) {
+    this.xs[index] = point.getXInt();
+    this.ys[index] = point.getYInt();
+    this.zs[index] = point.getZInt();
+    this.intensities[index] = (char)point.getIntensity();
+    if (this.extended) {
+      this.returnBytes[index] = (byte)(point.getReturnNumber() & 0b1111
+        | (point.getNumberOfReturns() & 0b1111) << 4);
+      this.classifications[index] = (byte)point.getClassification();
+      this.classificationFlags[index] = point.getClassificationFlags();
+      this.scanAngles[index] = point.getScanAngle();
+    } else {
+      this.returnBytes[index] = point.getReturnByte();
+      this.classifications[index] = point.getClassificationByte();
+      this.scanAngles[index] = point.getScanAngleRank();
+    }
+    this.userDatas[index] = (byte)point.getUserData();
+    this.pointSourceIds[index] = (char)point.getPointSourceID();
+    if (this.gpsTimes != null) {
+      this.gpsTimes[index] = point.getGpsTime();
+    }
+    if (this.reds != null) {
+      this.reds[index] = (char)point.getRed();
+      this.greens[index] = (char)point.getGreen();
+      this.blues[index] = (char)point.getBlue();
+    }
+    if (this.nirs != null) {
+      this.nirs[index] = (char)point.getNir();
+    }
+  }
+
+  void setPointSourceID(final int index, final int pointSourceID) {
+    this.pointSourceIds[index] = (char)pointSourceID;
+  }
+
+  void setRed(final int index, final int red) {
+    if (this.reds != null) {
+      this.reds[index] = (char)red;
+    }
+  }
+
+  void setReturnByte(final int index, final byte returnByte) {
+    this.returnBytes[index] = returnByte;
+  }
+
+  void setScanAngleValue(final int index, final short scanAngle) {
+    this.scanAngles[index] = scanAngle;
+  }
+
+  void setUserData(final int index, final short userData) {
+    this.userDatas[index] = (byte)userData;
+  }
+
+  void setXYZ(final int index, final int x, final int y, final int z) {
+    this.xs[index] = x;
+    this.ys[index] = y;
+    this.zs[index] = z;
+  }
+
+  @Override
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Copy the values of the point at the index to a new point object.
+   *
+   * @param index The index of the point.
+   * @return The point object.
+   */
+  public LasPoint toLasPoint(final int index) {
+    final LasPoint point = this.pointFormat.newLasPoint(this.pointCloud);
+    point.setXYZ(this.xs[index], this.ys[index], this.zs[index]);
+    point.setIntensity(this.intensities[index]);
+    final byte returnByte = this.returnBytes[index];
+    if (this.extended) {
+      point.setReturnNumber((byte)(returnByte & 0b1111));
+      point.setNumberOfReturns((byte)(returnByte >> 4 & 0b1111));
+      point.setClassification(getClassification(index));
+      point.setClassificationFlags(this.classificationFlags[index]);
+      point.setScanAngle(this.scanAngles[index]);
+    } else {
+      point.setReturnByte(returnByte);
+      point.setClassificationByte(this.classifications[index]);
+      point.setScanAngleRank((byte)this.scanAngles[index]);
+    }
+    point.setUserData(getUserData(index));
+    final int pointSourceId = this.pointSourceIds[index];
+    if (pointSourceId > 0) {
+      point.setPointSourceID(pointSourceId);
+    }
+    if (this.gpsTimes != null) {
+      point.setGpsTime(this.gpsTimes[index]);
+    }
+    if (this.reds != null) {
+      point.setRed(this.reds[index]);
+      point.setGreen(this.greens[index]);
+      point.setBlue(this.blues[index]);
+    }
+    if (this.nirs != null) {
+      point.setNir(this.nirs[index]);
+    }
+    return point;
+  }
+}
@@ -0,0 +1,590 @@
+package com.revolsys.elevation.cloud.las;
+
+import com.revolsys.elevation.cloud.las.pointformat.LasPoint;
+import com.revolsys.elevation.cloud.las.pointformat.LasPointFormat;
+import com.revolsys.geometry.model.GeometryFactory;
+import com.revolsys.geometry.model.impl.AbstractPoint;
+import com.revolsys.io.channels.ChannelReader;
+import com.revolsys.io.channels.ChannelWriter;
+import com.revolsys.record.io.format.json.JsonObject;
+import com.revolsys.record.io.format.json.JsonObjectHash;
+
+/**
+ * A {@link LasPoint} view over a row in {@link LasPointColumns}. Setting a value updates the
+ * columns.
+ */
+public class LasPointColumnsPoint extends AbstractPoint implements LasPoint {
+  private static final long serialVersionUID = 1L;
+
+  private final LasPointColumns columns;
+
+  private final int index;
+
+  LasPointColumnsPoint(final LasPointColumns columns, final int index) {
+    this.columns = columns;
+    this.index = index;
+  }
+
+  @Override
+  public LasPoint clone() {
+    return this.columns.toLasPoint(this.index);
+  }
+
+  @Override
+  public void copyCoordinates(final double[] coordinates) {
+    coordinates[X] = getX();
+    coordinates[Y] = getY();
+    if (coordinates.length > 2) {
+      coordinates[Z] = getZ();
+    }
+  }
+
+  @Override
+  public int getAxisCount() {
+    return 3;
+  }
+
+  @Override
+  public int getBlue() {
+    return this.columns.getBlue(this.index);
+  }
+
+  @Override
+  public short getClassification() {
+    return this.columns.getClassification(this.index);
+  }
+
+  @Override
+  public byte getClassificationByte() {
+    if (this.columns.isExtended()) {
+      throw new RuntimeException("Not implemented");
+    } else {
+      return this.columns.getClassificationByte(this.index);
+    }
+  }
+
+  @Override
+  public byte getClassificationFlags() {
+    return this.columns.getClassificationFlags(this.index);
+  }
+
+  @Override
+  public double getCoordinate(final int axisIndex) {
+    if (axisIndex == X) {
+      return getX();
+    } else if (axisIndex == Y) {
+      return getY();
+    } else if (axisIndex == Z) {
+      return getZ();
+    } else {
+      return java.lang.Double.NaN;
+    }
+  }
+
+  @Override
+  public double[] getCoordinates() {
+    return new double[] {
+      getX(), getY(), getZ()
+    };
+  }
+
+  @Override
+  public GeometryFactory getGeometryFactory() {
+    return this.columns.getPointCloud().getGeometryFactory();
+  }
+
+  @Override
+  public double getGpsTime() {
+    return this.columns.getGpsTime(this.index);
+  }
+
+  @Override
+  public int getGreen() {
+    return this.columns.getGreen(this.index);
+  }
+
+  public int getIndex() {
+    return this.index;
+  }
+
+  @Override
+  public int getIntensity() {
+    return this.columns.getIntensity(this.index);
+  }
+
+  @Override
+  public int getNir() {
+    return this.columns.getNir(this.index);
+  }
+
+  @Override
+  public byte getNumberOfReturns() {
+    final byte returnByte = this.columns.getReturnByte(this.index);
+    if (this.columns.isExtended()) {
+      return (byte)(returnByte >> 4 & 0b1111);
+    } else {
+      return (byte)(returnByte >> 3 & 0b111);
+    }
+  }
+
+  @Override
+  public LasPointFormat getPointFormat() {
+    return this.columns.getPointFormat();
+  }
+
+  @Override
+  public int getPointSourceID() {
+    return this.columns.getPointSourceID(this.index);
+  }
+
+  @Override
+  public int getRed() {
+    return this.columns.getRed(this.index);
+  }
+
+  @Override
+  public byte getReturnByte() {
+    if (this.columns.isExtended()) {
+      throw new RuntimeException("Not implemented");
+    } else {
+      return this.columns.getReturnByte(this.index);
+    }
+  }
+
+  @Override
+  public byte getReturnNumber() {
+    final byte returnByte = this.columns.getReturnByte(this.index);
+    if (this.columns.isExtended()) {
+      return (byte)(returnByte & 0b1111);
+    } else {
+      return (byte)(returnByte & 0b111);
+    }
+  }
+
+  @Override
+  public short getScanAngle() {
+    final short scanAngle = this.columns.getScanAngleValue(this.index);
+    if (this.columns.isExtended()) {
+      return scanAngle;
+    } else {
+      return (short)(scanAngle / 0.006);
+    }
+  }
+
+  @Override
+  public double getScanAngleDegrees() {
+    final short scanAngle = this.columns.getScanAngleValue(this.index);
+    if (this.columns.isExtended()) {
+      return scanAngle * 0.006;
+    } else {
+      return scanAngle;
+    }
+  }
+
+  @Override
+  public byte getScanAngleRank() {
+    return (byte)getScanAngleDegrees();
+  }
+
+  @Override
+  public byte getScannerChannel() {
+    return (byte)(this.columns.getClassificationFlags(this.index) >> 4 & 0b11);
+  }
+
+  @Override
+  public short getUserData() {
+    return this.columns.getUserData(this.index);
+  }
+
+  @Override
+  public double getX() {
+    final int x = this.columns.getXInt(this.index);
+    return this.columns.getPointCloud().toDoubleX(x);
+  }
+
+  @Override
+  public int getXInt() {
+    return this.columns.getXInt(this.index);
+  }
+
+  @Override
+  public double getY() {
+    final int y = this.columns.getYInt(this.index);
+    return this.columns.getPointCloud().toDoubleY(y);
+  }
+
+  @Override
+  public int getYInt() {
+    return this.columns.getYInt(this.index);
+  }
+
+  @Override
+  public double getZ() {
+    final int z = this.columns.getZInt(this.index);
+    return this.columns.getPointCloud().toDoubleZ(z);
+  }
+
+  @Override
+  public int getZInt() {
+    return this.columns.getZInt(this.index);
+  }
+
+  private boolean isClassificationBit(final int legacyMask, final int extendedMask) {
+    if (this.columns.isExtended()) {
+      return (this.columns.getClassificationFlags(this.index) & extendedMask) != 0;
+    } else {
+      return (this.columns.getClassificationByte(this.index) & legacyMask) != 0;
+    }
+  }
+
+  @Override
+  public boolean isEdgeOfFlightLine() {
+    if (this.columns.isExtended()) {
+      return (this.columns.getClassificationFlags(this.index) & 0b10000000) != 0;
+    } else {
+      return (this.columns.getReturnByte(this.index) & 0b10000000) != 0;
+    }
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return false;
+  }
+
+  @Override
+  public boolean isKeyPoint() {
+    return isClassificationBit(0b1000000, 0b10);
+  }
+
+  @Override
+  public boolean isScanDirectionFlag() {
+    if (this.columns.isExtended()) {
+      return (this.columns.getClassificationFlags(this.index) & 0b1000000) != 0;
+    } else {
+      return (this.columns.getReturnByte(this.index) & 0b1000000) != 0;
+    }
+  }
+
+  @Override
+  public boolean isSynthetic() {
+    return isClassificationBit(0b100000, 0b1);
+  }
+
+  @Override
+  public boolean isWithheld() {
+    return isClassificationBit(0b10000000, 0b100);
+  }
+
+  /**
+   * Read the point record and copy the values to this point's row in the columns.
+   */
+  @Override
+  public void read(final LasPointCloud pointCloud, final ChannelReader reader) {
+    final LasPoint point = this.columns.getPointFormat().readLasPoint(pointCloud, reader);
+    this.columns.setPoint(this.index, point);
+  }
+
+  @Override
+  public LasPoint setBlue(final int blue) {
+    this.columns.setBlue(this.index, blue);
+    return this;
+  }
+
+  @Override
+  public LasPoint setClassification(final short classification) {
+    if (this.columns.isExtended()) {
+      if (classification < 0 || classification > 255) {
+        throw new IllegalArgumentException("Invalid LAS classificaion " + classification
+          + " not in 0..255 for record format " + getPointFormatId());
+      }
+      this.columns.setClassificationByte(this.index, (byte)classification);
+    } else {
+      if (classification >= 0 && classification <= 31) {
+        byte classificationByte = this.columns.getClassificationByte(this.index);
+        classificationByte &= 0b11100000;
+        classificationByte |= classification & 0b11111;
+        this.columns.setClassificationByte(this.index, classificationByte);
+      } else {
+        throw new IllegalArgumentException(
+          "classification must be in range 0..31: " + classification);
+      }
+    }
+    return this;
+  }
+
+  private void setClassificationBit(final int legacyMask, final int extendedMask,
+    final boolean value) {
+    if (this.columns.isExtended()) {
+      final byte flags = this.columns.getClassificationFlags(this.index);
+      this.columns.setClassificationFlags(this.index,
+        (byte)(value ? flags | extendedMask : flags & ~extendedMask));
+    } else {
+      final byte classificationByte = this.columns.getClassificationByte(this.index);
+      this.columns.setClassificationByte(this.index,
+        (byte)(value ? classificationByte | legacyMask : classificationByte & ~legacyMask));
+    }
+  }
+
+  @Override
+  public LasPoint setClassificationByte(final byte classificationByte) {
+    if (this.columns.isExtended()) {
+      throw new RuntimeException("Not implemented");
+    } else {
+      this.columns.setClassificationByte(this.index, classificationByte);
+    }
+    return this;
+  }
+
+  @Override
+  public LasPoint setClassificationFlags(final byte classificationFlags) {
+    this.columns.setClassificationFlags(this.index, classificationFlags);
+    return this;
+  }
+
+  @Override
+  public LasPoint setEdgeOfFlightLine(final boolean edgeOfFlightLine) {
+    if (this.columns.isExtended()) {
+      final byte flags = this.columns.getClassificationFlags(this.index);
+      this.columns.setClassificationFlags(this.index,
+        (byte)(edgeOfFlightLine ? flags | 0b10000000 : flags & ~0b10000000));
+    } else {
+      final byte returnByte = this.columns.getReturnByte(this.index);
+      this.columns.setReturnByte(this.index,
+        (byte)(edgeOfFlightLine ? returnByte | 0b10000000 : returnByte & ~0b10000000));
+    }
+    return this;
+  }
+
+  @Override
+  public LasPoint setGpsTime(final double gpsTime) {
+    this.columns.setGpsTime(this.index, gpsTime);
+    return this;
+  }
+
+  @Override
+  public LasPoint setGreen(final int green) {
+    this.columns.setGreen(this.index, green);
+    return this;
+  }
+
+  @Override
+  public LasPoint setIntensity(final int intensity) {
+    if (intensity >= 0 && intensity <= 65535) {
+      this.columns.setIntensity(this.index, intensity);
+    } else {
+      throw new IllegalArgumentException("intensity must be in range 0..65535: " + intensity);
+    }
+    return this;
+  }
+
+  @Override
+  public LasPoint setKeyPoint(final boolean keyPoint) {
+    setClassificationBit(0b1000000, 0b10, keyPoint);
+    return this;
+  }
+
+  @Override
+  public LasPoint setNir(final int nir) {
+    this.columns.setNir(this.index, nir);
+    return this;
+  }
+
+  @Override
+  public LasPoint setNumberOfReturns(final byte numberOfReturns) {
+    if (numberOfReturns >= 0 && numberOfReturns <= 15) {
+      final byte returnByte = this.columns.getReturnByte(this.index);
+      if (this.columns.isExtended()) {
+        this.columns.setReturnByte(this.index,
+          (byte)(returnByte & 0b1111 | numberOfReturns << 4));
+      } else {
+        this.columns.setReturnByte(this.index,
+          (byte)(returnByte & 0b11000111 | numberOfReturns << 3));
+      }
+    } else {
+      throw new IllegalArgumentException(
+        "numberOfReturns must be in range 1..15: " + numberOfReturns);
+    }
+    return this;
+  }
+
+  @Override
+  public LasPoint setPointSourceID(final int pointSourceID) {
+    if (pointSourceID >= 1 && pointSourceID <= 65535) {
+      this.columns.setPointSourceID(this.index, pointSourceID);
+    } else {
+      throw new IllegalArgumentException(
+        "pointSourceID must be in range 1..65535: " + pointSourceID);
+    }
+    return this;
+  }
+
+  @Override
+  public LasPoint setRed(final int red) {
+    this.columns.setRed(this.index, red);
+    return this;
+  }
+
+  @Override
+  public LasPoint setReturnByte(final byte returnByte) {
+    if (this.columns.isExtended()) {
+      throw new RuntimeException("Not implemented");
+    } else {
+      this.columns.setReturnByte(this.index, returnByte);
+    }
+    return this;
+  }
+
+  @Override
+  public LasPoint setReturnNumber(final byte returnNumber) {
+    if (returnNumber >= 0 && returnNumber <= 15) {
+      final byte returnByte = this.columns.getReturnByte(this.index);
+      if (this.columns.isExtended()) {
+        this.columns.setReturnByte(this.index, (byte)(returnByte & 0b11110000 | returnNumber));
+      } else {
+        this.columns.setReturnByte(this.index, (byte)(returnByte & 0b11111000 | returnNumber));
+      }
+    } else {
+      throw new IllegalArgumentException("returnNumber must be in range 1..15: " + returnNumber);
+    }
+    return this;
+  }
+
+  @Override
+  public LasPoint setScanAngle(final short scanAngle) {
+    if (this.columns.isExtended()) {
+      this.columns.setScanAngleValue(this.index, scanAngle);
+    } else {
+      final double degrees = scanAngle * 0.006;
+      this.columns.setScanAngleValue(this.index, (byte)degrees);
+    }
+    return this;
+  }
+
+  @Override
+  public LasPoint setScanAngleRank(final byte scanAngleRank) {
+    if (this.columns.isExtended()) {
+      this.columns.setScanAngleValue(this.index, (short)(scanAngleRank / 0.006));
+    } else {
+      this.columns.setScanAngleValue(this.index, scanAngleRank);
+    }
+    return this;
+  }
+
+  @Override
+  public LasPoint setScanDirectionFlag(final boolean scanDirectionFlag) {
+    if (this.columns.isExtended()) {
+      final byte flags = this.columns.getClassificationFlags(this.index);
+      this.columns.setClassificationFlags(this.index,
+        (byte)(scanDirectionFlag ? flags | 0b1000000 : flags & ~0b1000000));
+    } else {
+      final byte returnByte = this.columns.getReturnByte(this.index);
+      this.columns.setReturnByte(this.index,
+        (byte)(scanDirectionFlag ? returnByte | 0b1000000 : returnByte & ~0b1000000));
+    }
+    return this;
+  }
+
+  @Override
+  public LasPoint setScannerChannel(final byte scannerChannel) {
+    final byte flags = this.columns.getClassificationFlags(this.index);
+    this.columns.setClassificationFlags(this.index,
+      (byte)(flags & 0b11001111 | (scannerChannel & 0b11) << 4));
+    return this;
+  }
+
+  @Override
+  public LasPoint setSynthetic(final boolean synthetic) {
+    setClassificationBit(0b100000, 0b1, synthetic);
+    return this;
+  }
+
+  @Override
+  public LasPoint setUserData(final short userData) {
+    this.columns.setUserData(this.index, userData);
+    return this;
+  }
+
+  @Override
+  public LasPoint setWithheld(final boolean withheld) {
+    setClassificationBit(0b10000000, 0b100, withheld);
+    return this;
+  }
+
+  @Override
+  public LasPointColumnsPoint setXInt(final int x) {
+    this.columns.setXYZ(this.index, x, getYInt(), getZInt());
+    return this;
+  }
+
+  @Override
+  public void setXYZ(final int x, final int y, final int z) {
+    this.columns.setXYZ(this.index, x, y, z);
+  }
+
+  @Override
+  public LasPointColumnsPoint setYInt(final int y) {
+    this.columns.setXYZ(this.index, getXInt(), y, getZInt());
+    return this;
+  }
+
+  @Override
+  public LasPointColumnsPoint setZInt(final int z) {
+    this.columns.setXYZ(this.index, getXInt(), getYInt(), z);
+    return this;
+  }
+
+  @Override
+  public JsonObject toMap() {
+    final JsonObject map = new JsonObjectHash();
+    addToMap(map, "x", getX());
+    addToMap(map, "y", getY());
+    addToMap(map, "z", getZ());
+    addToMap(map, "intensity", getIntensity());
+    addToMap(map, "returnNumber", getReturnNumber());
+    addToMap(map, "numberOfReturns", getNumberOfReturns());
+    addToMap(map, "classification", getClassification());
+    addToMap(map, "pointSourceID", getPointSourceID());
+    return map;
+  }
+
+  @Override
+  public void writeLasPoint(final ChannelWriter out) {
+    final LasPointColumns columns = this.columns;
+    final int index = this.index;
+    out.putInt(columns.getXInt(index));
+    out.putInt(columns.getYInt(index));
+    out.putInt(columns.getZInt(index));
+    out.putUnsignedShort(columns.getIntensity(index));
+    out.putByte(columns.getReturnByte(index));
+    final int pointFormatId = getPointFormatId();
+    if (columns.isExtended()) {
+      out.putByte(columns.getClassificationFlags(index));
+      out.putUnsignedByte(columns.getClassification(index));
+      out.putUnsignedByte(columns.getUserData(index));
+      out.putShort(columns.getScanAngleValue(index));
+      out.putUnsignedShort(columns.getPointSourceID(index));
+      out.putDouble(columns.getGpsTime(index));
+      if (pointFormatId == 7 || pointFormatId == 8) {
+        out.putUnsignedShort(columns.getRed(index));
+        out.putUnsignedShort(columns.getGreen(index));
+        out.putUnsignedShort(columns.getBlue(index));
+      }
+      if (pointFormatId == 8) {
+        out.putUnsignedShort(columns.getNir(index));
+      }
+    } else {
+      out.putByte(columns.getClassificationByte(index));
+      out.putByte((byte)columns.getScanAngleValue(index));
+      out.putUnsignedByte(columns.getUserData(index));
+      out.putUnsignedShort(columns.getPointSourceID(index));
+      if (pointFormatId == 2 || pointFormatId == 3) {
+        out.putUnsignedShort(columns.getRed(index));
+        out.putUnsignedShort(columns.getGreen(index));
+        out.putUnsignedShort(columns.getBlue(index));
+      }
+      if (pointFormatId == 1 || pointFormatId == 3) {
+        out.putDouble(columns.getGpsTime(index));
+      }
+    }
+  }
+}
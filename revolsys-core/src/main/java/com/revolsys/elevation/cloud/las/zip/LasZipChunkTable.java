@@ -0,0 +1,104 @@
+package com.revolsys.elevation.cloud.las.zip;
+
+import com.revolsys.io.channels.ChannelReader;
+import com.revolsys.math.arithmeticcoding.ArithmeticCodingInteger;
+import com.revolsys.math.arithmeticcoding.ArithmeticDecoder;
+
+/**
+ * The table of chunk start offsets and point counts written at the end of a chunked LAZ file.
+ * With the chunk table each chunk can be read and decompressed independently.
+ */
+public class LasZipChunkTable {
+
+  /**
+   * Read the chunk table. The reader must be positioned at the 8 byte chunk table offset that
+   * follows the LAS header and variable length records. The reader is left positioned at the
+   * start of the first chunk.
+   *
+   * @return The chunk table or null if the reader isn't seekable or the file has no chunk table.
+   */
+  public static LasZipChunkTable read(final LasZipHeader lasZipHeader, final ChannelReader reader,
+    final long pointCount) {
+    if (!reader.isSeekable()) {
+      return null;
+    }
+    final long chunkSize = lasZipHeader.getChunkSize();
+    final boolean variableChunkSize = chunkSize == Integer.MAX_VALUE || chunkSize == 0xFFFFFFFFL;
+
+    long chunkTableStart = reader.getLong();
+    final long chunksStart = reader.position();
+    if (chunkTableStart + 8 == chunksStart) {
+      // compressor was interrupted before writing the chunk table
+      return null;
+    }
+    if (chunkTableStart == -1) {
+      reader.seekEnd(8);
+      chunkTableStart = reader.getLong();
+    }
+    reader.seek(chunkTableStart);
+    final int version = reader.getInt();
+    if (version != 0) {
+      throw new RuntimeException("Unsupported chunk version: " + version);
+    }
+    final int chunkCount = reader.getInt();
+    final long[] chunkStarts = new long[chunkCount + 1];
+    final long[] chunkTotals = new long[chunkCount + 1];
+    chunkStarts[0] = chunksStart;
+    if (chunkCount > 0) {
+      final ArithmeticDecoder decoder = new ArithmeticDecoder();
+      decoder.init(reader);
+      final ArithmeticCodingInteger ic = new ArithmeticCodingInteger(decoder, 32, 2);
+      ic.initDecompressor();
+      for (int i = 1; i <= chunkCount; i++) {
+        if (variableChunkSize) {
+          chunkTotals[i] = ic.decompress(i > 1 ? (int)chunkTotals[i - 1] : 0, 0);
+        }
+        chunkStarts[i] = ic.decompress(i > 1 ? (int)chunkStarts[i - 1] : 0, 1);
+      }
+      for (int i = 1; i <= chunkCount; i++) {
+        chunkTotals[i] += chunkTotals[i - 1];
+        chunkStarts[i] += chunkStarts[i - 1];
+        if (chunkStarts[i] <= chunkStarts[i - 1]) {
+          throw new RuntimeException("Chunk corrupt");
+        }
+      }
+    }
+    reader.seek(chunksStart);
+
+    final int[] chunkPointCounts = new int[chunkCount];
+    for (int i = 0; i < chunkCount; i++) {
+      if (variableChunkSize) {
+        chunkPointCounts[i] = (int)(chunkTotals[i + 1] - chunkTotals[i]);
+      } else {
+        final long remaining = pointCount - i * chunkSize;
+        chunkPointCounts[i] = (int)Math.max(0, Math.min(chunkSize, remaining));
+      }
+    }
+    return new LasZipChunkTable(chunkStarts, chunkPointCounts);
+  }
+
+  private final long[] chunkStarts;
+
+  private final int[] chunkPointCounts;
+
+  public LasZipChunkTable(final long[] chunkStarts, final int[] chunkPointCounts) {
+    this.chunkStarts = chunkStarts;
+    this.chunkPointCounts = chunkPointCounts;
+  }
+
+  public int getChunkByteCount(final int chunkIndex) {
+    return (int)(this.chunkStarts[chunkIndex + 1] - this.chunkStarts[chunkIndex]);
+  }
+
+  public int getChunkCount() {
+    return this.chunkPointCounts.length;
+  }
+
+  public int getChunkPointCount(final int chunkIndex) {
+    return this.chunkPointCounts[chunkIndex];
+  }
+
+  public long getChunkStart(final int chunkIndex) {
+    return this.chunkStarts[chunkIndex];
+  }
+}
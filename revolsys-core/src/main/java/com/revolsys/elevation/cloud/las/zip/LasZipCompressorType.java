@@ -43,6 +43,10 @@ public enum LasZipCompressorType {
     return this.id;
   }
 
+  public boolean isChunked() {
+    return this != POINTWISE;
+  }
+
   public LasPointCloudIterator newIterator(final LasPointCloud pointCloud,
     final ChannelReader reader) {
     return this.iteratorConstructor.apply(pointCloud, reader);
@@ -0,0 +1,180 @@
+package com.revolsys.elevation.cloud.las.zip;
+
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.jeometry.common.exception.Exceptions;
+
+import com.revolsys.elevation.cloud.las.LasPointCloud;
+import com.revolsys.elevation.cloud.las.LasPointCloudIterator;
+import com.revolsys.elevation.cloud.las.pointformat.LasPoint;
+import com.revolsys.io.channels.ChannelReader;
+import com.revolsys.math.arithmeticcoding.ArithmeticDecoder;
+
+/**
+ * Iterate over the points in a chunked LAZ file, decompressing the chunks in parallel. The
+ * compressed bytes for each chunk are read on the calling thread and decompressed on a pool of
+ * worker threads. At most readAheadChunkCount chunks are read ahead of the chunk being returned.
+ *
+ * <p>If ordered is true the points are returned in file order, otherwise the chunks are returned
+ * in the order they finish decompressing.</p>
+ */
+public class LasZipParallelChunkedIterator extends LasPointCloudIterator {
+
+  private final LasZipChunkTable chunkTable;
+
+  private final ExecutorCompletionService<LasPoint[]> completionService;
+
+  private LasPoint[] currentPoints;
+
+  private int currentPointIndex;
+
+  private final ThreadPoolExecutor executor;
+
+  private final LasZipHeader lasZipHeader;
+
+  private final boolean layered;
+
+  private int nextChunkIndex = 0;
+
+  private final boolean ordered;
+
+  private final Deque<Future<LasPoint[]>> pendingChunks = new ArrayDeque<>();
+
+  private final int readAheadChunkCount;
+
+  public LasZipParallelChunkedIterator(final LasPointCloud pointCloud, final ChannelReader reader,
+    final LasZipChunkTable chunkTable, final int threadCount, final int readAheadChunkCount,
+    final boolean ordered) {
+    super(pointCloud, reader);
+    this.lasZipHeader = LasZipHeader.getLasZipHeader(pointCloud);
+    this.layered = this.lasZipHeader.getCompressor() == LasZipCompressorType.LAYERED_CHUNKED;
+    this.chunkTable = chunkTable;
+    this.ordered = ordered;
+    this.readAheadChunkCount = Math.max(threadCount, readAheadChunkCount);
+    this.executor = new ThreadPoolExecutor(threadCount, threadCount, 1, TimeUnit.SECONDS,
+      new LinkedBlockingQueue<>(), runnable -> {
+        final Thread thread = new Thread(runnable, "LAZ decompress " + pointCloud.getResource());
+        thread.setDaemon(true);
+        return thread;
+      });
+    this.executor.allowCoreThreadTimeOut(true);
+    this.completionService = new ExecutorCompletionService<>(this.executor);
+  }
+
+  @Override
+  public void close() {
+    super.close();
+    for (final Future<LasPoint[]> future : this.pendingChunks) {
+      future.cancel(true);
+    }
+    this.pendingChunks.clear();
+    this.executor.shutdownNow();
+    this.currentPoints = null;
+  }
+
+  private LasPoint[] decompressChunk(final byte[] bytes, final int pointCount) {
+    final ChannelReader reader = new ChannelReader();
+    reader.setByteOrder(ByteOrder.LITTLE_ENDIAN);
+    reader.init(bytes);
+
+    final ArithmeticDecoder decoder = new ArithmeticDecoder();
+    final LasZipItemCodec[] codecs = this.lasZipHeader.newLazCodecs(decoder);
+    final LasPoint[] points = new LasPoint[pointCount];
+    if (pointCount > 0) {
+      int context = 0;
+      final LasPoint firstPoint = this.pointFormat.readLasPoint(this.pointCloud, reader);
+      if (this.layered) {
+        decoder.init(reader, false);
+        reader.getInt(); // count unused
+        for (final LasZipItemCodec codec : codecs) {
+          codec.readChunkSizes();
+        }
+        for (final LasZipItemCodec codec : codecs) {
+          context = codec.init(firstPoint, context);
+        }
+      } else {
+        for (final LasZipItemCodec codec : codecs) {
+          context = codec.init(firstPoint, context);
+        }
+        decoder.init(reader);
+      }
+      points[0] = firstPoint;
+      for (int i = 1; i < pointCount; i++) {
+        final LasPoint point = this.pointFormat.newLasPoint(this.pointCloud);
+        for (final LasZipItemCodec codec : codecs) {
+          context = codec.read(point, context);
+        }
+        points[i] = point;
+      }
+    }
+    return points;
+  }
+
+  private LasPoint[] nextChunk() throws InterruptedException, ExecutionException {
+    submitChunks();
+    final Future<LasPoint[]> future;
+    if (this.ordered) {
+      future = this.pendingChunks.removeFirst();
+    } else {
+      future = this.completionService.take();
+      this.pendingChunks.remove(future);
+    }
+    return future.get();
+  }
+
+  @Override
+  protected LasPoint readNext() {
+    try {
+      while (this.currentPoints == null || this.currentPointIndex >= this.currentPoints.length) {
+        this.currentPoints = nextChunk();
+        this.currentPointIndex = 0;
+      }
+      return this.currentPoints[this.currentPointIndex++];
+    } catch (final InterruptedException e) {
+      close();
+      Thread.currentThread().interrupt();
+      throw Exceptions.wrap("Interrupted decompressing: " + this.pointCloud.getResource(), e);
+    } catch (final ExecutionException e) {
+      close();
+      throw Exceptions.wrap("Error decompressing: " + this.pointCloud.getResource(), e.getCause());
+    } catch (final RuntimeException e) {
+      close();
+      throw e;
+    }
+  }
+
+  private void submitChunks() {
+    final LasZipChunkTable chunkTable = this.chunkTable;
+    final int chunkCount = chunkTable.getChunkCount();
+    while (this.pendingChunks.size() < this.readAheadChunkCount
+      && this.nextChunkIndex < chunkCount) {
+      final int chunkIndex = this.nextChunkIndex++;
+      final int pointCount = chunkTable.getChunkPointCount(chunkIndex);
+      final long chunkStart = chunkTable.getChunkStart(chunkIndex);
+      final int byteCount = chunkTable.getChunkByteCount(chunkIndex);
+      this.reader.seek(chunkStart);
+      final byte[] bytes = this.reader.getBytes(byteCount);
+      final Callable<LasPoint[]> task = () -> decompressChunk(bytes, pointCount);
+      final Future<LasPoint[]> future;
+      if (this.ordered) {
+        future = this.executor.submit(task);
+      } else {
+        future = this.completionService.submit(task);
+      }
+      this.pendingChunks.addLast(future);
+    }
+    if (this.pendingChunks.isEmpty()) {
+      throw new IllegalStateException("No more chunks in " + this.pointCloud.getResource()
+        + " after " + this.index + " of " + this.pointCount + " points");
+    }
+  }
+}
@@ -1,21 +1,15 @@
 package com.revolsys.elevation.gridded;
 
-import java.util.Map;
-
-import org.jeometry.common.collection.map.LruMap;
-
 import com.revolsys.geometry.model.GeometryFactory;
 import com.revolsys.grid.AbstractGrid;
-import com.revolsys.util.IntPair;
 
 public abstract class AbstractTiledGriddedDigitalElevationModel extends AbstractGrid
   implements GriddedElevationModel {
 
   protected int gridTileSize;
 
-  private final LruMap<IntPair, GriddedElevationModel> models = new LruMap<>(5000);
-
-  private final IntPair getKey = new IntPair();
+  private final GriddedElevationModelTileCache models = new GriddedElevationModelTileCache(
+    this::loadModel, this::getModelByteCount, this::closeModel);
 
   private final double tileWidth;
 
@@ -31,9 +25,7 @@ public abstract class AbstractTiledGriddedDigitalElevationModel extends Abstract
 
   @Override
   public void clear() {
-    synchronized (this.models) {
-      this.models.clear();
-    }
+    this.models.clear();
   }
 
   @Override
@@ -41,9 +33,7 @@ public abstract class AbstractTiledGriddedDigitalElevationModel extends Abstract
     try {
       closeDo();
     } finally {
-      synchronized (this.models) {
-        this.models.clear();
-      }
+      this.models.clear();
     }
   }
 
@@ -51,28 +41,38 @@ public abstract class AbstractTiledGriddedDigitalElevationModel extends Abstract
 
   }
 
+  /**
+   * Close a tile model that was removed from the tile cache.
+   *
+   * @param model The tile model.
+   */
+  protected void closeModel(final GriddedElevationModel model) {
+    model.close();
+  }
+
   public int getGridTileSize() {
     return this.gridTileSize;
   }
 
   protected GriddedElevationModel getModel(final int gridX, final int gridY) {
-    GriddedElevationModel model;
-    final Map<IntPair, GriddedElevationModel> models = this.models;
-    final int tileIndexX = (int)Math.floor(gridX / this.tileWidth);
-    final int tileIndexY = (int)Math.floor(gridY / this.tileHeight);
-    synchronized (models) {
-      final IntPair getKey = this.getKey;
-      getKey.setValues(tileIndexX, tileIndexY);
-
-      model = models.get(getKey);
-      if (model == null) {
-        final double tileX = tileIndexX * this.tileWidth;
-        final double tileY = tileIndexY * this.tileHeight;
-        model = newModel(tileX, tileY);
-        models.put(getKey.clone(), model);
-      }
-    }
-    return model;
+    final int tileIndexX = Math.floorDiv(gridX, this.gridTileSize);
+    final int tileIndexY = Math.floorDiv(gridY, this.gridTileSize);
+    return this.models.getTile(tileIndexX, tileIndexY);
+  }
+
+  /**
+   * Get the number of bytes of memory used by a tile model. Used to limit the size of the tile
+   * cache.
+   *
+   * @param model The tile model.
+   * @return The number of bytes.
+   */
+  protected long getModelByteCount(final GriddedElevationModel model) {
+    return (long)model.getGridWidth() * model.getGridHeight() * 4;
+  }
+
+  public GriddedElevationModelTileCache getTileCache() {
+    return this.models;
   }
 
   @Override
@@ -82,8 +82,8 @@ public abstract class AbstractTiledGriddedDigitalElevationModel extends Abstract
       return Double.NaN;
     } else {
       final int tileSize = this.gridTileSize;
-      final int gridCellX = gridX % tileSize;
-      final int gridCellY = gridY % tileSize;
+      final int gridCellX = Math.floorMod(gridX, tileSize);
+      final int gridCellY = Math.floorMod(gridY, tileSize);
       return model.getValue(gridCellX, gridCellY);
     }
   }
@@ -98,6 +98,12 @@ public abstract class AbstractTiledGriddedDigitalElevationModel extends Abstract
     return false;
   }
 
+  private GriddedElevationModel loadModel(final int tileIndexX, final int tileIndexY) {
+    final double tileX = tileIndexX * this.tileWidth;
+    final double tileY = tileIndexY * this.tileHeight;
+    return newModel(tileX, tileY);
+  }
+
   @Override
   public GriddedElevationModel newGrid(final GeometryFactory geometryFactory, final double x,
     final double y, final int width, final int height, final double gridCellSize) {
@@ -106,8 +112,19 @@ public abstract class AbstractTiledGriddedDigitalElevationModel extends Abstract
 
   protected abstract GriddedElevationModel newModel(double tileX, double tileY);
 
+  /**
+   * Set the maximum number of bytes of tiles to cache.
+   *
+   * @param cacheByteCount The number of bytes.
+   * @return this
+   */
+  public AbstractTiledGriddedDigitalElevationModel setCacheByteCount(final long cacheByteCount) {
+    this.models.setMaxByteCount(cacheByteCount);
+    return this;
+  }
+
   public AbstractTiledGriddedDigitalElevationModel setCacheSize(final int cacheSize) {
-    this.models.setMaxSize(cacheSize);
+    this.models.setMaxTileCount(cacheSize);
     return this;
   }
 
@@ -0,0 +1,280 @@
+package com.revolsys.elevation.gridded;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+import org.jeometry.common.exception.Exceptions;
+
+/**
+ * A thread safe cache of the tile models for a tiled gridded elevation model. Each tile is loaded
+ * once, threads requesting a tile that is being loaded wait for that load. Threads requesting
+ * other tiles are not blocked.
+ *
+ * <p>The cache is limited by the total bytes of the cached tiles and by the number of tiles. When
+ * either limit is exceeded the least recently used tiles are removed. Removed tiles are passed to
+ * the tile closer to release any resources such as open files.</p>
+ */
+public class GriddedElevationModelTileCache {
+
+  private static class EvictCandidate {
+    private final long key;
+
+    private final TileEntry entry;
+
+    private final long lastAccess;
+
+    private EvictCandidate(final long key, final TileEntry entry) {
+      this.key = key;
+      this.entry = entry;
+      this.lastAccess = entry.lastAccess;
+    }
+  }
+
+  @FunctionalInterface
+  public interface TileLoader {
+    GriddedElevationModel loadTile(int tileIndexX, int tileIndexY);
+  }
+
+  private static class TileEntry {
+    private final CompletableFuture<GriddedElevationModel> future = new CompletableFuture<>();
+
+    private volatile long lastAccess;
+
+    private long byteCount;
+
+    private GriddedElevationModel model;
+
+    private boolean removed;
+  }
+
+  private static long toKey(final int tileIndexX, final int tileIndexY) {
+    return (long)tileIndexX << 32 | tileIndexY & 0xFFFFFFFFL;
+  }
+
+  private final AtomicLong accessClock = new AtomicLong();
+
+  private final AtomicLong byteCount = new AtomicLong();
+
+  private final LongAdder evictionCount = new LongAdder();
+
+  private final ReentrantLock evictLock = new ReentrantLock();
+
+  private final LongAdder hitCount = new LongAdder();
+
+  private final LongAdder loadCount = new LongAdder();
+
+  private final TileLoader loader;
+
+  private final LongAdder loadTimeNanos = new LongAdder();
+
+  private volatile long maxByteCount = Runtime.getRuntime().maxMemory() / 4;
+
+  private volatile int maxTileCount = 5000;
+
+  private final LongAdder missCount = new LongAdder();
+
+  private final ToLongFunction<GriddedElevationModel> tileByteCounter;
+
+  private final Consumer<GriddedElevationModel> tileCloser;
+
+  private final ConcurrentHashMap<Long, TileEntry> tiles = new ConcurrentHashMap<>();
+
+  public GriddedElevationModelTileCache(final TileLoader loader,
+    final ToLongFunction<GriddedElevationModel> tileByteCounter) {
+    this(loader, tileByteCounter, GriddedElevationModel::close);
+  }
+
+  public GriddedElevationModelTileCache(final TileLoader loader,
+    final ToLongFunction<GriddedElevationModel> tileByteCounter,
+    final Consumer<GriddedElevationModel> tileCloser) {
+    this.loader = loader;
+    this.tileByteCounter = tileByteCounter;
+    this.tileCloser = tileCloser;
+  }
+
+  public void clear() {
+    for (final Entry<Long, TileEntry> entry : this.tiles.entrySet()) {
+      remove(entry.getKey(), entry.getValue());
+    }
+  }
+
+  private void evictIfRequired() {
+    if (isOverLimit(this.maxByteCount, this.maxTileCount) && this.evictLock.tryLock()) {
+      try {
+        final List<EvictCandidate> candidates = new ArrayList<>(this.tiles.size());
+        for (final Entry<Long, TileEntry> entry : this.tiles.entrySet()) {
+          final TileEntry tileEntry = entry.getValue();
+          if (tileEntry.future.isDone()) {
+            candidates.add(new EvictCandidate(entry.getKey(), tileEntry));
+          }
+        }
+        candidates.sort(Comparator.comparingLong(candidate -> candidate.lastAccess));
+        // Evict to below 90% of the limits so eviction isn't done on every load
+        final long targetByteCount = this.maxByteCount / 10 * 9;
+        final int targetTileCount = (int)(this.maxTileCount / 10L * 9);
+        for (final EvictCandidate candidate : candidates) {
+          if (!isOverLimit(targetByteCount, targetTileCount)) {
+            break;
+          }
+          if (remove(candidate.key, candidate.entry)) {
+            this.evictionCount.increment();
+          }
+        }
+      } finally {
+        this.evictLock.unlock();
+      }
+    }
+  }
+
+  public long getByteCount() {
+    return this.byteCount.get();
+  }
+
+  public long getEvictionCount() {
+    return this.evictionCount.sum();
+  }
+
+  public long getHitCount() {
+    return this.hitCount.sum();
+  }
+
+  public long getLoadCount() {
+    return this.loadCount.sum();
+  }
+
+  /**
+   * @return The total time spent loading tiles in nanoseconds.
+   */
+  public long getLoadTimeNanos() {
+    return this.loadTimeNanos.sum();
+  }
+
+  public long getMaxByteCount() {
+    return this.maxByteCount;
+  }
+
+  public int getMaxTileCount() {
+    return this.maxTileCount;
+  }
+
+  public long getMissCount() {
+    return this.missCount.sum();
+  }
+
+  public GriddedElevationModel getTile(final int tileIndexX, final int tileIndexY) {
+    final Long key = toKey(tileIndexX, tileIndexY);
+    TileEntry entry = this.tiles.get(key);
+    if (entry == null) {
+      final TileEntry newEntry = new TileEntry();
+      entry = this.tiles.putIfAbsent(key, newEntry);
+      if (entry == null) {
+        this.missCount.increment();
+        return loadTile(key, newEntry, tileIndexX, tileIndexY);
+      }
+    }
+    this.hitCount.increment();
+    final long time = this.accessClock.get();
+    if (entry.lastAccess != time) {
+      entry.lastAccess = time;
+    }
+    try {
+      return entry.future.join();
+    } catch (final CompletionException e) {
+      throw Exceptions.wrap(e.getCause());
+    }
+  }
+
+  public int getTileCount() {
+    return this.tiles.size();
+  }
+
+  private void closeTile(final GriddedElevationModel model) {
+    if (model != null) {
+      this.tileCloser.accept(model);
+    }
+  }
+
+  private boolean isOverLimit(final long maxByteCount, final int maxTileCount) {
+    return this.byteCount.get() > maxByteCount || this.tiles.size() > maxTileCount;
+  }
+
+  private GriddedElevationModel loadTile(final long key, final TileEntry entry,
+    final int tileIndexX, final int tileIndexY) {
+    entry.lastAccess = this.accessClock.incrementAndGet();
+    final long startTime = System.nanoTime();
+    try {
+      final GriddedElevationModel model = this.loader.loadTile(tileIndexX, tileIndexY);
+      long tileByteCount = 0;
+      if (model != null) {
+        tileByteCount = this.tileByteCounter.applyAsLong(model);
+      }
+      final boolean removed;
+      synchronized (entry) {
+        removed = entry.removed;
+        if (!removed) {
+          entry.model = model;
+          entry.byteCount = tileByteCount;
+          this.byteCount.addAndGet(tileByteCount);
+        }
+      }
+      entry.future.complete(model);
+      if (removed) {
+        // Removed by clear() while loading
+        closeTile(model);
+      }
+      return model;
+    } catch (final Throwable e) {
+      remove(key, entry);
+      entry.future.completeExceptionally(e);
+      throw e;
+    } finally {
+      this.loadTimeNanos.add(System.nanoTime() - startTime);
+      this.loadCount.increment();
+      evictIfRequired();
+    }
+  }
+
+  private boolean remove(final long key, final TileEntry entry) {
+    if (this.tiles.remove(key, entry)) {
+      final GriddedElevationModel model;
+      synchronized (entry) {
+        entry.removed = true;
+        this.byteCount.addAndGet(-entry.byteCount);
+        entry.byteCount = 0;
+        model = entry.model;
+        entry.model = null;
+      }
+      closeTile(model);
+      return true;
+    } else {
+      return false;
+    }
+  }
+
+  public void setMaxByteCount(final long maxByteCount) {
+    this.maxByteCount = maxByteCount;
+    evictIfRequired();
+  }
+
+  public void setMaxTileCount(final int maxTileCount) {
+    this.maxTileCount = maxTileCount;
+    evictIfRequired();
+  }
+
+  @Override
+  public String toString() {
+    return "tiles=" + getTileCount() + ", bytes=" + getByteCount() + ", hits=" + getHitCount()
+      + ", misses=" + getMissCount() + ", loadTimeMs=" + getLoadTimeNanos() / 1000000
+      + ", evictions=" + getEvictionCount();
+  }
+}
@@ -1,5 +1,9 @@
 package com.revolsys.elevation.gridded.rasterizer;
 
+import java.awt.image.DataBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 import com.revolsys.elevation.gridded.GriddedElevationModel;
 import com.revolsys.geometry.model.BoundingBox;
 import com.revolsys.properties.BaseObjectWithPropertiesAndChange;
@@ -8,6 +12,39 @@ import com.revolsys.record.io.format.json.JsonObject;
 public abstract class AbstractGriddedElevationModelRasterizer
   extends BaseObjectWithPropertiesAndChange implements GriddedElevationModelRasterizer {
 
+  /**
+   * Split the rows into strips of at most stripHeight rows, each strip is rasterized on a fork
+   * join worker thread.
+   */
+  private class RasterizeStripsTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final DataBuffer imageBuffer;
+
+    private final int minGridY;
+
+    private final int maxGridY;
+
+    private RasterizeStripsTask(final DataBuffer imageBuffer, final int minGridY,
+      final int maxGridY) {
+      this.imageBuffer = imageBuffer;
+      this.minGridY = minGridY;
+      this.maxGridY = maxGridY;
+    }
+
+    @Override
+    protected void compute() {
+      final int rowCount = this.maxGridY - this.minGridY;
+      if (rowCount <= AbstractGriddedElevationModelRasterizer.this.stripHeight) {
+        rasterizeRows(this.imageBuffer, this.minGridY, this.maxGridY);
+      } else {
+        final int midGridY = this.minGridY + rowCount / 2;
+        invokeAll(new RasterizeStripsTask(this.imageBuffer, this.minGridY, midGridY),
+          new RasterizeStripsTask(this.imageBuffer, midGridY, this.maxGridY));
+      }
+    }
+  }
+
   protected GriddedElevationModel elevationModel;
 
   protected double maxZ = Double.NaN;
@@ -24,6 +61,10 @@ public abstract class AbstractGriddedElevationModelRasterizer
 
   protected double rangeZ;
 
+  private boolean parallel = false;
+
+  private int stripHeight = 64;
+
   public AbstractGriddedElevationModelRasterizer(final String type, final String iconName) {
     this.type = type;
     this.iconName = iconName;
@@ -68,11 +109,29 @@ public abstract class AbstractGriddedElevationModelRasterizer
     return this.rangeZ;
   }
 
+  public int getStripHeight() {
+    return this.stripHeight;
+  }
+
   @Override
   public int getWidth() {
     return this.width;
   }
 
+  public boolean isParallel() {
+    return this.parallel;
+  }
+
+  @Override
+  public void rasterize(final DataBuffer imageBuffer) {
+    final int height = this.height;
+    if (this.parallel && height > this.stripHeight) {
+      ForkJoinPool.commonPool().invoke(new RasterizeStripsTask(imageBuffer, 0, height));
+    } else {
+      rasterizeRows(imageBuffer, 0, height);
+    }
+  }
+
   @Override
   public void setElevationModel(final GriddedElevationModel elevationModel) {
     this.elevationModel = elevationModel;
@@ -99,6 +158,20 @@ public abstract class AbstractGriddedElevationModelRasterizer
     updateValues();
   }
 
+  /**
+   * Rasterize strips of rows in parallel using the common fork join pool. The elevation model
+   * must support concurrent reads.
+   *
+   * @param parallel True if the rows are rasterized in parallel.
+   */
+  public void setParallel(final boolean parallel) {
+    this.parallel = parallel;
+  }
+
+  public void setStripHeight(final int stripHeight) {
+    this.stripHeight = Math.max(1, stripHeight);
+  }
+
   @Override
   public JsonObject toMap() {
     final JsonObject map = newTypeMap(this.type);
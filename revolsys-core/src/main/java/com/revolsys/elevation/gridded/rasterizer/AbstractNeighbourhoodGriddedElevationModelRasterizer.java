@@ -0,0 +1,185 @@
+package com.revolsys.elevation.gridded.rasterizer;
+
+import java.awt.image.DataBuffer;
+import java.util.Arrays;
+
+import com.revolsys.elevation.gridded.GriddedElevationModel;
+import com.revolsys.grid.Grid;
+
+/**
+ * A rasterizer where the colour for a cell is calculated from the 3x3 neighbourhood of cells.
+ *
+ * <pre>
+ * a b c
+ * d e f
+ * g h i
+ * </pre>
+ *
+ * Missing neighbours are extrapolated from the opposite neighbour.
+ */
+public abstract class AbstractNeighbourhoodGriddedElevationModelRasterizer
+  extends AbstractGriddedElevationModelRasterizer {
+
+  public AbstractNeighbourhoodGriddedElevationModelRasterizer(final String type,
+    final String iconName) {
+    super(type, iconName);
+  }
+
+  protected abstract int getNeighbourhoodValue(double a, double b, double c, double d, double f,
+    double g, double h, double i);
+
+  private int getValue(double a, double b, double c, double d, final double e, double f,
+    double g, double h, double i) {
+    if (!Double.isFinite(d)) {
+      if (Double.isFinite(f)) {
+        d = e - (f - e);
+      } else {
+        d = e;
+        f = e;
+      }
+    } else if (!Double.isFinite(f)) {
+      f = e;
+    }
+    if (!Double.isFinite(a)) {
+      if (Double.isFinite(g)) {
+        a = d - (g - d);
+      } else {
+        a = d;
+      }
+    }
+    if (!Double.isFinite(b)) {
+      if (Double.isFinite(h)) {
+        b = e - (h - e);
+      } else {
+        b = e;
+      }
+    }
+    if (!Double.isFinite(c)) {
+      if (Double.isFinite(i)) {
+        c = f - (i - f);
+      } else {
+        c = f;
+      }
+    }
+    if (!Double.isFinite(g)) {
+      g = d - (a - d);
+    }
+    if (!Double.isFinite(h)) {
+      h = e - (b - e);
+    }
+    if (!Double.isFinite(i)) {
+      i = f - (c - f);
+    }
+    return getNeighbourhoodValue(a, b, c, d, f, g, h, i);
+  }
+
+  @Override
+  public int getValue(final int gridX, final int gridY) {
+    final GriddedElevationModel elevationModel = this.elevationModel;
+    final int width = this.width;
+    final int height = this.height;
+
+    double a = Double.NaN;
+    double b = Double.NaN;
+    double c = Double.NaN;
+    double d = Double.NaN;
+    final double e = elevationModel.getValueFast(gridX, gridY);
+    if (Double.isFinite(e)) {
+      double f = Double.NaN;
+      double g = Double.NaN;
+      double h = Double.NaN;
+      double i = Double.NaN;
+
+      final boolean firstX = gridX == 0;
+      final boolean firstY = gridY == 0;
+      final boolean lastX = gridX == width - 1;
+      final boolean lastY = gridY == height - 1;
+      final int gridX0 = gridX - 1;
+      final int gridX2 = gridX + 1;
+      if (!lastY) {
+        final int gridY2 = gridY + 1;
+        if (!firstX) {
+          a = elevationModel.getValueFast(gridX0, gridY2);
+        }
+        b = elevationModel.getValueFast(gridX, gridY2);
+        if (!lastX) {
+          c = elevationModel.getValueFast(gridX2, gridY2);
+        }
+      }
+      if (!firstX) {
+        d = elevationModel.getValueFast(gridX0, gridY);
+      }
+      if (!lastX) {
+        f = elevationModel.getValueFast(gridX2, gridY);
+      }
+      if (!firstY) {
+        final int gridY0 = gridY - 1;
+        if (!firstX) {
+          g = elevationModel.getValueFast(gridX0, gridY0);
+        }
+        h = elevationModel.getValueFast(gridX, gridY0);
+        if (!lastX) {
+          i = elevationModel.getValueFast(gridX2, gridY0);
+        }
+      }
+      return getValue(a, b, c, d, e, f, g, h, i);
+    } else {
+      return Grid.NULL_COLOUR;
+    }
+  }
+
+  /**
+   * Rasterize the rows using a buffer of the 3 rows of the neighbourhood so each cell is read
+   * from the elevation model once per strip. Each call has its own buffer so strips can be
+   * rasterized concurrently.
+   */
+  @Override
+  public void rasterizeRows(final DataBuffer imageBuffer, final int minGridY,
+    final int maxGridY) {
+    final int width = this.width;
+    if (width == 0 || minGridY >= maxGridY) {
+      return;
+    }
+    final int lastX = width - 1;
+    // Padded with a NaN cell at each end for the neighbours outside the grid
+    double[] rowAbove = new double[width + 2];
+    double[] row = new double[width + 2];
+    double[] rowBelow = new double[width + 2];
+    readRow(maxGridY, rowAbove);
+    readRow(maxGridY - 1, row);
+    int index = (this.height - maxGridY) * width;
+    for (int gridY = maxGridY - 1; gridY >= minGridY; gridY--) {
+      readRow(gridY - 1, rowBelow);
+      for (int gridX = 0; gridX <= lastX; gridX++) {
+        final double e = row[gridX + 1];
+        final int value;
+        if (Double.isFinite(e)) {
+          value = getValue(rowAbove[gridX], rowAbove[gridX + 1], rowAbove[gridX + 2], row[gridX],
+            e, row[gridX + 2], rowBelow[gridX], rowBelow[gridX + 1], rowBelow[gridX + 2]);
+        } else {
+          value = Grid.NULL_COLOUR;
+        }
+        imageBuffer.setElem(index, value);
+        index++;
+      }
+      final double[] nextRowBelow = rowAbove;
+      rowAbove = row;
+      row = rowBelow;
+      rowBelow = nextRowBelow;
+    }
+  }
+
+  private void readRow(final int gridY, final double[] row) {
+    final int width = this.width;
+    if (gridY < 0 || gridY >= this.height) {
+      Arrays.fill(row, Double.NaN);
+    } else {
+      final GriddedElevationModel elevationModel = this.elevationModel;
+      row[0] = Double.NaN;
+      for (int gridX = 0; gridX < width; gridX++) {
+        row[gridX + 1] = elevationModel.getValueFast(gridX, gridY);
+      }
+      row[width + 1] = Double.NaN;
+    }
+  }
+}
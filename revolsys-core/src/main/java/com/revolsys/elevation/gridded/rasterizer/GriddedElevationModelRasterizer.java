@@ -47,10 +47,25 @@ public interface GriddedElevationModelRasterizer extends BoundingBoxProxy, Clone
   }
 
   default void rasterize(final DataBuffer imageBuffer) {
+    final int height = getHeight();
+    rasterizeRows(imageBuffer, 0, height);
+  }
+
+  /**
+   * Rasterize the grid rows from minGridY (inclusive) to maxGridY (exclusive) into the image
+   * buffer. Only the image buffer elements for those rows are written so rows can be rasterized
+   * concurrently.
+   *
+   * @param imageBuffer The image buffer.
+   * @param minGridY The first grid row.
+   * @param maxGridY The grid row after the last grid row.
+   */
+  default void rasterizeRows(final DataBuffer imageBuffer, final int minGridY,
+    final int maxGridY) {
     final int width = getWidth();
     final int height = getHeight();
-    int index = 0;
-    for (int gridY = height - 1; gridY >= 0; gridY--) {
+    int index = (height - maxGridY) * width;
+    for (int gridY = maxGridY - 1; gridY >= minGridY; gridY--) {
       for (int gridX = 0; gridX < width; gridX++) {
         final int value = getValue(gridX, gridY);
 
@@ -6,11 +6,10 @@ import org.jeometry.common.awt.WebColors;
 import org.jeometry.common.math.Angle;
 
 import com.revolsys.elevation.gridded.GriddedElevationModel;
-import com.revolsys.grid.Grid;
 import com.revolsys.record.io.format.json.JsonObject;
 
 public class HillShadeGriddedElevationModelRasterizer
-  extends AbstractGriddedElevationModelRasterizer {
+  extends AbstractNeighbourhoodGriddedElevationModelRasterizer {
   private static final double PI_TIMES_2_MINUS_PI_OVER_2 = Angle.PI_TIMES_2 - Angle.PI_OVER_2;
 
   private double zenithRadians;
@@ -57,8 +56,9 @@ public class HillShadeGriddedElevationModelRasterizer
     return this.cosZenithRadians;
   }
 
-  private int getHillShade(final double a, final double b, final double c, final double d,
-    final double f, final double g, final double h, final double i) {
+  @Override
+  protected int getNeighbourhoodValue(final double a, final double b, final double c,
+    final double d, final double f, final double g, final double h, final double i) {
     final double oneDivCellSizeTimes8 = this.oneDivCellSizeTimes8;
     final float dzDivDx = (float)((c + 2 * f + i - (a + 2 * d + g)) * oneDivCellSizeTimes8);
     final float dzDivDy = (float)((g + 2 * h + i - (a + 2 * b + c)) * oneDivCellSizeTimes8);
@@ -103,102 +103,6 @@ public class HillShadeGriddedElevationModelRasterizer
     return this.sinZenithRadians;
   }
 
-  @Override
-  public int getValue(final int gridX, final int gridY) {
-    final GriddedElevationModel elevationModel = this.elevationModel;
-    final int width = this.width;
-    final int height = this.height;
-
-    double a = Double.NaN;
-    double b = Double.NaN;
-    double c = Double.NaN;
-    double d = Double.NaN;
-    final double e = elevationModel.getValueFast(gridX, gridY);
-    if (Double.isFinite(e)) {
-      double f = Double.NaN;
-      double g = Double.NaN;
-      double h = Double.NaN;
-      double i = Double.NaN;
-
-      final boolean firstX = gridX == 0;
-      final boolean firstY = gridY == 0;
-      final boolean lastX = gridX == width - 1;
-      final boolean lastY = gridY == height - 1;
-      final int gridX0 = gridX - 1;
-      final int gridX2 = gridX + 1;
-      if (!lastY) {
-        final int gridY2 = gridY + 1;
-        if (!firstX) {
-          a = elevationModel.getValueFast(gridX0, gridY2);
-        }
-        b = elevationModel.getValueFast(gridX, gridY2);
-        if (!lastX) {
-          c = elevationModel.getValueFast(gridX2, gridY2);
-        }
-      }
-      if (!firstX) {
-        d = elevationModel.getValueFast(gridX0, gridY);
-      }
-      if (!lastX) {
-        f = elevationModel.getValueFast(gridX2, gridY);
-      }
-      if (!firstY) {
-        final int gridY0 = gridY - 1;
-        if (!firstX) {
-          g = elevationModel.getValueFast(gridX0, gridY0);
-        }
-        h = elevationModel.getValueFast(gridX, gridY0);
-        if (!lastX) {
-          i = elevationModel.getValueFast(gridX2, gridY0);
-        }
-      }
-
-      if (!Double.isFinite(d)) {
-        if (Double.isFinite(f)) {
-          d = e - (f - e);
-        } else {
-          d = e;
-          f = e;
-        }
-      } else if (!Double.isFinite(f)) {
-        f = e;
-      }
-      if (!Double.isFinite(a)) {
-        if (Double.isFinite(g)) {
-          a = d - (g - d);
-        } else {
-          a = d;
-        }
-      }
-      if (!Double.isFinite(b)) {
-        if (Double.isFinite(h)) {
-          b = e - (h - e);
-        } else {
-          b = e;
-        }
-      }
-      if (!Double.isFinite(c)) {
-        if (Double.isFinite(i)) {
-          c = f - (i - f);
-        } else {
-          c = f;
-        }
-      }
-      if (!Double.isFinite(g)) {
-        g = d - (a - d);
-      }
-      if (!Double.isFinite(h)) {
-        h = e - (b - e);
-      }
-      if (!Double.isFinite(i)) {
-        i = f - (c - f);
-      }
-      return getHillShade(a, b, c, d, f, g, h, i);
-    } else {
-      return Grid.NULL_COLOUR;
-    }
-  }
-
   public double getZenithDegrees() {
     return this.zenithDegrees;
   }
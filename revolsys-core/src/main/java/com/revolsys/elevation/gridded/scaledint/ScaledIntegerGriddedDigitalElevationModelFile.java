@@ -2,7 +2,9 @@ package com.revolsys.elevation.gridded.scaledint;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.channels.FileLock;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.NoSuchFileException;
@@ -10,6 +12,7 @@ import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.FileAttribute;
+import java.util.Arrays;
 import java.util.Set;
 
 import org.jeometry.common.exception.Exceptions;
@@ -46,7 +49,7 @@ public class ScaledIntegerGriddedDigitalElevationModelFile extends DirectFileEle
 
   private ChannelReader reader;
 
-  private final Set<OpenOption> openOptions;
+  private Set<OpenOption> openOptions;
 
   private final FileAttribute<?>[] fileAttributes = Paths.FILE_ATTRIBUTES_NONE;
 
@@ -60,6 +63,10 @@ public class ScaledIntegerGriddedDigitalElevationModelFile extends DirectFileEle
 
   private boolean useLocks = false;
 
+  private boolean memoryMapped = false;
+
+  private volatile ByteBuffer mappedBuffer;
+
   public ScaledIntegerGriddedDigitalElevationModelFile(final Path path) {
     super(ScaledIntegerGriddedDigitalElevation.HEADER_SIZE,
       ScaledIntegerGriddedDigitalElevation.RECORD_SIZE);
@@ -87,8 +94,18 @@ public class ScaledIntegerGriddedDigitalElevationModelFile extends DirectFileEle
   @Override
   public void close() {
     super.close();
+    this.mappedBuffer = null;
+    closeChannel();
+  }
+
+  /**
+   * Close the file channel without closing the model. The file is re-opened on the next read. A
+   * memory mapped buffer remains valid after the channel is closed.
+   */
+  public synchronized void closeChannel() {
     final FileChannel fileChannel = this.channel;
     this.channel = null;
+    this.reader = null;
     if (fileChannel != null) {
       try {
         fileChannel.close();
@@ -139,15 +156,115 @@ public class ScaledIntegerGriddedDigitalElevationModelFile extends DirectFileEle
     return this.channel;
   }
 
+  private ByteBuffer getMappedBuffer() {
+    ByteBuffer buffer = this.mappedBuffer;
+    if (buffer == null) {
+      synchronized (this) {
+        buffer = this.mappedBuffer;
+        if (buffer == null) {
+          try {
+            final FileChannel fileChannel = getFileChannel();
+            if (fileChannel != null) {
+              buffer = fileChannel.map(MapMode.READ_ONLY, 0, fileChannel.size());
+              this.mappedBuffer = buffer;
+            }
+          } catch (final NoSuchFileException e) {
+            return null;
+          } catch (final IOException e) {
+            throw Exceptions.wrap("Unable to map: " + this.path, e);
+          }
+        }
+      }
+    }
+    return buffer;
+  }
+
   private ChannelReader getReader() throws IOException {
     getFileChannel();
     return this.reader;
   }
 
+  @Override
+  public double getValueFast(final int gridX, final int gridY) {
+    if (this.memoryMapped) {
+      final ByteBuffer buffer = getMappedBuffer();
+      if (buffer == null) {
+        return Double.NaN;
+      } else {
+        final int offset = this.headerSize
+          + (gridY * this.gridWidth + gridX) * ELEVATION_BYTE_COUNT;
+        final int elevationInt = buffer.getInt(offset);
+        if (elevationInt == Integer.MIN_VALUE) {
+          return Double.NaN;
+        } else {
+          return elevationInt / this.scaleZ;
+        }
+      }
+    } else {
+      return super.getValueFast(gridX, gridY);
+    }
+  }
+
+  /**
+   * Read the scaled integer elevations for a window of the grid into the target array (row major).
+   * Cells outside the grid or with no value are set to {@link Integer#MIN_VALUE}.
+   *
+   * @param minX The min grid x of the window.
+   * @param minY The min grid y of the window.
+   * @param width The width of the window.
+   * @param height The height of the window.
+   * @param target The array of width * height values.
+   */
+  public void getValues(final int minX, final int minY, final int width, final int height,
+    final int[] target) {
+    getValues(minX, minY, width, height, target, 0, width);
+  }
+
+  /**
+   * Read the scaled integer elevations for a window of the grid into the target array.
+   *
+   * @param targetOffset The index in the target of the first value.
+   * @param targetRowStride The number of values between the start of each row in the target.
+   * @see #getValues(int, int, int, int, int[])
+   */
+  public void getValues(final int minX, final int minY, final int width, final int height,
+    final int[] target, final int targetOffset, final int targetRowStride) {
+    for (int row = 0; row < height; row++) {
+      final int rowOffset = targetOffset + row * targetRowStride;
+      Arrays.fill(target, rowOffset, rowOffset + width, Integer.MIN_VALUE);
+    }
+    final int startX = Math.max(minX, 0);
+    final int endX = Math.min(minX + width, this.gridWidth);
+    final int startY = Math.max(minY, 0);
+    final int endY = Math.min(minY + height, this.gridHeight);
+    if (startX < endX && startY < endY) {
+      final int firstOffset = targetOffset + (startY - minY) * targetRowStride + startX - minX;
+      if (this.memoryMapped) {
+        final ByteBuffer buffer = getMappedBuffer();
+        if (buffer != null) {
+          final ByteBuffer cells = buffer.duplicate();
+          cells.position(this.headerSize);
+          final IntBuffer values = cells.slice().asIntBuffer();
+          final int count = endX - startX;
+          for (int gridY = startY; gridY < endY; gridY++) {
+            values.position(gridY * this.gridWidth + startX);
+            values.get(target, firstOffset + (gridY - startY) * targetRowStride, count);
+          }
+        }
+      } else {
+        readValues(startX, startY, endX, endY, target, firstOffset, targetRowStride);
+      }
+    }
+  }
+
   public boolean isCreateMissing() {
     return this.createMissing;
   }
 
+  public boolean isMemoryMapped() {
+    return this.memoryMapped;
+  }
+
   public boolean isUseLocks() {
     return this.useLocks;
   }
@@ -229,6 +346,33 @@ public class ScaledIntegerGriddedDigitalElevationModelFile extends DirectFileEle
     }
   }
 
+  private synchronized void readValues(final int startX, final int startY, final int endX,
+    final int endY, final int[] target, final int firstOffset, final int targetRowStride) {
+    try {
+      final FileChannel fileChannel = getFileChannel();
+      if (fileChannel != null) {
+        final int count = endX - startX;
+        final ByteBuffer valueBuffer = ByteBuffer.allocate(count * ELEVATION_BYTE_COUNT);
+        for (int gridY = startY; gridY < endY; gridY++) {
+          final long offset = this.headerSize
+            + ((long)gridY * this.gridWidth + startX) * ELEVATION_BYTE_COUNT;
+          valueBuffer.clear();
+          while (valueBuffer.hasRemaining()) {
+            if (fileChannel.read(valueBuffer, offset + valueBuffer.position()) == -1) {
+              return;
+            }
+          }
+          valueBuffer.flip();
+          valueBuffer.asIntBuffer().get(target, firstOffset + (gridY - startY) * targetRowStride,
+            count);
+        }
+      }
+    } catch (final NoSuchFileException e) {
+    } catch (final IOException e) {
+      throw Exceptions.wrap("Unable to read: " + this.path, e);
+    }
+  }
+
   public void setCreateMissing(final boolean createMissing) {
     this.createMissing = createMissing;
   }
@@ -276,6 +420,20 @@ public class ScaledIntegerGriddedDigitalElevationModelFile extends DirectFileEle
     }
   }
 
+  /**
+   * Read the file using a read only memory mapped buffer. The values are read directly from the
+   * mapped file (shared with other processes through the OS page cache) without any locking. The
+   * file is opened read only so the model cannot be modified.
+   *
+   * @param memoryMapped True if the file is memory mapped.
+   */
+  public synchronized void setMemoryMapped(final boolean memoryMapped) {
+    this.memoryMapped = memoryMapped;
+    if (memoryMapped && this.channel == null) {
+      this.openOptions = Paths.OPEN_OPTIONS_READ_SET;
+    }
+  }
+
   public void setUseLocks(final boolean useLocks) {
     this.useLocks = useLocks;
   }
@@ -1,6 +1,7 @@
 package com.revolsys.elevation.gridded.scaledint;
 
 import java.nio.file.Path;
+import java.util.Arrays;
 
 import com.revolsys.elevation.gridded.AbstractTiledGriddedDigitalElevationModel;
 import com.revolsys.elevation.gridded.GriddedElevationModel;
@@ -19,6 +20,8 @@ public class TiledDirectFileScaledIntegerGriddedDigitalElevationModel
 
   private final String tileWidthString;
 
+  private boolean memoryMapped = false;
+
   public TiledDirectFileScaledIntegerGriddedDigitalElevationModel(final Path baseDirectory,
     final String filePrefix, final GeometryFactory geometryFactory, final double minX,
     final double minY, final int gridTileSize, final int gridCellSize) {
@@ -40,6 +43,66 @@ public class TiledDirectFileScaledIntegerGriddedDigitalElevationModel
       gridCellSize);
   }
 
+  /**
+   * Only close the file channel as another thread may still be reading from the model. The file
+   * is re-opened if the model is used again.
+   */
+  @Override
+  protected void closeModel(final GriddedElevationModel model) {
+    if (model instanceof ScaledIntegerGriddedDigitalElevationModelFile) {
+      ((ScaledIntegerGriddedDigitalElevationModelFile)model).closeChannel();
+    } else {
+      super.closeModel(model);
+    }
+  }
+
+  /**
+   * The cells are read from the file so only count the buffers and file handle.
+   */
+  @Override
+  protected long getModelByteCount(final GriddedElevationModel model) {
+    return 1024;
+  }
+
+  /**
+   * Read the scaled integer elevations for a window of the grid into the target array (row major)
+   * reading each overlapping tile once. Cells with no value are set to {@link Integer#MIN_VALUE}.
+   *
+   * @see ScaledIntegerGriddedDigitalElevationModelFile#getValues(int, int, int, int, int[])
+   */
+  public void getValues(final int minX, final int minY, final int width, final int height,
+    final int[] target) {
+    final int tileSize = this.gridTileSize;
+    final int maxX = minX + width;
+    final int maxY = minY + height;
+    int blockHeight;
+    for (int gridY = minY; gridY < maxY; gridY += blockHeight) {
+      final int gridCellY = Math.floorMod(gridY, tileSize);
+      blockHeight = Math.min(maxY - gridY, tileSize - gridCellY);
+      int blockWidth;
+      for (int gridX = minX; gridX < maxX; gridX += blockWidth) {
+        final int gridCellX = Math.floorMod(gridX, tileSize);
+        blockWidth = Math.min(maxX - gridX, tileSize - gridCellX);
+        final int targetOffset = (gridY - minY) * width + gridX - minX;
+        final GriddedElevationModel model = getModel(gridX, gridY);
+        if (model instanceof ScaledIntegerGriddedDigitalElevationModelFile) {
+          final ScaledIntegerGriddedDigitalElevationModelFile tile = (ScaledIntegerGriddedDigitalElevationModelFile)model;
+          tile.getValues(gridCellX, gridCellY, blockWidth, blockHeight, target, targetOffset,
+            width);
+        } else {
+          for (int row = 0; row < blockHeight; row++) {
+            final int rowOffset = targetOffset + row * width;
+            Arrays.fill(target, rowOffset, rowOffset + blockWidth, Integer.MIN_VALUE);
+          }
+        }
+      }
+    }
+  }
+
+  public boolean isMemoryMapped() {
+    return this.memoryMapped;
+  }
+
   @Override
   protected GriddedElevationModel newModel(final double tileX, final double tileY) {
     final int tileXInt = (int)tileX;
@@ -55,8 +118,20 @@ public class TiledDirectFileScaledIntegerGriddedDigitalElevationModel
       .resolve(Integer.toString(tileXInt)) //
       .resolve(fileName);
 
-    return new ScaledIntegerGriddedDigitalElevationModelFile(path, geometryFactory, tileXInt,
-      tileYInt, tileSize, tileSize, this.gridCellWidth);
+    final ScaledIntegerGriddedDigitalElevationModelFile model = new ScaledIntegerGriddedDigitalElevationModelFile(
+      path, geometryFactory, tileXInt, tileYInt, tileSize, tileSize, this.gridCellWidth);
+    model.setMemoryMapped(this.memoryMapped);
+    return model;
+  }
+
+  /**
+   * Read the tiles using read only memory mapped files. Must be set before any tiles are loaded.
+   *
+   * @param memoryMapped True if the tiles are memory mapped.
+   * @see ScaledIntegerGriddedDigitalElevationModelFile#setMemoryMapped(boolean)
+   */
+  public void setMemoryMapped(final boolean memoryMapped) {
+    this.memoryMapped = memoryMapped;
   }
 
 }
@@ -202,6 +202,17 @@ public class Edge<T> implements DelegatingLineString, ObjectWithProperties, Exte
   public Edge() {
   }
 
+  /**
+   * Construct an edge without adding it to the nodes, used for bulk construction where the edges
+   * are added to the nodes once all the edges are created.
+   */
+  Edge(final int id, final Graph<T> graph, final int fromNodeId, final int toNodeId) {
+    this.id = id;
+    this.graph = graph;
+    this.fromNodeId = fromNodeId;
+    this.toNodeId = toNodeId;
+  }
+
   public Edge(final int id, final Graph<T> graph, final Node<T> fromNode, final Node<T> toNode) {
     this.id = id;
     this.graph = graph;
@@ -429,6 +440,10 @@ public class Edge<T> implements DelegatingLineString, ObjectWithProperties, Exte
     return this.graph.getNode(this.fromNodeId);
   }
 
+  int getFromNodeId() {
+    return this.fromNodeId;
+  }
+
   public Graph<T> getGraph() {
     return this.graph;
   }
@@ -526,6 +541,10 @@ public class Edge<T> implements DelegatingLineString, ObjectWithProperties, Exte
     return this.graph.getNode(this.toNodeId);
   }
 
+  int getToNodeId() {
+    return this.toNodeId;
+  }
+
   public String getTypeName() {
     return this.graph.getTypeName(this);
   }
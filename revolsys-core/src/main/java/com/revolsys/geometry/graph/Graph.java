@@ -18,6 +18,7 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
 import javax.annotation.PreDestroy;
@@ -81,8 +82,6 @@ public class Graph<T> extends BaseObjectWithProperties implements GeometryFactor
     }
   }
 
-  private final Map<Edge<T>, Integer> edgeIds = new TreeMap<>();
-
   private IdObjectIndex<Edge<T>> edgeIndex;
 
   private Map<Integer, LineString> edgeLinesById = new IntHashMap<>();
@@ -185,7 +184,6 @@ public class Graph<T> extends BaseObjectWithProperties implements GeometryFactor
     }
     this.edgeObjectsById.put(edgeId, object);
     this.edgesById.put(edgeId, edge);
-    this.edgeIds.put(edge, edgeId);
     if (this.edgeIndex != null) {
       this.edgeIndex.add(edge);
     }
@@ -205,14 +203,109 @@ public class Graph<T> extends BaseObjectWithProperties implements GeometryFactor
     this.edgeListeners.add(listener);
   }
 
-  public void clear() {
-    if (this.edgeIds != null) {
-      this.edgeIds.clear();
+  /**
+   * Add an edge for each object in bulk. The end points of the lines are made precise using the
+   * {@link #getPrecisionModel()} and matched to the nodes using a primitive coordinate hash. The
+   * nodes and edges are created in one pass and the edges are added to each node once at the end,
+   * instead of sorting the node's edges for every edge that is added.
+   *
+   * <p>If {@link #setMaxEdgesInMemory(int)} has been set the edges are added using
+   * {@link #addEdge(Object, LineString)}.</p>
+   *
+   * @param objects The objects to add.
+   * @param lineFunction The function to get the line for an object. Objects without a line are
+   * ignored.
+   * @return The number of edges added.
+   */
+  public int addEdgesBulk(final Iterable<? extends T> objects,
+    final Function<? super T, LineString> lineFunction) {
+    if (this.maxEdgesInMemory != Integer.MAX_VALUE) {
+      int count = 0;
+      for (final T object : objects) {
+        final LineString line = lineFunction.apply(object);
+        if (line != null && !line.isEmpty()) {
+          addEdge(object, line);
+          count++;
+        }
+      }
+      return count;
+    }
+    final boolean hasNodes = !this.nodesById.isEmpty();
+    final GeometryFactory precisionModel = this.precisionModel;
+    final PointIntHashMap nodeIdsByPoint = new PointIntHashMap();
+    final List<Edge<T>> edges = new ArrayList<>();
+    for (final T object : objects) {
+      final LineString line = lineFunction.apply(object);
+      if (line != null && !line.isEmpty()) {
+        final int lastVertexIndex = line.getVertexCount() - 1;
+        final int fromNodeId = getNodeIdBulk(nodeIdsByPoint, hasNodes,
+          precisionModel.makeXPrecise(line.getX(0)), precisionModel.makeYPrecise(line.getY(0)));
+        final int toNodeId = getNodeIdBulk(nodeIdsByPoint, hasNodes,
+          precisionModel.makeXPrecise(line.getX(lastVertexIndex)),
+          precisionModel.makeYPrecise(line.getY(lastVertexIndex)));
+        final int edgeId = ++this.nextEdgeId;
+        final Edge<T> edge = new Edge<>(edgeId, this, fromNodeId, toNodeId);
+        if (this.edgeLinesById != null) {
+          this.edgeLinesById.put(edgeId, line);
+        }
+        this.edgeObjectsById.put(edgeId, object);
+        this.edgesById.put(edgeId, edge);
+        edges.add(edge);
+      }
     }
+
+    // Group the edges by node id (compressed sparse row) and add them to each node once
+    final int edgeCount = edges.size();
+    final int nodeIdCount = this.nextNodeId + 1;
+    final int[] offsets = new int[nodeIdCount + 1];
+    for (final Edge<T> edge : edges) {
+      offsets[edge.getFromNodeId() + 1]++;
+      offsets[edge.getToNodeId() + 1]++;
+    }
+    for (int i = 0; i < nodeIdCount; i++) {
+      offsets[i + 1] += offsets[i];
+    }
+    final int[] nodeEdges = new int[edgeCount * 2];
+    final int[] nodeEdgeIndexes = Arrays.copyOf(offsets, nodeIdCount);
+    for (int i = 0; i < edgeCount; i++) {
+      final Edge<T> edge = edges.get(i);
+      nodeEdges[nodeEdgeIndexes[edge.getFromNodeId()]++] = i * 2 + 1;
+      nodeEdges[nodeEdgeIndexes[edge.getToNodeId()]++] = i * 2;
+    }
+    final List<Edge<T>> inEdges = new ArrayList<>();
+    final List<Edge<T>> outEdges = new ArrayList<>();
+    for (int nodeId = 0; nodeId < nodeIdCount; nodeId++) {
+      final int startIndex = offsets[nodeId];
+      final int endIndex = offsets[nodeId + 1];
+      if (startIndex < endIndex) {
+        inEdges.clear();
+        outEdges.clear();
+        for (int i = startIndex; i < endIndex; i++) {
+          final int nodeEdge = nodeEdges[i];
+          final Edge<T> edge = edges.get(nodeEdge >>> 1);
+          if ((nodeEdge & 1) == 1) {
+            outEdges.add(edge);
+          } else {
+            inEdges.add(edge);
+          }
+        }
+        final Node<T> node = getNode(nodeId);
+        node.addEdges(inEdges, outEdges);
+      }
+    }
+    for (final Edge<T> edge : edges) {
+      if (this.edgeIndex != null) {
+        this.edgeIndex.add(edge);
+      }
+      this.edgeListeners.edgeEvent(edge, null, EdgeEvent.EDGE_ADDED, null);
+    }
+    return edgeCount;
+  }
+
+  public void clear() {
     if (this.edgePropertiesById != null) {
       this.edgePropertiesById.clear();
     }
-    this.edgeIds.clear();
     // TODO edgeIndex
     if (this.edgeLinesById != null) {
       this.edgeLinesById.clear();
@@ -257,9 +350,6 @@ public class Graph<T> extends BaseObjectWithProperties implements GeometryFactor
   @Override
   @PreDestroy
   public void close() {
-    if (this.edgeIds != null) {
-      this.edgeIds.clear();
-    }
     if (this.edgeIndex != null) {
       this.edgeIndex.clear();
     }
@@ -808,6 +898,31 @@ public class Graph<T> extends BaseObjectWithProperties implements GeometryFactor
     return node;
   }
 
+  private int getNodeIdBulk(final PointIntHashMap nodeIdsByPoint, final boolean hasNodes,
+    final double x, final double y) {
+    int nodeId = nodeIdsByPoint.get(x, y);
+    if (nodeId == PointIntHashMap.NOT_FOUND) {
+      Node<T> node = null;
+      if (hasNodes) {
+        node = findNode(x, y);
+      }
+      if (node == null) {
+        nodeId = ++this.nextNodeId;
+        node = new Node<>(nodeId, this, x, y);
+        this.nodesIdsByPoint.put(new PointDoubleXY(x, y), nodeId);
+        this.nodesById.put(nodeId, node);
+        if (this.nodeIndex != null) {
+          this.nodeIndex.add(node);
+        }
+        this.nodeListeners.nodeEvent(node, null, null, NodeEvent.NODE_ADDED, null);
+      } else {
+        nodeId = node.getId();
+      }
+      nodeIdsByPoint.put(x, y, nodeId);
+    }
+    return nodeId;
+  }
+
   public int getNodeCount() {
     return this.nodesById.size();
   }
@@ -1169,7 +1284,6 @@ public class Graph<T> extends BaseObjectWithProperties implements GeometryFactor
     if (!edge.isRemoved()) {
       this.edgeListeners.edgeEvent(edge, null, EdgeEvent.EDGE_REMOVED, null);
       final int edgeId = edge.getId();
-      this.edgeIds.remove(edge);
       this.edgesById.remove(edgeId);
       this.edgePropertiesById.remove(edgeId);
       if (this.edgeLinesById != null) {
@@ -140,6 +140,28 @@ public class Node<T> extends PointDoubleXY implements ObjectWithProperties, Exte
     return graph.getEdgeIds(edges);
   }
 
+  /**
+   * Add the edges in one step sorting the edge ids once, used for bulk construction.
+   */
+  void addEdges(final List<Edge<T>> inEdges, final List<Edge<T>> outEdges) {
+    this.inEdgeIds = addEdges(this.inEdgeIds, inEdges);
+    this.outEdgeIds = addEdges(this.outEdgeIds, outEdges);
+    updateAttributes();
+  }
+
+  private int[] addEdges(final int[] oldEdgeIds, final List<Edge<T>> newEdges) {
+    if (newEdges.isEmpty()) {
+      return oldEdgeIds;
+    } else {
+      final Graph<T> graph = getGraph();
+      final List<Edge<T>> edges = graph.getEdges(oldEdgeIds);
+      edges.addAll(newEdges);
+      final EdgeToAngleComparator<T> comparator = EdgeToAngleComparator.get();
+      Collections.sort(edges, comparator);
+      return graph.getEdgeIds(edges);
+    }
+  }
+
   protected void addInEdge(final Edge<T> edge) {
     this.inEdgeIds = addEdge(this.inEdgeIds, edge);
     updateAttributes();
@@ -679,11 +701,17 @@ public class Node<T> extends PointDoubleXY implements ObjectWithProperties, Exte
   }
 
   private void updateAttributes() {
-    for (final Object attribute : getProperties().values()) {
-      if (attribute instanceof ObjectPropertyProxy) {
-        @SuppressWarnings("unchecked")
-        final ObjectPropertyProxy<Object, Node<T>> proxy = (ObjectPropertyProxy<Object, Node<T>>)attribute;
-        proxy.clearValue();
+    if (this.graph != null) {
+      // Don't use getProperties as that creates the properties if they don't exist
+      final MapEx properties = this.graph.getNodePropertiesById().get(this.id);
+      if (properties != null) {
+        for (final Object attribute : properties.values()) {
+          if (attribute instanceof ObjectPropertyProxy) {
+            @SuppressWarnings("unchecked")
+            final ObjectPropertyProxy<Object, Node<T>> proxy = (ObjectPropertyProxy<Object, Node<T>>)attribute;
+            proxy.clearValue();
+          }
+        }
       }
     }
   }
@@ -0,0 +1,113 @@
+package com.revolsys.geometry.graph;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash map from x, y coordinates to int values using primitive arrays, so
+ * adding or finding a point doesn't create any objects. Used by the bulk graph construction to
+ * match line end points to node ids.
+ */
+class PointIntHashMap {
+
+  public static final int NOT_FOUND = -1;
+
+  /**
+   * Adding 0.0 converts -0.0 to 0.0 so that the coordinates which are equal using == have the
+   * same hash.
+   */
+  private static int hash(final double x, final double y) {
+    final long bits = Double.doubleToLongBits(x + 0.0) * 31 + Double.doubleToLongBits(y + 0.0);
+    long hash = bits * 0x9E3779B97F4A7C15L;
+    hash ^= hash >>> 32;
+    return (int)hash;
+  }
+
+  private int mask;
+
+  private int size;
+
+  private int[] values;
+
+  private double[] xs;
+
+  private double[] ys;
+
+  public PointIntHashMap() {
+    this(1024);
+  }
+
+  public PointIntHashMap(final int expectedSize) {
+    int capacity = 16;
+    while (capacity < expectedSize * 2) {
+      capacity <<= 1;
+    }
+    init(capacity);
+  }
+
+  /**
+   * Get the value for the point.
+   *
+   * @return The value or {@link #NOT_FOUND}.
+   */
+  public int get(final double x, final double y) {
+    int index = hash(x, y) & this.mask;
+    while (true) {
+      final int value = this.values[index];
+      if (value == NOT_FOUND) {
+        return NOT_FOUND;
+      } else if (this.xs[index] == x && this.ys[index] == y) {
+        return value;
+      }
+      index = index + 1 & this.mask;
+    }
+  }
+
+  private void init(final int capacity) {
+    this.mask = capacity - 1;
+    this.values = new int[capacity];
+    Arrays.fill(this.values, NOT_FOUND);
+    this.xs = new double[capacity];
+    this.ys = new double[capacity];
+  }
+
+  /**
+   * Set the value for the point, the value must not be {@link #NOT_FOUND}.
+   */
+  public void put(final double x, final double y, final int value) {
+    if (this.size * 2 >= this.values.length) {
+      final int[] oldValues = this.values;
+      final double[] oldXs = this.xs;
+      final double[] oldYs = this.ys;
+      init(oldValues.length * 2);
+      for (int i = 0; i < oldValues.length; i++) {
+        final int oldValue = oldValues[i];
+        if (oldValue != NOT_FOUND) {
+          putDo(oldXs[i], oldYs[i], oldValue);
+        }
+      }
+    }
+    if (putDo(x, y, value)) {
+      this.size++;
+    }
+  }
+
+  private boolean putDo(final double x, final double y, final int value) {
+    int index = hash(x, y) & this.mask;
+    while (true) {
+      if (this.values[index] == NOT_FOUND) {
+        this.xs[index] = x;
+        this.ys[index] = y;
+        this.values[index] = value;
+        return true;
+      } else if (this.xs[index] == x && this.ys[index] == y) {
+        this.values[index] = value;
+        return false;
+      }
+      index = index + 1 & this.mask;
+    }
+  }
+
+  public int size() {
+    return this.size;
+  }
+}
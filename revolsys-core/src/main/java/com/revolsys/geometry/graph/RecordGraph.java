@@ -32,23 +32,43 @@ public class RecordGraph extends Graph<Record> {
     addEdges(records);
   }
 
-  public Edge<Record> addEdge(final Record record) {
+  private static LineString getLine(final Record record) {
     final Geometry geometry = record.getGeometry();
     if (geometry instanceof LineString) {
-      final LineString line = (LineString)geometry;
-      return addEdge(record, line);
+      return (LineString)geometry;
     } else if (geometry != null && geometry.isGeometryCollection()) {
       if (geometry.getGeometryCount() == 1) {
         final Geometry part = geometry.getGeometry(0);
         if (part instanceof LineString) {
-          final LineString line = (LineString)part;
-          return addEdge(record, line);
+          return (LineString)part;
         }
       }
     }
     throw new IllegalArgumentException("Cannot add edge for a " + geometry.getGeometryType());
   }
 
+  public Edge<Record> addEdge(final Record record) {
+    final LineString line = getLine(record);
+    return addEdge(record, line);
+  }
+
+  /**
+   * Add the edges for the records (e.g. from a RecordReader) in bulk using
+   * {@link #addEdgesBulk(Iterable, java.util.function.Function)}. Records without a geometry are
+   * ignored.
+   *
+   * @return The number of edges added.
+   */
+  public int addEdgesBulk(final Iterable<? extends Record> records) {
+    return addEdgesBulk(records, record -> {
+      if (record.getGeometry() == null) {
+        return null;
+      } else {
+        return getLine(record);
+      }
+    });
+  }
+
   public List<Edge<Record>> addEdges(final Iterable<? extends Record> records) {
     final List<Edge<Record>> edges = new ArrayList<>();
     for (final Record record : records) {
@@ -0,0 +1,223 @@
+package com.revolsys.geometry.graph.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Bidirectional A* search on a {@link CompactGraph}. The forward search uses the average
+ * potential (h(v, to) - h(v, from)) / 2 and the reverse search the negated potential so both
+ * searches are consistent and the search can stop when the sum of the smallest keys is at least
+ * the shortest path found.
+ *
+ * <p>The per node arrays are allocated once for the query and reset using a version number, so
+ * each query only touches the nodes it visits. A query is not thread safe, create one for each
+ * thread using {@link CompactGraph#newQuery()}.</p>
+ */
+public class BidirectionalAStar implements CompactShortestPath {
+
+  private double distance = Double.POSITIVE_INFINITY;
+
+  private final double[] forwardDistances;
+
+  private final NodeHeap forwardHeap = new NodeHeap();
+
+  private final int[] forwardParentEdgeIds;
+
+  private final int[] forwardParents;
+
+  private final int[] forwardSettled;
+
+  private final int[] forwardVisited;
+
+  private final CompactGraph graph;
+
+  private double fromX;
+
+  private double fromY;
+
+  private final double[] reverseDistances;
+
+  private final NodeHeap reverseHeap = new NodeHeap();
+
+  private final int[] reverseParentEdgeIds;
+
+  private final int[] reverseParents;
+
+  private final int[] reverseSettled;
+
+  private final int[] reverseVisited;
+
+  private double toX;
+
+  private double toY;
+
+  private int version;
+
+  public BidirectionalAStar(final CompactGraph graph) {
+    this.graph = graph;
+    final int nodeCount = graph.getNodeCount();
+    this.forwardDistances = new double[nodeCount];
+    this.forwardParents = new int[nodeCount];
+    this.forwardParentEdgeIds = new int[nodeCount];
+    this.forwardSettled = new int[nodeCount];
+    this.forwardVisited = new int[nodeCount];
+    this.reverseDistances = new double[nodeCount];
+    this.reverseParents = new int[nodeCount];
+    this.reverseParentEdgeIds = new int[nodeCount];
+    this.reverseSettled = new int[nodeCount];
+    this.reverseVisited = new int[nodeCount];
+  }
+
+  @Override
+  public int[] findEdgeIds(final int fromNodeIndex, final int toNodeIndex) {
+    newVersion();
+    final CompactGraph graph = this.graph;
+    if (fromNodeIndex == toNodeIndex) {
+      this.distance = 0;
+      return new int[0];
+    }
+    this.fromX = graph.nodeX[fromNodeIndex];
+    this.fromY = graph.nodeY[fromNodeIndex];
+    this.toX = graph.nodeX[toNodeIndex];
+    this.toY = graph.nodeY[toNodeIndex];
+    final int version = this.version;
+    final int[] offsets = graph.offsets;
+    final int[] targets = graph.targets;
+    final double[] weights = graph.weights;
+    final int[] edgeIds = graph.edgeIds;
+
+    this.forwardVisited[fromNodeIndex] = version;
+    this.forwardDistances[fromNodeIndex] = 0;
+    this.forwardParents[fromNodeIndex] = -1;
+    this.forwardHeap.add(fromNodeIndex, getPotential(fromNodeIndex));
+    this.reverseVisited[toNodeIndex] = version;
+    this.reverseDistances[toNodeIndex] = 0;
+    this.reverseParents[toNodeIndex] = -1;
+    this.reverseHeap.add(toNodeIndex, -getPotential(toNodeIndex));
+
+    double bestDistance = Double.POSITIVE_INFINITY;
+    int meetingNode = -1;
+    while (true) {
+      final double forwardKey = this.forwardHeap.peekKey();
+      final double reverseKey = this.reverseHeap.peekKey();
+      if (forwardKey + reverseKey >= bestDistance) {
+        break;
+      }
+      final boolean forward = forwardKey <= reverseKey;
+      final NodeHeap heap;
+      final double[] distances;
+      final int[] parents;
+      final int[] parentEdgeIds;
+      final int[] settled;
+      final int[] visited;
+      final double[] otherDistances;
+      final int[] otherVisited;
+      final double potentialSign;
+      if (forward) {
+        heap = this.forwardHeap;
+        distances = this.forwardDistances;
+        parents = this.forwardParents;
+        parentEdgeIds = this.forwardParentEdgeIds;
+        settled = this.forwardSettled;
+        visited = this.forwardVisited;
+        otherDistances = this.reverseDistances;
+        otherVisited = this.reverseVisited;
+        potentialSign = 1;
+      } else {
+        heap = this.reverseHeap;
+        distances = this.reverseDistances;
+        parents = this.reverseParents;
+        parentEdgeIds = this.reverseParentEdgeIds;
+        settled = this.reverseSettled;
+        visited = this.reverseVisited;
+        otherDistances = this.forwardDistances;
+        otherVisited = this.forwardVisited;
+        potentialSign = -1;
+      }
+      final int node = heap.remove();
+      if (settled[node] != version) {
+        settled[node] = version;
+        final double nodeDistance = distances[node];
+        for (int arc = offsets[node]; arc < offsets[node + 1]; arc++) {
+          final int target = targets[arc];
+          final double targetDistance = nodeDistance + weights[arc];
+          if (settled[target] != version
+            && (visited[target] != version || targetDistance < distances[target])) {
+            visited[target] = version;
+            distances[target] = targetDistance;
+            parents[target] = node;
+            parentEdgeIds[target] = edgeIds[arc];
+            heap.add(target, targetDistance + potentialSign * getPotential(target));
+            if (otherVisited[target] == version) {
+              final double pathDistance = targetDistance + otherDistances[target];
+              if (pathDistance < bestDistance) {
+                bestDistance = pathDistance;
+                meetingNode = target;
+              }
+            }
+          }
+        }
+      }
+    }
+    this.distance = bestDistance;
+    if (meetingNode == -1) {
+      return null;
+    } else {
+      return getPath(meetingNode);
+    }
+  }
+
+  @Override
+  public CompactGraph getCompactGraph() {
+    return this.graph;
+  }
+
+  @Override
+  public double getDistance() {
+    return this.distance;
+  }
+
+  private int[] getPath(final int meetingNode) {
+    int forwardCount = 0;
+    for (int node = meetingNode; this.forwardParents[node] != -1; node = this.forwardParents[node]) {
+      forwardCount++;
+    }
+    int reverseCount = 0;
+    for (int node = meetingNode; this.reverseParents[node] != -1; node = this.reverseParents[node]) {
+      reverseCount++;
+    }
+    final int[] path = new int[forwardCount + reverseCount];
+    int index = forwardCount;
+    for (int node = meetingNode; this.forwardParents[node] != -1; node = this.forwardParents[node]) {
+      path[--index] = this.forwardParentEdgeIds[node];
+    }
+    index = forwardCount;
+    for (int node = meetingNode; this.reverseParents[node] != -1; node = this.reverseParents[node]) {
+      path[index++] = this.reverseParentEdgeIds[node];
+    }
+    return path;
+  }
+
+  private double getPotential(final int nodeIndex) {
+    final double toDistance = this.graph.getHeuristic(nodeIndex, this.toX, this.toY);
+    final double fromDistance = this.graph.getHeuristic(nodeIndex, this.fromX, this.fromY);
+    return (toDistance - fromDistance) / 2;
+  }
+
+  private void newVersion() {
+    this.forwardHeap.clear();
+    this.reverseHeap.clear();
+    this.version++;
+    if (this.version == Integer.MAX_VALUE) {
+      Arrays.fill(this.forwardSettled, 0);
+      Arrays.fill(this.forwardVisited, 0);
+      Arrays.fill(this.reverseSettled, 0);
+      Arrays.fill(this.reverseVisited, 0);
+      this.version = 1;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "BidirectionalAStar " + this.graph;
+  }
+}
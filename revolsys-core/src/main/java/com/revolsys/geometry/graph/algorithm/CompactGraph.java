@@ -0,0 +1,201 @@
+package com.revolsys.geometry.graph.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import com.revolsys.geometry.graph.Edge;
+import com.revolsys.geometry.graph.Graph;
+import com.revolsys.geometry.graph.Node;
+
+/**
+ * An immutable compressed sparse row (CSR) copy of the topology of a {@link Graph} for routing.
+ * The nodes are numbered 0..nodeCount-1 in order of their {@link Node#getId()}. The arcs from node
+ * i are stored from offsets[i] to offsets[i + 1] in the targets, weights and edgeIds arrays. Each
+ * edge is added as an arc in both directions (the same as {@link ShortestPath}).
+ *
+ * <p>The graph can be shared between threads, each thread must use its own query from
+ * {@link #newQuery()} or {@link ContractionHierarchy#newQuery()}.</p>
+ */
+public class CompactGraph {
+
+  private static double getHeuristicScale(final double[] nodeX, final double[] nodeY,
+    final int[] offsets, final int[] targets, final double[] weights) {
+    double scale = Double.POSITIVE_INFINITY;
+    for (int node = 0; node < offsets.length - 1; node++) {
+      for (int arc = offsets[node]; arc < offsets[node + 1]; arc++) {
+        final int target = targets[arc];
+        final double dx = nodeX[target] - nodeX[node];
+        final double dy = nodeY[target] - nodeY[node];
+        final double distance = Math.sqrt(dx * dx + dy * dy);
+        if (distance > 0) {
+          scale = Math.min(scale, weights[arc] / distance);
+        }
+      }
+    }
+    if (Double.isInfinite(scale)) {
+      return 0;
+    } else {
+      return scale;
+    }
+  }
+
+  final int[] edgeIds;
+
+  /**
+   * The factor applied to the straight line distance between two nodes so that it is never more
+   * than the weight of the path between them.
+   */
+  final double heuristicScale;
+
+  private final int[] nodeIds;
+
+  final double[] nodeX;
+
+  final double[] nodeY;
+
+  final int[] offsets;
+
+  final int[] targets;
+
+  final double[] weights;
+
+  /**
+   * Construct a graph using the length of the edges as the weight.
+   */
+  public <T> CompactGraph(final Graph<T> graph) {
+    this(graph, Edge::getLength);
+  }
+
+  /**
+   * Construct a graph using the weightFunction to calculate the weight for each edge. Edges with a
+   * negative, infinite or NaN weight are not included.
+   */
+  public <T> CompactGraph(final Graph<T> graph, final ToDoubleFunction<Edge<T>> weightFunction) {
+    final List<Node<T>> nodes = new ArrayList<>(graph.getNodes());
+    nodes.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+    final int nodeCount = nodes.size();
+    this.nodeIds = new int[nodeCount];
+    this.nodeX = new double[nodeCount];
+    this.nodeY = new double[nodeCount];
+    for (int i = 0; i < nodeCount; i++) {
+      final Node<T> node = nodes.get(i);
+      this.nodeIds[i] = node.getId();
+      this.nodeX[i] = node.getX();
+      this.nodeY[i] = node.getY();
+    }
+
+    final List<Edge<T>> edges = graph.getEdges();
+    final int edgeCount = edges.size();
+    final int[] fromIndexes = new int[edgeCount];
+    final int[] toIndexes = new int[edgeCount];
+    final double[] edgeWeights = new double[edgeCount];
+    final int[] offsets = new int[nodeCount + 1];
+    for (int i = 0; i < edgeCount; i++) {
+      final Edge<T> edge = edges.get(i);
+      final double weight = weightFunction.applyAsDouble(edge);
+      final int fromIndex = getNodeIndex(edge.getFromNode());
+      final int toIndex = getNodeIndex(edge.getToNode());
+      if (weight >= 0 && weight < Double.POSITIVE_INFINITY && fromIndex != -1 && toIndex != -1
+        && fromIndex != toIndex) {
+        fromIndexes[i] = fromIndex;
+        toIndexes[i] = toIndex;
+        edgeWeights[i] = weight;
+        offsets[fromIndex + 1]++;
+        offsets[toIndex + 1]++;
+      } else {
+        fromIndexes[i] = -1;
+      }
+    }
+    for (int i = 0; i < nodeCount; i++) {
+      offsets[i + 1] += offsets[i];
+    }
+    final int arcCount = offsets[nodeCount];
+    this.offsets = offsets;
+    this.targets = new int[arcCount];
+    this.weights = new double[arcCount];
+    this.edgeIds = new int[arcCount];
+    final int[] arcIndexes = Arrays.copyOf(offsets, nodeCount);
+    for (int i = 0; i < edgeCount; i++) {
+      final int fromIndex = fromIndexes[i];
+      if (fromIndex != -1) {
+        final int toIndex = toIndexes[i];
+        final int edgeId = edges.get(i).getId();
+        final double weight = edgeWeights[i];
+        int arc = arcIndexes[fromIndex]++;
+        this.targets[arc] = toIndex;
+        this.weights[arc] = weight;
+        this.edgeIds[arc] = edgeId;
+        arc = arcIndexes[toIndex]++;
+        this.targets[arc] = fromIndex;
+        this.weights[arc] = weight;
+        this.edgeIds[arc] = edgeId;
+      }
+    }
+    this.heuristicScale = getHeuristicScale(this.nodeX, this.nodeY, this.offsets, this.targets,
+      this.weights);
+  }
+
+  public int getArcCount() {
+    return this.targets.length;
+  }
+
+  /**
+   * Get the lower bound of the path weight between the two nodes.
+   */
+  double getHeuristic(final int fromIndex, final double x, final double y) {
+    final double dx = this.nodeX[fromIndex] - x;
+    final double dy = this.nodeY[fromIndex] - y;
+    return Math.sqrt(dx * dx + dy * dy) * this.heuristicScale;
+  }
+
+  public int getNodeCount() {
+    return this.nodeIds.length;
+  }
+
+  public int getNodeId(final int nodeIndex) {
+    return this.nodeIds[nodeIndex];
+  }
+
+  /**
+   * @return The index of the node or -1 if it is not in the graph.
+   */
+  public int getNodeIndex(final int nodeId) {
+    final int index = Arrays.binarySearch(this.nodeIds, nodeId);
+    if (index < 0) {
+      return -1;
+    } else {
+      return index;
+    }
+  }
+
+  public int getNodeIndex(final Node<?> node) {
+    if (node == null) {
+      return -1;
+    } else {
+      return getNodeIndex(node.getId());
+    }
+  }
+
+  public double getX(final int nodeIndex) {
+    return this.nodeX[nodeIndex];
+  }
+
+  public double getY(final int nodeIndex) {
+    return this.nodeY[nodeIndex];
+  }
+
+  /**
+   * Construct a new bidirectional A* query. Queries are not thread safe, use a separate query for
+   * each thread.
+   */
+  public BidirectionalAStar newQuery() {
+    return new BidirectionalAStar(this);
+  }
+
+  @Override
+  public String toString() {
+    return "CompactGraph(nodes=" + getNodeCount() + ", arcs=" + getArcCount() + ")";
+  }
+}
@@ -0,0 +1,51 @@
+package com.revolsys.geometry.graph.algorithm;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.revolsys.geometry.graph.Edge;
+import com.revolsys.geometry.graph.Graph;
+import com.revolsys.geometry.graph.Node;
+
+/**
+ * A point to point shortest path query on a {@link CompactGraph}. Implementations keep the state
+ * of the last query so they are not thread safe.
+ */
+public interface CompactShortestPath {
+
+  /**
+   * Find the shortest path between the nodes.
+   *
+   * @param fromNodeIndex The index of the from node in the compact graph.
+   * @param toNodeIndex The index of the to node in the compact graph.
+   * @return The ids of the edges in the path from the from node or null if there is no path.
+   */
+  int[] findEdgeIds(int fromNodeIndex, int toNodeIndex);
+
+  /**
+   * Find the shortest path between the nodes in the graph the compact graph was created from.
+   *
+   * @return The edges in the path or an empty list if there is no path.
+   */
+  default <T> List<Edge<T>> findPath(final Graph<T> graph, final Node<T> fromNode,
+    final Node<T> toNode) {
+    final CompactGraph compactGraph = getCompactGraph();
+    final int fromNodeIndex = compactGraph.getNodeIndex(fromNode);
+    final int toNodeIndex = compactGraph.getNodeIndex(toNode);
+    if (fromNodeIndex != -1 && toNodeIndex != -1) {
+      final int[] edgeIds = findEdgeIds(fromNodeIndex, toNodeIndex);
+      if (edgeIds != null) {
+        return graph.getEdges(edgeIds);
+      }
+    }
+    return Collections.emptyList();
+  }
+
+  CompactGraph getCompactGraph();
+
+  /**
+   * @return The weight of the last path found or {@link Double#POSITIVE_INFINITY} if there was no
+   * path.
+   */
+  double getDistance();
+}
@@ -0,0 +1,337 @@
+package com.revolsys.geometry.graph.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * A contraction hierarchy built from a {@link CompactGraph}. The nodes are contracted in order of
+ * their edge difference (the number of shortcuts added less the number of arcs removed, plus the
+ * number of contracted neighbours), adding a shortcut between two neighbours of the contracted
+ * node if a limited local search doesn't find a path that is no longer than the path through the
+ * node. Queries then only need to search the arcs to higher ranked nodes from both ends.
+ *
+ * <p>The preprocessing is only worthwhile for graphs that are routed many times. The hierarchy is
+ * immutable and can be shared between threads, each thread must use its own query from
+ * {@link #newQuery()}.</p>
+ */
+public class ContractionHierarchy {
+
+  private static class Contraction {
+
+    private static final int SIMULATE_SETTLED_LIMIT = 50;
+
+    private static final int WITNESS_SETTLED_LIMIT = 500;
+
+    private int[][] adjacentArcs;
+
+    private final int[] adjacentCounts;
+
+    private int[][] adjacentNodes;
+
+    private int[] arcChildren1 = new int[1024];
+
+    private int[] arcChildren2 = new int[1024];
+
+    private int arcCount;
+
+    private int[] arcEdgeIds = new int[1024];
+
+    private int[] arcMiddles = new int[1024];
+
+    private int[] arcNodes1 = new int[1024];
+
+    private double[] arcWeights = new double[1024];
+
+    private final int[] deletedNeighbourCounts;
+
+    private final int nodeCount;
+
+    private final double[] witnessDistances;
+
+    private final NodeHeap witnessHeap = new NodeHeap();
+
+    private int witnessVersion;
+
+    private final int[] witnessVisited;
+
+    private Contraction(final CompactGraph graph) {
+      final int nodeCount = graph.getNodeCount();
+      this.nodeCount = nodeCount;
+      this.adjacentArcs = new int[nodeCount][];
+      this.adjacentNodes = new int[nodeCount][];
+      this.adjacentCounts = new int[nodeCount];
+      this.deletedNeighbourCounts = new int[nodeCount];
+      this.witnessDistances = new double[nodeCount];
+      this.witnessVisited = new int[nodeCount];
+      final int[] offsets = graph.offsets;
+      for (int node = 0; node < nodeCount; node++) {
+        final int degree = offsets[node + 1] - offsets[node];
+        this.adjacentArcs[node] = new int[degree + 4];
+        this.adjacentNodes[node] = new int[degree + 4];
+      }
+      for (int node = 0; node < nodeCount; node++) {
+        for (int arc = offsets[node]; arc < offsets[node + 1]; arc++) {
+          final int target = graph.targets[arc];
+          if (node < target) {
+            addArc(node, target, graph.weights[arc], graph.edgeIds[arc], -1, -1, -1);
+          }
+        }
+      }
+    }
+
+    /**
+     * Add the arc if there isn't an existing arc between the nodes with the same or lower weight.
+     */
+    private void addArc(final int node1, final int node2, final double weight, final int edgeId,
+      final int middle, final int child1, final int child2) {
+      final int index = getAdjacentIndex(node1, node2);
+      if (index == -1 || weight < this.arcWeights[this.adjacentArcs[node1][index]]) {
+        if (this.arcCount == this.arcNodes1.length) {
+          final int newLength = this.arcCount * 2;
+          this.arcChildren1 = Arrays.copyOf(this.arcChildren1, newLength);
+          this.arcChildren2 = Arrays.copyOf(this.arcChildren2, newLength);
+          this.arcEdgeIds = Arrays.copyOf(this.arcEdgeIds, newLength);
+          this.arcMiddles = Arrays.copyOf(this.arcMiddles, newLength);
+          this.arcNodes1 = Arrays.copyOf(this.arcNodes1, newLength);
+          this.arcWeights = Arrays.copyOf(this.arcWeights, newLength);
+        }
+        final int arc = this.arcCount++;
+        this.arcChildren1[arc] = child1;
+        this.arcChildren2[arc] = child2;
+        this.arcEdgeIds[arc] = edgeId;
+        this.arcMiddles[arc] = middle;
+        this.arcNodes1[arc] = node1;
+        this.arcWeights[arc] = weight;
+        // Existing arcs may be children of shortcuts so they are replaced rather than updated
+        setAdjacentArc(node1, node2, arc);
+        setAdjacentArc(node2, node1, arc);
+      }
+    }
+
+    /**
+     * Contract the node, or if simulate is true count the shortcuts that would be added.
+     *
+     * @return The number of shortcuts.
+     */
+    private int contract(final int node, final boolean simulate) {
+      final int settledLimit = simulate ? SIMULATE_SETTLED_LIMIT : WITNESS_SETTLED_LIMIT;
+      int shortcutCount = 0;
+      final int adjacentCount = this.adjacentCounts[node];
+      final int[] adjacentNodes = this.adjacentNodes[node];
+      final int[] adjacentArcs = this.adjacentArcs[node];
+      for (int i = 0; i < adjacentCount - 1; i++) {
+        final int node1 = adjacentNodes[i];
+        final int arc1 = adjacentArcs[i];
+        final double weight1 = this.arcWeights[arc1];
+        double maxDistance = 0;
+        for (int j = i + 1; j < adjacentCount; j++) {
+          maxDistance = Math.max(maxDistance, weight1 + this.arcWeights[adjacentArcs[j]]);
+        }
+        witnessSearch(node1, node, maxDistance, settledLimit);
+        for (int j = i + 1; j < adjacentCount; j++) {
+          final int node2 = adjacentNodes[j];
+          final int arc2 = adjacentArcs[j];
+          final double distance = weight1 + this.arcWeights[arc2];
+          if (getWitnessDistance(node2) > distance) {
+            shortcutCount++;
+            if (!simulate) {
+              addArc(node1, node2, distance, -1, node, arc1, arc2);
+            }
+          }
+        }
+      }
+      return shortcutCount;
+    }
+
+    /**
+     * Contract the nodes in priority order. When a node is contracted it is removed from the
+     * adjacent lists of its neighbours, so its own adjacent list is left with the arcs to the
+     * higher ranked nodes.
+     */
+    private void contractNodes() {
+      final NodeHeap heap = new NodeHeap();
+      for (int node = 0; node < this.nodeCount; node++) {
+        heap.add(node, getPriority(node));
+      }
+      while (!heap.isEmpty()) {
+        final int node = heap.remove();
+        final double priority = getPriority(node);
+        if (priority > heap.peekKey()) {
+          // Lazy update, the priority has increased since the node was added
+          heap.add(node, priority);
+        } else {
+          contract(node, false);
+          final int[] adjacentNodes = this.adjacentNodes[node];
+          for (int i = 0; i < this.adjacentCounts[node]; i++) {
+            final int adjacentNode = adjacentNodes[i];
+            removeAdjacent(adjacentNode, node);
+            this.deletedNeighbourCounts[adjacentNode]++;
+          }
+        }
+      }
+    }
+
+    private int getAdjacentIndex(final int node, final int adjacentNode) {
+      final int[] adjacentNodes = this.adjacentNodes[node];
+      for (int i = 0; i < this.adjacentCounts[node]; i++) {
+        if (adjacentNodes[i] == adjacentNode) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    private double getPriority(final int node) {
+      return contract(node, true) - this.adjacentCounts[node] + this.deletedNeighbourCounts[node];
+    }
+
+    private double getWitnessDistance(final int node) {
+      if (this.witnessVisited[node] == this.witnessVersion) {
+        return this.witnessDistances[node];
+      } else {
+        return Double.POSITIVE_INFINITY;
+      }
+    }
+
+    private void removeAdjacent(final int node, final int adjacentNode) {
+      final int index = getAdjacentIndex(node, adjacentNode);
+      if (index != -1) {
+        final int lastIndex = --this.adjacentCounts[node];
+        this.adjacentNodes[node][index] = this.adjacentNodes[node][lastIndex];
+        this.adjacentArcs[node][index] = this.adjacentArcs[node][lastIndex];
+      }
+    }
+
+    private void setAdjacentArc(final int node, final int adjacentNode, final int arc) {
+      final int index = getAdjacentIndex(node, adjacentNode);
+      if (index == -1) {
+        final int count = this.adjacentCounts[node]++;
+        if (count == this.adjacentNodes[node].length) {
+          this.adjacentNodes[node] = Arrays.copyOf(this.adjacentNodes[node], count * 2);
+          this.adjacentArcs[node] = Arrays.copyOf(this.adjacentArcs[node], count * 2);
+        }
+        this.adjacentNodes[node][count] = adjacentNode;
+        this.adjacentArcs[node][count] = arc;
+      } else {
+        this.adjacentArcs[node][index] = arc;
+      }
+    }
+
+    /**
+     * Search for the shortest paths from the source node up to maxDistance that don't go through
+     * the excluded node. The search is limited to settledLimit nodes so some paths may not be
+     * found, which only results in extra shortcuts.
+     */
+    private void witnessSearch(final int source, final int excludedNode, final double maxDistance,
+      final int settledLimit) {
+      final NodeHeap heap = this.witnessHeap;
+      final int version = ++this.witnessVersion;
+      heap.clear();
+      this.witnessVisited[source] = version;
+      this.witnessDistances[source] = 0;
+      heap.add(source, 0);
+      int settledCount = 0;
+      while (!heap.isEmpty() && heap.peekKey() <= maxDistance
+        && settledCount < settledLimit) {
+        final double distance = heap.peekKey();
+        final int node = heap.remove();
+        if (distance <= this.witnessDistances[node]) {
+          settledCount++;
+          final int[] adjacentNodes = this.adjacentNodes[node];
+          final int[] adjacentArcs = this.adjacentArcs[node];
+          for (int i = 0; i < this.adjacentCounts[node]; i++) {
+            final int target = adjacentNodes[i];
+            if (target != excludedNode) {
+              final double targetDistance = distance + this.arcWeights[adjacentArcs[i]];
+              if (targetDistance <= maxDistance && (this.witnessVisited[target] != version
+                || targetDistance < this.witnessDistances[target])) {
+                this.witnessVisited[target] = version;
+                this.witnessDistances[target] = targetDistance;
+                heap.add(target, targetDistance);
+              }
+            }
+          }
+        }
+      }
+    }
+  }
+
+  final int[] arcChildren1;
+
+  final int[] arcChildren2;
+
+  final int[] arcEdgeIds;
+
+  final int[] arcMiddles;
+
+  final int[] arcNodes1;
+
+  private final CompactGraph graph;
+
+  private final int shortcutCount;
+
+  final int[] upArcs;
+
+  final int[] upOffsets;
+
+  final int[] upTargets;
+
+  final double[] upWeights;
+
+  public ContractionHierarchy(final CompactGraph graph) {
+    this.graph = graph;
+    final Contraction contraction = new Contraction(graph);
+    final int originalArcCount = contraction.arcCount;
+    contraction.contractNodes();
+
+    final int arcCount = contraction.arcCount;
+    this.shortcutCount = arcCount - originalArcCount;
+    this.arcChildren1 = Arrays.copyOf(contraction.arcChildren1, arcCount);
+    this.arcChildren2 = Arrays.copyOf(contraction.arcChildren2, arcCount);
+    this.arcEdgeIds = Arrays.copyOf(contraction.arcEdgeIds, arcCount);
+    this.arcMiddles = Arrays.copyOf(contraction.arcMiddles, arcCount);
+    this.arcNodes1 = Arrays.copyOf(contraction.arcNodes1, arcCount);
+
+    final int nodeCount = graph.getNodeCount();
+    final int[] upOffsets = new int[nodeCount + 1];
+    for (int node = 0; node < nodeCount; node++) {
+      upOffsets[node + 1] = upOffsets[node] + contraction.adjacentCounts[node];
+    }
+    this.upOffsets = upOffsets;
+    final int upCount = upOffsets[nodeCount];
+    this.upArcs = new int[upCount];
+    this.upTargets = new int[upCount];
+    this.upWeights = new double[upCount];
+    for (int node = 0; node < nodeCount; node++) {
+      final int[] adjacentNodes = contraction.adjacentNodes[node];
+      final int[] adjacentArcs = contraction.adjacentArcs[node];
+      final int upIndex = upOffsets[node];
+      for (int i = 0; i < contraction.adjacentCounts[node]; i++) {
+        final int arc = adjacentArcs[i];
+        this.upArcs[upIndex + i] = arc;
+        this.upTargets[upIndex + i] = adjacentNodes[i];
+        this.upWeights[upIndex + i] = contraction.arcWeights[arc];
+      }
+    }
+  }
+
+  public CompactGraph getGraph() {
+    return this.graph;
+  }
+
+  public int getShortcutCount() {
+    return this.shortcutCount;
+  }
+
+  /**
+   * Construct a new query. Queries are not thread safe, use a separate query for each thread.
+   */
+  public ContractionHierarchyQuery newQuery() {
+    return new ContractionHierarchyQuery(this);
+  }
+
+  @Override
+  public String toString() {
+    return "ContractionHierarchy(nodes=" + this.graph.getNodeCount() + ", shortcuts="
+      + this.shortcutCount + ")";
+  }
+}
@@ -0,0 +1,214 @@
+package com.revolsys.geometry.graph.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Point to point query on a {@link ContractionHierarchy}. Both searches only follow the arcs to
+ * higher ranked nodes and each search stops when its smallest key is at least the shortest path
+ * found. The shortcuts in the path are then expanded to the original edges.
+ *
+ * <p>A query is not thread safe, create one for each thread using
+ * {@link ContractionHierarchy#newQuery()}.</p>
+ */
+public class ContractionHierarchyQuery implements CompactShortestPath {
+
+  private double distance = Double.POSITIVE_INFINITY;
+
+  private final double[] forwardDistances;
+
+  private final NodeHeap forwardHeap = new NodeHeap();
+
+  private final int[] forwardParentArcs;
+
+  private final int[] forwardParents;
+
+  private final int[] forwardVisited;
+
+  private final ContractionHierarchy hierarchy;
+
+  private int[] path = new int[64];
+
+  private int pathSize;
+
+  private final double[] reverseDistances;
+
+  private final NodeHeap reverseHeap = new NodeHeap();
+
+  private final int[] reverseParentArcs;
+
+  private final int[] reverseParents;
+
+  private final int[] reverseVisited;
+
+  private int version;
+
+  public ContractionHierarchyQuery(final ContractionHierarchy hierarchy) {
+    this.hierarchy = hierarchy;
+    final int nodeCount = hierarchy.getGraph().getNodeCount();
+    this.forwardDistances = new double[nodeCount];
+    this.forwardParentArcs = new int[nodeCount];
+    this.forwardParents = new int[nodeCount];
+    this.forwardVisited = new int[nodeCount];
+    this.reverseDistances = new double[nodeCount];
+    this.reverseParentArcs = new int[nodeCount];
+    this.reverseParents = new int[nodeCount];
+    this.reverseVisited = new int[nodeCount];
+  }
+
+  /**
+   * Add the original edge ids for the arc traversed starting at fromNode.
+   */
+  private void addEdgeIds(final int arc, final int fromNode) {
+    final ContractionHierarchy hierarchy = this.hierarchy;
+    final int edgeId = hierarchy.arcEdgeIds[arc];
+    if (edgeId != -1) {
+      if (this.pathSize == this.path.length) {
+        this.path = Arrays.copyOf(this.path, this.pathSize * 2);
+      }
+      this.path[this.pathSize++] = edgeId;
+    } else {
+      final int middle = hierarchy.arcMiddles[arc];
+      if (fromNode == hierarchy.arcNodes1[arc]) {
+        addEdgeIds(hierarchy.arcChildren1[arc], fromNode);
+        addEdgeIds(hierarchy.arcChildren2[arc], middle);
+      } else {
+        addEdgeIds(hierarchy.arcChildren2[arc], fromNode);
+        addEdgeIds(hierarchy.arcChildren1[arc], middle);
+      }
+    }
+  }
+
+  @Override
+  public int[] findEdgeIds(final int fromNodeIndex, final int toNodeIndex) {
+    newVersion();
+    if (fromNodeIndex == toNodeIndex) {
+      this.distance = 0;
+      return new int[0];
+    }
+    final int version = this.version;
+    this.forwardVisited[fromNodeIndex] = version;
+    this.forwardDistances[fromNodeIndex] = 0;
+    this.forwardParents[fromNodeIndex] = -1;
+    this.forwardHeap.add(fromNodeIndex, 0);
+    this.reverseVisited[toNodeIndex] = version;
+    this.reverseDistances[toNodeIndex] = 0;
+    this.reverseParents[toNodeIndex] = -1;
+    this.reverseHeap.add(toNodeIndex, 0);
+
+    double bestDistance = Double.POSITIVE_INFINITY;
+    int meetingNode = -1;
+    while (true) {
+      final double forwardKey = this.forwardHeap.peekKey();
+      final double reverseKey = this.reverseHeap.peekKey();
+      if (Math.min(forwardKey, reverseKey) >= bestDistance) {
+        break;
+      }
+      final int node;
+      final double nodeDistance;
+      if (forwardKey <= reverseKey) {
+        node = this.forwardHeap.remove();
+        nodeDistance = forwardKey;
+        if (nodeDistance <= this.forwardDistances[node]) {
+          if (this.reverseVisited[node] == version) {
+            final double pathDistance = nodeDistance + this.reverseDistances[node];
+            if (pathDistance < bestDistance) {
+              bestDistance = pathDistance;
+              meetingNode = node;
+            }
+          }
+          relax(node, nodeDistance, this.forwardHeap, this.forwardDistances, this.forwardParents,
+            this.forwardParentArcs, this.forwardVisited);
+        }
+      } else {
+        node = this.reverseHeap.remove();
+        nodeDistance = reverseKey;
+        if (nodeDistance <= this.reverseDistances[node]) {
+          if (this.forwardVisited[node] == version) {
+            final double pathDistance = nodeDistance + this.forwardDistances[node];
+            if (pathDistance < bestDistance) {
+              bestDistance = pathDistance;
+              meetingNode = node;
+            }
+          }
+          relax(node, nodeDistance, this.reverseHeap, this.reverseDistances, this.reverseParents,
+            this.reverseParentArcs, this.reverseVisited);
+        }
+      }
+    }
+    this.distance = bestDistance;
+    if (meetingNode == -1) {
+      return null;
+    } else {
+      return getPath(meetingNode);
+    }
+  }
+
+  @Override
+  public CompactGraph getCompactGraph() {
+    return this.hierarchy.getGraph();
+  }
+
+  @Override
+  public double getDistance() {
+    return this.distance;
+  }
+
+  private int[] getPath(final int meetingNode) {
+    this.pathSize = 0;
+    int forwardCount = 0;
+    for (int node = meetingNode; this.forwardParents[node] != -1; node = this.forwardParents[node]) {
+      forwardCount++;
+    }
+    final int[] forwardArcs = new int[forwardCount];
+    final int[] forwardFromNodes = new int[forwardCount];
+    int index = forwardCount;
+    for (int node = meetingNode; this.forwardParents[node] != -1; node = this.forwardParents[node]) {
+      index--;
+      forwardArcs[index] = this.forwardParentArcs[node];
+      forwardFromNodes[index] = this.forwardParents[node];
+    }
+    for (int i = 0; i < forwardCount; i++) {
+      addEdgeIds(forwardArcs[i], forwardFromNodes[i]);
+    }
+    for (int node = meetingNode; this.reverseParents[node] != -1; node = this.reverseParents[node]) {
+      addEdgeIds(this.reverseParentArcs[node], node);
+    }
+    return Arrays.copyOf(this.path, this.pathSize);
+  }
+
+  private void newVersion() {
+    this.forwardHeap.clear();
+    this.reverseHeap.clear();
+    this.version++;
+    if (this.version == Integer.MAX_VALUE) {
+      Arrays.fill(this.forwardVisited, 0);
+      Arrays.fill(this.reverseVisited, 0);
+      this.version = 1;
+    }
+  }
+
+  private void relax(final int node, final double nodeDistance, final NodeHeap heap,
+    final double[] distances, final int[] parents, final int[] parentArcs, final int[] visited) {
+    final ContractionHierarchy hierarchy = this.hierarchy;
+    final int[] upTargets = hierarchy.upTargets;
+    final double[] upWeights = hierarchy.upWeights;
+    final int[] upArcs = hierarchy.upArcs;
+    final int version = this.version;
+    for (int i = hierarchy.upOffsets[node]; i < hierarchy.upOffsets[node + 1]; i++) {
+      final int target = upTargets[i];
+      final double targetDistance = nodeDistance + upWeights[i];
+      if (visited[target] != version || targetDistance < distances[target]) {
+        visited[target] = version;
+        distances[target] = targetDistance;
+        parents[target] = node;
+        parentArcs[target] = upArcs[i];
+        heap.add(target, targetDistance);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "ContractionHierarchyQuery " + this.hierarchy;
+  }
+}
@@ -0,0 +1,88 @@
+package com.revolsys.geometry.graph.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * A binary min heap of node indexes ordered by a double key. A node can be added more than once
+ * (instead of decreasing the key), callers must ignore the removed entries for nodes that have
+ * already been processed.
+ */
+class NodeHeap {
+
+  private double[] keys = new double[64];
+
+  private int[] nodes = new int[64];
+
+  private int size;
+
+  public void add(final int node, final double key) {
+    if (this.size == this.nodes.length) {
+      final int newLength = this.size * 2;
+      this.nodes = Arrays.copyOf(this.nodes, newLength);
+      this.keys = Arrays.copyOf(this.keys, newLength);
+    }
+    int index = this.size++;
+    while (index > 0) {
+      final int parentIndex = (index - 1) >>> 1;
+      final double parentKey = this.keys[parentIndex];
+      if (parentKey <= key) {
+        break;
+      }
+      this.nodes[index] = this.nodes[parentIndex];
+      this.keys[index] = parentKey;
+      index = parentIndex;
+    }
+    this.nodes[index] = node;
+    this.keys[index] = key;
+  }
+
+  public void clear() {
+    this.size = 0;
+  }
+
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /**
+   * @return The smallest key or {@link Double#POSITIVE_INFINITY} if the heap is empty.
+   */
+  public double peekKey() {
+    if (this.size == 0) {
+      return Double.POSITIVE_INFINITY;
+    } else {
+      return this.keys[0];
+    }
+  }
+
+  /**
+   * Remove the node with the smallest key.
+   */
+  public int remove() {
+    final int node = this.nodes[0];
+    final int lastIndex = --this.size;
+    if (lastIndex > 0) {
+      final int lastNode = this.nodes[lastIndex];
+      final double lastKey = this.keys[lastIndex];
+      int index = 0;
+      while (true) {
+        int childIndex = index * 2 + 1;
+        if (childIndex >= lastIndex) {
+          break;
+        }
+        if (childIndex + 1 < lastIndex && this.keys[childIndex + 1] < this.keys[childIndex]) {
+          childIndex++;
+        }
+        if (lastKey <= this.keys[childIndex]) {
+          break;
+        }
+        this.nodes[index] = this.nodes[childIndex];
+        this.keys[index] = this.keys[childIndex];
+        index = childIndex;
+      }
+      this.nodes[index] = lastNode;
+      this.keys[index] = lastKey;
+    }
+    return node;
+  }
+}
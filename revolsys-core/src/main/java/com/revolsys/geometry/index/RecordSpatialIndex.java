@@ -9,6 +9,7 @@ import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
+import com.revolsys.geometry.index.hprtree.HilbertPackedRTree;
 import com.revolsys.geometry.index.quadtree.QuadTree;
 import com.revolsys.geometry.model.BoundingBox;
 import com.revolsys.geometry.model.BoundingBoxProxy;
@@ -21,6 +22,17 @@ import com.revolsys.visitor.CreateListVisitor;
 
 public class RecordSpatialIndex<R extends Record> implements SpatialIndex<R> {
 
+  /**
+   * Create an index using a {@link HilbertPackedRTree}. The tree is bulk loaded on the first
+   * query so it is best suited to indexes where all the records are added before querying.
+   */
+  public static <R2 extends Record> RecordSpatialIndex<R2> hilbertPackedRTree(
+    final GeometryFactory geometryFactory) {
+    final HilbertPackedRTree<R2> spatialIndex = new HilbertPackedRTree<>();
+    spatialIndex.setGeometryFactory(geometryFactory);
+    return new RecordSpatialIndex<>(spatialIndex);
+  }
+
   public static <R2 extends Record> RecordSpatialIndex<R2> quadTree(
     final GeometryFactory geometryFactory) {
     final QuadTree<R2> spatialIndex = new QuadTree<>(geometryFactory);
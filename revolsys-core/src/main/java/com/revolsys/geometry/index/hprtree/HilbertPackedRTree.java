@@ -0,0 +1,507 @@
+package com.revolsys.geometry.index.hprtree;
+
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+import org.jeometry.common.exception.Exceptions;
+
+import com.revolsys.geometry.index.SpatialIndex;
+import com.revolsys.geometry.model.BoundingBox;
+import com.revolsys.geometry.model.GeometryFactory;
+import com.revolsys.io.channels.ChannelWriter;
+import com.revolsys.spring.resource.Resource;
+import com.revolsys.util.ExitLoopException;
+
+/**
+ * A packed R-tree for static data. The items are sorted by the Hilbert code of the centre of
+ * their bounding box and packed into nodes of nodeCapacity entries. The bounding boxes of the
+ * items and nodes are stored in flat arrays of minX, minY, maxX, maxY. The children of node n in
+ * a layer are entries n * nodeCapacity to (n + 1) * nodeCapacity - 1 of the layer below, so no
+ * child pointers are stored.
+ *
+ * <p>The tree is built on the first query after items are inserted or removed. Inserting or
+ * removing items after a query causes the tree to be rebuilt on the next query.</p>
+ *
+ * <p>The tree can be written to a file using the item ids from an id function and read using a
+ * memory mapped buffer, the items are loaded using the item id when they are returned from a
+ * query.</p>
+ */
+public class HilbertPackedRTree<T> implements SpatialIndex<T> {
+
+  public static final int DEFAULT_NODE_CAPACITY = 16;
+
+  public static final String FILE_TYPE = "RSHPRT";
+
+  public static final byte[] FILE_TYPE_BYTES = FILE_TYPE.getBytes(StandardCharsets.UTF_8);
+
+  private static final int HILBERT_LEVEL = 15;
+
+  public static final int HILBERT_SIZE = 1 << HILBERT_LEVEL;
+
+  /**
+   * The maximum number of items in a tree written to a file. The item bounds are read as a single
+   * memory mapped buffer, which is limited to 2GB.
+   */
+  public static final int MAX_FILE_ITEM_COUNT = Integer.MAX_VALUE / (4 * Double.BYTES);
+
+  public static final short VERSION = 1;
+
+  /**
+   * Get the Hilbert code for the x, y position on a grid of
+   * {@link #HILBERT_SIZE}x{@link #HILBERT_SIZE} cells.
+   */
+  public static int hilbertCode(int x, int y) {
+    int code = 0;
+    for (int s = HILBERT_SIZE / 2; s > 0; s /= 2) {
+      final int rx = (x & s) > 0 ? 1 : 0;
+      final int ry = (y & s) > 0 ? 1 : 0;
+      code += s * s * (3 * rx ^ ry);
+      if (ry == 0) {
+        if (rx == 1) {
+          x = s - 1 - x;
+          y = s - 1 - y;
+        }
+        final int t = x;
+        x = y;
+        y = t;
+      }
+    }
+    return code;
+  }
+
+  /**
+   * Read a tree written by {@link #writeIndex(Resource, ToIntFunction)} using memory mapped
+   * buffers. The returned tree is read only. The node bounds, item bounds and item ids are each
+   * mapped as a separate buffer, so the file can be larger than 2GB but the tree can contain at
+   * most {@link #MAX_FILE_ITEM_COUNT} items.
+   *
+   * @param path The index file.
+   * @param itemLoader The function to get the item for an item id.
+   * @return The tree.
+   */
+  public static <V> HilbertPackedRTree<V> read(final Path path,
+    final IntFunction<? extends V> itemLoader) {
+    try (
+      FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      final int headerSize = FILE_TYPE_BYTES.length + Short.BYTES + 3 * Integer.BYTES;
+      final MappedByteBuffer header = channel.map(MapMode.READ_ONLY, 0, headerSize);
+      final byte[] fileType = new byte[FILE_TYPE_BYTES.length];
+      header.get(fileType);
+      if (!Arrays.equals(FILE_TYPE_BYTES, fileType)) {
+        throw new IllegalArgumentException("Not a packed R-tree file: " + path);
+      }
+      final short version = header.getShort();
+      if (version != VERSION) {
+        throw new IllegalArgumentException(
+          "Unsupported packed R-tree version " + version + ": " + path);
+      }
+      final int nodeCapacity = header.getInt();
+      final int itemCount = header.getInt();
+      final int layerCount = header.getInt();
+      if (itemCount > MAX_FILE_ITEM_COUNT) {
+        throw new IllegalArgumentException("Packed R-tree has " + itemCount
+          + " items, the maximum that can be read is " + MAX_FILE_ITEM_COUNT + ": " + path);
+      }
+      long position = headerSize;
+      final long layerStartsSize = (layerCount + 1L) * Integer.BYTES;
+      final IntBuffer layerStartsBuffer = channel
+        .map(MapMode.READ_ONLY, position, layerStartsSize)
+        .asIntBuffer();
+      position += layerStartsSize;
+      final int[] layerStarts = new int[layerCount + 1];
+      layerStartsBuffer.get(layerStarts);
+      final int nodeCount = layerStarts[layerCount];
+
+      final long nodeBoundsSize = (long)nodeCount * 4 * Double.BYTES;
+      final DoubleBuffer nodeBounds = channel.map(MapMode.READ_ONLY, position, nodeBoundsSize)
+        .asDoubleBuffer();
+      position += nodeBoundsSize;
+
+      final long itemBoundsSize = (long)itemCount * 4 * Double.BYTES;
+      final DoubleBuffer itemBounds = channel.map(MapMode.READ_ONLY, position, itemBoundsSize)
+        .asDoubleBuffer();
+      position += itemBoundsSize;
+
+      final IntBuffer itemIds = channel
+        .map(MapMode.READ_ONLY, position, (long)itemCount * Integer.BYTES)
+        .asIntBuffer();
+
+      final HilbertPackedRTree<V> tree = new HilbertPackedRTree<>(nodeCapacity);
+      tree.itemCount = itemCount;
+      tree.layerStarts = layerStarts;
+      tree.nodeBounds = nodeBounds;
+      tree.itemBounds = itemBounds;
+      tree.itemIds = itemIds;
+      tree.itemLoader = itemLoader;
+      return tree;
+    } catch (final IOException e) {
+      throw Exceptions.wrap("Unable to read: " + path, e);
+    }
+  }
+
+  private boolean built = true;
+
+  private GeometryFactory geometryFactory = GeometryFactory.DEFAULT_2D;
+
+  private DoubleBuffer itemBounds = DoubleBuffer.allocate(0);
+
+  private double[] itemBoundsArray = new double[0];
+
+  private int itemCount;
+
+  private IntBuffer itemIds;
+
+  private IntFunction<? extends T> itemLoader;
+
+  private Object[] items = new Object[0];
+
+  private int[] layerStarts = new int[] {
+    0
+  };
+
+  private DoubleBuffer nodeBounds = DoubleBuffer.allocate(0);
+
+  private final int nodeCapacity;
+
+  public HilbertPackedRTree() {
+    this(DEFAULT_NODE_CAPACITY);
+  }
+
+  public HilbertPackedRTree(final int nodeCapacity) {
+    if (nodeCapacity < 2) {
+      throw new IllegalArgumentException("nodeCapacity must be >= 2 not " + nodeCapacity);
+    }
+    this.nodeCapacity = nodeCapacity;
+  }
+
+  /**
+   * Sort the items by Hilbert code and build the node layers. Called automatically on the first
+   * query after the items are modified.
+   */
+  public synchronized void build() {
+    if (!this.built) {
+      final int itemCount = this.itemCount;
+      sortItems(itemCount);
+      final double[] itemBounds = this.itemBoundsArray;
+
+      final int nodeCapacity = this.nodeCapacity;
+      int layerCount = 0;
+      int nodeCount = 0;
+      for (int layerSize = itemCount; layerSize > 1 || layerCount == 0 && layerSize > 0;) {
+        layerSize = (layerSize + nodeCapacity - 1) / nodeCapacity;
+        nodeCount += layerSize;
+        layerCount++;
+      }
+      final int[] layerStarts = new int[layerCount + 1];
+      final double[] nodeBounds = new double[nodeCount * 4];
+
+      int childCount = itemCount;
+      double[] childBounds = itemBounds;
+      int childStart = 0;
+      int nodeIndex = 0;
+      for (int layer = 0; layer < layerCount; layer++) {
+        layerStarts[layer] = nodeIndex;
+        for (int childIndex = 0; childIndex < childCount; childIndex += nodeCapacity) {
+          final int childEnd = Math.min(childIndex + nodeCapacity, childCount);
+          double minX = Double.POSITIVE_INFINITY;
+          double minY = Double.POSITIVE_INFINITY;
+          double maxX = Double.NEGATIVE_INFINITY;
+          double maxY = Double.NEGATIVE_INFINITY;
+          for (int i = childStart + childIndex; i < childStart + childEnd; i++) {
+            final int offset = i * 4;
+            minX = Math.min(minX, childBounds[offset]);
+            minY = Math.min(minY, childBounds[offset + 1]);
+            maxX = Math.max(maxX, childBounds[offset + 2]);
+            maxY = Math.max(maxY, childBounds[offset + 3]);
+          }
+          final int offset = nodeIndex * 4;
+          nodeBounds[offset] = minX;
+          nodeBounds[offset + 1] = minY;
+          nodeBounds[offset + 2] = maxX;
+          nodeBounds[offset + 3] = maxY;
+          nodeIndex++;
+        }
+        childBounds = nodeBounds;
+        childStart = layerStarts[layer];
+        childCount = nodeIndex - childStart;
+      }
+      layerStarts[layerCount] = nodeIndex;
+
+      this.layerStarts = layerStarts;
+      this.nodeBounds = DoubleBuffer.wrap(nodeBounds);
+      this.itemBounds = DoubleBuffer.wrap(itemBounds, 0, itemCount * 4);
+      this.built = true;
+    }
+  }
+
+  @Override
+  public synchronized void clear() {
+    checkWritable();
+    this.itemCount = 0;
+    this.items = new Object[0];
+    this.itemBoundsArray = new double[0];
+    this.built = false;
+  }
+
+  private void checkWritable() {
+    if (this.itemIds != null) {
+      throw new UnsupportedOperationException("Packed R-tree read from a file is read only");
+    }
+  }
+
+  private void ensureBuilt() {
+    if (!this.built) {
+      build();
+    }
+  }
+
+  @Override
+  public boolean forEach(final Consumer<? super T> action) {
+    ensureBuilt();
+    try {
+      for (int i = 0; i < this.itemCount; i++) {
+        final T item = getItem(i);
+        action.accept(item);
+      }
+      return true;
+    } catch (final ExitLoopException e) {
+      return false;
+    }
+  }
+
+  @Override
+  public boolean forEach(final double x, final double y, final Consumer<? super T> action) {
+    return forEach(x, y, x, y, action);
+  }
+
+  @Override
+  public boolean forEach(final double minX, final double minY, final double maxX, final double maxY,
+    final Consumer<? super T> action) {
+    ensureBuilt();
+    final int layerCount = this.layerStarts.length - 1;
+    if (this.itemCount > 0) {
+      try {
+        forEachNode(layerCount - 1, 0, 1, minX, minY, maxX, maxY, action);
+      } catch (final ExitLoopException e) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void forEachNode(final int layer, final int startIndex, final int endIndex,
+    final double minX, final double minY, final double maxX, final double maxY,
+    final Consumer<? super T> action) {
+    final DoubleBuffer nodeBounds = this.nodeBounds;
+    final int nodeCapacity = this.nodeCapacity;
+    final int layerStart = this.layerStarts[layer];
+    for (int nodeIndex = startIndex; nodeIndex < endIndex; nodeIndex++) {
+      if (intersects(nodeBounds, layerStart + nodeIndex, minX, minY, maxX, maxY)) {
+        final int childStart = nodeIndex * nodeCapacity;
+        if (layer == 0) {
+          final int childEnd = Math.min(childStart + nodeCapacity, this.itemCount);
+          final DoubleBuffer itemBounds = this.itemBounds;
+          for (int itemIndex = childStart; itemIndex < childEnd; itemIndex++) {
+            if (intersects(itemBounds, itemIndex, minX, minY, maxX, maxY)) {
+              final T item = getItem(itemIndex);
+              action.accept(item);
+            }
+          }
+        } else {
+          final int childLayerSize = layerStart - this.layerStarts[layer - 1];
+          final int childEnd = Math.min(childStart + nodeCapacity, childLayerSize);
+          forEachNode(layer - 1, childStart, childEnd, minX, minY, maxX, maxY, action);
+        }
+      }
+    }
+  }
+
+  @Override
+  public GeometryFactory getGeometryFactory() {
+    return this.geometryFactory;
+  }
+
+  @SuppressWarnings("unchecked")
+  private T getItem(final int index) {
+    if (this.itemIds == null) {
+      return (T)this.items[index];
+    } else {
+      final int itemId = this.itemIds.get(index);
+      return this.itemLoader.apply(itemId);
+    }
+  }
+
+  public int getNodeCapacity() {
+    return this.nodeCapacity;
+  }
+
+  @Override
+  public int getSize() {
+    return this.itemCount;
+  }
+
+  @Override
+  public synchronized void insertItem(final BoundingBox boundingBox, final T item) {
+    checkWritable();
+    final int index = this.itemCount;
+    if (index == this.items.length) {
+      final int capacity = Math.max(16, index + (index >> 1));
+      this.items = Arrays.copyOf(this.items, capacity);
+      this.itemBoundsArray = Arrays.copyOf(this.itemBoundsArray, capacity * 4);
+    }
+    this.items[index] = item;
+    final int offset = index * 4;
+    final double[] itemBounds = this.itemBoundsArray;
+    if (boundingBox == null || boundingBox.isEmpty()) {
+      // Empty bounds never intersect a query and don't expand the node bounds
+      itemBounds[offset] = Double.POSITIVE_INFINITY;
+      itemBounds[offset + 1] = Double.POSITIVE_INFINITY;
+      itemBounds[offset + 2] = Double.NEGATIVE_INFINITY;
+      itemBounds[offset + 3] = Double.NEGATIVE_INFINITY;
+    } else {
+      itemBounds[offset] = boundingBox.getMinX();
+      itemBounds[offset + 1] = boundingBox.getMinY();
+      itemBounds[offset + 2] = boundingBox.getMaxX();
+      itemBounds[offset + 3] = boundingBox.getMaxY();
+    }
+    this.itemCount++;
+    this.built = false;
+  }
+
+  private boolean intersects(final DoubleBuffer bounds, final int index, final double minX,
+    final double minY, final double maxX, final double maxY) {
+    final int offset = index * 4;
+    return bounds.get(offset) <= maxX && bounds.get(offset + 1) <= maxY
+      && bounds.get(offset + 2) >= minX && bounds.get(offset + 3) >= minY;
+  }
+
+  @Override
+  public synchronized boolean removeItem(final BoundingBox boundingBox, final T item) {
+    checkWritable();
+    final Object[] items = this.items;
+    final double[] itemBounds = this.itemBoundsArray;
+    final int lastIndex = this.itemCount - 1;
+    for (int i = 0; i <= lastIndex; i++) {
+      if (items[i] == item) {
+        items[i] = items[lastIndex];
+        items[lastIndex] = null;
+        System.arraycopy(itemBounds, lastIndex * 4, itemBounds, i * 4, 4);
+        this.itemCount--;
+        this.built = false;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void setGeometryFactory(final GeometryFactory geometryFactory) {
+    this.geometryFactory = geometryFactory;
+  }
+
+  private void sortItems(final int itemCount) {
+    final double[] itemBounds = this.itemBoundsArray;
+    double minX = Double.POSITIVE_INFINITY;
+    double minY = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY;
+    double maxY = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < itemCount; i++) {
+      final int offset = i * 4;
+      minX = Math.min(minX, itemBounds[offset]);
+      minY = Math.min(minY, itemBounds[offset + 1]);
+      maxX = Math.max(maxX, itemBounds[offset + 2]);
+      maxY = Math.max(maxY, itemBounds[offset + 3]);
+    }
+    final double width = maxX - minX;
+    final double height = maxY - minY;
+    final double scaleX = width > 0 ? (HILBERT_SIZE - 1) / width : 0;
+    final double scaleY = height > 0 ? (HILBERT_SIZE - 1) / height : 0;
+
+    // The Hilbert code is in the upper 32 bits and the item index in the lower 32 bits
+    final long[] keys = new long[itemCount];
+    for (int i = 0; i < itemCount; i++) {
+      final int offset = i * 4;
+      final double centreX = (itemBounds[offset] + itemBounds[offset + 2]) / 2;
+      final double centreY = (itemBounds[offset + 1] + itemBounds[offset + 3]) / 2;
+      int x = 0;
+      int y = 0;
+      if (Double.isFinite(centreX) && Double.isFinite(centreY)) {
+        x = (int)((centreX - minX) * scaleX);
+        y = (int)((centreY - minY) * scaleY);
+      }
+      keys[i] = (long)hilbertCode(x, y) << 32 | i;
+    }
+    Arrays.parallelSort(keys);
+
+    final Object[] items = this.items;
+    final Object[] sortedItems = new Object[Math.max(itemCount, 16)];
+    final double[] sortedBounds = new double[sortedItems.length * 4];
+    for (int i = 0; i < itemCount; i++) {
+      final int index = (int)keys[i];
+      sortedItems[i] = items[index];
+      System.arraycopy(itemBounds, index * 4, sortedBounds, i * 4, 4);
+    }
+    this.items = sortedItems;
+    this.itemBoundsArray = sortedBounds;
+  }
+
+  @Override
+  public String toString() {
+    return "HilbertPackedRTree(items=" + this.itemCount + ", nodes="
+      + this.layerStarts[this.layerStarts.length - 1] + ")";
+  }
+
+  /**
+   * Write the tree to the resource. The items are written as the integer id returned from
+   * itemIdFunction (e.g. the record number in a shapefile). The tree can contain at most
+   * {@link #MAX_FILE_ITEM_COUNT} items.
+   *
+   * @param resource The resource to write to.
+   * @param itemIdFunction The function to get the id for an item.
+   */
+  public synchronized void writeIndex(final Resource resource,
+    final ToIntFunction<? super T> itemIdFunction) {
+    ensureBuilt();
+    final int itemCount = this.itemCount;
+    if (itemCount > MAX_FILE_ITEM_COUNT) {
+      throw new IllegalStateException("Packed R-tree has " + itemCount
+        + " items, the maximum that can be written is " + MAX_FILE_ITEM_COUNT + ": " + resource);
+    }
+    final int[] layerStarts = this.layerStarts;
+    final int layerCount = layerStarts.length - 1;
+    final int nodeCount = layerStarts[layerCount];
+    try (
+      ChannelWriter writer = resource.newChannelWriter()) {
+      writer.putBytes(FILE_TYPE_BYTES);
+      writer.putShort(VERSION);
+      writer.putInt(this.nodeCapacity);
+      writer.putInt(itemCount);
+      writer.putInt(layerCount);
+      for (final int layerStart : layerStarts) {
+        writer.putInt(layerStart);
+      }
+      for (int i = 0; i < nodeCount * 4; i++) {
+        writer.putDouble(this.nodeBounds.get(i));
+      }
+      for (int i = 0; i < itemCount * 4; i++) {
+        writer.putDouble(this.itemBounds.get(i));
+      }
+      for (int i = 0; i < itemCount; i++) {
+        final T item = getItem(i);
+        final int itemId = itemIdFunction.applyAsInt(item);
+        writer.putInt(itemId);
+      }
+    }
+  }
+}
@@ -35,6 +35,9 @@ package com.revolsys.geometry.operation.union;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
 import com.revolsys.collection.list.Lists;
 import com.revolsys.geometry.index.strtree.StrTree;
@@ -44,6 +47,8 @@ import com.revolsys.geometry.model.GeometryFactory;
 import com.revolsys.geometry.model.Polygon;
 import com.revolsys.geometry.model.Polygonal;
 import com.revolsys.geometry.model.TopologyException;
+import com.revolsys.record.Record;
+import com.revolsys.record.io.RecordReader;
 import com.revolsys.util.Property;
 
 /**
@@ -70,11 +75,37 @@ import com.revolsys.util.Property;
  * The best situation for using <tt>buffer(0)</tt> is the trivial case
  * where there is <i>no</i> overlap between the input geometries.
  * However, this case is likely rare in practice.
+ * <p>
+ * If {@link #setParallel(boolean)} is true the subtrees of the index are
+ * unioned as fork/join tasks in the {@link ForkJoinPool#commonPool()}.
+ * As the subtrees are spatially partitioned by the index they are
+ * independent and each task only holds the polygons in its subtree.
  *
  * @author Martin Davis
  *
  */
 public class CascadedPolygonUnion {
+  private class UnionTreeTask extends RecursiveTask<Polygonal> {
+    private static final long serialVersionUID = 1L;
+
+    private final List<?> items;
+
+    private UnionTreeTask(final List<?> items) {
+      this.items = items;
+    }
+
+    @Override
+    protected Polygonal compute() {
+      return unionTree(this.items);
+    }
+  }
+
+  /**
+   * The minimum number of polygons for {@link UnaryUnionOp#unionParallel(java.util.Collection)}
+   * to use the parallel union.
+   */
+  public static final int PARALLEL_MIN_POLYGON_COUNT = 1000;
+
   /**
    * The effectiveness of the index is somewhat sensitive
    * to the node capacity.
@@ -84,6 +115,30 @@ public class CascadedPolygonUnion {
    */
   private static final int STRTREE_NODE_CAPACITY = 4;
 
+  /**
+   * Add the union of a batch to the partial unions. The partial union at
+   * index i is the union of 2^i batches. Like a binary counter, partial
+   * unions of the same level are merged, so each polygon is only re-unioned
+   * log(batch count) times.
+   */
+  private static void addBatchUnion(final List<Polygonal> levelUnions, Polygonal union) {
+    for (int level = 0; union != null; level++) {
+      if (level == levelUnions.size()) {
+        levelUnions.add(union);
+        return;
+      } else {
+        final Polygonal levelUnion = levelUnions.get(level);
+        if (levelUnion == null) {
+          levelUnions.set(level, union);
+          return;
+        } else {
+          levelUnions.set(level, null);
+          union = unionParallel(Arrays.asList(levelUnion, union));
+        }
+      }
+    }
+  }
+
   /**
    * Gets the element at a given list index, or
    * null if the index is out of range.
@@ -142,8 +197,67 @@ public class CascadedPolygonUnion {
     return union(Arrays.asList(polygons));
   }
 
+  /**
+   * Computes the union of
+   * a collection of {@link Polygonal} {@link Polygonal}s,
+   * unioning the subtrees of the index in parallel.
+   *
+   * @param polygons a collection of {@link Polygonal} {@link Polygonal}s
+   */
+  public static Polygonal unionParallel(final Iterable<? extends Polygonal> polygons) {
+    final CascadedPolygonUnion op = new CascadedPolygonUnion(polygons);
+    op.setParallel(true);
+    return op.union();
+  }
+
+  /**
+   * Computes the union of the polygonal geometries of the records read from
+   * the reader, without holding all the input polygons in memory. The polygons
+   * are read in batches of batchSize polygons and each batch is unioned on its
+   * own, in parallel. The batch unions are merged hierarchically (pairs of
+   * batches, then pairs of pairs), so the work grows with n log n rather than
+   * with the square of the batch count. At most one batch of input polygons
+   * is held in memory along with log2(batch count) partial unions.
+   *
+   * @param reader the reader to read the records from
+   * @param batchSize the number of polygons to read before unioning them
+   * @return the union of the polygons
+   */
+  public static Polygonal unionRecords(final RecordReader reader, final int batchSize) {
+    final List<Polygon> polygons = new ArrayList<>();
+    final List<Polygonal> levelUnions = new ArrayList<>();
+    for (final Record record : reader) {
+      final Geometry geometry = record.getGeometry();
+      if (geometry instanceof Polygonal) {
+        for (final Polygon polygon : ((Polygonal)geometry).polygons()) {
+          polygons.add(polygon);
+        }
+        if (polygons.size() >= batchSize) {
+          addBatchUnion(levelUnions, unionParallel(polygons));
+          polygons.clear();
+        }
+      }
+    }
+    if (levelUnions.isEmpty() || !polygons.isEmpty()) {
+      addBatchUnion(levelUnions, unionParallel(polygons));
+    }
+    Polygonal union = null;
+    for (final Polygonal levelUnion : levelUnions) {
+      if (levelUnion != null) {
+        if (union == null) {
+          union = levelUnion;
+        } else {
+          union = unionParallel(Arrays.asList(levelUnion, union));
+        }
+      }
+    }
+    return union;
+  }
+
   private GeometryFactory geometryFactory;
 
+  private boolean parallel;
+
   private List<Polygon> polygons = new ArrayList<>();
 
   /**
@@ -223,6 +337,10 @@ public class CascadedPolygonUnion {
     }
   }
 
+  public boolean isParallel() {
+    return this.parallel;
+  }
+
   /**
    * Reduces a tree of geometries to a list of geometries
    * by recursively unioning the subtrees in the list.
@@ -231,6 +349,9 @@ public class CascadedPolygonUnion {
    * @return a list of Geometrys
    */
   private List<Polygonal> reduceToGeometries(final List<?> items) {
+    if (this.parallel && items.size() > 1 && items.get(0) instanceof List) {
+      return reduceToGeometriesParallel(items);
+    }
     final List<Polygonal> geoms = new ArrayList<>();
     for (final Object item : items) {
       Polygonal polygon = null;
@@ -245,6 +366,42 @@ public class CascadedPolygonUnion {
     return geoms;
   }
 
+  /**
+   * Reduces a tree of geometries to a list of geometries
+   * by unioning each subtree as a fork/join task.
+   */
+  private List<Polygonal> reduceToGeometriesParallel(final List<?> items) {
+    final List<UnionTreeTask> tasks = new ArrayList<>();
+    for (final Object item : items) {
+      if (item instanceof List) {
+        tasks.add(new UnionTreeTask((List<?>)item));
+      }
+    }
+    ForkJoinTask.invokeAll(tasks);
+
+    final List<Polygonal> geoms = new ArrayList<>();
+    int taskIndex = 0;
+    for (final Object item : items) {
+      if (item instanceof List) {
+        geoms.add(tasks.get(taskIndex++).join());
+      } else if (item instanceof Polygonal) {
+        geoms.add((Polygonal)item);
+      } else {
+        geoms.add(null);
+      }
+    }
+    return geoms;
+  }
+
+  /**
+   * Sets whether the subtrees of the index are unioned in parallel.
+   *
+   * @param parallel true to union the subtrees in parallel
+   */
+  public void setParallel(final boolean parallel) {
+    this.parallel = parallel;
+  }
+
   /**
    * Computes the union of the input geometries.
    * <p>
@@ -281,8 +438,12 @@ public class CascadedPolygonUnion {
       this.polygons = null;
 
       final List<?> itemTree = index.itemsTree();
-      final Polygonal unionAll = unionTree(itemTree);
-      return unionAll;
+      if (this.parallel && !ForkJoinTask.inForkJoinPool()) {
+        return ForkJoinPool.commonPool().invoke(new UnionTreeTask(itemTree));
+      } else {
+        final Polygonal unionAll = unionTree(itemTree);
+        return unionAll;
+      }
     }
   }
 
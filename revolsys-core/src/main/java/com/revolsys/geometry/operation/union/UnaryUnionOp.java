@@ -83,6 +83,9 @@ import com.revolsys.geometry.operation.overlay.snap.SnapIfNeededOverlayOp;
  * <tt>UnaryUnion</tt> always operates on the individual components of MultiGeometries.
  * So it is possible to use it to "clean" invalid self-intersecting MultiPolygons
  * (although the polygon components must all still be individually valid.)
+ * <p>
+ * {@link #unionParallel(Collection)} unions the polygons in parallel if there
+ * are at least {@link CascadedPolygonUnion#PARALLEL_MIN_POLYGON_COUNT} polygons.
  *
  * @author mbdavis
  *
@@ -113,7 +116,12 @@ public class UnaryUnionOp {
    * or an empty GEOMETRYCOLLECTION
    */
   public static Geometry union(final Collection<? extends Geometry> geometries,
-    GeometryFactory geometryFactory) {
+    final GeometryFactory geometryFactory) {
+    return union(geometries, geometryFactory, false);
+  }
+
+  private static Geometry union(final Collection<? extends Geometry> geometries,
+    GeometryFactory geometryFactory, final boolean parallel) {
 
     final List<Point> points = new ArrayList<>();
     final List<LineString> lines = new ArrayList<>();
@@ -126,7 +134,7 @@ public class UnaryUnionOp {
       lines.addAll(geometry.getGeometries(LineString.class));
       polygons.addAll(geometry.getGeometries(Polygon.class));
     }
-    return union(geometryFactory, points, lines, polygons);
+    return union(geometryFactory, points, lines, polygons, parallel);
   }
 
   /**
@@ -152,7 +160,7 @@ public class UnaryUnionOp {
    * or <code>null</code> if no GeometryFactory was provided
    */
   private static Geometry union(final GeometryFactory geometryFactory, final List<Point> points,
-    final List<LineString> lines, final List<Polygon> polygons) {
+    final List<LineString> lines, final List<Polygon> polygons, final boolean parallel) {
     if (geometryFactory == null) {
       return null;
     } else {
@@ -176,7 +184,9 @@ public class UnaryUnionOp {
       }
 
       Geometry unionPolygons = null;
-      if (polygons.size() > 0) {
+      if (parallel && polygons.size() >= CascadedPolygonUnion.PARALLEL_MIN_POLYGON_COUNT) {
+        unionPolygons = CascadedPolygonUnion.unionParallel(polygons);
+      } else if (polygons.size() > 0) {
         unionPolygons = CascadedPolygonUnion.union(polygons);
       }
 
@@ -249,4 +259,18 @@ public class UnaryUnionOp {
     final Geometry empty = geometryFactory.point();
     return SnapIfNeededOverlayOp.overlayOp(geometry, empty, OverlayOp.UNION);
   }
+
+  /**
+   * Computes the geometric union of a {@link Collection}
+   * of {@link Geometry}s, unioning the polygons in parallel in the
+   * {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+   *
+   * @param geoms a collection of geometries
+   * @return the union of the geometries,
+   * or <code>null</code> if the input is empty
+   * @see CascadedPolygonUnion#unionParallel(Iterable)
+   */
+  public static Geometry unionParallel(final Collection<? extends Geometry> geometries) {
+    return union(geometries, null, true);
+  }
 }
@@ -88,8 +88,13 @@ public class WkbByteBufferReader {
     return coordinates;
   }
 
+  /**
+   * Read a geometry from OGC/ISO WKB or PostGIS EWKB. For EWKB the Z, M and SRID flags in the high
+   * bits of the type are converted to the ISO type and the SRID (if present) is used for the
+   * geometry factory of the geometry.
+   */
   @SuppressWarnings("unchecked")
-  public static <G extends Geometry> G readGeometry(final GeometryFactory geometryFactory,
+  public static <G extends Geometry> G readGeometry(GeometryFactory geometryFactory,
     final ByteBuffer data) {
     ByteOrder byteOrder;
     if (data.get() == 0) {
@@ -99,7 +104,25 @@ public class WkbByteBufferReader {
     }
     data.order(byteOrder);
 
-    final int geometryType = data.getInt();
+    int geometryType = data.getInt();
+    if ((geometryType & 0xE0000000) != 0) {
+      if ((geometryType & 0x20000000) != 0) {
+        final int coordinateSystemId = data.getInt();
+        if (coordinateSystemId > 0
+          && coordinateSystemId != geometryFactory.getHorizontalCoordinateSystemId()) {
+          geometryFactory = geometryFactory.convertSrid(coordinateSystemId);
+        }
+      }
+      final boolean hasZ = (geometryType & 0x80000000) != 0;
+      final boolean hasM = (geometryType & 0x40000000) != 0;
+      geometryType &= 0x0FFFFFFF;
+      if (hasZ) {
+        geometryType += 1000;
+      }
+      if (hasM) {
+        geometryType += 2000;
+      }
+    }
     final BiFunction<GeometryFactory, ByteBuffer, Geometry> reader = READERS.get(geometryType);
     if (reader == null) {
       throw new IllegalArgumentException("Unsupported WKB geometryType=" + geometryType);
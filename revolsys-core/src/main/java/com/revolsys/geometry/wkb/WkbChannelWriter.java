@@ -2,6 +2,7 @@ package com.revolsys.geometry.wkb;
 
 import java.io.ByteArrayOutputStream;
 
+import org.jeometry.common.data.type.DataType;
 import org.jeometry.common.function.BiConsumerDouble;
 import org.jeometry.common.function.Consumer3Double;
 import org.jeometry.common.function.Consumer4Double;
@@ -9,13 +10,17 @@ import org.jeometry.common.function.Consumer4Double;
 import com.revolsys.geometry.model.ClockDirection;
 import com.revolsys.geometry.model.Geometry;
 import com.revolsys.geometry.model.GeometryCollection;
+import com.revolsys.geometry.model.GeometryDataTypes;
 import com.revolsys.geometry.model.LineString;
+import com.revolsys.geometry.model.Lineal;
 import com.revolsys.geometry.model.LinearRing;
 import com.revolsys.geometry.model.MultiLineString;
 import com.revolsys.geometry.model.MultiPoint;
 import com.revolsys.geometry.model.MultiPolygon;
 import com.revolsys.geometry.model.Point;
 import com.revolsys.geometry.model.Polygon;
+import com.revolsys.geometry.model.Polygonal;
+import com.revolsys.geometry.model.Punctual;
 import com.revolsys.io.channels.ChannelWriter;
 
 public class WkbChannelWriter extends ChannelWriter {
@@ -38,10 +43,46 @@ public class WkbChannelWriter extends ChannelWriter {
     putDouble(m);
   };
 
+  private int coordinateSystemId = 0;
+
+  /** True while writing EWKB, empty geometries are written with the Z and M flags. */
+  private boolean ewkb = false;
+
   public WkbChannelWriter(final ByteArrayOutputStream out) {
     super(out);
   }
 
+  /**
+   * Write the geometry as PostGIS EWKB. The SRID of the geometry is written in the header of the
+   * top level geometry. Single part geometries are written as a multi part geometry if the
+   * dataType is a multi part type. Empty geometries are written with the axis count of their
+   * geometry factory, as PostGIS checks the Z and M of empty geometries against the column.
+   *
+   * @param dataType The data type of the column the geometry will be stored in.
+   * @param geometry The geometry to write.
+   */
+  public void writeEwkb(final DataType dataType, final Geometry geometry) {
+    this.coordinateSystemId = geometry.getHorizontalCoordinateSystemId();
+    this.ewkb = true;
+    try {
+      if (dataType == GeometryDataTypes.MULTI_POLYGON && geometry instanceof Polygonal) {
+        putByte((byte)0);
+        writeMultiPolygon((Polygonal)geometry);
+      } else if (dataType == GeometryDataTypes.MULTI_LINE_STRING && geometry instanceof Lineal) {
+        putByte((byte)0);
+        writeMultiLineString((Lineal)geometry);
+      } else if (dataType == GeometryDataTypes.MULTI_POINT && geometry instanceof Punctual) {
+        putByte((byte)0);
+        writeMultiPoint((Punctual)geometry);
+      } else {
+        writeGeometry(geometry);
+      }
+    } finally {
+      this.coordinateSystemId = 0;
+      this.ewkb = false;
+    }
+  }
+
   public void writeGeometry(final Geometry geometry) {
     putByte((byte)0);
     if (geometry instanceof Point) {
@@ -75,14 +116,28 @@ public class WkbChannelWriter extends ChannelWriter {
   }
 
   public int writeGeometryType(final Geometry geometry, int geometryType) {
-    final int axisCount = geometry.getAxisCount();
+    int axisCount = geometry.getAxisCount();
+    boolean writeAxisFlags = true;
     if (geometry.isEmpty()) {
+      if (this.ewkb) {
+        axisCount = geometry.getGeometryFactory().getAxisCount();
+      } else {
+        writeAxisFlags = false;
+      }
+    }
+    if (!writeAxisFlags) {
     } else if (axisCount == 3) {
       geometryType += 1000;
     } else if (axisCount == 4) {
       geometryType += 3000;
     }
-    putInt(geometryType);
+    if (this.coordinateSystemId > 0) {
+      putInt(geometryType | 0x20000000);
+      putInt(this.coordinateSystemId);
+      this.coordinateSystemId = 0;
+    } else {
+      putInt(geometryType);
+    }
     return axisCount;
   }
 
@@ -124,7 +179,7 @@ public class WkbChannelWriter extends ChannelWriter {
     writeLineCoordinates(line, axisCount);
   }
 
-  public void writeMultiLineString(final MultiLineString multiLineString) {
+  public void writeMultiLineString(final Lineal multiLineString) {
     writeGeometryType(multiLineString, 5);
     final int lineCount = multiLineString.getGeometryCount();
     putInt(lineCount);
@@ -135,7 +190,7 @@ public class WkbChannelWriter extends ChannelWriter {
     }
   }
 
-  public void writeMultiPoint(final MultiPoint multiPoint) {
+  public void writeMultiPoint(final Punctual multiPoint) {
     writeGeometryType(multiPoint, 4);
     final int pointCount = multiPoint.getGeometryCount();
     putInt(pointCount);
@@ -146,7 +201,7 @@ public class WkbChannelWriter extends ChannelWriter {
     }
   }
 
-  public void writeMultiPolygon(final MultiPolygon multiPolygon) {
+  public void writeMultiPolygon(final Polygonal multiPolygon) {
     writeGeometryType(multiPolygon, 6);
     final int polygonCount = multiPolygon.getGeometryCount();
     putInt(polygonCount);
@@ -160,8 +215,13 @@ public class WkbChannelWriter extends ChannelWriter {
   public void writePoint(final Point point) {
     final int axisCount = writeGeometryType(point, 1);
     if (point.isEmpty()) {
-      putLong(0x7ff8000000000000L);
-      putLong(0x7ff8000000000000L);
+      int nanCount = 2;
+      if (this.ewkb) {
+        nanCount = axisCount;
+      }
+      for (int i = 0; i < nanCount; i++) {
+        putLong(0x7ff8000000000000L);
+      }
     } else {
       if (axisCount == 4) {
         point.forEachVertex(this.writeVertexZM);
@@ -1,22 +1,43 @@
 package com.revolsys.gis.parallel;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
-import java.util.List;
+import java.util.Iterator;
+import java.util.Map;
 
 import com.revolsys.parallel.channel.Channel;
 import com.revolsys.parallel.process.BaseInOutProcess;
 import com.revolsys.record.Record;
+import com.revolsys.record.Records;
 import com.revolsys.record.comparator.RecordFieldComparator;
+import com.revolsys.record.io.ExternalRecordSorter;
 
+/**
+ * Sort the records read from the in channel and write them to the out channel. If there are more
+ * than maxRecordsInMemory records they are sorted using temporary files, see
+ * {@link ExternalRecordSorter}.
+ */
 public class Sort extends BaseInOutProcess<Record, Record> {
 
   private Comparator<Record> comparator;
 
   private String fieldName;
 
-  private final List<Record> objects = new ArrayList<>();
+  private int maxRecordsInMemory = ExternalRecordSorter.DEFAULT_MAX_RECORDS_IN_MEMORY;
+
+  private ExternalRecordSorter sorter;
+
+  /**
+   * Close the sorter, deleting any temporary files, if processing stopped before
+   * {@link #postRun(Channel, Channel)} returned the sorted records.
+   */
+  @Override
+  protected void destroy() {
+    final ExternalRecordSorter sorter = this.sorter;
+    if (sorter != null) {
+      this.sorter = null;
+      sorter.close();
+    }
+  }
 
   public Comparator<Record> getComparator() {
     return this.comparator;
@@ -26,19 +47,41 @@ public class Sort extends BaseInOutProcess<Record, Record> {
     return this.fieldName;
   }
 
+  public int getMaxRecordsInMemory() {
+    return this.maxRecordsInMemory;
+  }
+
   @Override
   protected void postRun(final Channel<Record> in, final Channel<Record> out) {
-    if (this.comparator != null) {
-      Collections.sort(this.objects, this.comparator);
+    final ExternalRecordSorter sorter = this.sorter;
+    if (sorter != null) {
+      this.sorter = null;
+      try {
+        final Iterator<Record> records = sorter.sort();
+        while (records.hasNext()) {
+          final Record record = records.next();
+          out.write(record);
+        }
+      } finally {
+        sorter.close();
+      }
     }
-    for (final Record object : this.objects) {
-      out.write(object);
+  }
+
+  @Override
+  protected void preRun(final Channel<Record> in, final Channel<Record> out) {
+    if (this.comparator != null) {
+      this.sorter = new ExternalRecordSorter(this.comparator, this.maxRecordsInMemory);
     }
   }
 
   @Override
   protected void process(final Channel<Record> in, final Channel<Record> out, final Record object) {
-    this.objects.add(object);
+    if (this.sorter == null) {
+      out.write(object);
+    } else {
+      this.sorter.add(object);
+    }
   }
 
   public void setComparator(final Comparator<Record> comparator) {
@@ -50,4 +93,18 @@ public class Sort extends BaseInOutProcess<Record, Record> {
     this.comparator = new RecordFieldComparator(fieldName);
   }
 
+  public void setMaxRecordsInMemory(final int maxRecordsInMemory) {
+    this.maxRecordsInMemory = maxRecordsInMemory;
+  }
+
+  /**
+   * Sort by the fields in order, the value for each field is true for ascending and false for
+   * descending.
+   *
+   * @param orderBy The map of field names to ascending flag.
+   */
+  public void setOrderBy(final Map<String, Boolean> orderBy) {
+    this.comparator = Records.newComparatorOrderByIdentifier(orderBy);
+  }
+
 }
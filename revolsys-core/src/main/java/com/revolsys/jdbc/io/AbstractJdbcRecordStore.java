@@ -97,6 +97,8 @@ public abstract class AbstractJdbcRecordStore extends AbstractRecordStore
 
   private List<String> excludeTablePatterns = new ArrayList<>();
 
+  private int fetchSize = 10;
+
   private final Map<String, JdbcFieldAdder> fieldDefinitionAdders = new HashMap<>();
 
   private boolean flushBetweenTypes;
@@ -113,6 +115,12 @@ public abstract class AbstractJdbcRecordStore extends AbstractRecordStore
 
   private final Map<String, String> sequenceTypeSqlMap = new HashMap<>();
 
+  private long streamingFetchBufferSize = 8 * 1024 * 1024;
+
+  private int streamingFetchSize = 1000;
+
+  private boolean streamingRead = false;
+
   private String sqlPrefix;
 
   private String sqlSuffix;
@@ -352,6 +360,11 @@ public abstract class AbstractJdbcRecordStore extends AbstractRecordStore
     }
   }
 
+  @Override
+  public int getFetchSize() {
+    return this.fetchSize;
+  }
+
   public JdbcFieldAdder getFieldAdder(final String dataType) {
     JdbcFieldAdder fieldAdder = this.fieldDefinitionAdders.get(dataType);
     if (fieldAdder == null) {
@@ -515,6 +528,16 @@ public abstract class AbstractJdbcRecordStore extends AbstractRecordStore
     return this.sqlSuffix;
   }
 
+  @Override
+  public long getStreamingFetchBufferSize() {
+    return this.streamingFetchBufferSize;
+  }
+
+  @Override
+  public int getStreamingFetchSize() {
+    return this.streamingFetchSize;
+  }
+
   @Override
   public PlatformTransactionManager getTransactionManager() {
     return this.transactionManager;
@@ -616,6 +639,11 @@ public abstract class AbstractJdbcRecordStore extends AbstractRecordStore
 
   public abstract boolean isSchemaExcluded(String schemaName);
 
+  @Override
+  public boolean isStreamingRead() {
+    return this.streamingRead;
+  }
+
   public boolean isUseUpperCaseNames() {
     return this.useUpperCaseNames;
   }
@@ -986,6 +1014,12 @@ public abstract class AbstractJdbcRecordStore extends AbstractRecordStore
     this.excludeTablePatterns = new ArrayList<>(Arrays.asList(excludeTablePatterns));
   }
 
+  public void setFetchSize(final int fetchSize) {
+    if (fetchSize > 0) {
+      this.fetchSize = fetchSize;
+    }
+  }
+
   public void setFlushBetweenTypes(final boolean flushBetweenTypes) {
     this.flushBetweenTypes = flushBetweenTypes;
   }
@@ -1022,6 +1056,31 @@ public abstract class AbstractJdbcRecordStore extends AbstractRecordStore
     this.sqlSuffix = sqlSuffix;
   }
 
+  /**
+   * Set the target number of bytes to read on each fetch round trip for streaming queries. The
+   * fetch size is adjusted from the average size of the rows read so far. A value of 0 disables
+   * the adjustment.
+   *
+   * @param streamingFetchBufferSize The target number of bytes per fetch.
+   */
+  public void setStreamingFetchBufferSize(final long streamingFetchBufferSize) {
+    if (streamingFetchBufferSize < 0) {
+      this.streamingFetchBufferSize = 0;
+    } else {
+      this.streamingFetchBufferSize = streamingFetchBufferSize;
+    }
+  }
+
+  public void setStreamingFetchSize(final int streamingFetchSize) {
+    if (streamingFetchSize > 0) {
+      this.streamingFetchSize = streamingFetchSize;
+    }
+  }
+
+  public void setStreamingRead(final boolean streamingRead) {
+    this.streamingRead = streamingRead;
+  }
+
   protected void setUsesSchema(final boolean usesSchema) {
     this.usesSchema = usesSchema;
   }
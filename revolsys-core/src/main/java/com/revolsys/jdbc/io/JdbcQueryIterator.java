@@ -14,12 +14,15 @@ import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.UncategorizedSQLException;
 
 import com.revolsys.collection.iterator.AbstractIterator;
+import com.revolsys.geometry.model.Geometry;
 import com.revolsys.io.FileUtil;
 import com.revolsys.jdbc.JdbcConnection;
 import com.revolsys.jdbc.JdbcUtils;
 import com.revolsys.record.Record;
 import com.revolsys.record.RecordFactory;
 import com.revolsys.record.RecordState;
+import com.revolsys.record.batch.RecordBatch;
+import com.revolsys.record.batch.RecordBatchReader;
 import com.revolsys.record.io.RecordReader;
 import com.revolsys.record.query.ColumnIndexes;
 import com.revolsys.record.query.Query;
@@ -29,7 +32,12 @@ import com.revolsys.util.Booleans;
 import com.revolsys.util.count.LabelCountMap;
 import com.revolsys.util.count.LabelCounters;
 
-public class JdbcQueryIterator extends AbstractIterator<Record> implements RecordReader {
+public class JdbcQueryIterator extends AbstractIterator<Record>
+  implements RecordReader, RecordBatchReader {
+  private static final int MAX_STREAMING_FETCH_SIZE = 100000;
+
+  private static final int MIN_STREAMING_FETCH_SIZE = 100;
+
   public static Record getNextRecord(final JdbcRecordStore recordStore,
     final RecordDefinition recordDefinition, final List<QueryValue> selectExpression,
     final RecordFactory<Record> recordFactory, final ResultSet resultSet,
@@ -61,7 +69,21 @@ public class JdbcQueryIterator extends AbstractIterator<Record> implements Recor
 
   private final int currentQueryIndex = -1;
 
-  private final int fetchSize = 10;
+  private int fetchSize;
+
+  private boolean streaming;
+
+  private long fetchBufferSize;
+
+  private int fetchRowCount;
+
+  private long fetchByteCount;
+
+  private long rowCount;
+
+  private long byteCount;
+
+  private String typePath;
 
   private List<QueryValue> selectExpressions = new ArrayList<>();
 
@@ -85,7 +107,21 @@ public class JdbcQueryIterator extends AbstractIterator<Record> implements Recor
     final Map<String, Object> properties) {
     super();
 
-    final boolean autoCommit = Booleans.getBoolean(properties.get("autoCommit"));
+    this.streaming = query.isStreaming() || recordStore.isStreamingRead();
+    final boolean autoCommit;
+    if (this.streaming) {
+      // Cursor based fetching requires the query to run in a transaction
+      autoCommit = false;
+      this.fetchSize = recordStore.getStreamingFetchSize();
+      this.fetchBufferSize = recordStore.getStreamingFetchBufferSize();
+    } else {
+      autoCommit = Booleans.getBoolean(properties.get("autoCommit"));
+      this.fetchSize = recordStore.getFetchSize();
+    }
+    final int queryFetchSize = query.getFetchSize();
+    if (queryFetchSize > 0) {
+      this.fetchSize = queryFetchSize;
+    }
     this.internStrings = Booleans.getBoolean(properties.get("internStrings"));
     this.connection = recordStore.getJdbcConnection(autoCommit);
     this.recordFactory = query.getRecordFactory();
@@ -100,8 +136,46 @@ public class JdbcQueryIterator extends AbstractIterator<Record> implements Recor
     }
   }
 
+  /**
+   * Record the size of the row read and, for streaming queries, adjust the fetch size so each
+   * round trip reads approximately {@link #fetchBufferSize} bytes.
+   */
+  private void addRowStatistics(final long recordSize) throws SQLException {
+    this.rowCount++;
+    this.byteCount += recordSize;
+    this.fetchRowCount++;
+    this.fetchByteCount += recordSize;
+    if (this.fetchRowCount >= this.fetchSize) {
+      final JdbcRecordStore recordStore = this.recordStore;
+      if (this.typePath != null) {
+        recordStore.addStatistic("queryBytes", this.typePath, this.fetchByteCount);
+        recordStore.addStatistic("queryFetches", this.typePath, 1);
+      }
+      if (this.streaming && this.fetchBufferSize > 0 && this.byteCount > 0) {
+        final long averageRowSize = Math.max(1, this.byteCount / this.rowCount);
+        long newFetchSize = this.fetchBufferSize / averageRowSize;
+        if (newFetchSize < MIN_STREAMING_FETCH_SIZE) {
+          newFetchSize = MIN_STREAMING_FETCH_SIZE;
+        } else if (newFetchSize > MAX_STREAMING_FETCH_SIZE) {
+          newFetchSize = MAX_STREAMING_FETCH_SIZE;
+        }
+        // Only change the fetch size if it differs by more than 25%
+        if (Math.abs(newFetchSize - this.fetchSize) * 4 > this.fetchSize) {
+          this.fetchSize = (int)newFetchSize;
+          this.resultSet.setFetchSize(this.fetchSize);
+        }
+      }
+      this.fetchRowCount = 0;
+      this.fetchByteCount = 0;
+    }
+  }
+
   @Override
   public synchronized void closeDo() {
+    if (this.fetchRowCount > 0 && this.typePath != null && this.recordStore != null) {
+      this.recordStore.addStatistic("queryBytes", this.typePath, this.fetchByteCount);
+      this.recordStore.addStatistic("queryFetches", this.typePath, 1);
+    }
     JdbcUtils.close(this.statement, this.resultSet);
     FileUtil.closeSilent(this.connection);
     this.selectExpressions = null;
@@ -116,6 +190,15 @@ public class JdbcQueryIterator extends AbstractIterator<Record> implements Recor
     this.labelCountMap = null;
   }
 
+  /**
+   * Get the approximate number of bytes read by the query.
+   *
+   * @return The number of bytes read.
+   */
+  public long getByteCount() {
+    return this.byteCount;
+  }
+
   protected String getErrorMessage() {
     if (this.queries == null) {
       return null;
@@ -124,14 +207,28 @@ public class JdbcQueryIterator extends AbstractIterator<Record> implements Recor
     }
   }
 
+  private DataAccessException getException(final SQLException e) {
+    final JdbcConnection connection = this.connection;
+    final String sql = getErrorMessage();
+    if (connection == null) {
+      return new UncategorizedSQLException("Get Next", sql, e);
+    } else {
+      return connection.getException("Get Next", sql, e);
+    }
+  }
+
   @Override
   protected Record getNext() throws NoSuchElementException {
     try {
       if (this.resultSet != null && !this.query.isCancelled() && this.resultSet.next()) {
         final Record record = getNextRecord(this.recordStore, this.recordDefinition,
           this.selectExpressions, this.recordFactory, this.resultSet, this.internStrings);
-        if (this.labelCountMap != null) {
-          this.labelCountMap.addCount(record);
+        if (record != null) {
+          final long recordSize = getRecordSize(record);
+          addRowStatistics(recordSize);
+          if (this.labelCountMap != null) {
+            this.labelCountMap.addCount(record);
+          }
         }
         return record;
       } else {
@@ -144,13 +241,7 @@ public class JdbcQueryIterator extends AbstractIterator<Record> implements Recor
       if (cancelled) {
         e2 = null;
       } else {
-        final JdbcConnection connection = this.connection;
-        final String sql = getErrorMessage();
-        if (connection == null) {
-          e2 = new UncategorizedSQLException("Get Next", sql, e);
-        } else {
-          e2 = connection.getException("Get Next", sql, e);
-        }
+        e2 = getException(e);
       }
       close();
       if (cancelled) {
@@ -167,10 +258,14 @@ public class JdbcQueryIterator extends AbstractIterator<Record> implements Recor
     }
   }
 
+  public int getFetchSize() {
+    return this.fetchSize;
+  }
+
   @Override
   public RecordDefinition getRecordDefinition() {
     if (this.recordDefinition == null) {
-      hasNext();
+      open();
     }
     return this.recordDefinition;
   }
@@ -180,6 +275,26 @@ public class JdbcQueryIterator extends AbstractIterator<Record> implements Recor
     return this.recordStore;
   }
 
+  /**
+   * Get the approximate size in bytes of the record as transferred from the database.
+   *
+   * @param record The record.
+   * @return The size in bytes.
+   */
+  protected long getRecordSize(final Record record) {
+    long size = 0;
+    final int fieldCount = record.getFieldCount();
+    for (int fieldIndex = 0; fieldIndex < fieldCount; fieldIndex++) {
+      final Object value = record.getValue(fieldIndex);
+      size += getValueSize(value);
+    }
+    return size;
+  }
+
+  public long getRowCount() {
+    return this.rowCount;
+  }
+
   protected ResultSet getResultSet() {
     final Query query = this.query;
     final PathName tableName = query.getTablePath();
@@ -210,10 +325,17 @@ public class JdbcQueryIterator extends AbstractIterator<Record> implements Recor
       dbTableName = this.recordDefinition.getDbTableName();
     }
 
+    if (this.recordDefinition == null) {
+      if (tableName != null) {
+        this.typePath = tableName.toString();
+      }
+    } else {
+      this.typePath = this.recordDefinition.getPath();
+    }
+
     final String sql = getSql(query);
     try {
-      this.statement = this.connection.prepareStatement(sql);
-      this.statement.setFetchSize(this.fetchSize);
+      this.statement = newStatement(sql);
 
       this.resultSet = this.recordStore.getResultSet(this.statement, query);
       final ResultSetMetaData resultSetMetaData = this.resultSet.getMetaData();
@@ -238,6 +360,27 @@ public class JdbcQueryIterator extends AbstractIterator<Record> implements Recor
     return query.getSelectSql();
   }
 
+  /**
+   * Get the approximate size in bytes of the value as transferred from the database.
+   *
+   * @param value The value.
+   * @return The size in bytes.
+   */
+  protected long getValueSize(final Object value) {
+    if (value == null) {
+      return 1;
+    } else if (value instanceof CharSequence) {
+      return ((CharSequence)value).length();
+    } else if (value instanceof byte[]) {
+      return ((byte[])value).length;
+    } else if (value instanceof Geometry) {
+      final Geometry geometry = (Geometry)value;
+      return 9 + (long)geometry.getVertexCount() * geometry.getAxisCount() * 8;
+    } else {
+      return 8;
+    }
+  }
+
   @Override
   protected void initDo() {
     this.resultSet = getResultSet();
@@ -247,6 +390,85 @@ public class JdbcQueryIterator extends AbstractIterator<Record> implements Recor
     return this.internStrings;
   }
 
+  public boolean isStreaming() {
+    return this.streaming;
+  }
+
+  /**
+   * Create the statement for the query. The statement is forward only and read only so drivers
+   * can use a cursor (PostgreSQL) or row prefetch (Oracle) to fetch {@link #getFetchSize()} rows
+   * on each round trip.
+   *
+   * @param sql The SQL query.
+   * @return The statement.
+   * @throws SQLException If the statement could not be created.
+   */
+  protected PreparedStatement newStatement(final String sql) throws SQLException {
+    final PreparedStatement statement = this.connection.prepareStatement(sql,
+      ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    statement.setFetchDirection(ResultSet.FETCH_FORWARD);
+    statement.setFetchSize(this.fetchSize);
+    return statement;
+  }
+
+  /**
+   * Read the rows from the result set directly into the batch without creating a record for each
+   * row.
+   */
+  @Override
+  public boolean readBatch(final RecordBatch batch) {
+    batch.clear();
+    open();
+    final JdbcRecordStore recordStore = this.recordStore;
+    final LabelCounters labelCountMap = this.labelCountMap;
+    try {
+      final List<QueryValue> selectExpressions = this.selectExpressions;
+      final ColumnIndexes indexes = new ColumnIndexes();
+      final boolean internStrings = this.internStrings;
+      while (!batch.isFull()) {
+        final ResultSet resultSet = this.resultSet;
+        if (resultSet == null || this.query.isCancelled() || !resultSet.next()) {
+          close();
+          break;
+        }
+        final int index = batch.addRecord();
+        indexes.columnIndex = 0;
+        long recordSize = 0;
+        int fieldIndex = 0;
+        for (final QueryValue expression : selectExpressions) {
+          final Object value = expression.getValueFromResultSet(resultSet, indexes, internStrings);
+          batch.setValue(index, fieldIndex, value);
+          recordSize += getValueSize(value);
+          fieldIndex++;
+        }
+        addRowStatistics(recordSize);
+      }
+    } catch (final SQLException e) {
+      if (this.query.isCancelled()) {
+        close();
+      } else {
+        final DataAccessException e2 = getException(e);
+        close();
+        throw e2;
+      }
+    } catch (final RuntimeException e) {
+      close();
+      throw e;
+    } catch (final Error e) {
+      close();
+      throw e;
+    }
+    final int recordCount = batch.getRecordCount();
+    final PathName pathName = batch.getPathName();
+    if (recordCount > 0 && pathName != null) {
+      recordStore.addStatistic("query", pathName.toString(), recordCount);
+      if (labelCountMap != null) {
+        labelCountMap.addCount(batch, recordCount);
+      }
+    }
+    return recordCount > 0;
+  }
+
   public void setInternStrings(final boolean internStrings) {
     this.internStrings = internStrings;
   }
@@ -18,6 +18,7 @@ import com.revolsys.jdbc.JdbcUtils;
 import com.revolsys.record.Record;
 import com.revolsys.record.RecordFactory;
 import com.revolsys.record.query.Query;
+import com.revolsys.record.query.QueryCursor;
 import com.revolsys.record.query.QueryValue;
 import com.revolsys.record.schema.RecordDefinition;
 import com.revolsys.util.Booleans;
@@ -25,6 +26,9 @@ import com.revolsys.util.Booleans;
 public class JdbcQueryResultPager implements ResultPager<Record> {
   private JdbcConnection connection;
 
+  /** The cursor for the page after the current keyset page. */
+  private String nextCursor;
+
   /** The number of pages. */
   private int numPages;
 
@@ -113,6 +117,18 @@ public class JdbcQueryResultPager implements ResultPager<Record> {
     }
   }
 
+  /**
+   * Get the SQL for a keyset page. The statement's max rows is set to the limit, subclasses can
+   * add the database's limit clause so the database can stop the query early.
+   *
+   * @param query The keyset query.
+   * @param limit The maximum number of rows to return.
+   * @return The SQL.
+   */
+  protected String getKeysetSql(final Query query, final int limit) {
+    return query.getSelectSql();
+  }
+
   /**
    * Get the list of objects in the current page.
    *
@@ -126,6 +142,16 @@ public class JdbcQueryResultPager implements ResultPager<Record> {
     return this.results;
   }
 
+  /**
+   * Get the cursor to pass to {@link #setCursor(String)} to get the page after the current keyset
+   * page.
+   *
+   * @return The cursor or null if there are no more pages.
+   */
+  public String getNextCursor() {
+    return this.nextCursor;
+  }
+
   /**
    * Get the page number of the next page.
    *
@@ -281,6 +307,70 @@ public class JdbcQueryResultPager implements ResultPager<Record> {
     return this.pageNumber == getNumPages();
   }
 
+  /**
+   * <p>
+   * Set the current page to the page of records after the cursor using keyset pagination. Use a
+   * null cursor for the first page and {@link #getNextCursor()} for the following pages.
+   * </p>
+   *
+   * <p>
+   * Each page is selected with a condition on the order by and primary key columns instead of an
+   * offset so deep pages take the same time as the first page. The page number and count methods
+   * are not updated in this mode.
+   * </p>
+   *
+   * @param cursor The cursor.
+   * @see QueryCursor
+   */
+  public void setCursor(final String cursor) {
+    final Query query = QueryCursor.newKeysetQuery(this.query, cursor);
+    final int pageSize = this.pageSize;
+    final String sql = getKeysetSql(query, pageSize + 1);
+    final List<Record> results = new ArrayList<>();
+    boolean hasNextPage = false;
+    try (
+      final PreparedStatement statement = this.connection.prepareStatement(sql)) {
+      statement.setMaxRows(pageSize + 1);
+      statement.setFetchSize(pageSize + 1);
+      try (
+        final ResultSet resultSet = this.recordStore.getResultSet(statement, query)) {
+        while (resultSet.next()) {
+          if (results.size() == pageSize) {
+            hasNextPage = true;
+            break;
+          } else {
+            final Record record = JdbcQueryIterator.getNextRecord(this.recordStore,
+              this.recordDefinition, this.selectExpressions, this.recordFactory, resultSet,
+              this.internStrings);
+            results.add(record);
+          }
+        }
+      }
+    } catch (final SQLException e) {
+      throw this.connection.getException("setCursor", sql, e);
+    }
+    if (hasNextPage) {
+      final Record lastRecord = results.get(results.size() - 1);
+      this.nextCursor = QueryCursor.newQueryCursor(query, lastRecord).toString();
+    } else {
+      this.nextCursor = null;
+    }
+    this.results = results;
+  }
+
+  /**
+   * Set the page size without running the offset query and set the current page to the page of
+   * records after the cursor.
+   *
+   * @param pageSize The number of records per page.
+   * @param cursor The cursor.
+   * @see #setCursor(String)
+   */
+  public void setCursor(final int pageSize, final String cursor) {
+    this.pageSize = pageSize;
+    setCursor(cursor);
+  }
+
   protected void setNumResults(final int numResults) {
     this.numResults = numResults;
   }
@@ -35,6 +35,8 @@ public interface JdbcRecordStore extends RecordStore {
     }
   }
 
+  int getFetchSize();
+
   String getGeneratePrimaryKeySql(JdbcRecordDefinition recordDefinition);
 
   JdbcConnection getJdbcConnection();
@@ -52,11 +54,22 @@ public interface JdbcRecordStore extends RecordStore {
     return statement.executeQuery();
   }
 
+  /**
+   * Get the target number of bytes to read on each fetch round trip for streaming queries.
+   *
+   * @return The number of bytes, 0 if the fetch size is not adjusted.
+   */
+  long getStreamingFetchBufferSize();
+
+  int getStreamingFetchSize();
+
   PreparedStatement insertStatementPrepareRowId(JdbcConnection connection,
     RecordDefinition recordDefinition, String sql) throws SQLException;
 
   boolean isIdFieldRowid(RecordDefinition recordDefinition);
 
+  boolean isStreamingRead();
+
   default void lockTable(final String typePath) {
     try (
       final JdbcConnection connection = getJdbcConnection()) {
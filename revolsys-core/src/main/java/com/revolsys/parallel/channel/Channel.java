@@ -1,16 +1,31 @@
 package com.revolsys.parallel.channel;
 
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.revolsys.parallel.ThreadInterruptedException;
+import com.revolsys.parallel.channel.store.RingBuffer;
 import com.revolsys.parallel.channel.store.ZeroBuffer;
 
+/**
+ * A channel between processes. If the ChannelValueStore is a {@link RingBuffer} the reads and
+ * writes use the lock free buffer directly and only synchronize on the monitor when they need to
+ * wait, or to wake a reader or writer that is waiting.
+ *
+ * <p>The channel counts the values read and written and the time readers and writers spent
+ * waiting. For a RingBuffer the counts are the buffer's read and write indexes, so the lock free
+ * reads and writes don't update any other state.</p>
+ */
 public class Channel<T> implements SelectableChannelInput<T>, ChannelOutput<T> {
+  /** The value returned by {@link RingBuffer#poll(Object)} if the buffer is empty. */
+  private static final Object NO_VALUE = new Object();
+
   /** The Alternative class which will control the selection */
-  protected MultiInputSelector alt;
+  protected volatile MultiInputSelector alt;
 
   /** Flag indicating if the channel has been closed. */
-  private boolean closed = false;
+  private volatile boolean closed = false;
 
   /** The ChannelValueStore used to store the data for the Channel */
   protected ChannelValueStore<T> data;
@@ -27,11 +42,32 @@ public class Channel<T> implements SelectableChannelInput<T>, ChannelOutput<T> {
   /** Number of writers connected to the channel. */
   private int numWriters = 0;
 
+  /** The total time in nanoseconds readers waited for a value, updated holding the monitor. */
+  private volatile long readBlockedTime;
+
+  /** The number of values read if not a RingBuffer, updated holding the monitor. */
+  private volatile long readCount;
+
   /** The monitor reads must synchronize on */
   protected Object readMonitor = new Object();
 
+  /** The data if it is a RingBuffer, used for the lock free reads and writes. */
+  private final RingBuffer<T> ringBuffer;
+
+  /** The number of readers waiting on the monitor for a RingBuffer. */
+  private final AtomicInteger waitingReaderCount = new AtomicInteger();
+
+  /** The number of writers waiting on the monitor for a RingBuffer. */
+  private final AtomicInteger waitingWriterCount = new AtomicInteger();
+
+  /** The total time in nanoseconds writers waited for space, updated holding the monitor. */
+  private volatile long writeBlockedTime;
+
   /** Flag indicating if the channel is closed for writing. */
-  private boolean writeClosed;
+  private volatile boolean writeClosed;
+
+  /** The number of values written if not a RingBuffer, updated holding the monitor. */
+  private volatile long writeCount;
 
   /** The monitor writes must synchronize on */
   protected Object writeMonitor = new Object();
@@ -49,17 +85,21 @@ public class Channel<T> implements SelectableChannelInput<T>, ChannelOutput<T> {
    * @param data The ChannelValueStore used to store the data for the Channel
    */
   public Channel(final ChannelValueStore<T> data) {
-    this.data = data;
+    this(null, data);
   }
 
   public Channel(final String name) {
-    this();
-    this.name = name;
+    this(name, new ZeroBuffer<T>());
   }
 
   public Channel(final String name, final ChannelValueStore<T> data) {
     this.name = name;
     this.data = data;
+    if (data instanceof RingBuffer) {
+      this.ringBuffer = (RingBuffer<T>)data;
+    } else {
+      this.ringBuffer = null;
+    }
   }
 
   public void close() {
@@ -75,7 +115,16 @@ public class Channel<T> implements SelectableChannelInput<T>, ChannelOutput<T> {
   @Override
   public boolean enable(final MultiInputSelector alt) {
     synchronized (this.monitor) {
-      if (this.data.getState() == ChannelValueStore.EMPTY) {
+      if (this.ringBuffer != null) {
+        // Set alt before checking the state as writes don't synchronize on the monitor
+        this.alt = alt;
+        if (this.ringBuffer.isEmpty()) {
+          return false;
+        } else {
+          this.alt = null;
+          return true;
+        }
+      } else if (this.data.getState() == ChannelValueStore.EMPTY) {
         this.alt = alt;
         return false;
       } else {
@@ -88,6 +137,65 @@ public class Channel<T> implements SelectableChannelInput<T>, ChannelOutput<T> {
     return this.name;
   }
 
+  /**
+   * The total time in nanoseconds readers were blocked waiting for a value to be written.
+   *
+   * @return The time.
+   */
+  public long getReadBlockedTime() {
+    return this.readBlockedTime;
+  }
+
+  /**
+   * The number of values read from the channel.
+   *
+   * @return The number of values.
+   */
+  public long getReadCount() {
+    if (this.ringBuffer == null) {
+      return this.readCount;
+    } else {
+      return this.ringBuffer.getReadCount();
+    }
+  }
+
+  /**
+   * The number of values written to the channel that have not been read.
+   *
+   * @return The number of values.
+   */
+  public int getSize() {
+    if (this.ringBuffer == null) {
+      synchronized (this.monitor) {
+        return this.data.size();
+      }
+    } else {
+      return this.ringBuffer.size();
+    }
+  }
+
+  /**
+   * The total time in nanoseconds writers were blocked waiting for space in the buffer.
+   *
+   * @return The time.
+   */
+  public long getWriteBlockedTime() {
+    return this.writeBlockedTime;
+  }
+
+  /**
+   * The number of values written to the channel.
+   *
+   * @return The number of values.
+   */
+  public long getWriteCount() {
+    if (this.ringBuffer == null) {
+      return this.writeCount;
+    } else {
+      return this.ringBuffer.getWriteCount();
+    }
+  }
+
   @Override
   public boolean isClosed() {
     if (!this.closed) {
@@ -106,6 +214,32 @@ public class Channel<T> implements SelectableChannelInput<T>, ChannelOutput<T> {
     return new ChannelInputIterator<>(this);
   }
 
+  /**
+   * Wake any readers waiting for a value to be written.
+   */
+  private void notifyReaders() {
+    final MultiInputSelector tempAlt = this.alt;
+    if (tempAlt != null) {
+      tempAlt.schedule();
+    }
+    if (this.waitingReaderCount.get() > 0) {
+      synchronized (this.monitor) {
+        this.monitor.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Wake any writers waiting for space in the buffer.
+   */
+  private void notifyWriters() {
+    if (this.waitingWriterCount.get() > 0) {
+      synchronized (this.monitor) {
+        this.monitor.notifyAll();
+      }
+    }
+  }
+
   /**
    * Reads an Object from the Channel. This method also ensures only one of the
    * readers can actually be reading at any time. All other readers are blocked
@@ -127,19 +261,36 @@ public class Channel<T> implements SelectableChannelInput<T>, ChannelOutput<T> {
    * @param timeout The maximum time to wait in milliseconds.
    * @return The object returned from the Channel.
    */
+  @SuppressWarnings("unchecked")
   @Override
   public T read(final long timeout) {
+    final RingBuffer<T> ringBuffer = this.ringBuffer;
+    if (ringBuffer != null) {
+      if (this.closed) {
+        throw new ClosedException();
+      }
+      final T value = ringBuffer.poll((T)NO_VALUE);
+      if (value == NO_VALUE) {
+        return readWait(ringBuffer, timeout);
+      } else {
+        notifyWriters();
+        return value;
+      }
+    }
     synchronized (this.readMonitor) {
       synchronized (this.monitor) {
         if (isClosed()) {
           throw new ClosedException();
         }
         if (this.data.getState() == ChannelValueStore.EMPTY) {
+          final long startTime = System.nanoTime();
           try {
             try {
               this.monitor.wait(timeout);
             } catch (final InterruptedException e) {
               throw new ThreadInterruptedException(e);
+            } finally {
+              this.readBlockedTime += System.nanoTime() - startTime;
             }
             if (isClosed()) {
               throw new ClosedException();
@@ -155,12 +306,51 @@ public class Channel<T> implements SelectableChannelInput<T>, ChannelOutput<T> {
         } else {
           final T value = this.data.get();
           this.monitor.notifyAll();
+          this.readCount++;
           return value;
         }
       }
     }
   }
 
+  /**
+   * Read at least one and up to maxCount objects from the Channel, waiting until an object is
+   * available for the first object only.
+   *
+   * @param values The collection to add the objects to.
+   * @param maxCount The maximum number of objects to read.
+   * @return The number of objects read.
+   */
+  @Override
+  public int readAll(final Collection<? super T> values, final int maxCount) {
+    if (maxCount <= 0) {
+      return 0;
+    }
+    values.add(read());
+    int count = 1;
+    final RingBuffer<T> ringBuffer = this.ringBuffer;
+    if (ringBuffer == null) {
+      synchronized (this.readMonitor) {
+        synchronized (this.monitor) {
+          while (count < maxCount && !this.closed
+            && this.data.getState() != ChannelValueStore.EMPTY) {
+            values.add(this.data.get());
+            count++;
+          }
+          this.readCount += count - 1;
+          this.monitor.notifyAll();
+        }
+      }
+    } else {
+      final int readCount = ringBuffer.drainTo(values, maxCount - 1);
+      if (readCount > 0) {
+        notifyWriters();
+      }
+      count += readCount;
+    }
+    return count;
+  }
+
   @Override
   public void readConnect() {
     synchronized (this.monitor) {
@@ -173,6 +363,46 @@ public class Channel<T> implements SelectableChannelInput<T>, ChannelOutput<T> {
     }
   }
 
+  @SuppressWarnings("unchecked")
+  private T readWait(final RingBuffer<T> ringBuffer, final long timeout) {
+    final long startTime = System.nanoTime();
+    synchronized (this.monitor) {
+      this.waitingReaderCount.incrementAndGet();
+      try {
+        final long endTime = System.currentTimeMillis() + timeout;
+        while (true) {
+          // Check again after incrementing the waiting count so a write can't be missed
+          final T value = ringBuffer.poll((T)NO_VALUE);
+          if (value != NO_VALUE) {
+            if (this.waitingWriterCount.get() > 0) {
+              this.monitor.notifyAll();
+            }
+            return value;
+          } else if (isClosed()) {
+            throw new ClosedException();
+          }
+          long waitTime = 0;
+          if (timeout > 0) {
+            waitTime = endTime - System.currentTimeMillis();
+            if (waitTime <= 0) {
+              return null;
+            }
+          }
+          try {
+            this.monitor.wait(waitTime);
+          } catch (final InterruptedException e) {
+            close();
+            this.monitor.notifyAll();
+            throw new ClosedException();
+          }
+        }
+      } finally {
+        this.waitingReaderCount.decrementAndGet();
+        this.readBlockedTime += System.nanoTime() - startTime;
+      }
+    }
+  }
+
   @Override
   public void readDisconnect() {
     synchronized (this.monitor) {
@@ -205,6 +435,16 @@ public class Channel<T> implements SelectableChannelInput<T>, ChannelOutput<T> {
    */
   @Override
   public void write(final T value) {
+    final RingBuffer<T> ringBuffer = this.ringBuffer;
+    if (ringBuffer != null) {
+      if (this.closed) {
+        throw new ClosedException();
+      } else if (!ringBuffer.offer(value)) {
+        writeWait(ringBuffer, value);
+      }
+      notifyReaders();
+      return;
+    }
     synchronized (this.writeMonitor) {
       synchronized (this.monitor) {
         if (this.closed) {
@@ -212,17 +452,21 @@ public class Channel<T> implements SelectableChannelInput<T>, ChannelOutput<T> {
         }
         final MultiInputSelector tempAlt = this.alt;
         this.data.put(value);
+        this.writeCount++;
         if (tempAlt != null) {
           tempAlt.schedule();
         } else {
           this.monitor.notifyAll();
         }
         if (this.data.getState() == ChannelValueStore.FULL) {
+          final long startTime = System.nanoTime();
           try {
             try {
               this.monitor.wait();
             } catch (final InterruptedException e) {
               throw new ThreadInterruptedException(e);
+            } finally {
+              this.writeBlockedTime += System.nanoTime() - startTime;
             }
             if (this.closed) {
               throw new ClosedException();
@@ -237,6 +481,56 @@ public class Channel<T> implements SelectableChannelInput<T>, ChannelOutput<T> {
     }
   }
 
+  /**
+   * Writes all the objects to the Channel in order. For a RingBuffer the readers are only woken
+   * once for the values that fit in the buffer, instead of once per value.
+   *
+   * @param values The objects to write to the Channel.
+   */
+  @Override
+  public void writeAll(final Iterable<? extends T> values) {
+    final RingBuffer<T> ringBuffer = this.ringBuffer;
+    if (ringBuffer == null) {
+      ChannelOutput.super.writeAll(values);
+    } else {
+      for (final T value : values) {
+        if (this.closed) {
+          throw new ClosedException();
+        } else if (!ringBuffer.offer(value)) {
+          notifyReaders();
+          writeWait(ringBuffer, value);
+        }
+      }
+      notifyReaders();
+    }
+  }
+
+  private void writeWait(final RingBuffer<T> ringBuffer, final T value) {
+    final long startTime = System.nanoTime();
+    synchronized (this.monitor) {
+      this.waitingWriterCount.incrementAndGet();
+      try {
+        while (true) {
+          if (this.closed) {
+            throw new ClosedException();
+          } else if (ringBuffer.offer(value)) {
+            return;
+          }
+          try {
+            this.monitor.wait();
+          } catch (final InterruptedException e) {
+            close();
+            this.monitor.notifyAll();
+            throw new ClosedException(e);
+          }
+        }
+      } finally {
+        this.waitingWriterCount.decrementAndGet();
+        this.writeBlockedTime += System.nanoTime() - startTime;
+      }
+    }
+  }
+
   @Override
   public void writeConnect() {
     synchronized (this.monitor) {
@@ -1,5 +1,7 @@
 package com.revolsys.parallel.channel;
 
+import java.util.Collection;
+
 public interface ChannelInput<T> extends Iterable<T> {
   /**
    * Reads an Object from the Channel. This method also ensures only one of the
@@ -21,6 +23,23 @@ public interface ChannelInput<T> extends Iterable<T> {
    */
   T read(long timeout);
 
+  /**
+   * Read at least one and up to maxCount objects from the Channel, waiting until an object is
+   * available for the first object only.
+   *
+   * @param values The collection to add the objects to.
+   * @param maxCount The maximum number of objects to read.
+   * @return The number of objects read.
+   */
+  default int readAll(final Collection<? super T> values, final int maxCount) {
+    if (maxCount <= 0) {
+      return 0;
+    } else {
+      values.add(read());
+      return 1;
+    }
+  }
+
   void readConnect();
 
   void readDisconnect();
@@ -10,6 +10,17 @@ public interface ChannelOutput<T> {
    */
   void write(final T value);
 
+  /**
+   * Writes all the objects to the Channel in order.
+   *
+   * @param values The objects to write to the Channel.
+   */
+  default void writeAll(final Iterable<? extends T> values) {
+    for (final T value : values) {
+      write(value);
+    }
+  }
+
   void writeConnect();
 
   void writeDisconnect();
@@ -58,4 +58,17 @@ public abstract class ChannelValueStore<T> implements Cloneable {
    * @param value The object to put in the ChannelValueStore
    */
   protected abstract void put(T value);
+
+  /**
+   * The number of Objects in the ChannelValueStore.
+   *
+   * @return The number of Objects in the ChannelValueStore.
+   */
+  public int size() {
+    if (getState() == EMPTY) {
+      return 0;
+    } else {
+      return 1;
+    }
+  }
 }
@@ -2,7 +2,7 @@ package com.revolsys.parallel.channel;
 
 import org.springframework.beans.factory.BeanNameAware;
 
-import com.revolsys.parallel.channel.store.Buffer;
+import com.revolsys.parallel.channel.store.RingBuffer;
 import com.revolsys.spring.config.SetBeanProperties;
 
 public class SetBeanChannelProperty<T> extends SetBeanProperties implements BeanNameAware {
@@ -31,7 +31,7 @@ public class SetBeanChannelProperty<T> extends SetBeanProperties implements Bean
         }
         final Channel<T> channel;
         if (this.bufferSize > 0) {
-          channel = new Channel<>(this.name, new Buffer<T>(this.bufferSize));
+          channel = new Channel<>(this.name, new RingBuffer<T>(this.bufferSize));
         } else {
           channel = new Channel<>(this.name);
         }
@@ -0,0 +1,266 @@
+package com.revolsys.parallel.channel.store;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.revolsys.parallel.channel.ChannelValueStore;
+
+/**
+ * <h2>Description</h2>
+ * <p>
+ * The RingBuffer class is a lock free implementation of ChannelValueStore backed by a fixed size
+ * array. It can be used by multiple readers and writers concurrently without locking (bounded
+ * MPMC queue using a sequence number per slot), so a {@link com.revolsys.parallel.channel.Channel}
+ * using a RingBuffer only synchronizes when a reader or writer has to wait.
+ * </p>
+ * <p>
+ * The capacity is rounded up to a power of 2. The getState method will return EMPTY if the
+ * buffer does not contain any Objects, FULL if it cannot accept more data and NONEMPTYFULL
+ * otherwise.
+ * </p>
+ * <p>
+ * Null values can be stored, they are held as a marker object in the array. Use
+ * {@link #poll(Object)} to tell a null value from an empty buffer.
+ * </p>
+ */
+public class RingBuffer<T> extends ChannelValueStore<T> {
+
+  /** The value returned by {@link #poll(Object)} in drainTo if the buffer is empty. */
+  private static final Object NO_VALUE = new Object();
+
+  /** The marker stored in the array for a null value. */
+  private static final Object NULL = new Object();
+
+  private static int getCapacity(final int size) {
+    if (size < 1 || size > 1 << 30) {
+      throw new IllegalArgumentException("Size must be between 1 and 2^30 not " + size);
+    }
+    int capacity = 1;
+    while (capacity < size) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  private final int mask;
+
+  /** The index of the next slot to read from. */
+  private final AtomicLong readIndex = new AtomicLong();
+
+  /**
+   * The sequence number for each slot. A slot can be written when the sequence equals the write
+   * index and read when it equals the read index + 1.
+   */
+  private final AtomicLongArray sequences;
+
+  /**
+   * The values, visibility is guaranteed by the write to the sequence after writing the value and
+   * the read of the sequence before reading the value.
+   */
+  private final Object[] values;
+
+  /** The index of the next slot to write to. */
+  private final AtomicLong writeIndex = new AtomicLong();
+
+  /**
+   * Construct a new RingBuffer with the size rounded up to a power of 2.
+   *
+   * @param size The minimum number of Objects the RingBuffer can store
+   */
+  public RingBuffer(final int size) {
+    final int capacity = getCapacity(size);
+    this.mask = capacity - 1;
+    this.values = new Object[capacity];
+    this.sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      this.sequences.set(i, i);
+    }
+  }
+
+  @Override
+  protected Object clone() {
+    return new RingBuffer<T>(getCapacity());
+  }
+
+  /**
+   * Remove up to maxCount values from the buffer, without waiting, adding them to the values.
+   *
+   * @return The number of values removed.
+   */
+  @SuppressWarnings("unchecked")
+  public int drainTo(final Collection<? super T> values, final int maxCount) {
+    final T empty = (T)NO_VALUE;
+    int count = 0;
+    while (count < maxCount) {
+      final T value = poll(empty);
+      if (value == empty) {
+        break;
+      } else {
+        values.add(value);
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  protected T get() {
+    return poll();
+  }
+
+  public int getCapacity() {
+    return this.values.length;
+  }
+
+  /**
+   * The total number of values read from the buffer.
+   *
+   * @return The number of values.
+   */
+  public long getReadCount() {
+    return this.readIndex.get();
+  }
+
+  @Override
+  protected int getState() {
+    final int size = size();
+    if (size == 0) {
+      return EMPTY;
+    } else if (size >= this.values.length) {
+      return FULL;
+    } else {
+      return NONEMPTYFULL;
+    }
+  }
+
+  /**
+   * The total number of values written to the buffer.
+   *
+   * @return The number of values.
+   */
+  public long getWriteCount() {
+    return this.writeIndex.get();
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * Add the value to the buffer if it is not full.
+   *
+   * @param value The value, may be null.
+   * @return True if the value was added, false if the buffer was full.
+   */
+  public boolean offer(final T value) {
+    final AtomicLongArray sequences = this.sequences;
+    long index = this.writeIndex.get();
+    while (true) {
+      final int slot = (int)index & this.mask;
+      final long sequence = sequences.get(slot);
+      final long difference = sequence - index;
+      if (difference == 0) {
+        if (this.writeIndex.compareAndSet(index, index + 1)) {
+          if (value == null) {
+            this.values[slot] = NULL;
+          } else {
+            this.values[slot] = value;
+          }
+          sequences.set(slot, index + 1);
+          return true;
+        }
+        index = this.writeIndex.get();
+      } else if (difference < 0) {
+        return false;
+      } else {
+        index = this.writeIndex.get();
+      }
+    }
+  }
+
+  /**
+   * Remove the next value from the buffer.
+   *
+   * @return The value or null if the buffer was empty or the value was null.
+   */
+  public T poll() {
+    return poll(null);
+  }
+
+  /**
+   * Remove the next value from the buffer.
+   *
+   * @param emptyValue The value to return if the buffer is empty.
+   * @return The value or emptyValue if the buffer was empty.
+   */
+  @SuppressWarnings("unchecked")
+  public T poll(final T emptyValue) {
+    final AtomicLongArray sequences = this.sequences;
+    long index = this.readIndex.get();
+    while (true) {
+      final int slot = (int)index & this.mask;
+      final long sequence = sequences.get(slot);
+      final long difference = sequence - (index + 1);
+      if (difference == 0) {
+        if (this.readIndex.compareAndSet(index, index + 1)) {
+          final Object value = this.values[slot];
+          this.values[slot] = null;
+          sequences.set(slot, index + this.values.length);
+          if (value == NULL) {
+            return null;
+          } else {
+            return (T)value;
+          }
+        }
+        index = this.readIndex.get();
+      } else if (difference < 0) {
+        return emptyValue;
+      } else {
+        index = this.readIndex.get();
+      }
+    }
+  }
+
+  /**
+   * Add the value to the buffer.
+   *
+   * @param value The value, may be null.
+   * @throws IllegalStateException If the buffer is full.
+   */
+  @Override
+  protected void put(final T value) {
+    if (!offer(value)) {
+      throw new IllegalStateException("RingBuffer is full: " + this);
+    }
+  }
+
+  /**
+   * The approximate number of items in the buffer, exact if there are no concurrent reads or
+   * writes.
+   *
+   * @return The number of items in the buffer.
+   */
+  @Override
+  public int size() {
+    while (true) {
+      final long readIndex = this.readIndex.get();
+      final long writeIndex = this.writeIndex.get();
+      if (readIndex == this.readIndex.get()) {
+        final long size = writeIndex - readIndex;
+        if (size < 0) {
+          return 0;
+        } else if (size > this.values.length) {
+          return this.values.length;
+        } else {
+          return (int)size;
+        }
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "RingBuffer(" + size() + "/" + getCapacity() + ")";
+  }
+}
@@ -6,6 +6,7 @@ import com.revolsys.parallel.channel.Channel;
 import com.revolsys.parallel.channel.ChannelValueStore;
 import com.revolsys.parallel.channel.ClosedException;
 import com.revolsys.parallel.channel.store.Buffer;
+import com.revolsys.parallel.channel.store.RingBuffer;
 import com.revolsys.parallel.channel.store.ZeroBuffer;
 
 public abstract class AbstractInOutProcess<I, O> extends AbstractProcess
@@ -85,7 +86,7 @@ public abstract class AbstractInOutProcess<I, O> extends AbstractProcess
     } else if (this.inBufferSize < 0) {
       return new Buffer<>();
     } else {
-      return new Buffer<>(this.inBufferSize);
+      return new RingBuffer<>(this.inBufferSize);
     }
   }
 
@@ -95,7 +96,7 @@ public abstract class AbstractInOutProcess<I, O> extends AbstractProcess
     } else if (this.outBufferSize < 0) {
       return new Buffer<>();
     } else {
-      return new Buffer<>(this.outBufferSize);
+      return new RingBuffer<>(this.outBufferSize);
     }
   }
 
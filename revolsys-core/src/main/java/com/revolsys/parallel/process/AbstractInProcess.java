@@ -5,6 +5,7 @@ import org.jeometry.common.logging.Logs;
 import com.revolsys.parallel.channel.Channel;
 import com.revolsys.parallel.channel.ClosedException;
 import com.revolsys.parallel.channel.store.Buffer;
+import com.revolsys.parallel.channel.store.RingBuffer;
 
 public abstract class AbstractInProcess<T> extends AbstractProcess implements InProcess<T> {
 
@@ -39,8 +40,10 @@ public abstract class AbstractInProcess<T> extends AbstractProcess implements In
       final String channelName = getBeanName() + ".in";
       if (this.inBufferSize == 0) {
         setIn(new Channel<T>(channelName));
+      } else if (this.inBufferSize < 0) {
+        setIn(new Channel<>(channelName, new Buffer<T>()));
       } else {
-        setIn(new Channel<>(channelName, new Buffer<T>(this.inBufferSize)));
+        setIn(new Channel<>(channelName, new RingBuffer<T>(this.inBufferSize)));
       }
     }
     return this.in;
@@ -5,6 +5,7 @@ import org.jeometry.common.logging.Logs;
 import com.revolsys.parallel.channel.Channel;
 import com.revolsys.parallel.channel.ClosedException;
 import com.revolsys.parallel.channel.store.Buffer;
+import com.revolsys.parallel.channel.store.RingBuffer;
 
 public abstract class AbstractOutProcess<T> extends AbstractProcess implements OutProcess<T> {
 
@@ -36,8 +37,11 @@ public abstract class AbstractOutProcess<T> extends AbstractProcess implements O
       if (this.outBufferSize == 0) {
         final Channel<T> channel = new Channel<>(channelName);
         setOut(channel);
+      } else if (this.outBufferSize < 0) {
+        final Channel<T> channel = new Channel<>(channelName, new Buffer<T>());
+        setOut(channel);
       } else {
-        final Buffer<T> buffer = new Buffer<>(this.outBufferSize);
+        final RingBuffer<T> buffer = new RingBuffer<>(this.outBufferSize);
         final Channel<T> channel = new Channel<>(channelName, buffer);
         setOut(channel);
       }
@@ -0,0 +1,149 @@
+package com.revolsys.parallel.process;
+
+import com.revolsys.parallel.channel.Channel;
+
+/**
+ * The metrics for a process run by a {@link ProcessNetwork}. The records in and time blocked on
+ * read are from the in channel of an {@link InProcess}, and the records out and time blocked on
+ * write from the out channel of an {@link OutProcess}. The counts are kept by the {@link Channel}
+ * so the channel reads and writes don't have to find the process, and if a channel is shared by
+ * several processes the counts are the totals for all of them.
+ */
+public class ProcessMetrics {
+
+  private final Process process;
+
+  private volatile boolean running = true;
+
+  private volatile Thread thread;
+
+  ProcessMetrics(final Process process) {
+    this.process = process;
+  }
+
+  /**
+   * Synchronized with {@link #interrupt()} so the thread can't be interrupted after the process
+   * has finished and the thread has been returned to an executor.
+   */
+  synchronized void finish() {
+    this.running = false;
+    this.thread = null;
+  }
+
+  private Channel<?> getIn() {
+    if (this.process instanceof InProcess) {
+      return ((InProcess<?>)this.process).getIn();
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * The number of values waiting to be read from the in channel of an {@link InProcess}.
+   */
+  public int getInQueueDepth() {
+    final Channel<?> in = getIn();
+    if (in == null) {
+      return 0;
+    } else {
+      return in.getSize();
+    }
+  }
+
+  private Channel<?> getOut() {
+    if (this.process instanceof OutProcess) {
+      return ((OutProcess<?>)this.process).getOut();
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * The number of values written to the out channel of an {@link OutProcess} that have not been
+   * read.
+   */
+  public int getOutQueueDepth() {
+    final Channel<?> out = getOut();
+    if (out == null) {
+      return 0;
+    } else {
+      return out.getSize();
+    }
+  }
+
+  public Process getProcess() {
+    return this.process;
+  }
+
+  /**
+   * The total time in nanoseconds the process was blocked waiting to read a value.
+   */
+  public long getReadBlockedTime() {
+    final Channel<?> in = getIn();
+    if (in == null) {
+      return 0;
+    } else {
+      return in.getReadBlockedTime();
+    }
+  }
+
+  public long getRecordsIn() {
+    final Channel<?> in = getIn();
+    if (in == null) {
+      return 0;
+    } else {
+      return in.getReadCount();
+    }
+  }
+
+  public long getRecordsOut() {
+    final Channel<?> out = getOut();
+    if (out == null) {
+      return 0;
+    } else {
+      return out.getWriteCount();
+    }
+  }
+
+  /**
+   * The total time in nanoseconds the process was blocked waiting to write a value.
+   */
+  public long getWriteBlockedTime() {
+    final Channel<?> out = getOut();
+    if (out == null) {
+      return 0;
+    } else {
+      return out.getWriteBlockedTime();
+    }
+  }
+
+  /**
+   * Interrupt the thread running the process, if the process is still running on another thread.
+   *
+   * @return True if the thread was interrupted.
+   */
+  synchronized boolean interrupt() {
+    final Thread thread = this.thread;
+    if (this.running && thread != null && thread != Thread.currentThread()) {
+      thread.interrupt();
+      return true;
+    } else {
+      return false;
+    }
+  }
+
+  public boolean isRunning() {
+    return this.running;
+  }
+
+  void start(final Thread thread) {
+    this.thread = thread;
+  }
+
+  @Override
+  public String toString() {
+    return this.process + " in=" + getRecordsIn() + " out=" + getRecordsOut() + " readBlocked="
+      + getReadBlockedTime() / 1000000 + "ms writeBlocked=" + getWriteBlockedTime() / 1000000
+      + "ms inQueue=" + getInQueueDepth() + " outQueue=" + getOutQueueDepth();
+  }
+}
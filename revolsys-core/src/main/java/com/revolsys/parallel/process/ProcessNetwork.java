@@ -6,8 +6,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 
 import javax.annotation.PostConstruct;
@@ -20,15 +23,27 @@ import com.revolsys.parallel.ThreadInterruptedException;
 import com.revolsys.parallel.channel.Channel;
 import com.revolsys.spring.TargetBeanProcess;
 
+/**
+ * A network of processes that are each run on their own thread. By default a new thread is
+ * created for each process. If an {@link #setExecutor(Executor)} is set the processes are run
+ * using the executor instead, for example the {@link #getSharedExecutor()} which reuses the
+ * threads across networks.
+ *
+ * <p>The {@link ProcessMetrics} for each running process are available from
+ * {@link #getMetrics()}, they are removed when the process stops.</p>
+ */
 public class ProcessNetwork {
 
   private static ThreadLocal<ProcessNetwork> PROCESS_NETWORK = new ThreadLocal<>();
 
+  private static Executor sharedExecutor;
+
   public static <V> void forEach(final int processCount, final Iterable<V> values,
     final Consumer<V> action) {
     final Iterator<V> iterator = values.iterator();
     if (iterator.hasNext()) {
       final ProcessNetwork processNetwork = new ProcessNetwork();
+      processNetwork.setExecutor(getSharedExecutor());
       for (int i = 0; i < processCount; i++) {
         processNetwork.addProcess(() -> {
           while (true) {
@@ -52,8 +67,38 @@ public class ProcessNetwork {
     return PROCESS_NETWORK.get();
   }
 
+  /**
+   * Get the executor shared by all networks that use it. On Java 24 or later, where waiting on a
+   * monitor no longer pins the carrier thread, a virtual thread is used for each process. On
+   * earlier versions the processes are run on a cached pool of daemon threads, the pool can't be
+   * bounded as a process blocked on a channel holds its thread.
+   *
+   * @return The executor.
+   */
+  public static synchronized Executor getSharedExecutor() {
+    if (sharedExecutor == null) {
+      if (Runtime.version().feature() >= 24) {
+        try {
+          sharedExecutor = (Executor)Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+            .invoke(null);
+        } catch (final ReflectiveOperationException e) {
+          Logs.debug(ProcessNetwork.class, "Virtual threads not available", e);
+        }
+      }
+      if (sharedExecutor == null) {
+        sharedExecutor = Executors.newCachedThreadPool(runnable -> {
+          final Thread thread = new Thread(runnable, "processNetwork");
+          thread.setDaemon(true);
+          return thread;
+        });
+      }
+    }
+    return sharedExecutor;
+  }
+
   public static void processTasks(final int processCount, final Channel<Runnable> tasks) {
     final ProcessNetwork processNetwork = new ProcessNetwork();
+    processNetwork.setExecutor(getSharedExecutor());
     for (int i = 0; i < processCount; i++) {
       processNetwork.addProcess(() -> {
         while (true) {
@@ -94,6 +139,10 @@ public class ProcessNetwork {
 
   private int count = 0;
 
+  private Executor executor;
+
+  private final Map<Process, ProcessMetrics> metrics = new LinkedHashMap<>();
+
   private String name = "processNetwork";
 
   private ProcessNetwork parent;
@@ -192,6 +241,25 @@ public class ProcessNetwork {
     }
   }
 
+  public Executor getExecutor() {
+    return this.executor;
+  }
+
+  /**
+   * Get the metrics for the processes started by the network that are still running.
+   *
+   * @return The metrics.
+   */
+  public List<ProcessMetrics> getMetrics() {
+    if (this.parent == null) {
+      synchronized (this.metrics) {
+        return new ArrayList<>(this.metrics.values());
+      }
+    } else {
+      return this.parent.getMetrics();
+    }
+  }
+
   public String getName() {
     return this.name;
   }
@@ -257,10 +325,40 @@ public class ProcessNetwork {
     }
   }
 
+  private void run(final Process process, final ProcessMetrics processMetrics) {
+    processMetrics.start(Thread.currentThread());
+    try {
+      process.run();
+    } catch (final Throwable e) {
+      Logs.error(this, e);
+    } finally {
+      processMetrics.finish();
+      synchronized (this.metrics) {
+        this.metrics.remove(process, processMetrics);
+      }
+      try {
+        removeProcess(process);
+      } finally {
+        process.close();
+      }
+    }
+  }
+
   public void setAutoStart(final boolean autoStart) {
     this.autoStart = autoStart;
   }
 
+  /**
+   * Set the executor used to run the processes, if null a new thread is created for each process.
+   * The executor must be able to run all the processes at the same time as the channel reads and
+   * writes block until the other process reads or writes.
+   *
+   * @param executor The executor.
+   */
+  public void setExecutor(final Executor executor) {
+    this.executor = executor;
+  }
+
   public void setName(final String name) {
     this.name = name;
   }
@@ -293,7 +391,11 @@ public class ProcessNetwork {
     if (this.parent == null) {
       if (this.processes != null) {
         Thread thread = this.processes.get(process);
-        if (thread == null) {
+        final ProcessMetrics processMetrics;
+        synchronized (this.metrics) {
+          processMetrics = this.metrics.get(process);
+        }
+        if (thread == null && (processMetrics == null || !processMetrics.isRunning())) {
           final Process runProcess;
           if (process instanceof TargetBeanProcess) {
             final TargetBeanProcess targetBeanProcess = (TargetBeanProcess)process;
@@ -303,28 +405,54 @@ public class ProcessNetwork {
             runProcess = process;
           }
           final String name = runProcess.toString();
-          final Runnable runnable = () -> {
-            try {
-              runProcess.run();
-            } catch (final Throwable e) {
-              Logs.error(this, e);
-            } finally {
-              try {
-                removeProcess(runProcess);
-              } finally {
-                runProcess.close();
-              }
+          final ProcessMetrics runMetrics = new ProcessMetrics(runProcess);
+          synchronized (this.metrics) {
+            this.metrics.put(runProcess, runMetrics);
+          }
+          final Executor executor = this.executor;
+          if (executor == null) {
+            final Runnable runnable = () -> run(runProcess, runMetrics);
+            if (name == null) {
+              thread = new Thread(this.threadGroup, runnable);
+            } else {
+              thread = new Thread(this.threadGroup, runnable, name);
+            }
+            this.processes.put(runProcess, thread);
+            if (!thread.isAlive()) {
+              thread.start();
+              this.count++;
             }
-          };
-          if (name == null) {
-            thread = new Thread(this.threadGroup, runnable);
           } else {
-            thread = new Thread(this.threadGroup, runnable, name);
-          }
-          this.processes.put(runProcess, thread);
-          if (!thread.isAlive()) {
-            thread.start();
+            ThreadGroup threadGroup = this.threadGroup;
+            if (threadGroup == null) {
+              threadGroup = Thread.currentThread().getThreadGroup();
+            }
+            final Map<Object, Object> properties = ThreadSharedProperties
+              .getThreadGroupProperties(threadGroup);
+            this.processes.put(runProcess, null);
             this.count++;
+            executor.execute(() -> {
+              final Thread currentThread = Thread.currentThread();
+              final String threadName = currentThread.getName();
+              final Map<Object, Object> savedProperties = ThreadSharedProperties
+                .setThreadProperties(properties);
+              try {
+                if (name != null) {
+                  currentThread.setName(name);
+                }
+                synchronized (this.sync) {
+                  if (this.processes.containsKey(runProcess)) {
+                    this.processes.put(runProcess, currentThread);
+                  }
+                }
+                run(runProcess, runMetrics);
+              } finally {
+                ThreadSharedProperties.setThreadProperties(savedProperties);
+                currentThread.setName(threadName);
+                // Clear any interrupt from stop so it doesn't affect the next task
+                Thread.interrupted();
+              }
+            });
           }
         }
       }
@@ -347,6 +475,10 @@ public class ProcessNetwork {
       this.sync.notifyAll();
       threads = new ArrayList<>(this.processes.values());
     }
+    if (this.executor != null) {
+      stopExecutorProcesses();
+      return;
+    }
     boolean interrupted = false;
     try {
       final long maxWait = System.currentTimeMillis() + 10000;
@@ -389,6 +521,43 @@ public class ProcessNetwork {
     }
   }
 
+  /**
+   * Interrupt the processes run by the executor. The threads belong to the executor so they are
+   * only interrupted while they are running a process from this network, and are never stopped.
+   * {@link ProcessMetrics#interrupt()} holds the same lock as {@link ProcessMetrics#finish()} so a
+   * thread that has moved on to another task is not interrupted.
+   */
+  private void stopExecutorProcesses() {
+    final List<ProcessMetrics> runningMetrics = new ArrayList<>();
+    for (final ProcessMetrics processMetrics : getMetrics()) {
+      if (processMetrics.isRunning()) {
+        runningMetrics.add(processMetrics);
+      }
+    }
+    try {
+      final long maxWait = System.currentTimeMillis() + 10000;
+      while (!runningMetrics.isEmpty() && System.currentTimeMillis() < maxWait) {
+        for (final Iterator<ProcessMetrics> iterator = runningMetrics.iterator(); iterator
+          .hasNext();) {
+          final ProcessMetrics processMetrics = iterator.next();
+          if (!processMetrics.interrupt()) {
+            iterator.remove();
+          }
+        }
+        if (!runningMetrics.isEmpty()) {
+          try {
+            Thread.sleep(10);
+          } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+        }
+      }
+    } finally {
+      finishRunning();
+    }
+  }
+
   @Override
   public String toString() {
     return this.name;
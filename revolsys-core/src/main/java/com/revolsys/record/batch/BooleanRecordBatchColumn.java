@@ -0,0 +1,40 @@
+package com.revolsys.record.batch;
+
+import com.revolsys.record.schema.FieldDefinition;
+
+/**
+ * A column of boolean values.
+ */
+public class BooleanRecordBatchColumn extends RecordBatchColumn {
+
+  private final boolean[] values;
+
+  public BooleanRecordBatchColumn(final FieldDefinition field, final int capacity) {
+    super(field, capacity);
+    this.values = new boolean[capacity];
+  }
+
+  public boolean getBoolean(final int index) {
+    return this.values[index];
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <V> V getValue(final int index) {
+    if (isNull(index)) {
+      return null;
+    } else {
+      return (V)Boolean.valueOf(this.values[index]);
+    }
+  }
+
+  public void setBoolean(final int index, final boolean value) {
+    this.values[index] = value;
+    setNotNull(index);
+  }
+
+  @Override
+  protected void setValueNotNull(final int index, final Object value) {
+    setBoolean(index, (Boolean)value);
+  }
+}
@@ -0,0 +1,51 @@
+package com.revolsys.record.batch;
+
+import java.util.Date;
+
+import com.revolsys.record.schema.FieldDefinition;
+
+/**
+ * A column of {@link Date} or {@link java.sql.Date} values stored as the milliseconds since the
+ * epoch.
+ */
+public class DateRecordBatchColumn extends RecordBatchColumn {
+
+  private final boolean sqlDate;
+
+  private final long[] values;
+
+  public DateRecordBatchColumn(final FieldDefinition field, final int capacity) {
+    super(field, capacity);
+    this.values = new long[capacity];
+    this.sqlDate = this.dataType.getJavaClass() == java.sql.Date.class;
+  }
+
+  public long getTime(final int index) {
+    return this.values[index];
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <V> V getValue(final int index) {
+    if (isNull(index)) {
+      return null;
+    } else {
+      final long time = this.values[index];
+      if (this.sqlDate) {
+        return (V)new java.sql.Date(time);
+      } else {
+        return (V)new Date(time);
+      }
+    }
+  }
+
+  public void setTime(final int index, final long time) {
+    this.values[index] = time;
+    setNotNull(index);
+  }
+
+  @Override
+  protected void setValueNotNull(final int index, final Object value) {
+    setTime(index, ((Date)value).getTime());
+  }
+}
@@ -0,0 +1,47 @@
+package com.revolsys.record.batch;
+
+import com.revolsys.record.schema.FieldDefinition;
+
+/**
+ * A column of double values, also used for float fields.
+ */
+public class DoubleRecordBatchColumn extends RecordBatchColumn {
+
+  private final boolean doubleValues;
+
+  private final double[] values;
+
+  public DoubleRecordBatchColumn(final FieldDefinition field, final int capacity) {
+    super(field, capacity);
+    this.values = new double[capacity];
+    this.doubleValues = this.dataType.getJavaClass() == Double.class;
+  }
+
+  public double getDouble(final int index) {
+    return this.values[index];
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <V> V getValue(final int index) {
+    if (isNull(index)) {
+      return null;
+    } else if (this.doubleValues) {
+      final Double value = this.values[index];
+      return (V)value;
+    } else {
+      final Float value = (float)this.values[index];
+      return (V)value;
+    }
+  }
+
+  public void setDouble(final int index, final double value) {
+    this.values[index] = value;
+    setNotNull(index);
+  }
+
+  @Override
+  protected void setValueNotNull(final int index, final Object value) {
+    setDouble(index, ((Number)value).doubleValue());
+  }
+}
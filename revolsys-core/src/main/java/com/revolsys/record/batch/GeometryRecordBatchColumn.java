@@ -0,0 +1,258 @@
+package com.revolsys.record.batch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.revolsys.geometry.model.Geometry;
+import com.revolsys.geometry.model.GeometryFactory;
+import com.revolsys.geometry.model.LineString;
+import com.revolsys.geometry.model.LinearRing;
+import com.revolsys.geometry.model.Lineal;
+import com.revolsys.geometry.model.Point;
+import com.revolsys.geometry.model.Polygon;
+import com.revolsys.geometry.model.Polygonal;
+import com.revolsys.geometry.model.Punctual;
+import com.revolsys.record.schema.FieldDefinition;
+
+/**
+ * A column of geometries stored in a packed coordinate buffer. The coordinates of all the
+ * geometries are stored in one double array and the structure of each geometry (type, axis count,
+ * part and vertex counts) is stored in one int array. The geometry objects are only created when
+ * {@link #getValue(int)} is called.
+ *
+ * <p>The coordinates for the record are {@link #getCoordinateCount(int)} values in
+ * {@link #getCoordinates()} starting at {@link #getCoordinateOffset(int)}.</p>
+ */
+public class GeometryRecordBatchColumn extends RecordBatchColumn {
+
+  private static final int GEOMETRY_COLLECTION = 7;
+
+  private static final int LINE_STRING = 2;
+
+  private static final int LINEAL = 5;
+
+  private static final int POINT = 1;
+
+  private static final int POLYGON = 3;
+
+  private static final int POLYGONAL = 6;
+
+  private static final int PUNCTUAL = 4;
+
+  private final int[] coordinateCounts;
+
+  private final int[] coordinateOffsets;
+
+  private double[] coordinates = new double[1024];
+
+  private int coordinatesSize;
+
+  private final GeometryFactory[] geometryFactories;
+
+  private int[] structure = new int[256];
+
+  private final int[] structureOffsets;
+
+  private int structureSize;
+
+  public GeometryRecordBatchColumn(final FieldDefinition field, final int capacity) {
+    super(field, capacity);
+    this.coordinateCounts = new int[capacity];
+    this.coordinateOffsets = new int[capacity];
+    this.geometryFactories = new GeometryFactory[capacity];
+    this.structureOffsets = new int[capacity];
+  }
+
+  private void addCoordinate(final double coordinate) {
+    if (this.coordinatesSize == this.coordinates.length) {
+      this.coordinates = Arrays.copyOf(this.coordinates, this.coordinates.length * 2);
+    }
+    this.coordinates[this.coordinatesSize++] = coordinate;
+  }
+
+  private void addGeometry(final Geometry geometry) {
+    if (geometry instanceof Point) {
+      final Point point = (Point)geometry;
+      addStructure(POINT);
+      if (point.isEmpty()) {
+        addStructure(0);
+      } else {
+        final int axisCount = point.getAxisCount();
+        addStructure(axisCount);
+        for (int axisIndex = 0; axisIndex < axisCount; axisIndex++) {
+          addCoordinate(point.getCoordinate(axisIndex));
+        }
+      }
+    } else if (geometry instanceof LineString) {
+      addStructure(LINE_STRING);
+      addLineString((LineString)geometry);
+    } else if (geometry instanceof Polygon) {
+      final Polygon polygon = (Polygon)geometry;
+      addStructure(POLYGON);
+      final int ringCount = polygon.getRingCount();
+      addStructure(ringCount);
+      for (int i = 0; i < ringCount; i++) {
+        addLineString(polygon.getRing(i));
+      }
+    } else {
+      if (geometry instanceof Punctual) {
+        addStructure(PUNCTUAL);
+      } else if (geometry instanceof Lineal) {
+        addStructure(LINEAL);
+      } else if (geometry instanceof Polygonal) {
+        addStructure(POLYGONAL);
+      } else {
+        addStructure(GEOMETRY_COLLECTION);
+      }
+      final int partCount = geometry.getGeometryCount();
+      addStructure(partCount);
+      for (int i = 0; i < partCount; i++) {
+        addGeometry(geometry.getGeometry(i));
+      }
+    }
+  }
+
+  private void addLineString(final LineString line) {
+    final int axisCount = line.getAxisCount();
+    final int vertexCount = line.getVertexCount();
+    addStructure(axisCount);
+    addStructure(vertexCount);
+    for (int vertexIndex = 0; vertexIndex < vertexCount; vertexIndex++) {
+      for (int axisIndex = 0; axisIndex < axisCount; axisIndex++) {
+        addCoordinate(line.getCoordinate(vertexIndex, axisIndex));
+      }
+    }
+  }
+
+  private void addStructure(final int value) {
+    if (this.structureSize == this.structure.length) {
+      this.structure = Arrays.copyOf(this.structure, this.structure.length * 2);
+    }
+    this.structure[this.structureSize++] = value;
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    Arrays.fill(this.geometryFactories, null);
+    this.coordinatesSize = 0;
+    this.structureSize = 0;
+  }
+
+  public int getCoordinateCount(final int index) {
+    if (isNull(index)) {
+      return 0;
+    } else {
+      return this.coordinateCounts[index];
+    }
+  }
+
+  public int getCoordinateOffset(final int index) {
+    return this.coordinateOffsets[index];
+  }
+
+  /**
+   * Get the packed coordinate buffer. The array must not be modified.
+   */
+  public double[] getCoordinates() {
+    return this.coordinates;
+  }
+
+  public GeometryFactory getGeometryFactory(final int index) {
+    return this.geometryFactories[index];
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <V> V getValue(final int index) {
+    if (isNull(index)) {
+      return null;
+    } else {
+      final int[] offsets = {
+        this.structureOffsets[index], this.coordinateOffsets[index]
+      };
+      return (V)newGeometry(this.geometryFactories[index], offsets);
+    }
+  }
+
+  private double[] newCoordinates(final int[] offsets, final int count) {
+    final int coordinateOffset = offsets[1];
+    offsets[1] += count;
+    return Arrays.copyOfRange(this.coordinates, coordinateOffset, coordinateOffset + count);
+  }
+
+  /**
+   * Create the geometry from the structure and coordinates starting at the offsets. The offsets
+   * are updated to the end of the geometry.
+   */
+  private Geometry newGeometry(final GeometryFactory geometryFactory, final int[] offsets) {
+    final int[] structure = this.structure;
+    final int geometryType = structure[offsets[0]++];
+    if (geometryType == POINT) {
+      final int axisCount = structure[offsets[0]++];
+      if (axisCount == 0) {
+        return geometryFactory.point();
+      } else {
+        return geometryFactory.point(newCoordinates(offsets, axisCount));
+      }
+    } else if (geometryType == LINE_STRING) {
+      final int axisCount = structure[offsets[0]++];
+      final int vertexCount = structure[offsets[0]++];
+      final double[] coordinates = newCoordinates(offsets, axisCount * vertexCount);
+      return geometryFactory.lineString(axisCount, vertexCount, coordinates);
+    } else if (geometryType == POLYGON) {
+      final int ringCount = structure[offsets[0]++];
+      if (ringCount == 0) {
+        return geometryFactory.polygon();
+      } else {
+        final List<LinearRing> rings = new ArrayList<>(ringCount);
+        for (int i = 0; i < ringCount; i++) {
+          final int axisCount = structure[offsets[0]++];
+          final int vertexCount = structure[offsets[0]++];
+          final double[] coordinates = newCoordinates(offsets, axisCount * vertexCount);
+          rings.add(geometryFactory.linearRing(axisCount, vertexCount, coordinates));
+        }
+        return geometryFactory.polygon(rings);
+      }
+    } else {
+      final int partCount = structure[offsets[0]++];
+      final List<Geometry> parts = new ArrayList<>(partCount);
+      for (int i = 0; i < partCount; i++) {
+        parts.add(newGeometry(geometryFactory, offsets));
+      }
+      if (geometryType == PUNCTUAL) {
+        return geometryFactory.punctual(parts);
+      } else if (geometryType == LINEAL) {
+        return geometryFactory.lineal(parts);
+      } else if (geometryType == POLYGONAL) {
+        return geometryFactory.polygonal(parts);
+      } else {
+        return geometryFactory.geometryCollection(parts);
+      }
+    }
+  }
+
+  @Override
+  public void setNull(final int index) {
+    super.setNull(index);
+    this.geometryFactories[index] = null;
+  }
+
+  /**
+   * Append the geometry's coordinates to the buffer. Each record's geometry should only be set
+   * once per batch as the space used by a replaced geometry isn't reclaimed until
+   * {@link #clear()}.
+   */
+  @Override
+  protected void setValueNotNull(final int index, final Object value) {
+    final Geometry geometry = (Geometry)value;
+    this.geometryFactories[index] = geometry.getGeometryFactory();
+    this.structureOffsets[index] = this.structureSize;
+    final int coordinateOffset = this.coordinatesSize;
+    this.coordinateOffsets[index] = coordinateOffset;
+    addGeometry(geometry);
+    this.coordinateCounts[index] = this.coordinatesSize - coordinateOffset;
+    setNotNull(index);
+  }
+}
@@ -0,0 +1,48 @@
+package com.revolsys.record.batch;
+
+import com.revolsys.record.schema.FieldDefinition;
+
+/**
+ * A column of int values, also used for short and byte fields.
+ */
+public class IntRecordBatchColumn extends RecordBatchColumn {
+
+  private final boolean intValues;
+
+  private final int[] values;
+
+  public IntRecordBatchColumn(final FieldDefinition field, final int capacity) {
+    super(field, capacity);
+    this.values = new int[capacity];
+    this.intValues = this.dataType.getJavaClass() == Integer.class;
+  }
+
+  public int getInt(final int index) {
+    return this.values[index];
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <V> V getValue(final int index) {
+    if (isNull(index)) {
+      return null;
+    } else {
+      final Integer value = this.values[index];
+      if (this.intValues) {
+        return (V)value;
+      } else {
+        return this.dataType.toObject(value);
+      }
+    }
+  }
+
+  public void setInt(final int index, final int value) {
+    this.values[index] = value;
+    setNotNull(index);
+  }
+
+  @Override
+  protected void setValueNotNull(final int index, final Object value) {
+    setInt(index, ((Number)value).intValue());
+  }
+}
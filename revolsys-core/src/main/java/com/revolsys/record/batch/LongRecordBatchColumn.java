@@ -0,0 +1,41 @@
+package com.revolsys.record.batch;
+
+import com.revolsys.record.schema.FieldDefinition;
+
+/**
+ * A column of long values.
+ */
+public class LongRecordBatchColumn extends RecordBatchColumn {
+
+  private final long[] values;
+
+  public LongRecordBatchColumn(final FieldDefinition field, final int capacity) {
+    super(field, capacity);
+    this.values = new long[capacity];
+  }
+
+  public long getLong(final int index) {
+    return this.values[index];
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <V> V getValue(final int index) {
+    if (isNull(index)) {
+      return null;
+    } else {
+      final Long value = this.values[index];
+      return (V)value;
+    }
+  }
+
+  public void setLong(final int index, final long value) {
+    this.values[index] = value;
+    setNotNull(index);
+  }
+
+  @Override
+  protected void setValueNotNull(final int index, final Object value) {
+    setLong(index, ((Number)value).longValue());
+  }
+}
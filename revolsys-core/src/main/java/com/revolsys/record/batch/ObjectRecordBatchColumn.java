@@ -0,0 +1,47 @@
+package com.revolsys.record.batch;
+
+import java.util.Arrays;
+
+import com.revolsys.record.schema.FieldDefinition;
+
+/**
+ * A column for data types that don't have a primitive representation (e.g. BigDecimal,
+ * Timestamp).
+ */
+public class ObjectRecordBatchColumn extends RecordBatchColumn {
+
+  private final Object[] values;
+
+  public ObjectRecordBatchColumn(final FieldDefinition field, final int capacity) {
+    super(field, capacity);
+    this.values = new Object[capacity];
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    Arrays.fill(this.values, null);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <V> V getValue(final int index) {
+    if (isNull(index)) {
+      return null;
+    } else {
+      return (V)this.values[index];
+    }
+  }
+
+  @Override
+  public void setNull(final int index) {
+    super.setNull(index);
+    this.values[index] = null;
+  }
+
+  @Override
+  protected void setValueNotNull(final int index, final Object value) {
+    this.values[index] = value;
+    setNotNull(index);
+  }
+}
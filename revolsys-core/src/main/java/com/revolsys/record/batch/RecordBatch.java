@@ -0,0 +1,236 @@
+package com.revolsys.record.batch;
+
+import java.util.function.Consumer;
+
+import org.jeometry.common.data.identifier.SingleIdentifier;
+
+import com.revolsys.geometry.model.Geometry;
+import com.revolsys.record.Record;
+import com.revolsys.record.RecordFactory;
+import com.revolsys.record.schema.FieldDefinition;
+import com.revolsys.record.schema.RecordDefinition;
+import com.revolsys.record.schema.RecordDefinitionProxy;
+import com.revolsys.util.Property;
+
+/**
+ * A batch of up to capacity records stored by column instead of as a {@link Record} per row. Each
+ * field has a {@link RecordBatchColumn} that stores the values in a primitive array (int, long,
+ * double, boolean, date), a dictionary (string), a packed coordinate buffer (geometry) or an
+ * object array for other data types.
+ *
+ * <p>A batch can be reused by calling {@link #clear()} so reading millions of records doesn't
+ * allocate an object per record or value.</p>
+ *
+ * <pre class="prettyprint"><code class="language-java">
+ * final RecordBatch batch = reader.newBatch(10000);
+ * final DoubleRecordBatchColumn lengths = (DoubleRecordBatchColumn)batch.getColumn("LENGTH");
+ * while (reader.readBatch(batch)) {
+ *   for (int i = 0; i &lt; batch.getRecordCount(); i++) {
+ *     if (!lengths.isNull(i)) {
+ *       total += lengths.getDouble(i);
+ *     }
+ *   }
+ * }
+ * </code></pre>
+ */
+public class RecordBatch implements RecordDefinitionProxy {
+
+  public static final int DEFAULT_CAPACITY = 10000;
+
+  private final int capacity;
+
+  private final RecordBatchColumn[] columns;
+
+  private int recordCount;
+
+  private final RecordDefinition recordDefinition;
+
+  public RecordBatch(final RecordDefinitionProxy recordDefinition) {
+    this(recordDefinition, DEFAULT_CAPACITY);
+  }
+
+  public RecordBatch(final RecordDefinitionProxy recordDefinition, final int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be > 0 not " + capacity);
+    }
+    this.recordDefinition = recordDefinition.getRecordDefinition();
+    this.capacity = capacity;
+    final int fieldCount = this.recordDefinition.getFieldCount();
+    this.columns = new RecordBatchColumn[fieldCount];
+    for (int i = 0; i < fieldCount; i++) {
+      final FieldDefinition field = this.recordDefinition.getField(i);
+      this.columns[i] = RecordBatchColumn.newColumn(field, capacity);
+    }
+  }
+
+  /**
+   * Add a record with all null values to the end of the batch.
+   *
+   * @return The index of the new record.
+   */
+  public int addRecord() {
+    if (this.recordCount == this.capacity) {
+      throw new IllegalStateException("Record batch is full: " + this.capacity);
+    } else {
+      final int index = this.recordCount++;
+      for (final RecordBatchColumn column : this.columns) {
+        column.setNull(index);
+      }
+      return index;
+    }
+  }
+
+  /**
+   * Add a copy of the values from the record to the end of the batch. The values are copied by
+   * field name if the record has a different record definition.
+   *
+   * @return The index of the new record.
+   */
+  public int addRecord(final Record record) {
+    final int index = addRecord();
+    final RecordDefinition recordDefinition = record.getRecordDefinition();
+    final RecordBatchColumn[] columns = this.columns;
+    for (int fieldIndex = 0; fieldIndex < columns.length; fieldIndex++) {
+      final Object value;
+      if (recordDefinition == this.recordDefinition) {
+        value = record.getValue(fieldIndex);
+      } else {
+        value = record.getValue(columns[fieldIndex].getName());
+      }
+      setValue(index, fieldIndex, value);
+    }
+    return index;
+  }
+
+  /**
+   * Remove all the records from the batch so it can be reused.
+   */
+  public void clear() {
+    this.recordCount = 0;
+    for (final RecordBatchColumn column : this.columns) {
+      column.clear();
+    }
+  }
+
+  /**
+   * Create a new record for each record in the batch and pass it to the action.
+   */
+  public void forEachRecord(final RecordFactory<? extends Record> recordFactory,
+    final Consumer<? super Record> action) {
+    for (int i = 0; i < this.recordCount; i++) {
+      final Record record = newRecord(recordFactory, i);
+      action.accept(record);
+    }
+  }
+
+  public int getCapacity() {
+    return this.capacity;
+  }
+
+  @SuppressWarnings("unchecked")
+  public <C extends RecordBatchColumn> C getColumn(final int fieldIndex) {
+    return (C)this.columns[fieldIndex];
+  }
+
+  public <C extends RecordBatchColumn> C getColumn(final String fieldName) {
+    final int fieldIndex = this.recordDefinition.getFieldIndex(fieldName);
+    if (fieldIndex == -1) {
+      return null;
+    } else {
+      return getColumn(fieldIndex);
+    }
+  }
+
+  public int getRecordCount() {
+    return this.recordCount;
+  }
+
+  @Override
+  public RecordDefinition getRecordDefinition() {
+    return this.recordDefinition;
+  }
+
+  public <V> V getValue(final int index, final int fieldIndex) {
+    return this.columns[fieldIndex].getValue(index);
+  }
+
+  public <V> V getValue(final int index, final String fieldName) {
+    final int fieldIndex = this.recordDefinition.getFieldIndex(fieldName);
+    if (fieldIndex == -1) {
+      return null;
+    } else {
+      return getValue(index, fieldIndex);
+    }
+  }
+
+  public boolean isEmpty() {
+    return this.recordCount == 0;
+  }
+
+  public boolean isFull() {
+    return this.recordCount == this.capacity;
+  }
+
+  public Record newRecord(final int index) {
+    return newRecord(this.recordDefinition.getRecordFactory(), index);
+  }
+
+  /**
+   * Create a new record with the values of the record in the batch.
+   */
+  public Record newRecord(final RecordFactory<? extends Record> recordFactory, final int index) {
+    final Record record = recordFactory.newRecord(this.recordDefinition);
+    final RecordBatchColumn[] columns = this.columns;
+    for (int fieldIndex = 0; fieldIndex < columns.length; fieldIndex++) {
+      final RecordBatchColumn column = columns[fieldIndex];
+      if (!column.isNull(index)) {
+        final Object value = column.getValue(index);
+        record.setValue(fieldIndex, value);
+      }
+    }
+    return record;
+  }
+
+  public void setGeometryValue(final int index, final Geometry geometry) {
+    final int fieldIndex = this.recordDefinition.getGeometryFieldIndex();
+    if (fieldIndex != -1) {
+      setValue(index, fieldIndex, geometry);
+    }
+  }
+
+  /**
+   * Set the value converting it to the field's data type in the same way as
+   * {@link Record#setValue(int, Object)}.
+   */
+  public void setValue(final int index, final int fieldIndex, Object value) {
+    if (index >= this.recordCount) {
+      throw new IndexOutOfBoundsException(index + " >= " + this.recordCount);
+    }
+    final RecordBatchColumn column = this.columns[fieldIndex];
+    if (value instanceof String) {
+      final String string = (String)value;
+      if (!Property.hasValue(string)) {
+        value = null;
+      }
+    }
+    if (value instanceof SingleIdentifier) {
+      final SingleIdentifier identifier = (SingleIdentifier)value;
+      value = identifier.getValue(0);
+    }
+    final FieldDefinition field = column.getFieldDefinition();
+    final Object fieldValue = field.toFieldValue(value);
+    column.setValue(index, fieldValue);
+  }
+
+  public void setValue(final int index, final String fieldName, final Object value) {
+    final int fieldIndex = this.recordDefinition.getFieldIndex(fieldName);
+    if (fieldIndex != -1) {
+      setValue(index, fieldIndex, value);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return this.recordDefinition.getPath() + " " + this.recordCount + "/" + this.capacity;
+  }
+}
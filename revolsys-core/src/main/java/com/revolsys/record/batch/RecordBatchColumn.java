@@ -0,0 +1,112 @@
+package com.revolsys.record.batch;
+
+import java.util.Arrays;
+
+import org.jeometry.common.data.type.DataType;
+
+import com.revolsys.geometry.model.Geometry;
+import com.revolsys.record.schema.FieldDefinition;
+
+/**
+ * The values of one field for the records in a {@link RecordBatch}. Sub classes store the values
+ * in a primitive array for the data type of the field so the values aren't boxed. The values set
+ * must already be converted to the field's data type.
+ */
+public abstract class RecordBatchColumn {
+
+  public static RecordBatchColumn newColumn(final FieldDefinition field, final int capacity) {
+    final DataType dataType = field.getDataType();
+    final Class<?> javaClass = dataType.getJavaClass();
+    if (javaClass == Integer.class || javaClass == Short.class || javaClass == Byte.class) {
+      return new IntRecordBatchColumn(field, capacity);
+    } else if (javaClass == Long.class) {
+      return new LongRecordBatchColumn(field, capacity);
+    } else if (javaClass == Double.class || javaClass == Float.class) {
+      return new DoubleRecordBatchColumn(field, capacity);
+    } else if (javaClass == Boolean.class) {
+      return new BooleanRecordBatchColumn(field, capacity);
+    } else if (javaClass == java.util.Date.class || javaClass == java.sql.Date.class) {
+      return new DateRecordBatchColumn(field, capacity);
+    } else if (javaClass == String.class) {
+      return new StringRecordBatchColumn(field, capacity);
+    } else if (Geometry.class.isAssignableFrom(javaClass)) {
+      return new GeometryRecordBatchColumn(field, capacity);
+    } else {
+      return new ObjectRecordBatchColumn(field, capacity);
+    }
+  }
+
+  protected final DataType dataType;
+
+  private final FieldDefinition field;
+
+  private final boolean[] nulls;
+
+  public RecordBatchColumn(final FieldDefinition field, final int capacity) {
+    this.field = field;
+    this.dataType = field.getDataType();
+    this.nulls = new boolean[capacity];
+    Arrays.fill(this.nulls, true);
+  }
+
+  public void clear() {
+    Arrays.fill(this.nulls, true);
+  }
+
+  public int getCapacity() {
+    return this.nulls.length;
+  }
+
+  public DataType getDataType() {
+    return this.dataType;
+  }
+
+  public FieldDefinition getFieldDefinition() {
+    return this.field;
+  }
+
+  public String getName() {
+    return this.field.getName();
+  }
+
+  /**
+   * Get the value for the record, boxing it if the column stores primitive values.
+   *
+   * @param index The index of the record in the batch.
+   * @return The value or null.
+   */
+  public abstract <V> V getValue(int index);
+
+  public boolean isNull(final int index) {
+    return this.nulls[index];
+  }
+
+  protected void setNotNull(final int index) {
+    this.nulls[index] = false;
+  }
+
+  public void setNull(final int index) {
+    this.nulls[index] = true;
+  }
+
+  /**
+   * Set the value for the record. The value must be null or converted to the field's data type.
+   *
+   * @param index The index of the record in the batch.
+   * @param value The value.
+   */
+  public void setValue(final int index, final Object value) {
+    if (value == null) {
+      setNull(index);
+    } else {
+      setValueNotNull(index, value);
+    }
+  }
+
+  protected abstract void setValueNotNull(int index, Object value);
+
+  @Override
+  public String toString() {
+    return this.field.getName() + ":" + this.dataType;
+  }
+}
@@ -0,0 +1,58 @@
+package com.revolsys.record.batch;
+
+import java.util.function.Consumer;
+
+import com.revolsys.io.BaseCloseable;
+import com.revolsys.record.io.RecordReader;
+import com.revolsys.record.schema.RecordDefinitionProxy;
+
+/**
+ * A reader that reads the records into a {@link RecordBatch} instead of creating a record for
+ * each row. Readers that implement both {@link RecordReader} and this interface must only be used
+ * one way.
+ */
+public interface RecordBatchReader extends BaseCloseable, RecordDefinitionProxy {
+
+  /**
+   * Get a batch reader for the reader. If the reader doesn't implement {@link RecordBatchReader}
+   * the records are read from the reader and copied to the batch.
+   */
+  static RecordBatchReader newBatchReader(final RecordReader reader) {
+    if (reader instanceof RecordBatchReader) {
+      return (RecordBatchReader)reader;
+    } else {
+      return new RecordReaderBatchReader(reader);
+    }
+  }
+
+  /**
+   * Read all the batches from the reader. The same batch is reused for each call to the action.
+   */
+  default void forEachBatch(final int capacity, final Consumer<? super RecordBatch> action) {
+    final RecordBatch batch = newBatch(capacity);
+    while (readBatch(batch)) {
+      action.accept(batch);
+    }
+  }
+
+  default RecordBatch newBatch(final int capacity) {
+    return new RecordBatch(getRecordDefinition(), capacity);
+  }
+
+  /**
+   * Get a record reader that returns a record for each record in the batches read from this
+   * reader.
+   */
+  default RecordReader newRecordReader(final int capacity) {
+    return new RecordBatchRecordReader(this, capacity);
+  }
+
+  /**
+   * Clear the batch and read up to {@link RecordBatch#getCapacity()} records into it. The batch
+   * must have been created for the reader's record definition.
+   *
+   * @param batch The batch to read the records into.
+   * @return True if any records were read, false if there are no more records.
+   */
+  boolean readBatch(RecordBatch batch);
+}
@@ -0,0 +1,65 @@
+package com.revolsys.record.batch;
+
+import java.util.NoSuchElementException;
+
+import com.revolsys.collection.iterator.AbstractIterator;
+import com.revolsys.record.Record;
+import com.revolsys.record.io.RecordReader;
+import com.revolsys.record.schema.RecordDefinition;
+
+/**
+ * A {@link RecordReader} that reads batches from a {@link RecordBatchReader} and returns a new
+ * record for each record in the batch.
+ */
+public class RecordBatchRecordReader extends AbstractIterator<Record> implements RecordReader {
+
+  private RecordBatch batch;
+
+  private final int capacity;
+
+  private int index;
+
+  private final RecordBatchReader reader;
+
+  public RecordBatchRecordReader(final RecordBatchReader reader, final int capacity) {
+    this.reader = reader;
+    this.capacity = capacity;
+  }
+
+  @Override
+  protected void closeDo() {
+    this.batch = null;
+    this.reader.close();
+  }
+
+  @Override
+  protected Record getNext() throws NoSuchElementException {
+    final RecordBatch batch = this.batch;
+    if (batch == null) {
+      throw new NoSuchElementException();
+    }
+    if (this.index == batch.getRecordCount()) {
+      this.index = 0;
+      if (!this.reader.readBatch(batch)) {
+        this.batch = null;
+        throw new NoSuchElementException();
+      }
+    }
+    return batch.newRecord(this.index++);
+  }
+
+  @Override
+  public RecordDefinition getRecordDefinition() {
+    return this.reader.getRecordDefinition();
+  }
+
+  @Override
+  protected void initDo() {
+    this.batch = this.reader.newBatch(this.capacity);
+  }
+
+  @Override
+  public String toString() {
+    return this.reader.toString();
+  }
+}
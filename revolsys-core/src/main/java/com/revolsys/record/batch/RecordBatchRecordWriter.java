@@ -0,0 +1,54 @@
+package com.revolsys.record.batch;
+
+import com.revolsys.io.AbstractRecordWriter;
+import com.revolsys.record.Record;
+
+/**
+ * A {@link com.revolsys.record.io.RecordWriter} that adds the records to a {@link RecordBatch}
+ * and writes the batch to a {@link RecordBatchWriter} when it is full or the writer is flushed or
+ * closed.
+ */
+public class RecordBatchRecordWriter extends AbstractRecordWriter {
+
+  private RecordBatch batch;
+
+  private final RecordBatchWriter writer;
+
+  public RecordBatchRecordWriter(final RecordBatchWriter writer, final int capacity) {
+    super(writer);
+    this.writer = writer;
+    this.batch = new RecordBatch(writer, capacity);
+  }
+
+  @Override
+  public void close() {
+    if (this.batch != null) {
+      flush();
+      this.batch = null;
+      this.writer.close();
+    }
+  }
+
+  @Override
+  public void flush() {
+    final RecordBatch batch = this.batch;
+    if (batch != null && !batch.isEmpty()) {
+      this.writer.write(batch);
+      batch.clear();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return this.writer.toString();
+  }
+
+  @Override
+  public void write(final Record record) {
+    final RecordBatch batch = this.batch;
+    batch.addRecord(record);
+    if (batch.isFull()) {
+      flush();
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package com.revolsys.record.batch;
+
+import com.revolsys.io.BaseCloseable;
+import com.revolsys.record.io.RecordWriter;
+import com.revolsys.record.schema.RecordDefinitionProxy;
+
+/**
+ * A writer that writes all the records in a {@link RecordBatch}.
+ */
+public interface RecordBatchWriter extends BaseCloseable, RecordDefinitionProxy {
+
+  /**
+   * Get a batch writer that writes each record in the batch to the writer.
+   */
+  static RecordBatchWriter newBatchWriter(final RecordWriter writer) {
+    if (writer instanceof RecordBatchWriter) {
+      return (RecordBatchWriter)writer;
+    } else {
+      return new RecordWriterBatchWriter(writer);
+    }
+  }
+
+  /**
+   * Get a record writer that adds the records to a batch and writes the batch to this writer
+   * when it is full or the record writer is flushed or closed.
+   */
+  default RecordWriter newRecordWriter(final int capacity) {
+    return new RecordBatchRecordWriter(this, capacity);
+  }
+
+  /**
+   * Write the records in the batch. The batch can be cleared and reused after the method returns.
+   */
+  void write(RecordBatch batch);
+}
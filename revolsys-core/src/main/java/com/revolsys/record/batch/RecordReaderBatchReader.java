@@ -0,0 +1,50 @@
+package com.revolsys.record.batch;
+
+import java.util.Iterator;
+
+import com.revolsys.record.Record;
+import com.revolsys.record.io.RecordReader;
+import com.revolsys.record.schema.RecordDefinition;
+
+/**
+ * A {@link RecordBatchReader} that copies the records from a {@link RecordReader}.
+ */
+public class RecordReaderBatchReader implements RecordBatchReader {
+
+  private Iterator<Record> iterator;
+
+  private final RecordReader reader;
+
+  public RecordReaderBatchReader(final RecordReader reader) {
+    this.reader = reader;
+  }
+
+  @Override
+  public void close() {
+    this.reader.close();
+  }
+
+  @Override
+  public RecordDefinition getRecordDefinition() {
+    return this.reader.getRecordDefinition();
+  }
+
+  @Override
+  public boolean readBatch(final RecordBatch batch) {
+    batch.clear();
+    if (this.iterator == null) {
+      this.iterator = this.reader.iterator();
+    }
+    final Iterator<Record> iterator = this.iterator;
+    while (!batch.isFull() && iterator.hasNext()) {
+      final Record record = iterator.next();
+      batch.addRecord(record);
+    }
+    return !batch.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return this.reader.toString();
+  }
+}
@@ -0,0 +1,43 @@
+package com.revolsys.record.batch;
+
+import com.revolsys.record.Record;
+import com.revolsys.record.io.RecordWriter;
+import com.revolsys.record.schema.RecordDefinition;
+
+/**
+ * A {@link RecordBatchWriter} that writes a new record for each record in the batch to a
+ * {@link RecordWriter}.
+ */
+public class RecordWriterBatchWriter implements RecordBatchWriter {
+
+  private final RecordWriter writer;
+
+  public RecordWriterBatchWriter(final RecordWriter writer) {
+    this.writer = writer;
+  }
+
+  @Override
+  public void close() {
+    this.writer.close();
+  }
+
+  @Override
+  public RecordDefinition getRecordDefinition() {
+    return this.writer.getRecordDefinition();
+  }
+
+  @Override
+  public String toString() {
+    return this.writer.toString();
+  }
+
+  @Override
+  public void write(final RecordBatch batch) {
+    final RecordWriter writer = this.writer;
+    final int recordCount = batch.getRecordCount();
+    for (int i = 0; i < recordCount; i++) {
+      final Record record = batch.newRecord(i);
+      writer.write(record);
+    }
+  }
+}
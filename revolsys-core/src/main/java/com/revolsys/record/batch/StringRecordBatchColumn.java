@@ -0,0 +1,82 @@
+package com.revolsys.record.batch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.revolsys.record.schema.FieldDefinition;
+
+/**
+ * A dictionary encoded column of string values. Each distinct string in the batch is stored once
+ * in the dictionary and the records store the dictionary code for the value.
+ */
+public class StringRecordBatchColumn extends RecordBatchColumn {
+
+  private final Map<String, Integer> codeByValue = new HashMap<>();
+
+  private final int[] codes;
+
+  private final List<String> dictionary = new ArrayList<>();
+
+  public StringRecordBatchColumn(final FieldDefinition field, final int capacity) {
+    super(field, capacity);
+    this.codes = new int[capacity];
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    this.codeByValue.clear();
+    this.dictionary.clear();
+  }
+
+  /**
+   * Get the dictionary code for the record, the string is {@link #getDictionaryValue(int)}.
+   */
+  public int getCode(final int index) {
+    return this.codes[index];
+  }
+
+  public int getDictionarySize() {
+    return this.dictionary.size();
+  }
+
+  public String getDictionaryValue(final int code) {
+    return this.dictionary.get(code);
+  }
+
+  public String getString(final int index) {
+    if (isNull(index)) {
+      return null;
+    } else {
+      return this.dictionary.get(this.codes[index]);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <V> V getValue(final int index) {
+    return (V)getString(index);
+  }
+
+  public void setString(final int index, final String value) {
+    if (value == null) {
+      setNull(index);
+    } else {
+      Integer code = this.codeByValue.get(value);
+      if (code == null) {
+        code = this.dictionary.size();
+        this.dictionary.add(value);
+        this.codeByValue.put(value, code);
+      }
+      this.codes[index] = code;
+      setNotNull(index);
+    }
+  }
+
+  @Override
+  protected void setValueNotNull(final int index, final Object value) {
+    setString(index, value.toString());
+  }
+}
@@ -7,6 +7,7 @@ import java.util.List;
 import org.jeometry.common.data.type.DataType;
 import org.jeometry.common.data.type.DataTypes;
 import org.jeometry.common.io.PathName;
+import org.jeometry.common.number.Doubles;
 
 import com.revolsys.collection.iterator.AbstractIterator;
 import com.revolsys.collection.map.Maps;
@@ -15,6 +16,7 @@ import com.revolsys.geometry.model.GeometryDataTypes;
 import com.revolsys.geometry.model.GeometryFactory;
 import com.revolsys.record.Record;
 import com.revolsys.record.RecordFactory;
+import com.revolsys.record.batch.RecordBatch;
 import com.revolsys.record.io.format.csv.GeometryFieldDefinition;
 import com.revolsys.record.schema.FieldDefinition;
 import com.revolsys.record.schema.RecordDefinition;
@@ -211,6 +213,34 @@ public abstract class AbstractRecordReader extends AbstractIterator<Record>
     return this.recordDefinition;
   }
 
+  /**
+   * Add a record to the batch with the values parsed from the strings.
+   *
+   * @return The index of the record in the batch.
+   */
+  protected int parseRecord(final RecordBatch batch, final List<String> values) {
+    final int index = batch.addRecord();
+    final int valueCount = values.size();
+    final int fieldCount = this.recordDefinition.getFieldCount();
+    final int count = Math.min(valueCount, fieldCount);
+    for (int i = 0; i < count; i++) {
+      final String valueString = values.get(i);
+      if (valueString != null) {
+        batch.setValue(index, i, valueString);
+      }
+    }
+    if (this.hasPointFields) {
+      final Double x = Doubles.toDouble(batch.getValue(index, this.pointXFieldName));
+      final Double y = Doubles.toDouble(batch.getValue(index, this.pointYFieldName));
+      if (x != null && y != null) {
+        final GeometryFactory geometryFactory = getGeometryFactory();
+        final Geometry geometry = geometryFactory.point(x, y);
+        batch.setGeometryValue(index, geometry);
+      }
+    }
+    return index;
+  }
+
   /**
    * Parse a record containing an array of String values into a Record with
    * the strings converted to the objects based on the attribute data type.
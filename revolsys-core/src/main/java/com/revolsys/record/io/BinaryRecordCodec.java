@@ -0,0 +1,434 @@
+package com.revolsys.record.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jeometry.common.data.type.DataType;
+import org.jeometry.common.data.type.DataTypes;
+import org.jeometry.common.exception.Exceptions;
+
+import com.revolsys.geometry.model.Geometry;
+import com.revolsys.geometry.model.GeometryFactory;
+import com.revolsys.geometry.model.LineString;
+import com.revolsys.geometry.model.LinearRing;
+import com.revolsys.geometry.model.Lineal;
+import com.revolsys.geometry.model.Point;
+import com.revolsys.geometry.model.Polygon;
+import com.revolsys.geometry.model.Polygonal;
+import com.revolsys.geometry.model.Punctual;
+import com.revolsys.io.channels.ChannelReader;
+import com.revolsys.io.channels.ChannelWriter;
+import com.revolsys.record.Record;
+import com.revolsys.record.RecordState;
+import com.revolsys.record.schema.RecordDefinition;
+
+/**
+ * A compact binary encoding of records used for temporary files. Each value is written as a type
+ * byte followed by the value. The record definitions and geometry factories are not written,
+ * instead they are written as an index into a table kept by the codec, so the records can only be
+ * read using the same codec they were written with. The codec can be used by multiple threads.
+ *
+ * <p>The codec keeps a template for each record definition and record class it writes. Records
+ * are read by cloning the template so they have the same class as the records that were
+ * written.</p>
+ *
+ * <p>Values that aren't one of the common types are written using Java serialization. Values
+ * that can't be serialized are written as a string and converted back using the field's data
+ * type.</p>
+ */
+class BinaryRecordCodec {
+  private static final byte BIG_DECIMAL = 10;
+
+  private static final byte BIG_INTEGER = 11;
+
+  private static final byte BYTE = 7;
+
+  private static final byte BYTES = 16;
+
+  private static final byte DATA_TYPE_STRING = 18;
+
+  private static final byte DATE = 12;
+
+  private static final byte DOUBLE = 4;
+
+  private static final byte FALSE = 8;
+
+  private static final byte FLOAT = 5;
+
+  private static final byte GEOMETRY = 15;
+
+  private static final byte GEOMETRY_COLLECTION = 7;
+
+  private static final byte GEOMETRY_LINEAL = 5;
+
+  private static final byte GEOMETRY_LINE_STRING = 2;
+
+  private static final byte GEOMETRY_POINT = 1;
+
+  private static final byte GEOMETRY_POLYGON = 3;
+
+  private static final byte GEOMETRY_POLYGONAL = 6;
+
+  private static final byte GEOMETRY_PUNCTUAL = 4;
+
+  private static final byte INTEGER = 2;
+
+  private static final byte LONG = 3;
+
+  private static final byte NULL = 0;
+
+  private static final RecordState[] RECORD_STATES = RecordState.values();
+
+  private static final byte SERIALIZED = 17;
+
+  private static final byte SHORT = 6;
+
+  private static final byte SQL_DATE = 13;
+
+  private static final byte STRING = 1;
+
+  private static final byte TIMESTAMP = 14;
+
+  private static final byte TRUE = 9;
+
+  private final List<GeometryFactory> geometryFactories = new ArrayList<>();
+
+  private final Map<GeometryFactory, Integer> geometryFactoryIndexes = new IdentityHashMap<>();
+
+  private final Map<RecordDefinition, Map<Class<?>, Integer>> templateIndexes = new IdentityHashMap<>();
+
+  private final List<Record> templates = new ArrayList<>();
+
+  private synchronized GeometryFactory getGeometryFactory(final int index) {
+    return this.geometryFactories.get(index);
+  }
+
+  private synchronized int getGeometryFactoryIndex(final GeometryFactory geometryFactory) {
+    Integer index = this.geometryFactoryIndexes.get(geometryFactory);
+    if (index == null) {
+      index = this.geometryFactories.size();
+      this.geometryFactories.add(geometryFactory);
+      this.geometryFactoryIndexes.put(geometryFactory, index);
+    }
+    return index;
+  }
+
+  private synchronized Record getTemplate(final int index) {
+    return this.templates.get(index);
+  }
+
+  private synchronized int getTemplateIndex(final Record record) {
+    final RecordDefinition recordDefinition = record.getRecordDefinition();
+    Map<Class<?>, Integer> indexByClass = this.templateIndexes.get(recordDefinition);
+    if (indexByClass == null) {
+      indexByClass = new IdentityHashMap<>();
+      this.templateIndexes.put(recordDefinition, indexByClass);
+    }
+    final Class<?> recordClass = record.getClass();
+    Integer index = indexByClass.get(recordClass);
+    if (index == null) {
+      index = this.templates.size();
+      this.templates.add(record.clone());
+      indexByClass.put(recordClass, index);
+    }
+    return index;
+  }
+
+  private double[] readCoordinates(final ChannelReader in, final int axisCount,
+    final int vertexCount) {
+    final double[] coordinates = new double[axisCount * vertexCount];
+    for (int i = 0; i < coordinates.length; i++) {
+      coordinates[i] = in.getDouble();
+    }
+    return coordinates;
+  }
+
+  private Geometry readGeometry(final ChannelReader in, final GeometryFactory geometryFactory) {
+    final byte geometryType = in.getByte();
+    if (geometryType == GEOMETRY_POINT) {
+      final int axisCount = in.getByte();
+      if (axisCount == 0) {
+        return geometryFactory.point();
+      } else {
+        return geometryFactory.point(readCoordinates(in, axisCount, 1));
+      }
+    } else if (geometryType == GEOMETRY_LINE_STRING) {
+      final int axisCount = in.getByte();
+      final int vertexCount = in.getInt();
+      final double[] coordinates = readCoordinates(in, axisCount, vertexCount);
+      return geometryFactory.lineString(axisCount, vertexCount, coordinates);
+    } else if (geometryType == GEOMETRY_POLYGON) {
+      final int ringCount = in.getInt();
+      if (ringCount == 0) {
+        return geometryFactory.polygon();
+      } else {
+        final List<LinearRing> rings = new ArrayList<>(ringCount);
+        for (int i = 0; i < ringCount; i++) {
+          final int axisCount = in.getByte();
+          final int vertexCount = in.getInt();
+          final double[] coordinates = readCoordinates(in, axisCount, vertexCount);
+          rings.add(geometryFactory.linearRing(axisCount, vertexCount, coordinates));
+        }
+        return geometryFactory.polygon(rings);
+      }
+    } else {
+      final int partCount = in.getInt();
+      final List<Geometry> parts = new ArrayList<>(partCount);
+      for (int i = 0; i < partCount; i++) {
+        parts.add(readGeometry(in, geometryFactory));
+      }
+      if (geometryType == GEOMETRY_PUNCTUAL) {
+        return geometryFactory.punctual(parts);
+      } else if (geometryType == GEOMETRY_LINEAL) {
+        return geometryFactory.lineal(parts);
+      } else if (geometryType == GEOMETRY_POLYGONAL) {
+        return geometryFactory.polygonal(parts);
+      } else {
+        return geometryFactory.geometryCollection(parts);
+      }
+    }
+  }
+
+  public Record readRecord(final ChannelReader in) {
+    final Record template = getTemplate(in.getInt());
+    final RecordState state = RECORD_STATES[in.getByte()];
+    final Record record = template.clone();
+    final RecordDefinition recordDefinition = record.getRecordDefinition();
+    final int fieldCount = recordDefinition.getFieldCount();
+    for (int i = 0; i < fieldCount; i++) {
+      final DataType dataType = recordDefinition.getFieldType(i);
+      final Object value = readValue(in, dataType);
+      record.setValue(i, value);
+    }
+    record.setState(state);
+    return record;
+  }
+
+  private Object readValue(final ChannelReader in, final DataType dataType) {
+    final byte type = in.getByte();
+    switch (type) {
+      case NULL:
+        return null;
+      case STRING:
+        return new String(in.getBytes(in.getInt()), StandardCharsets.UTF_8);
+      case INTEGER:
+        return in.getInt();
+      case LONG:
+        return in.getLong();
+      case DOUBLE:
+        return in.getDouble();
+      case FLOAT:
+        return in.getFloat();
+      case SHORT:
+        return in.getShort();
+      case BYTE:
+        return in.getByte();
+      case FALSE:
+        return Boolean.FALSE;
+      case TRUE:
+        return Boolean.TRUE;
+      case BIG_DECIMAL:
+        return new BigDecimal(new String(in.getBytes(in.getInt()), StandardCharsets.US_ASCII));
+      case BIG_INTEGER:
+        return new BigInteger(in.getBytes(in.getInt()));
+      case DATE:
+        return new Date(in.getLong());
+      case SQL_DATE:
+        return new java.sql.Date(in.getLong());
+      case TIMESTAMP: {
+        final Timestamp timestamp = new Timestamp(in.getLong());
+        timestamp.setNanos(in.getInt());
+        return timestamp;
+      }
+      case GEOMETRY: {
+        final GeometryFactory geometryFactory = getGeometryFactory(in.getInt());
+        return readGeometry(in, geometryFactory);
+      }
+      case BYTES:
+        return in.getBytes(in.getInt());
+      case SERIALIZED: {
+        final byte[] bytes = in.getBytes(in.getInt());
+        try (
+          ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+          return objectIn.readObject();
+        } catch (final Exception e) {
+          throw Exceptions.wrap("Unable to read value", e);
+        }
+      }
+      case DATA_TYPE_STRING: {
+        final String string = new String(in.getBytes(in.getInt()), StandardCharsets.UTF_8);
+        return dataType.toObject(string);
+      }
+      default:
+        throw new IllegalStateException("Invalid value type " + type);
+    }
+  }
+
+  /**
+   * Serialize the value, returning null if the value (or a value it references) isn't
+   * serializable.
+   */
+  private byte[] serialize(final Object value) {
+    if (value instanceof Serializable) {
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (
+        ObjectOutputStream objectOut = new ObjectOutputStream(bytes)) {
+        objectOut.writeObject(value);
+      } catch (final NotSerializableException e) {
+        return null;
+      } catch (final Exception e) {
+        throw Exceptions.wrap("Unable to write value: " + value, e);
+      }
+      return bytes.toByteArray();
+    } else {
+      return null;
+    }
+  }
+
+  private void writeBytes(final ChannelWriter out, final byte type, final byte[] bytes) {
+    out.putByte(type);
+    out.putInt(bytes.length);
+    out.putBytes(bytes);
+  }
+
+  private void writeGeometry(final ChannelWriter out, final Geometry geometry) {
+    if (geometry instanceof Point) {
+      final Point point = (Point)geometry;
+      out.putByte(GEOMETRY_POINT);
+      if (point.isEmpty()) {
+        out.putByte((byte)0);
+      } else {
+        final int axisCount = point.getAxisCount();
+        out.putByte((byte)axisCount);
+        for (int axisIndex = 0; axisIndex < axisCount; axisIndex++) {
+          out.putDouble(point.getCoordinate(axisIndex));
+        }
+      }
+    } else if (geometry instanceof LineString) {
+      out.putByte(GEOMETRY_LINE_STRING);
+      writeLineString(out, (LineString)geometry);
+    } else if (geometry instanceof Polygon) {
+      final Polygon polygon = (Polygon)geometry;
+      out.putByte(GEOMETRY_POLYGON);
+      final int ringCount = polygon.getRingCount();
+      out.putInt(ringCount);
+      for (int i = 0; i < ringCount; i++) {
+        writeLineString(out, polygon.getRing(i));
+      }
+    } else {
+      if (geometry instanceof Punctual) {
+        out.putByte(GEOMETRY_PUNCTUAL);
+      } else if (geometry instanceof Lineal) {
+        out.putByte(GEOMETRY_LINEAL);
+      } else if (geometry instanceof Polygonal) {
+        out.putByte(GEOMETRY_POLYGONAL);
+      } else {
+        out.putByte(GEOMETRY_COLLECTION);
+      }
+      final int partCount = geometry.getGeometryCount();
+      out.putInt(partCount);
+      for (int i = 0; i < partCount; i++) {
+        writeGeometry(out, geometry.getGeometry(i));
+      }
+    }
+  }
+
+  private void writeLineString(final ChannelWriter out, final LineString line) {
+    final int axisCount = line.getAxisCount();
+    final int vertexCount = line.getVertexCount();
+    out.putByte((byte)axisCount);
+    out.putInt(vertexCount);
+    for (int vertexIndex = 0; vertexIndex < vertexCount; vertexIndex++) {
+      for (int axisIndex = 0; axisIndex < axisCount; axisIndex++) {
+        out.putDouble(line.getCoordinate(vertexIndex, axisIndex));
+      }
+    }
+  }
+
+  public void writeRecord(final ChannelWriter out, final Record record) {
+    final RecordDefinition recordDefinition = record.getRecordDefinition();
+    out.putInt(getTemplateIndex(record));
+    out.putByte((byte)record.getState().ordinal());
+    final int fieldCount = recordDefinition.getFieldCount();
+    for (int i = 0; i < fieldCount; i++) {
+      final Object value = record.getValue(i);
+      writeValue(out, value);
+    }
+  }
+
+  private void writeValue(final ChannelWriter out, final Object value) {
+    if (value == null) {
+      out.putByte(NULL);
+    } else if (value instanceof String) {
+      writeBytes(out, STRING, ((String)value).getBytes(StandardCharsets.UTF_8));
+    } else if (value instanceof Integer) {
+      out.putByte(INTEGER);
+      out.putInt((Integer)value);
+    } else if (value instanceof Long) {
+      out.putByte(LONG);
+      out.putLong((Long)value);
+    } else if (value instanceof Double) {
+      out.putByte(DOUBLE);
+      out.putDouble((Double)value);
+    } else if (value instanceof Float) {
+      out.putByte(FLOAT);
+      out.putFloat((Float)value);
+    } else if (value instanceof Short) {
+      out.putByte(SHORT);
+      out.putShort((Short)value);
+    } else if (value instanceof Byte) {
+      out.putByte(BYTE);
+      out.putByte((Byte)value);
+    } else if (value instanceof Boolean) {
+      if ((Boolean)value) {
+        out.putByte(TRUE);
+      } else {
+        out.putByte(FALSE);
+      }
+    } else if (value instanceof BigDecimal) {
+      final String string = ((BigDecimal)value).toString();
+      writeBytes(out, BIG_DECIMAL, string.getBytes(StandardCharsets.US_ASCII));
+    } else if (value instanceof BigInteger) {
+      writeBytes(out, BIG_INTEGER, ((BigInteger)value).toByteArray());
+    } else if (value instanceof Timestamp) {
+      final Timestamp timestamp = (Timestamp)value;
+      out.putByte(TIMESTAMP);
+      out.putLong(timestamp.getTime());
+      out.putInt(timestamp.getNanos());
+    } else if (value instanceof java.sql.Date) {
+      out.putByte(SQL_DATE);
+      out.putLong(((Date)value).getTime());
+    } else if (value.getClass() == Date.class) {
+      out.putByte(DATE);
+      out.putLong(((Date)value).getTime());
+    } else if (value instanceof Geometry) {
+      final Geometry geometry = (Geometry)value;
+      out.putByte(GEOMETRY);
+      out.putInt(getGeometryFactoryIndex(geometry.getGeometryFactory()));
+      writeGeometry(out, geometry);
+    } else if (value instanceof byte[]) {
+      writeBytes(out, BYTES, (byte[])value);
+    } else {
+      final byte[] serializedBytes = serialize(value);
+      if (serializedBytes == null) {
+        final String string = DataTypes.toString(value);
+        writeBytes(out, DATA_TYPE_STRING, string.getBytes(StandardCharsets.UTF_8));
+      } else {
+        writeBytes(out, SERIALIZED, serializedBytes);
+      }
+    }
+  }
+}
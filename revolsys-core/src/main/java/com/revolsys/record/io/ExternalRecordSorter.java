@@ -0,0 +1,255 @@
+package com.revolsys.record.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import org.jeometry.common.exception.Exceptions;
+import org.jeometry.common.logging.Logs;
+
+import com.revolsys.collection.iterator.AbstractIterator;
+import com.revolsys.io.BaseCloseable;
+import com.revolsys.io.FileUtil;
+import com.revolsys.io.channels.ChannelReader;
+import com.revolsys.io.channels.ChannelWriter;
+import com.revolsys.record.Record;
+
+/**
+ * Sort a stream of records that may be too large to fit in memory. The records are added to an
+ * in memory buffer of up to maxRecordsInMemory records. When the buffer is full it is sorted (using
+ * {@link Arrays#parallelSort(Object[], Comparator)}) and written as a sorted run to a temporary
+ * file using a compact binary encoding. The sorted records are returned by a k-way merge of the
+ * runs, holding only one record per run in memory. If all the records fit in memory no files are
+ * written.
+ *
+ * <p>The sort is stable, records that compare as equal are returned in the order they were
+ * added.</p>
+ *
+ * <pre class="prettyprint"><code class="language-java">
+ * try (ExternalRecordSorter sorter = new ExternalRecordSorter(comparator, 1000000)) {
+ *   for (final Record record : reader) {
+ *     sorter.add(record);
+ *   }
+ *   final Iterator&lt;Record&gt; sorted = sorter.sort();
+ *   ...
+ * }
+ * </code></pre>
+ */
+public class ExternalRecordSorter implements BaseCloseable {
+
+  private static class RunReader implements Comparable<RunReader> {
+    private final ChannelReader in;
+
+    private Record record;
+
+    private long remainingCount;
+
+    private final int runIndex;
+
+    private RunReader(final SortRun run, final int runIndex) {
+      this.runIndex = runIndex;
+      this.remainingCount = run.recordCount;
+      try {
+        final FileChannel channel = FileChannel.open(run.file.toPath(), StandardOpenOption.READ);
+        this.in = new ChannelReader(channel, BUFFER_SIZE);
+      } catch (final IOException e) {
+        throw Exceptions.wrap("Unable to read: " + run.file, e);
+      }
+    }
+
+    @Override
+    public int compareTo(final RunReader reader) {
+      return Integer.compare(this.runIndex, reader.runIndex);
+    }
+
+    private boolean next(final BinaryRecordCodec codec) {
+      if (this.remainingCount > 0) {
+        this.remainingCount--;
+        this.record = codec.readRecord(this.in);
+        return true;
+      } else {
+        this.record = null;
+        this.in.close();
+        return false;
+      }
+    }
+  }
+
+  private static class SortRun {
+    private final File file;
+
+    private final long recordCount;
+
+    private SortRun(final File file, final long recordCount) {
+      this.file = file;
+      this.recordCount = recordCount;
+    }
+  }
+
+  private static final int BUFFER_SIZE = 65536;
+
+  public static final int DEFAULT_MAX_RECORDS_IN_MEMORY = 1000000;
+
+  private final BinaryRecordCodec codec = new BinaryRecordCodec();
+
+  private final Comparator<Record> comparator;
+
+  private final int maxRecordsInMemory;
+
+  private final List<RunReader> readers = new ArrayList<>();
+
+  private Record[] records;
+
+  private int recordCount;
+
+  private final List<SortRun> runs = new ArrayList<>();
+
+  private boolean sorted;
+
+  public ExternalRecordSorter(final Comparator<Record> comparator) {
+    this(comparator, DEFAULT_MAX_RECORDS_IN_MEMORY);
+  }
+
+  /**
+   * @param comparator The comparator used to sort the records.
+   * @param maxRecordsInMemory The maximum number of records to buffer in memory before writing a
+   * sorted run to a temporary file.
+   */
+  public ExternalRecordSorter(final Comparator<Record> comparator, final int maxRecordsInMemory) {
+    if (maxRecordsInMemory < 1) {
+      throw new IllegalArgumentException(
+        "maxRecordsInMemory must be > 0 not " + maxRecordsInMemory);
+    }
+    this.comparator = comparator;
+    this.maxRecordsInMemory = maxRecordsInMemory;
+    this.records = new Record[Math.min(maxRecordsInMemory, 1024)];
+  }
+
+  public void add(final Record record) {
+    if (this.sorted) {
+      throw new IllegalStateException("Cannot add records after the sort");
+    }
+    if (this.recordCount == this.records.length) {
+      if (this.recordCount == this.maxRecordsInMemory) {
+        writeRun();
+      } else {
+        final int newLength = (int)Math.min(this.maxRecordsInMemory, this.recordCount * 2L);
+        this.records = Arrays.copyOf(this.records, newLength);
+      }
+    }
+    this.records[this.recordCount++] = record;
+  }
+
+  @Override
+  public void close() {
+    this.records = null;
+    this.recordCount = 0;
+    try {
+      for (final RunReader reader : this.readers) {
+        try {
+          reader.in.close();
+        } catch (final RuntimeException e) {
+          Logs.debug(this, "Unable to close sort run", e);
+        }
+      }
+      this.readers.clear();
+    } finally {
+      for (final SortRun run : this.runs) {
+        run.file.delete();
+      }
+      this.runs.clear();
+    }
+  }
+
+  /**
+   * The number of sorted runs written to temporary files.
+   */
+  public int getRunCount() {
+    return this.runs.size();
+  }
+
+  /**
+   * Sort the records that were added. If any runs were written the records still in memory are
+   * written as the last run and the iterator merges the runs as the records are read.
+   *
+   * @return The iterator over the sorted records.
+   */
+  public Iterator<Record> sort() {
+    if (this.sorted) {
+      throw new IllegalStateException("The records can only be sorted once");
+    }
+    this.sorted = true;
+    if (this.runs.isEmpty()) {
+      final Record[] records = this.records;
+      final int recordCount = this.recordCount;
+      this.records = null;
+      this.recordCount = 0;
+      Arrays.parallelSort(records, 0, recordCount, this.comparator);
+      return Arrays.asList(records).subList(0, recordCount).iterator();
+    } else {
+      if (this.recordCount > 0) {
+        writeRun();
+      }
+      this.records = null;
+      final Comparator<Record> comparator = this.comparator;
+      final PriorityQueue<RunReader> queue = new PriorityQueue<>(this.runs.size(),
+        (reader1, reader2) -> {
+          final int compare = comparator.compare(reader1.record, reader2.record);
+          if (compare == 0) {
+            return reader1.compareTo(reader2);
+          } else {
+            return compare;
+          }
+        });
+      for (int i = 0; i < this.runs.size(); i++) {
+        final RunReader reader = new RunReader(this.runs.get(i), i);
+        this.readers.add(reader);
+        if (reader.next(this.codec)) {
+          queue.add(reader);
+        }
+      }
+      return new AbstractIterator<Record>() {
+        @Override
+        protected Record getNext() throws NoSuchElementException {
+          final RunReader reader = queue.poll();
+          if (reader == null) {
+            throw new NoSuchElementException();
+          } else {
+            final Record record = reader.record;
+            if (reader.next(ExternalRecordSorter.this.codec)) {
+              queue.add(reader);
+            }
+            return record;
+          }
+        }
+      };
+    }
+  }
+
+  private void writeRun() {
+    final Record[] records = this.records;
+    final int recordCount = this.recordCount;
+    Arrays.parallelSort(records, 0, recordCount, this.comparator);
+    final File file = FileUtil.newTempFile("sort", ".run");
+    this.runs.add(new SortRun(file, recordCount));
+    try (
+      ChannelWriter out = new ChannelWriter(
+        FileChannel.open(file.toPath(), StandardOpenOption.WRITE), true, BUFFER_SIZE)) {
+      for (int i = 0; i < recordCount; i++) {
+        this.codec.writeRecord(out, records[i]);
+      }
+    } catch (final IOException e) {
+      throw Exceptions.wrap("Unable to write: " + file, e);
+    }
+    Arrays.fill(records, 0, recordCount, null);
+    this.recordCount = 0;
+  }
+}
@@ -0,0 +1,165 @@
+package com.revolsys.record.io;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.jeometry.common.exception.Exceptions;
+
+import com.revolsys.collection.iterator.AbstractIterator;
+import com.revolsys.geometry.model.ClockDirection;
+import com.revolsys.io.BaseCloseable;
+import com.revolsys.record.Record;
+import com.revolsys.record.schema.RecordDefinition;
+
+/**
+ * Read the records from a list of readers (e.g. the record ranges from
+ * ShapefileRecordReader.newSplitReaders) concurrently, each reader on its own thread. The records
+ * are passed back to the calling thread in batches through a bounded queue so at most
+ * {@link #QUEUE_SIZE} batches per reader are held in memory.
+ *
+ * <p>If ordered is true all the records from the first reader are returned before the second
+ * reader and so on, otherwise the batches are returned in the order they are read.</p>
+ */
+public class ParallelRecordReader extends AbstractIterator<Record> implements RecordReader {
+
+  public static final int BATCH_SIZE = 1000;
+
+  private static final List<Record> END = Collections.emptyList();
+
+  public static final int QUEUE_SIZE = 4;
+
+  private Iterator<Record> batchIterator = Collections.emptyIterator();
+
+  private volatile Throwable error;
+
+  private ExecutorService executor;
+
+  private final boolean ordered;
+
+  private final List<BlockingQueue<List<Record>>> queues = new ArrayList<>();
+
+  private int queueIndex;
+
+  private final List<? extends RecordReader> readers;
+
+  private int runningCount;
+
+  public ParallelRecordReader(final List<? extends RecordReader> readers, final boolean ordered) {
+    this.readers = readers;
+    this.ordered = ordered;
+  }
+
+  @Override
+  protected void closeDo() {
+    if (this.executor != null) {
+      this.executor.shutdownNow();
+      this.executor = null;
+    }
+    this.queues.clear();
+    this.batchIterator = Collections.emptyIterator();
+  }
+
+  @Override
+  protected Record getNext() throws NoSuchElementException {
+    try {
+      while (!this.batchIterator.hasNext()) {
+        if (this.runningCount == 0) {
+          throw new NoSuchElementException();
+        }
+        final List<Record> batch = this.queues.get(this.queueIndex).take();
+        if (batch == END) {
+          this.runningCount--;
+          if (this.error != null) {
+            throw Exceptions.wrap("Error reading records", this.error);
+          }
+          if (this.ordered) {
+            this.queueIndex++;
+          }
+        } else {
+          this.batchIterator = batch.iterator();
+        }
+      }
+      return this.batchIterator.next();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw Exceptions.wrap("Interrupted reading records", e);
+    }
+  }
+
+  @Override
+  public ClockDirection getPolygonRingDirection() {
+    if (this.readers.isEmpty()) {
+      return ClockDirection.NONE;
+    } else {
+      return this.readers.get(0).getPolygonRingDirection();
+    }
+  }
+
+  @Override
+  public RecordDefinition getRecordDefinition() {
+    if (this.readers.isEmpty()) {
+      return null;
+    } else {
+      return this.readers.get(0).getRecordDefinition();
+    }
+  }
+
+  @Override
+  protected void initDo() {
+    final int readerCount = this.readers.size();
+    this.runningCount = readerCount;
+    if (readerCount > 0) {
+      this.executor = Executors.newFixedThreadPool(readerCount, runnable -> {
+        final Thread thread = new Thread(runnable, "Parallel record reader");
+        thread.setDaemon(true);
+        return thread;
+      });
+      BlockingQueue<List<Record>> queue = null;
+      for (final RecordReader reader : this.readers) {
+        if (this.ordered || queue == null) {
+          queue = new ArrayBlockingQueue<>(QUEUE_SIZE * (this.ordered ? 1 : readerCount));
+          this.queues.add(queue);
+        }
+        final BlockingQueue<List<Record>> readerQueue = queue;
+        this.executor.execute(() -> read(reader, readerQueue));
+      }
+    }
+  }
+
+  private void read(final RecordReader reader, final BlockingQueue<List<Record>> queue) {
+    try {
+      try (
+        BaseCloseable closeable = reader) {
+        List<Record> batch = new ArrayList<>(BATCH_SIZE);
+        for (final Record record : reader) {
+          batch.add(record);
+          if (batch.size() == BATCH_SIZE) {
+            queue.put(batch);
+            batch = new ArrayList<>(BATCH_SIZE);
+          }
+        }
+        if (!batch.isEmpty()) {
+          queue.put(batch);
+        }
+      } catch (final InterruptedException e) {
+        return;
+      } catch (final Throwable e) {
+        this.error = e;
+      }
+      queue.put(END);
+    } catch (final InterruptedException e) {
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "Parallel " + this.readers;
+  }
+}
@@ -0,0 +1,75 @@
+package com.revolsys.record.io;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.revolsys.collection.iterator.AbstractIterator;
+import com.revolsys.geometry.model.ClockDirection;
+import com.revolsys.record.Record;
+import com.revolsys.record.schema.RecordDefinition;
+
+/**
+ * A record reader that returns the records from another reader sorted using an
+ * {@link ExternalRecordSorter}. All the records are read from the reader when the first record
+ * is requested, with at most maxRecordsInMemory records held in memory.
+ */
+public class SortedRecordReader extends AbstractIterator<Record> implements RecordReader {
+
+  private Iterator<Record> iterator;
+
+  private final RecordReader reader;
+
+  private final ExternalRecordSorter sorter;
+
+  public SortedRecordReader(final RecordReader reader, final Comparator<Record> comparator) {
+    this(reader, comparator, ExternalRecordSorter.DEFAULT_MAX_RECORDS_IN_MEMORY);
+  }
+
+  public SortedRecordReader(final RecordReader reader, final Comparator<Record> comparator,
+    final int maxRecordsInMemory) {
+    this.reader = reader;
+    this.sorter = new ExternalRecordSorter(comparator, maxRecordsInMemory);
+  }
+
+  @Override
+  protected void closeDo() {
+    try {
+      this.sorter.close();
+    } finally {
+      this.reader.close();
+    }
+  }
+
+  @Override
+  protected Record getNext() throws NoSuchElementException {
+    if (this.iterator.hasNext()) {
+      return this.iterator.next();
+    } else {
+      throw new NoSuchElementException();
+    }
+  }
+
+  @Override
+  public ClockDirection getPolygonRingDirection() {
+    return this.reader.getPolygonRingDirection();
+  }
+
+  @Override
+  public RecordDefinition getRecordDefinition() {
+    return this.reader.getRecordDefinition();
+  }
+
+  @Override
+  protected void initDo() {
+    for (final Record record : this.reader) {
+      this.sorter.add(record);
+    }
+    this.iterator = this.sorter.sort();
+  }
+
+  @Override
+  public String toString() {
+    return "Sorted " + this.reader;
+  }
+}
@@ -12,10 +12,12 @@ import com.revolsys.geometry.model.GeometryFactory;
 import com.revolsys.record.ArrayRecord;
 import com.revolsys.record.Record;
 import com.revolsys.record.RecordFactory;
+import com.revolsys.record.batch.RecordBatch;
+import com.revolsys.record.batch.RecordBatchReader;
 import com.revolsys.record.io.AbstractRecordReader;
 import com.revolsys.spring.resource.Resource;
 
-public class CsvRecordReader extends AbstractRecordReader {
+public class CsvRecordReader extends AbstractRecordReader implements RecordBatchReader {
   private final char fieldSeparator;
 
   private BufferedReader in;
@@ -103,6 +105,26 @@ public class CsvRecordReader extends AbstractRecordReader {
     return GeometryFactory.floating2d(this.resource);
   }
 
+  @Override
+  public boolean readBatch(final RecordBatch batch) {
+    batch.clear();
+    open();
+    try {
+      while (!batch.isFull()) {
+        final List<String> row = readNextRow();
+        if (row != null && row.size() > 0) {
+          parseRecord(batch, row);
+        } else {
+          break;
+        }
+      }
+    } catch (final NoSuchElementException e) {
+    } catch (final IOException e) {
+      throw new RuntimeException(e.getMessage(), e);
+    }
+    return !batch.isEmpty();
+  }
+
   /**
    * Reads the next line from the buffer and converts to a string array.
    *
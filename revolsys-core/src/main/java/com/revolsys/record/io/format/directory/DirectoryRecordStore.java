@@ -21,6 +21,7 @@ import com.revolsys.properties.ObjectWithProperties;
 import com.revolsys.record.Record;
 import com.revolsys.record.io.RecordReader;
 import com.revolsys.record.io.RecordWriter;
+import com.revolsys.record.io.format.shp.ShapefileRecordReader;
 import com.revolsys.record.query.Query;
 import com.revolsys.record.schema.AbstractRecordStore;
 import com.revolsys.record.schema.FieldDefinition;
@@ -43,6 +44,8 @@ public class DirectoryRecordStore extends AbstractRecordStore {
 
   private final Map<Resource, String> typePathByResource = new HashMap<>();
 
+  private boolean useSpatialIndex = false;
+
   private final Map<String, RecordWriter> writers = new HashMap<>();
 
   public DirectoryRecordStore(final File directory, final Collection<String> fileExtensions) {
@@ -204,6 +207,10 @@ public class DirectoryRecordStore extends AbstractRecordStore {
     }
   }
 
+  public boolean isUseSpatialIndex() {
+    return this.useSpatialIndex;
+  }
+
   @Override
   public synchronized void insertRecord(final Record record) {
     final RecordDefinition recordDefinition = record.getRecordDefinition();
@@ -236,6 +243,9 @@ public class DirectoryRecordStore extends AbstractRecordStore {
     final PathName path = query.getTablePath();
     final RecordReader reader = getRecords(path);
     reader.setProperties(properties);
+    if (reader instanceof ShapefileRecordReader) {
+      ((ShapefileRecordReader)reader).setUseSpatialIndex(this.useSpatialIndex);
+    }
     return new RecordReaderQueryIterator(reader, query);
   }
 
@@ -299,6 +309,14 @@ public class DirectoryRecordStore extends AbstractRecordStore {
     this.fileExtensions = fileExtensions;
   }
 
+  /**
+   * Use a spatial index sidecar file for bounding box queries on shapefiles. The index is created
+   * next to the .shp file on the first query.
+   */
+  public void setUseSpatialIndex(final boolean useSpatialIndex) {
+    this.useSpatialIndex = useSpatialIndex;
+  }
+
   protected void superDelete(final Record record) {
     super.deleteRecord(record);
   }
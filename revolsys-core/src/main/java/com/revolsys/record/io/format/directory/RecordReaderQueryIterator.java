@@ -2,15 +2,21 @@ package com.revolsys.record.io.format.directory;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.function.Predicate;
 
 import com.revolsys.collection.iterator.AbstractIterator;
+import com.revolsys.collection.map.MapEx;
 import com.revolsys.record.Record;
 import com.revolsys.record.io.RecordReader;
+import com.revolsys.record.io.format.shp.ShapefileRecordReader;
+import com.revolsys.record.query.CompiledCondition;
 import com.revolsys.record.query.Condition;
 import com.revolsys.record.query.Query;
 
 public class RecordReaderQueryIterator extends AbstractIterator<Record> {
 
+  private Predicate<MapEx> filter;
+
   private Iterator<Record> iterator;
 
   private final RecordReader reader;
@@ -20,6 +26,9 @@ public class RecordReaderQueryIterator extends AbstractIterator<Record> {
   public RecordReaderQueryIterator(final RecordReader reader, final Query query) {
     this.reader = reader;
     this.whereCondition = query.getWhereCondition();
+    if (reader instanceof ShapefileRecordReader) {
+      ((ShapefileRecordReader)reader).setQuery(query);
+    }
   }
 
   @Override
@@ -31,7 +40,7 @@ public class RecordReaderQueryIterator extends AbstractIterator<Record> {
   protected Record getNext() throws NoSuchElementException {
     while (true) {
       final Record record = this.iterator.next();
-      if (this.whereCondition.test(record)) {
+      if (this.filter.test(record)) {
         return record;
       }
     }
@@ -40,6 +49,7 @@ public class RecordReaderQueryIterator extends AbstractIterator<Record> {
   @Override
   public synchronized void init() {
     this.reader.open();
+    this.filter = new CompiledCondition(this.whereCondition, this.reader.getRecordDefinition());
     this.iterator = this.reader.iterator();
   }
 }
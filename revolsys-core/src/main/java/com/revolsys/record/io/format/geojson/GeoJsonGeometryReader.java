@@ -8,6 +8,7 @@ import java.util.NoSuchElementException;
 import org.jeometry.coordinatesystem.model.systems.EpsgId;
 
 import com.revolsys.collection.iterator.AbstractIterator;
+import com.revolsys.collection.list.DoubleList;
 import com.revolsys.collection.map.MapEx;
 import com.revolsys.geometry.io.GeometryReader;
 import com.revolsys.geometry.model.ClockDirection;
@@ -25,6 +26,8 @@ import com.revolsys.spring.resource.Resource;
 
 public class GeoJsonGeometryReader extends AbstractIterator<Geometry> implements GeometryReader {
 
+  private final DoubleList coordinates = new DoubleList();
+
   private GeometryFactory geometryFactory;
 
   private JsonParser in;
@@ -89,19 +92,20 @@ public class GeoJsonGeometryReader extends AbstractIterator<Geometry> implements
   }
 
   private LineString readCoordinatesList(final boolean ring) {
-    final List<Double> coordinates = new ArrayList<>();
+    final DoubleList coordinates = this.coordinates;
+    coordinates.clear();
     final int axisCount = readCoordinatesList(coordinates);
-    return new LineStringDouble(axisCount, coordinates);
+    return new LineStringDouble(axisCount, coordinates.toDoubleArray());
   }
 
-  private int readCoordinatesList(final List<Double> coordinates) {
+  private int readCoordinatesList(final DoubleList coordinates) {
     int axisCount = 0;
     if (this.in.getEvent() == EventType.startArray
       || this.in.hasNext() && this.in.next() == EventType.startArray) {
       EventType event = this.in.next();
       if (event != EventType.endArray) {
         do {
-          axisCount = Math.max(axisCount, readCoordinatesListCoordinates(coordinates));
+          axisCount = Math.max(axisCount, this.in.getDoubles(coordinates));
           event = this.in.next();
         } while (event == EventType.comma);
       }
@@ -114,40 +118,6 @@ public class GeoJsonGeometryReader extends AbstractIterator<Geometry> implements
     return axisCount;
   }
 
-  /**
-   * Read one points coordinates and add them to the list of coordinate values.
-   *
-   * @param values The list to add the points coordinates to.
-   * @return The dimension of the coordinate read.
-   */
-  private int readCoordinatesListCoordinates(final List<Double> values) {
-    int numAxis = 0;
-    if (this.in.getEvent() == EventType.startArray
-      || this.in.hasNext() && this.in.next() == EventType.startArray) {
-      EventType event = this.in.getEvent();
-      do {
-        final JsonParser parser = this.in;
-        final Object value = parser.getValue();
-        if (value instanceof EventType) {
-          event = (EventType)value;
-        } else if (value instanceof Number) {
-          values.add(((Number)value).doubleValue());
-          numAxis++;
-          event = this.in.next();
-        } else {
-          throw new IllegalArgumentException("Expecting number, not: " + value);
-        }
-      } while (event == EventType.comma);
-      if (event != EventType.endArray) {
-        throw new IllegalStateException("Exepecting end array, not: " + event);
-      }
-
-      return numAxis;
-    } else {
-      throw new IllegalStateException("Exepecting start array, not: " + this.in.getEvent());
-    }
-  }
-
   private List<LineString> readCoordinatesListList(final boolean ring) {
     if (this.in.getEvent() == EventType.startArray
       || this.in.hasNext() && this.in.next() == EventType.startArray) {
@@ -10,6 +10,7 @@ import java.math.BigDecimal;
 import java.sql.Clob;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -18,9 +19,9 @@ import java.util.NoSuchElementException;
 
 import org.jeometry.common.exception.WrappedException;
 import org.jeometry.common.logging.Logs;
-import org.jeometry.common.number.Doubles;
 import org.jeometry.common.number.Integers;
 
+import com.revolsys.collection.list.DoubleList;
 import com.revolsys.io.FileUtil;
 import com.revolsys.spring.resource.Resource;
 
@@ -29,6 +30,13 @@ public class JsonParser implements Iterator<JsonParser.EventType>, Closeable {
     booleanValue, colon, comma, endArray, endDocument, endObject, nullValue, number, startArray, startDocument, startObject, string, unknown
   }
 
+  private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+  private static final double[] POWERS_OF_TEN = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+    1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
   public static Map<String, Object> getMap(final InputStream in) {
     if (in == null) {
       return null;
@@ -146,14 +154,26 @@ public class JsonParser implements Iterator<JsonParser.EventType>, Closeable {
 
   private int currentCharacter;
 
+  private double currentDouble;
+
   private EventType currentEvent = EventType.startDocument;
 
+  private char[] currentNumber = new char[32];
+
+  private int currentNumberLength;
+
   private Object currentValue;
 
   private int depth;
 
+  private double nextDouble;
+
   private EventType nextEvent = EventType.startDocument;
 
+  private char[] nextNumber = new char[32];
+
+  private int nextNumberLength;
+
   private Object nextValue;
 
   private final Reader reader;
@@ -217,8 +237,29 @@ public class JsonParser implements Iterator<JsonParser.EventType>, Closeable {
 
   }
 
+  private void appendNumber(final int character) {
+    if (this.nextNumberLength == this.nextNumber.length) {
+      this.nextNumber = Arrays.copyOf(this.nextNumber, this.nextNumberLength * 2);
+    }
+    this.nextNumber[this.nextNumberLength++] = (char)character;
+  }
+
+  /**
+   * Get the value of the current number event as a double without creating a {@link BigDecimal}.
+   */
+  public double getCurrentDouble() {
+    if (this.currentEvent == EventType.number) {
+      return this.currentDouble;
+    } else {
+      throw new IllegalStateException("Expecting a number, not: " + this.currentEvent);
+    }
+  }
+
   @SuppressWarnings("unchecked")
   public <T> T getCurrentValue() {
+    if (this.currentValue == null && this.currentEvent == EventType.number) {
+      this.currentValue = new BigDecimal(this.currentNumber, 0, this.currentNumberLength);
+    }
     return (T)this.currentValue;
   }
 
@@ -228,26 +269,42 @@ public class JsonParser implements Iterator<JsonParser.EventType>, Closeable {
 
   public double[] getDoubleArray() {
     if (getEvent() == EventType.startArray || hasNext() && next() == EventType.startArray) {
-      EventType event = getEvent();
-      final List<Number> list = new ArrayList<>();
-      do {
-        final Object value = getValue();
-        if (value instanceof EventType) {
-          event = (EventType)value;
-        } else if (value instanceof Number) {
-          list.add((Number)value);
+      final DoubleList values = new DoubleList();
+      getDoubles(values);
+      return values.toDoubleArray();
+    } else if (getEvent() == EventType.nullValue) {
+      return null;
+    } else {
+      throw new IllegalStateException("Exepecting start array, not: " + getEvent());
+    }
+  }
+
+  /**
+   * Read an array of numbers, adding the values to the list without creating a {@link BigDecimal}
+   * or {@link Double} for each value.
+   *
+   * @param values The list to add the values to.
+   * @return The number of values read.
+   */
+  public int getDoubles(final DoubleList values) {
+    if (getEvent() == EventType.startArray || hasNext() && next() == EventType.startArray) {
+      int count = 0;
+      EventType event = next();
+      while (event == EventType.number) {
+        values.addDouble(this.currentDouble);
+        count++;
+        event = next();
+        if (event == EventType.comma) {
           event = next();
-        } else {
-          throw new IllegalArgumentException("Expecting number, not: " + value);
+          if (event != EventType.number) {
+            throw new IllegalArgumentException("Expecting number, not: " + event);
+          }
         }
-      } while (event == EventType.comma);
+      }
       if (event != EventType.endArray) {
         throw new IllegalStateException("Exepecting end array, not: " + event);
       }
-
-      return Doubles.toDoubleArray(list);
-    } else if (getEvent() == EventType.nullValue) {
-      return null;
+      return count;
     } else {
       throw new IllegalStateException("Exepecting start array, not: " + getEvent());
     }
@@ -471,6 +528,13 @@ public class JsonParser implements Iterator<JsonParser.EventType>, Closeable {
     if (hasNext()) {
       this.currentValue = this.nextValue;
       this.currentEvent = this.nextEvent;
+      if (this.currentEvent == EventType.number) {
+        final char[] number = this.currentNumber;
+        this.currentNumber = this.nextNumber;
+        this.currentNumberLength = this.nextNumberLength;
+        this.currentDouble = this.nextDouble;
+        this.nextNumber = number;
+      }
       moveNext();
       return this.currentEvent;
     } else {
@@ -478,39 +542,85 @@ public class JsonParser implements Iterator<JsonParser.EventType>, Closeable {
     }
   }
 
+  /**
+   * Read the number into the number buffer and parse the double value. Numbers with at most 15
+   * significant digits and a small exponent (e.g. most coordinates) are converted exactly
+   * without creating any objects, otherwise {@link Double#parseDouble(String)} is used. The
+   * {@link BigDecimal} value is only created if {@link #getCurrentValue()} is called.
+   */
   private void processNumber() throws IOException {
-    final StringBuilder text = new StringBuilder();
+    this.nextNumberLength = 0;
+    boolean negative = false;
+    long mantissa = 0;
+    boolean exact = true;
+    int exponent = 0;
     if (this.currentCharacter == '-') {
-      text.append((char)this.currentCharacter);
+      negative = true;
+      appendNumber(this.currentCharacter);
       this.currentCharacter = this.reader.read();
     }
     while (this.currentCharacter >= '0' && this.currentCharacter <= '9') {
-      text.append((char)this.currentCharacter);
+      if (mantissa < MAX_EXACT_MANTISSA) {
+        mantissa = mantissa * 10 + this.currentCharacter - '0';
+      } else {
+        exact = false;
+      }
+      appendNumber(this.currentCharacter);
       this.currentCharacter = this.reader.read();
     }
 
     if (this.currentCharacter == '.') {
-      text.append((char)this.currentCharacter);
+      appendNumber(this.currentCharacter);
       this.currentCharacter = this.reader.read();
       while (this.currentCharacter >= '0' && this.currentCharacter <= '9') {
-        text.append((char)this.currentCharacter);
+        if (mantissa < MAX_EXACT_MANTISSA) {
+          mantissa = mantissa * 10 + this.currentCharacter - '0';
+          exponent--;
+        } else {
+          exact = false;
+        }
+        appendNumber(this.currentCharacter);
         this.currentCharacter = this.reader.read();
       }
     }
 
     if (this.currentCharacter == 'e' || this.currentCharacter == 'E') {
-      text.append((char)this.currentCharacter);
+      appendNumber(this.currentCharacter);
       this.currentCharacter = this.reader.read();
+      boolean negativeExponent = false;
       if (this.currentCharacter == '-' || this.currentCharacter == '+') {
-        text.append((char)this.currentCharacter);
+        negativeExponent = this.currentCharacter == '-';
+        appendNumber(this.currentCharacter);
         this.currentCharacter = this.reader.read();
       }
+      int exponentValue = 0;
       while (this.currentCharacter >= '0' && this.currentCharacter <= '9') {
-        text.append((char)this.currentCharacter);
+        if (exponentValue < 10000) {
+          exponentValue = exponentValue * 10 + this.currentCharacter - '0';
+        }
+        appendNumber(this.currentCharacter);
         this.currentCharacter = this.reader.read();
       }
+      if (negativeExponent) {
+        exponent -= exponentValue;
+      } else {
+        exponent += exponentValue;
+      }
+    }
+    if (exact && mantissa <= MAX_EXACT_MANTISSA && exponent >= -22 && exponent <= 22) {
+      double value = mantissa;
+      if (exponent < 0) {
+        value /= POWERS_OF_TEN[-exponent];
+      } else {
+        value *= POWERS_OF_TEN[exponent];
+      }
+      if (negative) {
+        value = -value;
+      }
+      this.nextDouble = value;
+    } else {
+      this.nextDouble = Double.parseDouble(new String(this.nextNumber, 0, this.nextNumberLength));
     }
-    this.nextValue = new BigDecimal(text.toString());
   }
 
   private void processString() throws IOException {
@@ -576,6 +686,18 @@ public class JsonParser implements Iterator<JsonParser.EventType>, Closeable {
   public void remove() {
   }
 
+  /**
+   * Move to the next event, which must be a number, and return the value as a double without
+   * creating a {@link BigDecimal}.
+   */
+  public double nextDouble() {
+    if (next() == EventType.number) {
+      return this.currentDouble;
+    } else {
+      throw new IllegalStateException("Expecting a number, not: " + this.currentEvent);
+    }
+  }
+
   /** Skip to next attribute in any object.*/
   public String skipToAttribute() {
     while (hasNext()) {
@@ -666,7 +788,7 @@ public class JsonParser implements Iterator<JsonParser.EventType>, Closeable {
 
   @Override
   public String toString() {
-    return this.currentEvent + " : " + this.currentValue + " "
+    return this.currentEvent + " : " + getCurrentValue() + " "
       + Character.toString((char)this.currentCharacter) + FileUtil.getString(this.reader, 80);
   }
 }
@@ -79,13 +79,13 @@ public class ShapefileDirectoryWriter extends AbstractRecordWriter {
     return this.directory;
   }
 
-  private File getDirectory(final RecordDefinition recordDefinition) {
+  private File getDirectory(final RecordDefinition recordDefinition, final boolean create) {
     if (this.useNamespaceAsSubDirectory) {
       final String typePath = recordDefinition.getPath();
       final String schemaName = PathUtil.getPath(typePath);
       if (Property.hasValue(schemaName)) {
         final File childDirectory = new File(this.directory, schemaName);
-        if (!childDirectory.mkdirs()) {
+        if (create && !childDirectory.mkdirs()) {
           if (!childDirectory.isDirectory()) {
             throw new IllegalArgumentException("Unable to create directory " + childDirectory);
           }
@@ -96,6 +96,25 @@ public class ShapefileDirectoryWriter extends AbstractRecordWriter {
     return this.directory;
   }
 
+  public File getFile(final RecordDefinition recordDefinition) {
+    return getFile(recordDefinition, true);
+  }
+
+  /**
+   * Get the .shp file for the record definition.
+   *
+   * @param recordDefinition The record definition.
+   * @param create True if the directory for the file should be created.
+   * @return The file.
+   */
+  public File getFile(final RecordDefinition recordDefinition, final boolean create) {
+    final File directory = getDirectory(recordDefinition, create);
+    if (create) {
+      directory.mkdirs();
+    }
+    return new File(directory, getFileName(recordDefinition) + this.nameSuffix + ".shp");
+  }
+
   private String getFileName(final RecordDefinition recordDefinition) {
     return recordDefinition.getName();
   }
@@ -117,10 +136,7 @@ public class ShapefileDirectoryWriter extends AbstractRecordWriter {
     final String path = recordDefinition.getPath();
     Writer<Record> writer = this.writers.get(path);
     if (writer == null) {
-      final File directory = getDirectory(recordDefinition);
-      directory.mkdirs();
-      final File file = new File(directory,
-        getFileName(recordDefinition) + this.nameSuffix + ".shp");
+      final File file = getFile(recordDefinition);
       writer = RecordWriter.newRecordWriter(recordDefinition, new PathResource(file));
 
       ((XbaseRecordWriter)writer).setUseZeroForNull(this.useZeroForNull);
@@ -138,6 +154,15 @@ public class ShapefileDirectoryWriter extends AbstractRecordWriter {
     return this.useNamespaceAsSubDirectory;
   }
 
+  /**
+   * Check if a writer for the record definition's type is open, the records written so far may
+   * not have been written to the file.
+   */
+  public boolean isWriterOpen(final RecordDefinition recordDefinition) {
+    final Map<String, Writer<Record>> writers = this.writers;
+    return writers != null && writers.containsKey(recordDefinition.getPath());
+  }
+
   public boolean isUseZeroForNull() {
     return this.useZeroForNull;
   }
@@ -2,13 +2,23 @@ package com.revolsys.record.io.format.shp;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 import org.jeometry.common.data.type.DataType;
+import org.jeometry.common.exception.Exceptions;
 import org.jeometry.common.io.PathName;
 import org.jeometry.common.logging.Logs;
 
 import com.revolsys.collection.iterator.AbstractIterator;
+import com.revolsys.geometry.index.hprtree.HilbertPackedRTree;
+import com.revolsys.geometry.model.BoundingBox;
 import com.revolsys.geometry.model.ClockDirection;
 import com.revolsys.geometry.model.Geometry;
 import com.revolsys.geometry.model.GeometryDataTypes;
@@ -23,16 +33,70 @@ import com.revolsys.io.endian.LittleEndianRandomAccessFile;
 import com.revolsys.record.Record;
 import com.revolsys.record.RecordFactory;
 import com.revolsys.record.Records;
+import com.revolsys.record.batch.RecordBatch;
+import com.revolsys.record.batch.RecordBatchReader;
+import com.revolsys.record.io.ParallelRecordReader;
 import com.revolsys.record.io.RecordReader;
 import com.revolsys.record.io.format.xbase.XbaseRecordReader;
+import com.revolsys.record.query.AllColumns;
+import com.revolsys.record.query.And;
+import com.revolsys.record.query.ColumnReference;
+import com.revolsys.record.query.Condition;
+import com.revolsys.record.query.Query;
+import com.revolsys.record.query.QueryValue;
+import com.revolsys.record.query.Value;
+import com.revolsys.record.query.functions.EnvelopeIntersects;
 import com.revolsys.record.schema.RecordDefinition;
 import com.revolsys.record.schema.RecordDefinitionImpl;
 import com.revolsys.spring.resource.Resource;
 import com.revolsys.util.Property;
 
-public class ShapefileRecordReader extends AbstractIterator<Record> implements RecordReader {
+public class ShapefileRecordReader extends AbstractIterator<Record>
+  implements RecordReader, RecordBatchReader {
+  private static void addColumnNames(final Set<String> fieldNames, final QueryValue queryValue) {
+    if (queryValue instanceof ColumnReference) {
+      final ColumnReference column = (ColumnReference)queryValue;
+      fieldNames.add(column.getName());
+    } else if (queryValue != null) {
+      for (final QueryValue childValue : queryValue.getQueryValues()) {
+        addColumnNames(fieldNames, childValue);
+      }
+    }
+  }
+
+  /**
+   * Get the bounding box that all records matching the condition must intersect. Only
+   * {@link EnvelopeIntersects} conditions that are the condition or part of a top level
+   * {@link And} are used, any other condition may match records outside the bounding box.
+   */
+  private static BoundingBox getBoundingBox(final QueryValue condition) {
+    if (condition instanceof EnvelopeIntersects) {
+      final EnvelopeIntersects intersects = (EnvelopeIntersects)condition;
+      for (final QueryValue value : intersects.getParameters()) {
+        if (value instanceof Value) {
+          final Object boundingBox = ((Value)value).getValue();
+          if (boundingBox instanceof BoundingBox) {
+            return (BoundingBox)boundingBox;
+          }
+        }
+      }
+    } else if (condition instanceof And) {
+      for (final QueryValue childCondition : condition.getQueryValues()) {
+        final BoundingBox boundingBox = getBoundingBox(childCondition);
+        if (boundingBox != null) {
+          return boundingBox;
+        }
+      }
+    }
+    return null;
+  }
+
+  private BoundingBox boundingBox;
+
   private boolean closeFile = true;
 
+  private Collection<String> fieldNames;
+
   private GeometryFactory geometryFactory;
 
   private EndianInput in;
@@ -41,8 +105,16 @@ public class ShapefileRecordReader extends AbstractIterator<Record> implements R
 
   private final String name;
 
+  private int endIndex = Integer.MAX_VALUE;
+
   private int position;
 
+  private int recordCount;
+
+  private int recordIndex;
+
+  private int[] recordIndexes;
+
   private RecordDefinition recordDefinition;
 
   private RecordFactory recordFactory;
@@ -53,8 +125,12 @@ public class ShapefileRecordReader extends AbstractIterator<Record> implements R
 
   private int shapeType;
 
+  private int startIndex;
+
   private PathName typeName;
 
+  private boolean useSpatialIndex;
+
   private XbaseRecordReader xbaseRecordReader;
 
   public ShapefileRecordReader(final Resource resource, final RecordFactory factory)
@@ -89,6 +165,9 @@ public class ShapefileRecordReader extends AbstractIterator<Record> implements R
 
   @Override
   protected Record getNext() {
+    if (this.indexIn != null) {
+      return getNextIndexed();
+    }
     Record record;
     try {
       if (this.xbaseRecordReader != null) {
@@ -116,13 +195,58 @@ public class ShapefileRecordReader extends AbstractIterator<Record> implements R
     } catch (final IOException e) {
       throw new RuntimeException("Error reading geometry " + this.resource, e);
     }
-    if (this.returnRecordDefinition == null) {
-      return record;
-    } else {
-      final Record copy = this.recordFactory.newRecord(this.returnRecordDefinition);
-      copy.setValues(record);
-      return copy;
+    return getReturnRecord(record);
+  }
+
+  /**
+   * Use the .shx offsets to read the header of each .shp record. Records whose bounding box
+   * doesn't intersect the {@link #boundingBox} are skipped in both the .shp and .dbf without
+   * reading the coordinates or field values. If the spatial index is used only the records from
+   * the index are read.
+   */
+  private Record getNextIndexed() {
+    final LittleEndianRandomAccessFile in = (LittleEndianRandomAccessFile)this.in;
+    try {
+      while (this.recordIndex < this.recordCount) {
+        final int recordIndex;
+        if (this.recordIndexes == null) {
+          recordIndex = this.recordIndex;
+        } else {
+          recordIndex = this.recordIndexes[this.recordIndex];
+        }
+        this.recordIndex++;
+        this.indexIn.seek(100 + recordIndex * 8L);
+        final long offset = this.indexIn.readInt() * 2L;
+        in.seek(offset + 8);
+        final int shapeType = in.readLEInt();
+        if (isBoundingBoxMatch(in, shapeType)) {
+          Record record;
+          if (this.xbaseRecordReader == null) {
+            record = this.recordFactory.newRecord(this.recordDefinition);
+          } else if (this.recordIndexes == null) {
+            record = this.xbaseRecordReader.readRecord();
+          } else {
+            record = this.xbaseRecordReader.readRecord(recordIndex);
+          }
+          if (record != null) {
+            in.seek(offset);
+            try {
+              final Geometry geometry = readGeometry();
+              record.setGeometryValue(geometry);
+            } catch (final IllegalArgumentException e) {
+              Logs.error(this, "Error reading geometry from:" + this.resource + "\n" + record, e);
+            }
+            return getReturnRecord(record);
+          }
+        } else if (this.xbaseRecordReader != null && this.recordIndexes == null) {
+          this.xbaseRecordReader.skipRecord();
+        }
+      }
+    } catch (final EndOfFileException e) {
+    } catch (final IOException e) {
+      throw new RuntimeException("Error reading geometry " + this.resource, e);
     }
+    throw new NoSuchElementException();
   }
 
   @Override
@@ -145,6 +269,16 @@ public class ShapefileRecordReader extends AbstractIterator<Record> implements R
     return this.recordFactory;
   }
 
+  private Record getReturnRecord(final Record record) {
+    if (this.returnRecordDefinition == null) {
+      return record;
+    } else {
+      final Record copy = this.recordFactory.newRecord(this.returnRecordDefinition);
+      copy.setValues(record);
+      return copy;
+    }
+  }
+
   public PathName getTypeName() {
     return this.typeName;
   }
@@ -170,6 +304,7 @@ public class ShapefileRecordReader extends AbstractIterator<Record> implements R
             () -> updateRecordDefinition());
           this.xbaseRecordReader.setTypeName(this.typeName);
           this.xbaseRecordReader.setCloseFile(this.closeFile);
+          this.xbaseRecordReader.setFieldNames(this.fieldNames);
         }
         loadHeader();
         int axisCount;
@@ -208,8 +343,42 @@ public class ShapefileRecordReader extends AbstractIterator<Record> implements R
         }
         setProperty(IoConstants.GEOMETRY_FACTORY, this.geometryFactory);
 
+        final boolean recordRange = isRecordRange();
+        if ((this.boundingBox != null || recordRange)
+          && this.in instanceof LittleEndianRandomAccessFile) {
+          final Resource indexResource = this.resource.newResourceChangeExtension("shx");
+          if (indexResource != null && indexResource.isFile() && indexResource.exists()) {
+            this.indexIn = new EndianMappedByteBuffer(indexResource.getFile(), MapMode.READ_ONLY);
+            this.indexIn.seek(24);
+            final long indexLength = this.indexIn.readInt() * 2L;
+            this.recordCount = Math.min((int)((indexLength - 100) / 8), this.endIndex);
+            this.recordIndex = this.startIndex;
+            if (this.boundingBox != null) {
+              this.boundingBox = this.boundingBox.bboxToCs(this.geometryFactory);
+              if (this.useSpatialIndex) {
+                final HilbertPackedRTree<Integer> spatialIndex = ShapefileSpatialIndex
+                  .getIndex(this.resource.getFile());
+                this.recordIndexes = ShapefileSpatialIndex.getRecordIndexes(spatialIndex,
+                  this.boundingBox, this.startIndex, this.recordCount);
+                this.recordIndex = 0;
+                this.recordCount = this.recordIndexes.length;
+              }
+            }
+          }
+        }
+        if (recordRange && this.indexIn == null) {
+          throw new IllegalStateException("Reading a record range requires a .shx file for: "
+            + this.resource);
+        }
         if (this.xbaseRecordReader != null) {
-          this.xbaseRecordReader.hasNext();
+          if (this.indexIn == null) {
+            this.xbaseRecordReader.hasNext();
+          } else {
+            this.xbaseRecordReader.open();
+            if (this.recordIndexes == null && this.startIndex > 0) {
+              this.xbaseRecordReader.seekRecord(this.startIndex);
+            }
+          }
         }
         if (this.recordDefinition == null) {
           this.recordDefinition = Records.newGeometryRecordDefinition();
@@ -221,10 +390,98 @@ public class ShapefileRecordReader extends AbstractIterator<Record> implements R
     }
   }
 
+  private boolean isBoundingBoxMatch(final EndianInput in, final int shapeType)
+    throws IOException {
+    if (this.boundingBox == null) {
+      return true;
+    }
+    switch (shapeType) {
+      case ShapefileConstants.NULL_SHAPE:
+        return false;
+      case ShapefileConstants.POINT_SHAPE:
+      case ShapefileConstants.POINT_M_SHAPE:
+      case ShapefileConstants.POINT_Z_SHAPE:
+      case ShapefileConstants.POINT_ZM_SHAPE: {
+        final double x = in.readLEDouble();
+        final double y = in.readLEDouble();
+        return this.boundingBox.bboxIntersects(x, y);
+      }
+      default: {
+        final double minX = in.readLEDouble();
+        final double minY = in.readLEDouble();
+        final double maxX = in.readLEDouble();
+        final double maxY = in.readLEDouble();
+        return this.boundingBox.bboxIntersects(minX, minY, maxX, maxY);
+      }
+    }
+  }
+
+  private boolean isRecordRange() {
+    return this.startIndex > 0 || this.endIndex < Integer.MAX_VALUE;
+  }
+
   public boolean isCloseFile() {
     return this.closeFile;
   }
 
+  public boolean isUseSpatialIndex() {
+    return this.useSpatialIndex;
+  }
+
+  /**
+   * Read the records in parallel using {@link #newSplitReaders(int)}.
+   *
+   * @param splitCount The number of record ranges to read in parallel.
+   * @param ordered True if the records should be returned in file order.
+   * @return The reader.
+   */
+  public ParallelRecordReader newParallelReader(final int splitCount, final boolean ordered) {
+    final List<ShapefileRecordReader> readers = newSplitReaders(splitCount);
+    return new ParallelRecordReader(readers, ordered);
+  }
+
+  /**
+   * Split the file into splitCount record ranges of the same size using the record count in the
+   * .shx file. Each reader has its own file handles and the same settings as this reader so they
+   * can be read concurrently. If the file isn't a local file with a .shx file a list containing
+   * this reader is returned.
+   *
+   * @param splitCount The number of record ranges.
+   * @return The readers for the record ranges.
+   */
+  public List<ShapefileRecordReader> newSplitReaders(final int splitCount) {
+    final Resource indexResource = this.resource.newResourceChangeExtension("shx");
+    if (splitCount < 2 || isRecordRange() || indexResource == null || !indexResource.isFile()
+      || !indexResource.exists()) {
+      return Collections.singletonList(this);
+    } else {
+      final long recordCount = (indexResource.getFile().length() - 100) / 8;
+      final List<ShapefileRecordReader> readers = new ArrayList<>();
+      for (int i = 0; i < splitCount; i++) {
+        final int startIndex = (int)(recordCount * i / splitCount);
+        final int endIndex = (int)(recordCount * (i + 1) / splitCount);
+        if (startIndex < endIndex) {
+          try {
+            final ShapefileRecordReader reader = new ShapefileRecordReader(this.resource,
+              this.recordFactory);
+            reader.setProperties(getProperties());
+            reader.typeName = this.typeName;
+            reader.boundingBox = this.boundingBox;
+            reader.fieldNames = this.fieldNames;
+            reader.returnRecordDefinition = this.returnRecordDefinition;
+            reader.useSpatialIndex = this.useSpatialIndex;
+            reader.startIndex = startIndex;
+            reader.endIndex = endIndex;
+            readers.add(reader);
+          } catch (final IOException e) {
+            throw Exceptions.wrap("Unable to split: " + this.resource, e);
+          }
+        }
+      }
+      return readers;
+    }
+  }
+
   /**
    * Load the header record from the shape mappedFile.
    *
@@ -247,6 +504,54 @@ public class ShapefileRecordReader extends AbstractIterator<Record> implements R
     final double maxM = this.in.readLEDouble();
   }
 
+  /**
+   * Read the .dbf field values and .shp geometry directly into the batch. If a spatial index or
+   * return record definition is used the records are read using the iterator and copied to the
+   * batch.
+   */
+  @Override
+  public boolean readBatch(final RecordBatch batch) {
+    batch.clear();
+    open();
+    if (this.indexIn != null || this.returnRecordDefinition != null) {
+      while (!batch.isFull() && hasNext()) {
+        final Record record = next();
+        batch.addRecord(record);
+      }
+    } else {
+      final XbaseRecordReader xbaseRecordReader = this.xbaseRecordReader;
+      try {
+        while (!batch.isFull()) {
+          int index = -1;
+          if (xbaseRecordReader != null) {
+            index = xbaseRecordReader.readNextRecord(batch);
+            if (index == -1) {
+              break;
+            }
+            for (int i = 0; i < xbaseRecordReader.getDeletedCount(); i++) {
+              this.position++;
+              readGeometry();
+            }
+          }
+          Geometry geometry = null;
+          try {
+            geometry = readGeometry();
+          } catch (final IllegalArgumentException e) {
+            Logs.error(this, "Error reading geometry from:" + this.resource, e);
+          }
+          if (index == -1) {
+            index = batch.addRecord();
+          }
+          batch.setGeometryValue(index, geometry);
+        }
+      } catch (final EndOfFileException e) {
+      } catch (final IOException e) {
+        throw new RuntimeException("Error reading geometry " + this.resource, e);
+      }
+    }
+    return !batch.isEmpty();
+  }
+
   @SuppressWarnings("unused")
   private Geometry readGeometry() throws IOException {
     final int recordNumber = this.in.readInt();
@@ -327,6 +632,66 @@ public class ShapefileRecordReader extends AbstractIterator<Record> implements R
     }
   }
 
+  /**
+   * Only read the records that intersect the bounding box. If the .shx file exists the bounding
+   * box in each .shp record header is checked before the record is read. The bounding box must be
+   * set before the reader is opened.
+   */
+  public void setBoundingBox(final BoundingBox boundingBox) {
+    if (boundingBox == null || boundingBox.isEmpty()) {
+      this.boundingBox = null;
+    } else {
+      this.boundingBox = boundingBox;
+    }
+  }
+
+  /**
+   * Only read the values of the fields from the .dbf file, the values of the other fields will be
+   * null. The field names must be set before the reader is opened.
+   */
+  public void setFieldNames(final Collection<String> fieldNames) {
+    this.fieldNames = fieldNames;
+  }
+
+  /**
+   * Set the {@link #setBoundingBox(BoundingBox)} and {@link #setFieldNames(Collection)} from the
+   * query. The reader may still return records that don't match the query so the query's
+   * condition must also be checked for each record.
+   */
+  public void setQuery(final Query query) {
+    final Condition whereCondition = query.getWhereCondition();
+    setBoundingBox(getBoundingBox(whereCondition));
+
+    final List<QueryValue> select = query.getSelect();
+    if (select.isEmpty()) {
+      setFieldNames(null);
+    } else {
+      final Set<String> fieldNames = new LinkedHashSet<>();
+      for (final QueryValue selectValue : select) {
+        if (selectValue instanceof AllColumns) {
+          setFieldNames(null);
+          return;
+        } else {
+          addColumnNames(fieldNames, selectValue);
+        }
+      }
+      addColumnNames(fieldNames, whereCondition);
+      for (final QueryValue orderByValue : query.getOrderBy().keySet()) {
+        addColumnNames(fieldNames, orderByValue);
+      }
+      setFieldNames(fieldNames);
+    }
+  }
+
+  /**
+   * Only read the records from startIndex (inclusive) to endIndex (exclusive) using the offsets
+   * from the .shx file. The range must be set before the reader is opened.
+   */
+  public void setRecordRange(final int startIndex, final int endIndex) {
+    this.startIndex = startIndex;
+    this.endIndex = endIndex;
+  }
+
   public void setRecordDefinition(final RecordDefinition recordDefinition) {
     this.returnRecordDefinition = recordDefinition;
     ((RecordDefinitionImpl)recordDefinition).setPolygonRingDirection(ClockDirection.CLOCKWISE);
@@ -338,6 +703,14 @@ public class ShapefileRecordReader extends AbstractIterator<Record> implements R
     }
   }
 
+  /**
+   * Use the {@link ShapefileSpatialIndex} to find the records that intersect the bounding box. The
+   * index is created if it doesn't exist or the .shp file has changed.
+   */
+  public void setUseSpatialIndex(final boolean useSpatialIndex) {
+    this.useSpatialIndex = useSpatialIndex;
+  }
+
   @Override
   public String toString() {
     return ShapefileConstants.DESCRIPTION + " " + this.resource;
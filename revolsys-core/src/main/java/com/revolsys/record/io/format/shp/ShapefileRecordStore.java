@@ -1,14 +1,21 @@
 package com.revolsys.record.io.format.shp;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.Map;
 
+import org.jeometry.common.exception.Exceptions;
+
+import com.revolsys.collection.iterator.AbstractIterator;
 import com.revolsys.io.FileUtil;
 import com.revolsys.record.ArrayRecord;
 import com.revolsys.record.Record;
 import com.revolsys.record.io.RecordWriter;
+import com.revolsys.record.io.format.directory.RecordReaderQueryIterator;
 import com.revolsys.record.query.Query;
 import com.revolsys.record.schema.AbstractRecordStore;
 import com.revolsys.record.schema.RecordDefinition;
+import com.revolsys.spring.resource.PathResource;
 
 public class ShapefileRecordStore extends AbstractRecordStore {
   private ShapefileDirectoryWriter writer;
@@ -46,6 +53,33 @@ public class ShapefileRecordStore extends AbstractRecordStore {
     this.writer.write(record);
   }
 
+  /**
+   * Read the records from the shapefile for the query's table. Bounding box queries use the
+   * {@link ShapefileSpatialIndex} to only read the matching records. Records are only visible
+   * after the writer for the table has been closed, the spatial index isn't used while the writer
+   * is open.
+   */
+  @Override
+  public AbstractIterator<Record> newIterator(final Query query,
+    final Map<String, Object> properties) {
+    final RecordDefinition recordDefinition = getRecordDefinition(query.getTablePath().toString());
+    if (recordDefinition == null) {
+      return super.newIterator(query, properties);
+    } else {
+      final ShapefileDirectoryWriter writer = this.writer;
+      final File file = writer.getFile(recordDefinition, false);
+      try {
+        final ShapefileRecordReader reader = new ShapefileRecordReader(new PathResource(file),
+          ArrayRecord.FACTORY);
+        reader.setProperties(properties);
+        reader.setUseSpatialIndex(!writer.isWriterOpen(recordDefinition));
+        return new RecordReaderQueryIterator(reader, query);
+      } catch (final IOException e) {
+        throw Exceptions.wrap("Unable to read: " + file, e);
+      }
+    }
+  }
+
   @Override
   public Record newRecord(final RecordDefinition recordDefinition) {
     final String typePath = recordDefinition.getPath();
@@ -0,0 +1,177 @@
+package com.revolsys.record.io.format.shp;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import org.jeometry.common.exception.Exceptions;
+import org.jeometry.common.logging.Logs;
+
+import com.revolsys.geometry.index.hprtree.HilbertPackedRTree;
+import com.revolsys.geometry.model.BoundingBox;
+import com.revolsys.geometry.model.GeometryFactory;
+import com.revolsys.io.EndOfFileException;
+import com.revolsys.io.endian.LittleEndianRandomAccessFile;
+import com.revolsys.spring.resource.PathResource;
+
+/**
+ * A spatial index of the records in a shapefile, stored in a sidecar file with the
+ * {@link #FILE_EXTENSION} next to the .shp file. The index is a {@link HilbertPackedRTree} of the
+ * bounding box of each record keyed by the record index (0 for the first record).
+ *
+ * <p>The last modified time of the index file is set to the last modified time of the .shp file
+ * when it is written. If the times differ the .shp file has changed and the index is rebuilt.</p>
+ *
+ * <p>Reading or building the index for a file is done while holding one of a fixed set of locks
+ * chosen by the hash of the index path, so indexes for most different files can be read or built
+ * at the same time without keeping a lock per file.</p>
+ */
+public class ShapefileSpatialIndex {
+
+  public static final String FILE_EXTENSION = "hprt";
+
+  private static final Object[] LOCKS = new Object[64];
+
+  static {
+    for (int i = 0; i < LOCKS.length; i++) {
+      LOCKS[i] = new Object();
+    }
+  }
+
+  private static HilbertPackedRTree<Integer> build(final File shpFile) {
+    final GeometryFactory geometryFactory = GeometryFactory.DEFAULT_2D;
+    final HilbertPackedRTree<Integer> index = new HilbertPackedRTree<>();
+    try (
+      LittleEndianRandomAccessFile in = new LittleEndianRandomAccessFile(shpFile, "r")) {
+      in.seek(24);
+      final long fileLength = in.readInt() * 2L;
+      long offset = 100;
+      int recordIndex = 0;
+      while (offset + 12 <= fileLength) {
+        in.seek(offset + 4);
+        final int contentLength = in.readInt();
+        final int shapeType = in.readLEInt();
+        switch (shapeType) {
+          case ShapefileConstants.NULL_SHAPE:
+          break;
+          case ShapefileConstants.POINT_SHAPE:
+          case ShapefileConstants.POINT_M_SHAPE:
+          case ShapefileConstants.POINT_Z_SHAPE:
+          case ShapefileConstants.POINT_ZM_SHAPE: {
+            final double x = in.readLEDouble();
+            final double y = in.readLEDouble();
+            index.insertItem(geometryFactory.newBoundingBox(x, y), recordIndex);
+          }
+          break;
+          default: {
+            final double minX = in.readLEDouble();
+            final double minY = in.readLEDouble();
+            final double maxX = in.readLEDouble();
+            final double maxY = in.readLEDouble();
+            index.insertItem(geometryFactory.newBoundingBox(minX, minY, maxX, maxY), recordIndex);
+          }
+          break;
+        }
+        offset += 8 + contentLength * 2L;
+        recordIndex++;
+      }
+    } catch (final EndOfFileException e) {
+    } catch (final IOException e) {
+      throw Exceptions.wrap("Unable to read: " + shpFile, e);
+    }
+    index.build();
+    return index;
+  }
+
+  /**
+   * Get the spatial index for the shapefile. The index is read from the sidecar file if it is up
+   * to date, otherwise it is built from the .shp file and written to the sidecar file. If the
+   * sidecar file can't be written the index is only kept in memory.
+   *
+   * @param shpFile The .shp file.
+   * @return The index.
+   */
+  public static HilbertPackedRTree<Integer> getIndex(final File shpFile) {
+    final Path shpPath = shpFile.toPath().toAbsolutePath().normalize();
+    final Path indexPath = getIndexPath(shpPath);
+    final Object lock = LOCKS[(indexPath.hashCode() & Integer.MAX_VALUE) % LOCKS.length];
+    synchronized (lock) {
+      return getIndex(shpFile, shpPath, indexPath);
+    }
+  }
+
+  private static HilbertPackedRTree<Integer> getIndex(final File shpFile, final Path shpPath,
+    final Path indexPath) {
+    try {
+      final FileTime shpModified = Files.getLastModifiedTime(shpPath);
+      if (Files.exists(indexPath) && shpModified.equals(Files.getLastModifiedTime(indexPath))) {
+        try {
+          return HilbertPackedRTree.read(indexPath, Integer::valueOf);
+        } catch (final RuntimeException e) {
+          Logs.debug(ShapefileSpatialIndex.class, "Rebuilding invalid index: " + indexPath, e);
+        }
+      }
+      final HilbertPackedRTree<Integer> index = build(shpFile);
+      try {
+        index.writeIndex(new PathResource(indexPath), Integer::intValue);
+        Files.setLastModifiedTime(indexPath, shpModified);
+      } catch (final IOException | RuntimeException e) {
+        Logs.debug(ShapefileSpatialIndex.class, "Unable to write index: " + indexPath, e);
+        try {
+          Files.deleteIfExists(indexPath);
+        } catch (final IOException e1) {
+        }
+      }
+      return index;
+    } catch (final IOException e) {
+      throw Exceptions.wrap("Unable to get spatial index for: " + shpFile, e);
+    }
+  }
+
+  public static Path getIndexPath(final Path shpPath) {
+    final String fileName = shpPath.getFileName().toString();
+    final int dotIndex = fileName.lastIndexOf('.');
+    final String baseName = dotIndex == -1 ? fileName : fileName.substring(0, dotIndex);
+    return shpPath.resolveSibling(baseName + "." + FILE_EXTENSION);
+  }
+
+  /**
+   * Get the sorted indexes of the records whose bounding box intersects the bounding box.
+   */
+  public static int[] getRecordIndexes(final HilbertPackedRTree<Integer> index,
+    final BoundingBox boundingBox) {
+    return getRecordIndexes(index, boundingBox, 0, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Get the sorted indexes of the records from startIndex (inclusive) to endIndex (exclusive)
+   * whose bounding box intersects the bounding box.
+   */
+  public static int[] getRecordIndexes(final HilbertPackedRTree<Integer> index,
+    final BoundingBox boundingBox, final int startIndex, final int endIndex) {
+    final int[][] recordIndexes = {
+      new int[16]
+    };
+    final int[] count = {
+      0
+    };
+    index.forEach(boundingBox.getMinX(), boundingBox.getMinY(), boundingBox.getMaxX(),
+      boundingBox.getMaxY(), (final Integer recordIndex) -> {
+        if (recordIndex >= startIndex && recordIndex < endIndex) {
+          if (count[0] == recordIndexes[0].length) {
+            recordIndexes[0] = Arrays.copyOf(recordIndexes[0], count[0] * 2);
+          }
+          recordIndexes[0][count[0]++] = recordIndex;
+        }
+      });
+    final int[] sortedIndexes = Arrays.copyOf(recordIndexes[0], count[0]);
+    Arrays.sort(sortedIndexes);
+    return sortedIndexes;
+  }
+
+  private ShapefileSpatialIndex() {
+  }
+}
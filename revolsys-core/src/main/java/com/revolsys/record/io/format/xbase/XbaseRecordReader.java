@@ -5,16 +5,22 @@ import java.math.BigDecimal;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
 import org.jeometry.common.data.type.DataType;
 import org.jeometry.common.data.type.DataTypes;
 import org.jeometry.common.date.Dates;
+import org.jeometry.common.exception.Exceptions;
 import org.jeometry.common.io.PathName;
 import org.jeometry.common.logging.Logs;
 
@@ -23,11 +29,15 @@ import com.revolsys.io.Buffers;
 import com.revolsys.io.FileUtil;
 import com.revolsys.record.Record;
 import com.revolsys.record.RecordFactory;
+import com.revolsys.record.batch.RecordBatch;
+import com.revolsys.record.batch.RecordBatchReader;
+import com.revolsys.record.io.ParallelRecordReader;
 import com.revolsys.record.io.RecordReader;
 import com.revolsys.record.schema.RecordDefinitionImpl;
 import com.revolsys.spring.resource.Resource;
 
-public class XbaseRecordReader extends AbstractIterator<Record> implements RecordReader {
+public class XbaseRecordReader extends AbstractIterator<Record>
+  implements RecordReader, RecordBatchReader {
   public static final char CHARACTER_TYPE = 'C';
 
   private static final Map<Character, DataType> DATA_TYPES = new HashMap<>();
@@ -59,16 +69,24 @@ public class XbaseRecordReader extends AbstractIterator<Record> implements Recor
 
   private boolean closeFile = true;
 
-  private int currentDeletedCount = 0;
-
   private int deletedCount = 0;
 
+  private int endIndex = Integer.MAX_VALUE;
+
+  private Collection<String> fieldNames;
+
+  private boolean[] fieldsRead;
+
+  private int headerSize;
+
   private ReadableByteChannel in;
 
   private Runnable initCallback;
 
   private int recordCount;
 
+  private int recordIndex;
+
   private int position = 0;
 
   private ByteBuffer recordBuffer;
@@ -79,6 +97,8 @@ public class XbaseRecordReader extends AbstractIterator<Record> implements Recor
 
   private short recordSize;
 
+  private int startIndex;
+
   private Resource resource;
 
   private PathName typeName;
@@ -156,6 +176,9 @@ public class XbaseRecordReader extends AbstractIterator<Record> implements Recor
     }
   }
 
+  /**
+   * Get the number of deleted records that were skipped before the last record was read.
+   */
   public int getDeletedCount() {
     return this.deletedCount;
   }
@@ -181,35 +204,11 @@ public class XbaseRecordReader extends AbstractIterator<Record> implements Recor
   @Override
   protected Record getNext() {
     try {
-      Record record = null;
-      this.deletedCount = this.currentDeletedCount;
-      this.currentDeletedCount = 0;
-      int deleteFlag = ' ';
-      do {
-        this.recordBuffer.clear();
-        final int readCount = Buffers.readAll(this.in, this.recordBuffer);
-        if (readCount == -1) {
-          throw new NoSuchElementException();
-        } else if (readCount == 1 && readCount != this.recordSize) {
-          throw new NoSuchElementException();
-        } else if (readCount != this.recordSize) {
-          throw new IllegalStateException("Unexpected end of mappedFile");
-        } else {
-          deleteFlag = this.recordBuffer.get();
-          if (deleteFlag == -1) {
-            throw new NoSuchElementException();
-          } else if (deleteFlag == ' ') {
-            record = loadRecord();
-          } else if (deleteFlag != 0x1A) {
-            this.currentDeletedCount++;
-            this.position++;
-          }
-        }
-      } while (deleteFlag == '*');
-      if (record == null) {
+      if (readNextRecord()) {
+        return loadRecord();
+      } else {
         throw new NoSuchElementException();
       }
-      return record;
     } catch (final IOException e) {
       throw new RuntimeException(e.getMessage(), e);
     }
@@ -266,21 +265,100 @@ public class XbaseRecordReader extends AbstractIterator<Record> implements Recor
         loadHeader();
       }
       readRecordDefinition();
+      initFieldsRead();
       if (this.initCallback != null) {
         this.initCallback.run();
       }
       if (this.exists) {
         this.recordBuffer = ByteBuffer.allocateDirect(this.recordSize);
+        if (this.startIndex > 0) {
+          seekRecord(this.startIndex);
+        }
       }
     } catch (final IOException e) {
       throw new RuntimeException("Error initializing mappedFile ", e);
     }
   }
 
+  private void initFieldsRead() {
+    final int fieldCount = this.recordDefinition.getFieldCount();
+    if (this.fieldNames != null) {
+      this.fieldsRead = new boolean[fieldCount];
+      for (int i = 0; i < fieldCount; i++) {
+        final String fieldName = this.recordDefinition.getFieldName(i);
+        this.fieldsRead[i] = this.fieldNames.contains(fieldName);
+      }
+    }
+  }
+
   public boolean isCloseFile() {
     return this.closeFile;
   }
 
+  /**
+   * Read the records in parallel using {@link #newSplitReaders(int)}.
+   *
+   * @param splitCount The number of record ranges to read in parallel.
+   * @param ordered True if the records should be returned in file order.
+   * @return The reader.
+   */
+  public ParallelRecordReader newParallelReader(final int splitCount, final boolean ordered) {
+    final List<XbaseRecordReader> readers = newSplitReaders(splitCount);
+    return new ParallelRecordReader(readers, ordered);
+  }
+
+  /**
+   * Split the file into splitCount record ranges of the same size using the record count in the
+   * header. Each reader has its own file channel so they can be read concurrently. The header is
+   * read using a separate channel so this reader isn't opened. If the file isn't a local file a
+   * list containing this reader is returned.
+   *
+   * @param splitCount The number of record ranges.
+   * @return The readers for the record ranges.
+   */
+  public List<XbaseRecordReader> newSplitReaders(final int splitCount) {
+    if (splitCount < 2 || this.startIndex > 0 || this.endIndex < Integer.MAX_VALUE) {
+      return Collections.singletonList(this);
+    } else {
+      final long recordCount;
+      try (
+        ReadableByteChannel in = this.resource.newReadableByteChannel()) {
+        if (in instanceof SeekableByteChannel) {
+          final ByteBuffer header = ByteBuffer.allocate(32);
+          header.order(ByteOrder.LITTLE_ENDIAN);
+          if (Buffers.readAll(in, header) == 32) {
+            recordCount = header.getInt(4);
+          } else {
+            throw new RuntimeException("Invalid file:" + this.resource);
+          }
+        } else {
+          return Collections.singletonList(this);
+        }
+      } catch (final IOException e) {
+        throw Exceptions.wrap("Unable to split: " + this.resource, e);
+      }
+      final List<XbaseRecordReader> readers = new ArrayList<>();
+      for (int i = 0; i < splitCount; i++) {
+        final int startIndex = (int)(recordCount * i / splitCount);
+        final int endIndex = (int)(recordCount * (i + 1) / splitCount);
+        if (startIndex < endIndex) {
+          try {
+            final XbaseRecordReader reader = new XbaseRecordReader(this.resource,
+              this.recordFactory);
+            reader.setProperties(getProperties());
+            reader.typeName = this.typeName;
+            reader.fieldNames = this.fieldNames;
+            reader.setRecordRange(startIndex, endIndex);
+            readers.add(reader);
+          } catch (final IOException e) {
+            throw Exceptions.wrap("Unable to split: " + this.resource, e);
+          }
+        }
+      }
+      return readers;
+    }
+  }
+
   /**
    * Load the header record from the shape mappedFile.
    *
@@ -297,7 +375,7 @@ public class XbaseRecordReader extends AbstractIterator<Record> implements Recor
       final int d = header.get();
       // properties.put(new QName("date"), new Date(y, m - 1, d));
       this.recordCount = header.getInt();
-      final short headerSize = header.getShort();
+      this.headerSize = header.getShort() & 0xFFFF;
 
       this.recordSize = header.getShort();
     } else {
@@ -308,27 +386,153 @@ public class XbaseRecordReader extends AbstractIterator<Record> implements Recor
   protected Record loadRecord() throws IOException {
     final Record record = this.recordFactory.newRecord(this.recordDefinition);
     for (int i = 0; i < this.recordDefinition.getFieldCount(); i++) {
-      int length = this.recordDefinition.getFieldLength(i);
-      final DataType type = this.recordDefinition.getFieldType(i);
-      Object value = null;
+      final Object value = loadValue(i);
+      record.setValue(i, value);
+    }
+    return record;
+  }
 
-      if (type == DataTypes.STRING) {
-        if (length < 255) {
-          value = getString(length);
-        } else {
-          value = getMemo(length);
-          length = 10;
+  /**
+   * Add a record to the batch with the field values from the record buffer.
+   *
+   * @return The index of the record in the batch.
+   */
+  protected int loadRecord(final RecordBatch batch) throws IOException {
+    final int index = batch.addRecord();
+    for (int i = 0; i < this.recordDefinition.getFieldCount(); i++) {
+      final Object value = loadValue(i);
+      if (value != null) {
+        batch.setValue(index, i, value);
+      }
+    }
+    return index;
+  }
+
+  private Object loadValue(final int fieldIndex) throws IOException {
+    int length = this.recordDefinition.getFieldLength(fieldIndex);
+    final DataType type = this.recordDefinition.getFieldType(fieldIndex);
+    Object value = null;
+
+    if (this.fieldsRead != null && !this.fieldsRead[fieldIndex]) {
+      if (type == DataTypes.STRING && length >= 255) {
+        length = 10;
+      }
+      this.recordBuffer.position(this.recordBuffer.position() + length);
+    } else if (type == DataTypes.STRING) {
+      if (length < 255) {
+        value = getString(length);
+      } else {
+        value = getMemo(length);
+        // Skip the 10 character memo block number
+        this.recordBuffer.position(this.recordBuffer.position() + 10);
+      }
+    } else if (type == DataTypes.DECIMAL || type == DataTypes.FLOAT) {
+      value = getNumber(length);
+    } else if (type == DataTypes.BOOLEAN) {
+      value = getBoolean();
+    } else if (type == DataTypes.DATE_TIME) {
+      value = getDate(length);
+    }
+    return value;
+  }
+
+  @Override
+  public boolean readBatch(final RecordBatch batch) {
+    batch.clear();
+    try {
+      while (!batch.isFull() && readNextRecord(batch) != -1) {
+      }
+    } catch (final IOException e) {
+      throw new RuntimeException(e.getMessage(), e);
+    }
+    return !batch.isEmpty();
+  }
+
+  /**
+   * Read the next record that isn't deleted into the record buffer, skipping the deleted records.
+   * The number of records skipped is available from {@link #getDeletedCount()}.
+   *
+   * @return True if a record was read, false if there are no more records.
+   */
+  private boolean readNextRecord() throws IOException {
+    this.deletedCount = 0;
+    int deleteFlag = ' ';
+    do {
+      if (this.recordIndex >= this.endIndex) {
+        return false;
+      }
+      this.recordBuffer.clear();
+      final int readCount = Buffers.readAll(this.in, this.recordBuffer);
+      this.recordIndex++;
+      if (readCount == -1) {
+        return false;
+      } else if (readCount == 1 && readCount != this.recordSize) {
+        return false;
+      } else if (readCount != this.recordSize) {
+        throw new IllegalStateException("Unexpected end of mappedFile");
+      } else {
+        deleteFlag = this.recordBuffer.get();
+        if (deleteFlag == -1) {
+          return false;
+        } else if (deleteFlag == ' ') {
+          return true;
+        } else if (deleteFlag != 0x1A) {
+          this.deletedCount++;
+          this.position++;
         }
-      } else if (type == DataTypes.DECIMAL || type == DataTypes.FLOAT) {
-        value = getNumber(length);
-      } else if (type == DataTypes.BOOLEAN) {
-        value = getBoolean();
-      } else if (type == DataTypes.DATE_TIME) {
-        value = getDate(length);
       }
-      record.setValue(i, value);
+    } while (deleteFlag == '*');
+    return false;
+  }
+
+  /**
+   * Read the next record that isn't deleted into the batch. The number of deleted records skipped
+   * before the record is available from {@link #getDeletedCount()}.
+   *
+   * @return The index of the record in the batch or -1 if there are no more records.
+   */
+  public int readNextRecord(final RecordBatch batch) throws IOException {
+    open();
+    if (readNextRecord()) {
+      return loadRecord(batch);
+    } else {
+      return -1;
     }
-    return record;
+  }
+
+  /**
+   * Read the next physical record, returning null if the record is deleted. Readers that step
+   * through the file in parallel with another file (e.g. a .shp) use this and
+   * {@link #skipRecord()} instead of the iterator so each record is matched to its position.
+   *
+   * @throws NoSuchElementException If there are no more records.
+   */
+  public Record readRecord() throws IOException {
+    open();
+    this.recordBuffer.clear();
+    final int readCount = Buffers.readAll(this.in, this.recordBuffer);
+    this.recordIndex++;
+    if (readCount != this.recordSize) {
+      throw new NoSuchElementException();
+    } else {
+      final int deleteFlag = this.recordBuffer.get();
+      if (deleteFlag == ' ') {
+        return loadRecord();
+      } else if (deleteFlag == 0x1A || deleteFlag == -1) {
+        throw new NoSuchElementException();
+      } else {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Read the record at the record index (0 for the first record), returning null if the record is
+   * deleted. The file must be a seekable file (e.g. a local file).
+   */
+  public Record readRecord(final int recordIndex) throws IOException {
+    seekRecord(recordIndex);
+    return readRecord();
   }
 
   private void readRecordDefinition() throws IOException {
@@ -387,10 +591,57 @@ public class XbaseRecordReader extends AbstractIterator<Record> implements Recor
     this.closeFile = closeFile;
   }
 
+  /**
+   * Set the names of the fields to read, the values for the other fields will be null. This must be
+   * called before the reader is opened.
+   */
+  public void setFieldNames(final Collection<String> fieldNames) {
+    this.fieldNames = fieldNames;
+  }
+
+  /**
+   * Only read the records from startIndex (inclusive) to endIndex (exclusive). The file must be a
+   * seekable file if startIndex &gt; 0. The range must be set before the reader is opened.
+   */
+  public void setRecordRange(final int startIndex, final int endIndex) {
+    this.startIndex = startIndex;
+    this.endIndex = endIndex;
+  }
+
   public void setTypeName(final PathName typeName) {
     this.typeName = typeName;
   }
 
+  /**
+   * Move to the record index (0 for the first record) so it is the next record read. The file
+   * must be a seekable file (e.g. a local file).
+   */
+  public void seekRecord(final int recordIndex) throws IOException {
+    open();
+    if (this.in instanceof SeekableByteChannel) {
+      final SeekableByteChannel channel = (SeekableByteChannel)this.in;
+      channel.position(this.headerSize + (long)recordIndex * this.recordSize);
+      this.recordIndex = recordIndex;
+    } else {
+      throw new UnsupportedOperationException("Cannot seek to a record in " + this.resource);
+    }
+  }
+
+  /**
+   * Skip the next physical record without reading the field values.
+   */
+  public void skipRecord() throws IOException {
+    open();
+    if (this.in instanceof SeekableByteChannel) {
+      final SeekableByteChannel channel = (SeekableByteChannel)this.in;
+      channel.position(channel.position() + this.recordSize);
+    } else {
+      this.recordBuffer.clear();
+      Buffers.readAll(this.in, this.recordBuffer);
+    }
+    this.recordIndex++;
+  }
+
   @Override
   public String toString() {
     if (this.resource == null) {
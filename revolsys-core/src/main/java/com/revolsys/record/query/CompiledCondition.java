@@ -0,0 +1,606 @@
+package com.revolsys.record.query;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.jeometry.common.compare.CompareUtil;
+import org.jeometry.common.data.type.DataType;
+
+import com.revolsys.collection.map.MapEx;
+import com.revolsys.record.Record;
+import com.revolsys.record.query.functions.Lower;
+import com.revolsys.record.query.functions.RegexpReplace;
+import com.revolsys.record.query.functions.Upper;
+import com.revolsys.record.schema.FieldDefinition;
+import com.revolsys.record.schema.RecordDefinition;
+import com.revolsys.util.Property;
+
+/**
+ * A {@link Condition} compiled for repeated in memory evaluation against the records of a
+ * {@link RecordDefinition}. Columns are resolved to field indexes, LIKE, ILIKE and REGEXP_REPLACE
+ * patterns are compiled once, conditions with only literal values are evaluated once and
+ * comparisons with a literal value use the data type of the field. Conditions that can't be
+ * compiled are evaluated using {@link Condition#test(MapEx)}.
+ *
+ * <p>The compiled condition is immutable and can be used by multiple threads.</p>
+ *
+ * <pre class="prettyprint"><code class="language-java">
+ * final Predicate&lt;MapEx&gt; filter = query.getWhereCondition().compile(recordDefinition);
+ * for (final Record record : reader) {
+ *   if (filter.test(record)) {
+ *     ...
+ *   }
+ * }
+ * </code></pre>
+ */
+public class CompiledCondition implements Predicate<MapEx> {
+
+  private static class ConstantValue<V> implements Function<MapEx, V> {
+    private final V value;
+
+    private ConstantValue(final V value) {
+      this.value = value;
+    }
+
+    @Override
+    public V apply(final MapEx record) {
+      return this.value;
+    }
+  }
+
+  private static final Predicate<MapEx> ACCEPT_ALL = record -> true;
+
+  /** Classes where equals gives the same result as {@link DataType#equal(Object, Object)}. */
+  private static final Set<Class<?>> EQUALS_CLASSES = new HashSet<>(Arrays.asList(String.class,
+    Boolean.class, Byte.class, Short.class, Integer.class, Long.class, BigInteger.class));
+
+  /** Classes where compareTo gives the same result as {@link CompareUtil#compare(Object, Object)}. */
+  private static final Set<Class<?>> NATURAL_ORDER_CLASSES = new HashSet<>(
+    Arrays.asList(String.class, Byte.class, Short.class, Integer.class, Long.class,
+      BigInteger.class, Float.class, Double.class, BigDecimal.class));
+
+  private static final Predicate<MapEx> REJECT_ALL = record -> false;
+
+  @SuppressWarnings({
+    "rawtypes", "unchecked"
+  })
+  private static int naturalOrderCompare(final Object value1, final Object value2) {
+    if (value1 != null && value2 != null && value1.getClass() == value2.getClass()) {
+      return ((Comparable)value1).compareTo(value2);
+    } else {
+      return CompareUtil.compare(value1, value2);
+    }
+  }
+
+  private final Condition condition;
+
+  private final Predicate<MapEx> predicate;
+
+  private final RecordDefinition recordDefinition;
+
+  public CompiledCondition(final Condition condition, final RecordDefinition recordDefinition) {
+    this.condition = condition;
+    this.recordDefinition = recordDefinition;
+    if (condition == null) {
+      this.predicate = ACCEPT_ALL;
+    } else {
+      this.predicate = compileCondition(condition);
+    }
+  }
+
+  private Predicate<MapEx> compileAnd(final And and) {
+    final List<Predicate<MapEx>> predicates = new ArrayList<>();
+    for (final QueryValue value : and.getQueryValues()) {
+      final Predicate<MapEx> predicate = compileCondition((Condition)value);
+      if (predicate == REJECT_ALL) {
+        return REJECT_ALL;
+      } else if (predicate != ACCEPT_ALL) {
+        predicates.add(predicate);
+      }
+    }
+    final int count = predicates.size();
+    if (count == 0) {
+      return ACCEPT_ALL;
+    } else if (count == 1) {
+      return predicates.get(0);
+    } else {
+      @SuppressWarnings("unchecked")
+      final Predicate<MapEx>[] predicateArray = predicates.toArray(new Predicate[count]);
+      return record -> {
+        for (final Predicate<MapEx> predicate : predicateArray) {
+          if (!predicate.test(record)) {
+            return false;
+          }
+        }
+        return true;
+      };
+    }
+  }
+
+  private Predicate<MapEx> compileBetween(final Between between) {
+    final Column column = between.getColumn();
+    final Function<MapEx, Object> value = compileValue(column);
+    final Object min = toFieldValue(column, between.getMin().getValue());
+    final Object max = toFieldValue(column, between.getMax().getValue());
+    if (min == null || max == null) {
+      return REJECT_ALL;
+    } else {
+      final Comparator<Object> comparator = newComparator(column, min);
+      return fold(record -> {
+        final Object columnValue = value.apply(record);
+        if (columnValue == null) {
+          return false;
+        } else if (comparator.compare(min, columnValue) > 0) {
+          return false;
+        } else {
+          return comparator.compare(max, columnValue) >= 0;
+        }
+      }, value);
+    }
+  }
+
+  private Predicate<MapEx> compileCompare(final BinaryCondition condition,
+    final IntPredicate result) {
+    final QueryValue left = condition.getLeft();
+    final QueryValue right = condition.getRight();
+    final Function<MapEx, Object> leftValue = compileValue(left);
+    final Function<MapEx, Object> rightValue = compileValue(right);
+    if (rightValue instanceof ConstantValue) {
+      final Object value2 = toFieldValue(left, rightValue.apply(null));
+      final Comparator<Object> comparator = newComparator(left, value2);
+      return fold(record -> {
+        final Object value1 = leftValue.apply(record);
+        return result.test(comparator.compare(value1, value2));
+      }, leftValue);
+    } else if (leftValue instanceof ConstantValue) {
+      final Object value1 = toFieldValue(right, leftValue.apply(null));
+      final Comparator<Object> comparator = newComparator(right, value1);
+      return record -> {
+        final Object value2 = rightValue.apply(record);
+        return result.test(comparator.compare(value1, value2));
+      };
+    } else {
+      return record -> {
+        final Object value1 = leftValue.apply(record);
+        final Object value2 = rightValue.apply(record);
+        return result.test(CompareUtil.compare(value1, value2));
+      };
+    }
+  }
+
+  private Predicate<MapEx> compileCondition(final Condition condition) {
+    if (condition instanceof AcceptAllCondition) {
+      return ACCEPT_ALL;
+    } else if (condition instanceof And) {
+      return compileAnd((And)condition);
+    } else if (condition instanceof Between) {
+      return compileBetween((Between)condition);
+    } else if (condition instanceof Equal) {
+      return compileEqual((Equal)condition, true);
+    } else if (condition instanceof GreaterThan) {
+      return compileCompare((BinaryCondition)condition, compare -> compare > 0);
+    } else if (condition instanceof GreaterThanEqual) {
+      return compileCompare((BinaryCondition)condition, compare -> compare >= 0);
+    } else if (condition instanceof ILike) {
+      return compileLike((BinaryCondition)condition, true);
+    } else if (condition instanceof In) {
+      return compileIn((In)condition);
+    } else if (condition instanceof IsNotNull) {
+      final Function<MapEx, Object> value = compileValue(((IsNotNull)condition).getValue());
+      return fold(record -> value.apply(record) != null, value);
+    } else if (condition instanceof IsNull) {
+      final Function<MapEx, Object> value = compileValue(((IsNull)condition).getValue());
+      return fold(record -> value.apply(record) == null, value);
+    } else if (condition instanceof LessThan) {
+      return compileCompare((BinaryCondition)condition, compare -> compare < 0);
+    } else if (condition instanceof LessThanEqual) {
+      return compileCompare((BinaryCondition)condition, compare -> compare <= 0);
+    } else if (condition instanceof Like) {
+      return compileLike((BinaryCondition)condition, false);
+    } else if (condition instanceof Not) {
+      final Predicate<MapEx> predicate = compileCondition(((Not)condition).getValue());
+      if (predicate == ACCEPT_ALL) {
+        return REJECT_ALL;
+      } else if (predicate == REJECT_ALL) {
+        return ACCEPT_ALL;
+      } else {
+        return predicate.negate();
+      }
+    } else if (condition instanceof NotEqual) {
+      return compileEqual((NotEqual)condition, false);
+    } else if (condition instanceof Or) {
+      return compileOr((Or)condition);
+    } else if (condition instanceof Parenthesis) {
+      final QueryValue value = ((Parenthesis)condition).getValue();
+      if (value instanceof Condition) {
+        return compileCondition((Condition)value);
+      } else {
+        return REJECT_ALL;
+      }
+    } else {
+      return condition::test;
+    }
+  }
+
+  private Predicate<MapEx> compileEqual(final BinaryCondition condition, final boolean equal) {
+    QueryValue left = condition.getLeft();
+    QueryValue right = condition.getRight();
+    if (left instanceof Value && !(right instanceof Value)) {
+      final QueryValue value = left;
+      left = right;
+      right = value;
+    }
+    final Function<MapEx, Object> leftValue = compileValue(left);
+    final Function<MapEx, Object> rightValue = compileValue(right);
+    if (rightValue instanceof ConstantValue) {
+      final Function<MapEx, Object> value = leftValue;
+      final Object value2 = toFieldValue(left, rightValue.apply(null));
+      if (value2 != null && EQUALS_CLASSES.contains(value2.getClass())) {
+        final Class<?> valueClass = value2.getClass();
+        return fold(record -> {
+          final Object value1 = value.apply(record);
+          if (value1 != null && value1.getClass() == valueClass) {
+            return value2.equals(value1) == equal;
+          } else {
+            return DataType.equal(value1, value2) == equal;
+          }
+        }, value);
+      } else {
+        return fold(record -> {
+          final Object value1 = value.apply(record);
+          return DataType.equal(value1, value2) == equal;
+        }, value);
+      }
+    } else {
+      final Function<MapEx, Object> value1Function = leftValue;
+      final Function<MapEx, Object> value2Function = rightValue;
+      return record -> {
+        final Object value1 = value1Function.apply(record);
+        final Object value2 = value2Function.apply(record);
+        return DataType.equal(value1, value2) == equal;
+      };
+    }
+  }
+
+  private Predicate<MapEx> compileIn(final In in) {
+    final Function<MapEx, Object> value = compileValue(in.getLeft());
+    final Object[] values = in.getValues().getValues().toArray();
+    if (values.length == 0) {
+      return REJECT_ALL;
+    } else {
+      Class<?> valueClass = values[0].getClass();
+      for (final Object inValue : values) {
+        if (inValue.getClass() != valueClass) {
+          valueClass = null;
+          break;
+        }
+      }
+      if (valueClass != null && EQUALS_CLASSES.contains(valueClass)) {
+        final Class<?> setValueClass = valueClass;
+        final Set<Object> valueSet = new HashSet<>(Arrays.asList(values));
+        return fold(record -> {
+          final Object value1 = value.apply(record);
+          if (value1 != null && value1.getClass() == setValueClass) {
+            return valueSet.contains(value1);
+          } else {
+            return containsValue(values, value1);
+          }
+        }, value);
+      } else {
+        return fold(record -> {
+          final Object value1 = value.apply(record);
+          return containsValue(values, value1);
+        }, value);
+      }
+    }
+  }
+
+  private Predicate<MapEx> compileLike(final BinaryCondition condition, final boolean ignoreCase) {
+    final QueryValue right = condition.getRight();
+    if (right instanceof Value) {
+      final Function<MapEx, String> value = compileStringValue(condition.getLeft());
+      String pattern = right.getStringValue(null);
+      if (Property.hasValue(pattern)) {
+        if (ignoreCase) {
+          pattern = pattern.toUpperCase();
+        }
+        if (pattern.contains("%")) {
+          final Pattern regex;
+          try {
+            regex = Pattern.compile(Like.toPattern(pattern));
+          } catch (final PatternSyntaxException e) {
+            return condition::test;
+          }
+          return fold(record -> {
+            String value1 = value.apply(record);
+            if (Property.hasValue(value1)) {
+              if (ignoreCase) {
+                value1 = value1.toUpperCase();
+              }
+              return regex.matcher(value1).matches();
+            } else {
+              return false;
+            }
+          }, value);
+        } else {
+          final String value2 = pattern;
+          return fold(record -> {
+            String value1 = value.apply(record);
+            if (Property.hasValue(value1)) {
+              if (ignoreCase) {
+                value1 = value1.toUpperCase();
+              }
+              return value2.equals(value1);
+            } else {
+              return false;
+            }
+          }, value);
+        }
+      } else {
+        return fold(record -> {
+          final String value1 = value.apply(record);
+          return !Property.hasValue(value1);
+        }, value);
+      }
+    } else {
+      return condition::test;
+    }
+  }
+
+  private Predicate<MapEx> compileOr(final Or or) {
+    final List<QueryValue> values = or.getQueryValues();
+    if (values.isEmpty()) {
+      return ACCEPT_ALL;
+    } else {
+      final List<Predicate<MapEx>> predicates = new ArrayList<>();
+      for (final QueryValue value : values) {
+        final Predicate<MapEx> predicate = compileCondition((Condition)value);
+        if (predicate == ACCEPT_ALL) {
+          return ACCEPT_ALL;
+        } else if (predicate != REJECT_ALL) {
+          predicates.add(predicate);
+        }
+      }
+      final int count = predicates.size();
+      if (count == 0) {
+        return REJECT_ALL;
+      } else if (count == 1) {
+        return predicates.get(0);
+      } else {
+        @SuppressWarnings("unchecked")
+        final Predicate<MapEx>[] predicateArray = predicates.toArray(new Predicate[count]);
+        return record -> {
+          for (final Predicate<MapEx> predicate : predicateArray) {
+            if (predicate.test(record)) {
+              return true;
+            }
+          }
+          return false;
+        };
+      }
+    }
+  }
+
+  private Function<MapEx, Object> compileRegexpReplace(final RegexpReplace regexpReplace) {
+    final List<QueryValue> parameters = regexpReplace.getParameters();
+    final QueryValue patternValue = parameters.get(1);
+    final QueryValue replaceValue = parameters.get(2);
+    if (patternValue instanceof Value && replaceValue instanceof Value) {
+      final Pattern pattern;
+      try {
+        pattern = Pattern.compile(patternValue.getStringValue(null));
+      } catch (final RuntimeException e) {
+        return regexpReplace::getValue;
+      }
+      final String replaceString = replaceValue.getStringValue(null);
+      final String replace = replaceString == null ? "" : replaceString;
+      final Function<MapEx, String> text = compileStringValue(parameters.get(0));
+      return foldValue(record -> {
+        final String value = text.apply(record);
+        if (Property.hasValue(value)) {
+          return pattern.matcher(value).replaceAll(replace);
+        } else {
+          return null;
+        }
+      }, text);
+    } else {
+      return regexpReplace::getValue;
+    }
+  }
+
+  private Function<MapEx, String> compileStringValue(final QueryValue queryValue) {
+    if (queryValue instanceof Value) {
+      return new ConstantValue<>(queryValue.getStringValue(null));
+    } else if (queryValue instanceof Column || queryValue instanceof FieldDefinition) {
+      final ColumnReference column = (ColumnReference)queryValue;
+      final Function<MapEx, Object> value = compileValue(queryValue);
+      return record -> column.toString(value.apply(record));
+    } else if (queryValue instanceof Lower || queryValue instanceof Upper) {
+      final Function<MapEx, Object> value = compileValue(queryValue);
+      if (value instanceof ConstantValue) {
+        return new ConstantValue<>((String)value.apply(null));
+      } else {
+        return record -> (String)value.apply(record);
+      }
+    } else {
+      return queryValue::getStringValue;
+    }
+  }
+
+  private Function<MapEx, Object> compileValue(final QueryValue queryValue) {
+    if (queryValue instanceof Value) {
+      return new ConstantValue<>(((Value)queryValue).getValue());
+    } else if (queryValue instanceof Column || queryValue instanceof FieldDefinition) {
+      final String name = ((ColumnReference)queryValue).getName();
+      return newFieldValue(name);
+    } else if (queryValue instanceof Lower) {
+      final Function<MapEx, String> value = compileStringValue(((Lower)queryValue).getParameter());
+      return foldValue(record -> {
+        final String string = value.apply(record);
+        if (Property.hasValue(string)) {
+          return string.toLowerCase();
+        } else {
+          return string;
+        }
+      }, value);
+    } else if (queryValue instanceof Upper) {
+      final Function<MapEx, String> value = compileStringValue(((Upper)queryValue).getParameter());
+      return foldValue(record -> {
+        final String string = value.apply(record);
+        if (Property.hasValue(string)) {
+          return string.toUpperCase();
+        } else {
+          return string;
+        }
+      }, value);
+    } else if (queryValue instanceof RegexpReplace) {
+      return compileRegexpReplace((RegexpReplace)queryValue);
+    } else {
+      return queryValue::getValue;
+    }
+  }
+
+  private boolean containsValue(final Object[] values, final Object value) {
+    for (final Object inValue : values) {
+      if (DataType.equal(value, inValue)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * If the value is a constant evaluate the predicate now.
+   */
+  private Predicate<MapEx> fold(final Predicate<MapEx> predicate, final Function<MapEx, ?> value) {
+    if (value instanceof ConstantValue) {
+      if (predicate.test(null)) {
+        return ACCEPT_ALL;
+      } else {
+        return REJECT_ALL;
+      }
+    } else {
+      return predicate;
+    }
+  }
+
+  /**
+   * If the value is a constant evaluate the function now.
+   */
+  private Function<MapEx, Object> foldValue(final Function<MapEx, Object> function,
+    final Function<MapEx, ?> value) {
+    if (value instanceof ConstantValue) {
+      return new ConstantValue<>(function.apply(null));
+    } else {
+      return function;
+    }
+  }
+
+  public Condition getCondition() {
+    return this.condition;
+  }
+
+  private FieldDefinition getField(final QueryValue queryValue) {
+    if (this.recordDefinition != null) {
+      if (queryValue instanceof Column || queryValue instanceof FieldDefinition) {
+        final String name = ((ColumnReference)queryValue).getName();
+        return this.recordDefinition.getField(name);
+      }
+    }
+    return null;
+  }
+
+  public RecordDefinition getRecordDefinition() {
+    return this.recordDefinition;
+  }
+
+  /**
+   * Use the natural order if the value and the data type of the field are one of the
+   * {@link #NATURAL_ORDER_CLASSES}.
+   */
+  private Comparator<Object> newComparator(final QueryValue column, final Object value) {
+    if (value != null && NATURAL_ORDER_CLASSES.contains(value.getClass())) {
+      final FieldDefinition field = getField(column);
+      if (field != null && field.getDataType().getJavaClass() == value.getClass()) {
+        return CompiledCondition::naturalOrderCompare;
+      }
+    }
+    return CompareUtil::compare;
+  }
+
+  private Function<MapEx, Object> newFieldValue(final String name) {
+    final RecordDefinition recordDefinition = this.recordDefinition;
+    final int fieldIndex;
+    if (recordDefinition == null) {
+      fieldIndex = -1;
+    } else {
+      fieldIndex = recordDefinition.getFieldIndex(name);
+    }
+    if (fieldIndex == -1) {
+      return record -> {
+        if (record == null) {
+          return null;
+        } else {
+          return record.getValue(name);
+        }
+      };
+    } else {
+      return record -> {
+        if (record instanceof Record) {
+          final Record recordWithIndex = (Record)record;
+          if (recordWithIndex.getRecordDefinition() == recordDefinition) {
+            return recordWithIndex.getValue(fieldIndex);
+          }
+        }
+        if (record == null) {
+          return null;
+        } else {
+          return record.getValue(name);
+        }
+      };
+    }
+  }
+
+  @Override
+  public boolean test(final MapEx record) {
+    return this.predicate.test(record);
+  }
+
+  /**
+   * Convert the literal value to the data type of the field, if the conversion doesn't change the
+   * value. This allows the field values to be compared without any conversion.
+   */
+  private Object toFieldValue(final QueryValue column, final Object value) {
+    final FieldDefinition field = getField(column);
+    if (field != null && value != null) {
+      final DataType dataType = field.getDataType();
+      if (!dataType.getJavaClass().isInstance(value)) {
+        try {
+          final Object fieldValue = dataType.toObject(value);
+          if (fieldValue != null && DataType.equal(fieldValue, value)
+            && CompareUtil.compare(fieldValue, value) == 0) {
+            return fieldValue;
+          }
+        } catch (final RuntimeException e) {
+        }
+      }
+    }
+    return value;
+  }
+
+  @Override
+  public String toString() {
+    return String.valueOf(this.condition);
+  }
+}
@@ -3,6 +3,7 @@ package com.revolsys.record.query;
 import java.util.function.Predicate;
 
 import com.revolsys.collection.map.MapEx;
+import com.revolsys.record.schema.RecordDefinition;
 import com.revolsys.util.Emptyable;
 import com.revolsys.util.Property;
 
@@ -25,6 +26,17 @@ public interface Condition extends QueryValue, Predicate<MapEx>, Emptyable {
   @Override
   Condition clone(TableReference oldTable, TableReference newTable);
 
+  /**
+   * Compile the condition for repeated evaluation against records of the record definition, see
+   * {@link CompiledCondition}.
+   *
+   * @param recordDefinition The record definition, or null if not known.
+   * @return The compiled condition.
+   */
+  default CompiledCondition compile(final RecordDefinition recordDefinition) {
+    return new CompiledCondition(this, recordDefinition);
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   default <V> V getValue(final MapEx record) {
@@ -4,7 +4,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -155,6 +154,10 @@ public class Query extends BaseObjectWithProperties implements Cloneable, Cancel
 
   private boolean distinct = false;
 
+  private int fetchSize = 0;
+
+  private boolean streaming = false;
+
   private Cancellable cancellable;
 
   private RecordFactory<Record> recordFactory;
@@ -382,7 +385,7 @@ public class Query extends BaseObjectWithProperties implements Cloneable, Cancel
     clone.joins = new ArrayList<>(clone.joins);
     clone.selectExpressions = new ArrayList<>(clone.selectExpressions);
     clone.parameters = new ArrayList<>(this.parameters);
-    clone.orderBy = new HashMap<>(this.orderBy);
+    clone.orderBy = new LinkedHashMap<>(this.orderBy);
     if (this.whereCondition != null) {
       clone.whereCondition = this.whereCondition.clone();
     }
@@ -399,7 +402,7 @@ public class Query extends BaseObjectWithProperties implements Cloneable, Cancel
       clone.selectExpressions);
     clone.joins = QueryValue.cloneQueryValues(oldTable, newTable, this.joins);
     clone.parameters = new ArrayList<>(this.parameters);
-    clone.orderBy = new HashMap<>(this.orderBy);
+    clone.orderBy = new LinkedHashMap<>(this.orderBy);
     if (this.whereCondition != null) {
       clone.whereCondition = this.whereCondition.clone(oldTable, newTable);
     }
@@ -409,11 +412,20 @@ public class Query extends BaseObjectWithProperties implements Cloneable, Cancel
     return clone;
   }
 
-  @SuppressWarnings("unchecked")
   public <R extends MapEx> void forEachRecord(final Iterable<R> records,
     final Consumer<? super R> consumer) {
     final Map<QueryValue, Boolean> orderBy = getOrderBy();
-    final Predicate<R> filter = (Predicate<R>)getWhereCondition();
+    final Condition whereCondition = getWhereCondition();
+    final Predicate<? super R> filter;
+    if (whereCondition == null) {
+      filter = null;
+    } else {
+      RecordDefinition recordDefinition = null;
+      if (this.table != null) {
+        recordDefinition = this.table.getRecordDefinition();
+      }
+      filter = whereCondition.compile(recordDefinition);
+    }
     if (orderBy.isEmpty()) {
       if (filter == null) {
         records.forEach(consumer);
@@ -437,6 +449,10 @@ public class Query extends BaseObjectWithProperties implements Cloneable, Cancel
     return this.cancellable;
   }
 
+  public int getFetchSize() {
+    return this.fetchSize;
+  }
+
   public String getFromClause() {
     return this.fromClause;
   }
@@ -594,6 +610,16 @@ public class Query extends BaseObjectWithProperties implements Cloneable, Cancel
     return this.distinct;
   }
 
+  /**
+   * Check if the results will be read sequentially in full (e.g. a full table export). Streaming
+   * queries use a cursor with a large fetch size that adapts to the size of the rows read.
+   *
+   * @return True if the query is streaming.
+   */
+  public boolean isStreaming() {
+    return this.streaming;
+  }
+
   public Join join(final TableReference table) {
     final Join join = JoinType.JOIN.build(table);
     this.joins.add(join);
@@ -760,6 +786,15 @@ public class Query extends BaseObjectWithProperties implements Cloneable, Cancel
     return this;
   }
 
+  public Query setFetchSize(final int fetchSize) {
+    if (fetchSize < 0) {
+      this.fetchSize = 0;
+    } else {
+      this.fetchSize = fetchSize;
+    }
+    return this;
+  }
+
   public Query setFromClause(final String fromClause) {
     this.fromClause = fromClause;
     return this;
@@ -884,6 +919,11 @@ public class Query extends BaseObjectWithProperties implements Cloneable, Cancel
     return this;
   }
 
+  public Query setStreaming(final boolean streaming) {
+    this.streaming = streaming;
+    return this;
+  }
+
   public Query setWhere(final String where) {
     final RecordDefinition recordDefinition = getRecordDefinition();
     final Condition whereCondition = QueryValue.parseWhere(recordDefinition, where);
@@ -0,0 +1,156 @@
+package com.revolsys.record.query;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.revolsys.collection.map.MapEx;
+import com.revolsys.record.io.format.json.Json;
+import com.revolsys.record.io.format.json.JsonParser;
+import com.revolsys.util.Property;
+
+/**
+ * <p>
+ * A cursor for keyset (seek) pagination. The cursor contains the values of the order by columns
+ * of the last record in a page. The next page is selected with a condition on the order by
+ * columns that only matches the records after the cursor, instead of an offset, so the cost of a
+ * page doesn't depend on how many pages are before it.
+ * </p>
+ *
+ * <p>
+ * The primary key columns are added to the end of the order by so each record has a unique
+ * position. The order by columns must not contain null values. The cursor can be converted to a
+ * token with {@link #toString()} so it can be passed in a URL and read with {@link #parse(String)}.
+ * </p>
+ */
+public class QueryCursor {
+
+  /**
+   * Create a copy of the query ordered by the primary key after the existing order by. If the
+   * cursor has a value only the records after the cursor are selected.
+   *
+   * @param query The query.
+   * @param cursor The cursor token, null or empty for the first page.
+   * @return The new query.
+   */
+  public static Query newKeysetQuery(final Query query, final String cursor) {
+    final Query keysetQuery = query.clone();
+    keysetQuery.addOrderById();
+    if (keysetQuery.getOrderBy().isEmpty()) {
+      throw new IllegalArgumentException(
+        "Keyset pagination requires an order by or primary key: " + query);
+    }
+    final QueryCursor queryCursor = parse(cursor);
+    if (queryCursor != null) {
+      final Condition condition = queryCursor.newSeekCondition(keysetQuery);
+      keysetQuery.and(condition);
+    }
+    return keysetQuery;
+  }
+
+  /**
+   * Create a cursor for the records after the record.
+   *
+   * @param query The query returned from {@link #newKeysetQuery(Query, String)}.
+   * @param record The last record in the page.
+   * @return The cursor.
+   */
+  public static QueryCursor newQueryCursor(final Query query, final MapEx record) {
+    final List<Object> values = new ArrayList<>();
+    for (final QueryValue queryValue : query.getOrderBy().keySet()) {
+      final ColumnReference column = getColumn(queryValue);
+      final Object value = column.getValue(record);
+      values.add(value);
+    }
+    return new QueryCursor(values);
+  }
+
+  private static ColumnReference getColumn(final QueryValue queryValue) {
+    if (queryValue instanceof ColumnReference) {
+      return (ColumnReference)queryValue;
+    } else {
+      throw new IllegalArgumentException(
+        "Keyset pagination only supports order by columns: " + queryValue);
+    }
+  }
+
+  /**
+   * Read a cursor from the token returned by {@link #toString()}.
+   *
+   * @param cursor The cursor token.
+   * @return The cursor or null if the token was null or empty.
+   */
+  public static QueryCursor parse(final String cursor) {
+    if (Property.hasValue(cursor)) {
+      try {
+        final byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+        final String json = new String(bytes, StandardCharsets.UTF_8);
+        final List<Object> values = JsonParser.read(json);
+        return new QueryCursor(values);
+      } catch (final RuntimeException e) {
+        throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+      }
+    } else {
+      return null;
+    }
+  }
+
+  private final List<Object> values;
+
+  public QueryCursor(final List<Object> values) {
+    this.values = values;
+  }
+
+  public List<Object> getValues() {
+    return Collections.unmodifiableList(this.values);
+  }
+
+  /**
+   * Create the condition that selects the records after the cursor. For order by a, b, c this is
+   * <code>a &gt; ? OR (a = ? AND b &gt; ?) OR (a = ? AND b = ? AND c &gt; ?)</code>, using &lt;
+   * for descending columns. The expanded form is used instead of a row value comparison as it is
+   * supported by all databases and allows mixed sort directions.
+   *
+   * @param query The query returned from {@link #newKeysetQuery(Query, String)}.
+   * @return The condition.
+   */
+  public Condition newSeekCondition(final Query query) {
+    final Map<QueryValue, Boolean> orderBy = query.getOrderBy();
+    if (orderBy.size() != this.values.size()) {
+      throw new IllegalArgumentException(
+        "Cursor has " + this.values.size() + " values but query has " + orderBy.size()
+          + " order by columns: " + query);
+    }
+    final Or or = new Or();
+    final List<Condition> equalConditions = new ArrayList<>();
+    int i = 0;
+    for (final Entry<QueryValue, Boolean> entry : orderBy.entrySet()) {
+      final ColumnReference column = getColumn(entry.getKey());
+      final boolean ascending = entry.getValue();
+      final Object value = this.values.get(i++);
+
+      final And and = new And(equalConditions);
+      final Value seekValue = new Value(column, value);
+      if (ascending) {
+        and.and(new GreaterThan(column, seekValue));
+      } else {
+        and.and(new LessThan(column, seekValue));
+      }
+      or.addCondition(and);
+
+      equalConditions.add(new Equal(column, new Value(column, value)));
+    }
+    return or;
+  }
+
+  @Override
+  public String toString() {
+    final String json = Json.toString(this.values, false);
+    final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+}
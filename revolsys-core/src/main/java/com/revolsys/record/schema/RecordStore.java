@@ -205,7 +205,7 @@ public interface RecordStore extends GeometryFactoryProxy, RecordDefinitionFacto
     }
   }
 
-  default void addStatistic(final String statisticName, final String typePath, final int count) {
+  default void addStatistic(final String statisticName, final String typePath, final long count) {
     final CategoryLabelCountMap statistics = getStatistics();
     if (statistics != null) {
       statistics.addCount(statisticName, typePath, count);
@@ -29,6 +29,10 @@ import com.revolsys.io.FileUtil;
 import com.revolsys.io.file.Paths;
 import com.revolsys.jdbc.io.AbstractJdbcDatabaseFactory;
 import com.revolsys.jdbc.io.JdbcRecordStore;
+import com.revolsys.raster.GeoreferencedImage;
+import com.revolsys.raster.GeoreferencedImageReadFactory;
+import com.revolsys.raster.GeoreferencedImageWriter;
+import com.revolsys.raster.GeoreferencedImageWriterFactory;
 import com.revolsys.record.Record;
 import com.revolsys.record.RecordFactory;
 import com.revolsys.record.io.FileRecordStoreFactory;
@@ -48,8 +52,9 @@ import com.revolsys.util.RsCoreDataTypes;
 /**
  * jdbc:sqlite:[file]
  */
-public class GeoPackage extends AbstractJdbcDatabaseFactory
-  implements RecordReaderFactory, RecordWriterFactory, FileRecordStoreFactory {
+public class GeoPackage extends AbstractJdbcDatabaseFactory implements RecordReaderFactory,
+  RecordWriterFactory, FileRecordStoreFactory, GeoreferencedImageReadFactory,
+  GeoreferencedImageWriterFactory {
   private static final boolean AVAILABLE;
 
   private static final List<FieldDefinition> CONNECTION_FIELD_DEFINITIONS = Arrays.asList( //
@@ -271,6 +276,11 @@ public class GeoPackage extends AbstractJdbcDatabaseFactory
     }
   }
 
+  @Override
+  public GeoreferencedImageWriter newGeoreferencedImageWriter(final Resource resource) {
+    return new GeoPackageTileWriter(resource);
+  }
+
   @Override
   public RecordReader newRecordReader(final Resource resource,
     final RecordFactory<? extends Record> factory, final MapEx properties) {
@@ -297,6 +307,7 @@ public class GeoPackage extends AbstractJdbcDatabaseFactory
       if (recordStore == null) {
         return null;
       } else {
+        recordStore.setBulkLoad(true);
         return new GeoPackageRecordWriter(recordStore, recordDefinition);
       }
     } else {
@@ -325,6 +336,29 @@ public class GeoPackage extends AbstractJdbcDatabaseFactory
     return Collections.emptyMap();
   }
 
+  /**
+   * Read the first tiles table in the GeoPackage as an image. Returns null if there are no tiles
+   * tables. The record store opened for the image is closed when the image is closed.
+   */
+  @Override
+  public GeoreferencedImage readGeoreferencedImage(final Resource resource) {
+    final GeoPackageRecordStore recordStore = openRecordStore(resource);
+    recordStore.initialize();
+    final List<String> tableNames = recordStore.getContentsTableNames("tiles");
+    if (tableNames.isEmpty()) {
+      recordStore.close();
+      return null;
+    } else {
+      final String tableName = tableNames.get(0);
+      try {
+        return new GeoPackageTileImage(recordStore, tableName, true);
+      } catch (final RuntimeException e) {
+        recordStore.close();
+        throw e;
+      }
+    }
+  }
+
   @Override
   public String toString() {
     return getName();
@@ -0,0 +1,226 @@
+package com.revolsys.geopackage;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.jeometry.common.date.Dates;
+import org.sqlite.SQLiteConnection;
+
+import com.revolsys.geopackage.function.GeoPackageHilbertCodeFunction;
+import com.revolsys.jdbc.io.JdbcRecordDefinition;
+import com.revolsys.jdbc.io.JdbcRecordWriter;
+import com.revolsys.record.schema.FieldDefinition;
+import com.revolsys.transaction.Transaction;
+
+/**
+ * A {@link JdbcRecordWriter} for loading a large number of records into a GeoPackage table.
+ *
+ * <ul>
+ * <li>The rtree_&lt;t&gt;_&lt;c&gt; triggers are dropped so inserts don't update the R-tree.</li>
+ * <li>The records are inserted in one transaction with the journal in memory, synchronous writes
+ * off and a large page cache.</li>
+ * <li>When the writer is closed the R-tree is rebuilt in one pass in Hilbert order of the
+ * envelope centres, the triggers are re-created and the gpkg_contents extent is updated.</li>
+ * </ul>
+ *
+ * Other connections won't see the records until the writer is closed. If the R-tree can't be
+ * built the load is rolled back. Bulk load commits its own transaction so it can't be used within a
+ * {@link Transaction}.
+ */
+public class GeoPackageBulkLoadRecordWriter extends JdbcRecordWriter {
+
+  private static final int BATCH_SIZE = 1000;
+
+  private static final int CACHE_SIZE_KB = 256 * 1024;
+
+  private boolean closed;
+
+  private final JdbcRecordDefinition recordDefinition;
+
+  private final Map<String, List<String>> triggerSqlByRtreeName = new LinkedHashMap<>();
+
+  public GeoPackageBulkLoadRecordWriter(final GeoPackageRecordStore recordStore,
+    final JdbcRecordDefinition recordDefinition) {
+    super(recordStore, recordDefinition, BATCH_SIZE);
+    this.recordDefinition = recordDefinition;
+    if (Transaction.isHasCurrentTransaction()) {
+      closeDo();
+      throw new IllegalStateException(
+        "Bulk load cannot be used within a transaction " + recordDefinition.getPathName());
+    }
+    try {
+      // The safety level can't be changed inside a transaction
+      this.connection.setAutoCommit(true);
+      executeSql("PRAGMA journal_mode = MEMORY");
+      executeSql("PRAGMA synchronous = OFF");
+      executeSql("PRAGMA cache_size = -" + CACHE_SIZE_KB);
+      executeSql("PRAGMA temp_store = MEMORY");
+      this.connection.setAutoCommit(false);
+      dropRtreeTriggers();
+    } catch (final SQLException e) {
+      throw this.connection.getException("Start bulk load", null, e);
+    }
+  }
+
+  /**
+   * Rebuild the R-tree from the table. The envelopes are copied to a temporary table so the
+   * geometries are only parsed once, then inserted into the R-tree in Hilbert order so that
+   * consecutive inserts touch the same R-tree nodes.
+   */
+  private void buildRtree(final String tableName, final String fieldName, final String rtreeName)
+    throws SQLException {
+    final String idFieldName = this.recordDefinition.getIdFieldName();
+    executeSql("DELETE FROM \"" + rtreeName + "\"");
+    executeSql("DROP TABLE IF EXISTS temp.rtree_load");
+    executeSql("CREATE TEMP TABLE rtree_load AS SELECT \"" + idFieldName + "\" id, ST_MinX(\""
+      + fieldName + "\") minx, ST_MaxX(\"" + fieldName + "\") maxx, ST_MinY(\"" + fieldName
+      + "\") miny, ST_MaxY(\"" + fieldName + "\") maxy FROM \"" + tableName + "\" WHERE \""
+      + fieldName + "\" NOT NULL AND NOT ST_IsEmpty(\"" + fieldName + "\")");
+    try (
+      Statement statement = this.connection.createStatement();
+      ResultSet resultSet = statement.executeQuery(
+        "SELECT min(minx), min(miny), max(maxx), max(maxy), count(*) FROM temp.rtree_load")) {
+      if (resultSet.next() && resultSet.getLong(5) > 0) {
+        final double minX = resultSet.getDouble(1);
+        final double minY = resultSet.getDouble(2);
+        final double maxX = resultSet.getDouble(3);
+        final double maxY = resultSet.getDouble(4);
+        final SQLiteConnection dbConnection = this.connection.unwrap(SQLiteConnection.class);
+        GeoPackageHilbertCodeFunction.add(dbConnection, minX, minY, maxX, maxY);
+        executeSql("INSERT INTO \"" + rtreeName
+          + "\" SELECT id, minx, maxx, miny, maxy FROM temp.rtree_load"
+          + " ORDER BY RS_HilbertCode(minx, maxx, miny, maxy)");
+        updateContentsExtent(tableName, minX, minY, maxX, maxY);
+      }
+    }
+    executeSql("DROP TABLE temp.rtree_load");
+  }
+
+  private void buildRtrees() throws SQLException {
+    final String tableName = this.recordDefinition.getDbTableName();
+    for (final FieldDefinition field : this.recordDefinition.getGeometryFields()) {
+      final String fieldName = field.getName();
+      final String rtreeName = getRtreeName(tableName, fieldName);
+      final List<String> triggerSqls = this.triggerSqlByRtreeName.get(rtreeName);
+      if (triggerSqls != null) {
+        buildRtree(tableName, fieldName, rtreeName);
+        for (final String triggerSql : triggerSqls) {
+          executeSql(triggerSql);
+        }
+      }
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    if (!this.closed) {
+      this.closed = true;
+      try {
+        flush();
+        buildRtrees();
+      } catch (final SQLException e) {
+        final RuntimeException exception = this.connection.getException("Build R-tree", null, e);
+        rollback();
+        throw exception;
+      } catch (final RuntimeException | Error e) {
+        rollback();
+        throw e;
+      }
+      super.close();
+    }
+  }
+
+  /**
+   * Save the SQL of the R-tree triggers on the table so they can be re-created after the load and
+   * drop them.
+   */
+  private void dropRtreeTriggers() throws SQLException {
+    final String tableName = this.recordDefinition.getDbTableName();
+    final Map<String, String> triggerSqlByName = new LinkedHashMap<>();
+    try (
+      PreparedStatement statement = this.connection.prepareStatement(
+        "SELECT name, sql FROM sqlite_master WHERE type = 'trigger' AND tbl_name = ?")) {
+      statement.setString(1, tableName);
+      try (
+        ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          triggerSqlByName.put(resultSet.getString(1), resultSet.getString(2));
+        }
+      }
+    }
+    for (final FieldDefinition field : this.recordDefinition.getGeometryFields()) {
+      final String rtreeName = getRtreeName(tableName, field.getName());
+      if (isTableExists(rtreeName)) {
+        final List<String> triggerSqls = new ArrayList<>();
+        for (final Entry<String, String> entry : triggerSqlByName.entrySet()) {
+          final String triggerName = entry.getKey();
+          if (triggerName.startsWith(rtreeName + "_")) {
+            triggerSqls.add(entry.getValue());
+            executeSql("DROP TRIGGER \"" + triggerName + "\"");
+          }
+        }
+        this.triggerSqlByRtreeName.put(rtreeName, triggerSqls);
+      }
+    }
+  }
+
+  private void executeSql(final String sql) throws SQLException {
+    try (
+      Statement statement = this.connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+
+  private String getRtreeName(final String tableName, final String fieldName) {
+    return "rtree_" + tableName + "_" + fieldName;
+  }
+
+  private boolean isTableExists(final String tableName) throws SQLException {
+    try (
+      PreparedStatement statement = this.connection
+        .prepareStatement("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+      statement.setString(1, tableName);
+      try (
+        ResultSet resultSet = statement.executeQuery()) {
+        return resultSet.next();
+      }
+    }
+  }
+
+  /**
+   * Roll back the load so the dropped triggers and the R-tree are restored, then close the
+   * connection.
+   */
+  private void rollback() {
+    try {
+      this.connection.rollback();
+    } catch (final SQLException e) {
+    }
+    try {
+      closeDo();
+    } catch (final RuntimeException e) {
+    }
+  }
+
+  private void updateContentsExtent(final String tableName, final double minX, final double minY,
+    final double maxX, final double maxY) throws SQLException {
+    try (
+      PreparedStatement statement = this.connection.prepareStatement(
+        "UPDATE gpkg_contents SET min_x = ?, min_y = ?, max_x = ?, max_y = ?, last_change = ? WHERE table_name = ?")) {
+      statement.setDouble(1, minX);
+      statement.setDouble(2, minY);
+      statement.setDouble(3, maxX);
+      statement.setDouble(4, maxY);
+      statement.setString(5, Dates.format("yyyy-MM-dd'T'HH:mm'Z'"));
+      statement.setString(6, tableName);
+      statement.executeUpdate();
+    }
+  }
+}
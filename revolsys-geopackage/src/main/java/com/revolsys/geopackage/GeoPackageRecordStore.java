@@ -63,6 +63,8 @@ public class GeoPackageRecordStore extends AbstractJdbcRecordStore {
 
   private static final int APPLICATION_ID = ByteBuffer.wrap("GPKG".getBytes()).asIntBuffer().get();
 
+  private boolean bulkLoad;
+
   private Path file;
 
   private final BusyHandler busyHandler = new BusyHandler() {
@@ -100,6 +102,48 @@ public class GeoPackageRecordStore extends AbstractJdbcRecordStore {
     }
   }
 
+  /**
+   * Add the coordinate system to gpkg_spatial_ref_sys if it isn't already in the table.
+   */
+  void addSpatialRefSys(final CoordinateSystem coordinateSystem) {
+    if (coordinateSystem != null) {
+      final int coordinateSystemId = coordinateSystem.getCoordinateSystemId();
+      final String sridSql = "SELECT srs_id from gpkg_spatial_ref_sys where srs_id = ?";
+      try (
+        JdbcConnection connection = super.getJdbcConnection(true)) {
+        try (
+          final PreparedStatement statement = connection.prepareStatement(sridSql)) {
+          statement.setInt(1, coordinateSystemId);
+
+          try (
+            final ResultSet resultSet = statement.executeQuery()) {
+            if (!resultSet.next()) {
+              final String insertSrsSql = "INSERT INTO gpkg_spatial_ref_sys (srs_name, srs_id, organization, organization_coordsys_id, definition, description) VALUES (?,?,?,?,?,?)";
+              final String coordinateSystemName = coordinateSystem.getCoordinateSystemName();
+              final String esriWktCs = coordinateSystem.toEsriWktCs();
+
+              try (
+                final PreparedStatement insertStatement = connection
+                  .prepareStatement(insertSrsSql)) {
+                insertStatement.setString(1, coordinateSystemName);
+                insertStatement.setInt(2, coordinateSystemId);
+                insertStatement.setString(3, "EPSG");
+                insertStatement.setInt(4, coordinateSystemId);
+                insertStatement.setString(5, esriWktCs);
+                insertStatement.setNull(6, Types.CHAR);
+                insertStatement.executeUpdate();
+              } catch (final SQLException e2) {
+                throw connection.getException("Update", insertSrsSql, e2);
+              }
+            }
+          }
+        } catch (final SQLException e) {
+          throw connection.getException("selectInt", sridSql, e);
+        }
+      }
+    }
+  }
+
   private void appendEvelopeIntersects(final Query query, final StringBuilder sql,
     final QueryValue queryValue) {
     final EnvelopeIntersects envelopeIntersects = (EnvelopeIntersects)queryValue;
@@ -193,42 +237,7 @@ public class GeoPackageRecordStore extends AbstractJdbcRecordStore {
 
     for (final FieldDefinition field : newRecordDefinition.getGeometryFields()) {
       final CoordinateSystem coordinateSystem = field.getHorizontalCoordinateSystem();
-      if (coordinateSystem != null) {
-        final int coordinateSystemId = coordinateSystem.getCoordinateSystemId();
-        final String sridSql = "SELECT srs_id from gpkg_spatial_ref_sys where srs_id = ?";
-        try (
-          JdbcConnection connection = super.getJdbcConnection(true)) {
-          try (
-            final PreparedStatement statement = connection.prepareStatement(sridSql)) {
-            statement.setInt(1, coordinateSystemId);
-
-            try (
-              final ResultSet resultSet = statement.executeQuery()) {
-              if (!resultSet.next()) {
-                final String insertSrsSql = "INSERT INTO gpkg_spatial_ref_sys (srs_name, srs_id, organization, organization_coordsys_id, definition, description) VALUES (?,?,?,?,?,?)";
-                final String coordinateSystemName = coordinateSystem.getCoordinateSystemName();
-                final String esriWktCs = coordinateSystem.toEsriWktCs();
-
-                try (
-                  final PreparedStatement insertStatement = connection
-                    .prepareStatement(insertSrsSql)) {
-                  insertStatement.setString(1, coordinateSystemName);
-                  insertStatement.setInt(2, coordinateSystemId);
-                  insertStatement.setString(3, "EPSG");
-                  insertStatement.setInt(4, coordinateSystemId);
-                  insertStatement.setString(5, esriWktCs);
-                  insertStatement.setNull(6, Types.CHAR);
-                  insertStatement.executeUpdate();
-                } catch (final SQLException e2) {
-                  throw connection.getException("Update", insertSrsSql, e2);
-                }
-              }
-            }
-          } catch (final SQLException e) {
-            throw connection.getException("selectInt", sridSql, e);
-          }
-        }
-      }
+      addSpatialRefSys(coordinateSystem);
       final String gpkgGeometryColumns = ddlWriter.insertGpkgGeometryColumns(field);
       executeSqlNoFunctions("gpkgGeometryColumns", gpkgGeometryColumns);
       final String fieldName = field.getName();
@@ -251,9 +260,8 @@ public class GeoPackageRecordStore extends AbstractJdbcRecordStore {
 
     for (final String fileName : Arrays.asList("gpkg_spatial_ref_sys.sql", "gpkg_contents.sql",
       "gpkg_data_columns.sql", "gpkg_data_column_constraints.sql", "gpkg_extensions.sql",
-      "gpkg_geometry_columns.sql", "gpkg_metadata.sql", "gpkg_metadata_reference.sql"
-    // , "gpkg_tile_matrix.sql", "gpkg_tile_matrix_set.sql"
-    )) {
+      "gpkg_geometry_columns.sql", "gpkg_metadata.sql", "gpkg_metadata_reference.sql",
+      "gpkg_tile_matrix_set.sql", "gpkg_tile_matrix.sql")) {
       for (final String sql : getSqlTemplates(fileName)) {
         executeSql(fileName, sql);
       }
@@ -261,6 +269,21 @@ public class GeoPackageRecordStore extends AbstractJdbcRecordStore {
     }
   }
 
+  /**
+   * Create the gpkg_tile_matrix_set and gpkg_tile_matrix tables if they don't exist. Files created
+   * before tile support was added don't have them.
+   */
+  void createTileMatrixTables() {
+    for (final String tableName : Arrays.asList("gpkg_tile_matrix_set", "gpkg_tile_matrix")) {
+      if (!isTableExists(tableName)) {
+        final String fileName = tableName + ".sql";
+        for (final String sql : getSqlTemplates(fileName)) {
+          executeSqlNoFunctions(fileName, sql);
+        }
+      }
+    }
+  }
+
   @Override
   public void execteBatch(final PreparedStatement statement) throws SQLException {
     statement.executeBatch();
@@ -294,6 +317,30 @@ public class GeoPackageRecordStore extends AbstractJdbcRecordStore {
     }
   }
 
+  /**
+   * Get the names of the tables in gpkg_contents with the data_type.
+   */
+  public List<String> getContentsTableNames(final String dataType) {
+    final List<String> tableNames = new ArrayList<>();
+    final String sql = "SELECT table_name FROM gpkg_contents WHERE data_type = ? ORDER BY table_name";
+    try (
+      JdbcConnection connection = super.getJdbcConnection(true)) {
+      try (
+        final PreparedStatement statement = connection.prepareStatement(sql)) {
+        statement.setString(1, dataType);
+        try (
+          final ResultSet resultSet = statement.executeQuery()) {
+          while (resultSet.next()) {
+            tableNames.add(resultSet.getString(1));
+          }
+        }
+      } catch (final SQLException e) {
+        throw connection.getException("Contents table names", sql, e);
+      }
+    }
+    return tableNames;
+  }
+
   @Override
   protected Set<String> getDatabaseSchemaNames() {
     return Collections.emptySet();
@@ -304,7 +351,7 @@ public class GeoPackageRecordStore extends AbstractJdbcRecordStore {
     return "null";
   }
 
-  private GeometryFactory getGeometryFactory(final Connection connection,
+  GeometryFactory getGeometryFactory(final Connection connection,
     final int coordinateSystemId) throws SQLException {
     if (coordinateSystemId <= 0) {
       return GeometryFactory.DEFAULT_2D;
@@ -441,6 +488,14 @@ public class GeoPackageRecordStore extends AbstractJdbcRecordStore {
     return connection.prepareStatement(sql, idColumnNames);
   }
 
+  /**
+   * Check if {@link #newRecordWriter(RecordDefinitionProxy)} returns a
+   * {@link GeoPackageBulkLoadRecordWriter}.
+   */
+  public boolean isBulkLoad() {
+    return this.bulkLoad;
+  }
+
   private boolean isPrimaryKeyValid(final RecordDefinition recordDefinition) {
     final List<FieldDefinition> idFields = recordDefinition.getIdFields();
     if (idFields.size() == 1) {
@@ -459,10 +514,61 @@ public class GeoPackageRecordStore extends AbstractJdbcRecordStore {
     return false;
   }
 
+  boolean isTableExists(final String tableName) {
+    final String sql = "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?";
+    try (
+      JdbcConnection connection = super.getJdbcConnection(true)) {
+      try (
+        final PreparedStatement statement = connection.prepareStatement(sql)) {
+        statement.setString(1, tableName);
+        try (
+          final ResultSet resultSet = statement.executeQuery()) {
+          return resultSet.next();
+        }
+      } catch (final SQLException e) {
+        throw connection.getException("Table exists", sql, e);
+      }
+    }
+  }
+
+  /**
+   * Create a writer to load a large number of records into the table. The R-tree is built when
+   * the writer is closed.
+   *
+   * @see GeoPackageBulkLoadRecordWriter
+   */
+  public GeoPackageBulkLoadRecordWriter newBulkLoadRecordWriter(
+    final RecordDefinitionProxy recordDefinition) {
+    final JdbcRecordDefinition rd = getRecordDefinition(recordDefinition.getRecordDefinition());
+    if (rd == null) {
+      throw new IllegalArgumentException(
+        "Cannot find recordDefinition=" + recordDefinition.getPathName() + " for " + this);
+    }
+    return new GeoPackageBulkLoadRecordWriter(this, rd);
+  }
+
   @Override
   public RecordWriter newRecordWriter(final RecordDefinitionProxy recordDefinition) {
-    final RecordDefinition rd = getRecordDefinition(recordDefinition);
-    return super.newRecordWriter(rd);
+    if (this.bulkLoad) {
+      return newBulkLoadRecordWriter(recordDefinition);
+    } else {
+      final RecordDefinition rd = getRecordDefinition(recordDefinition);
+      return super.newRecordWriter(rd);
+    }
+  }
+
+  /**
+   * Create an image that reads the tiles from the tiles table.
+   */
+  public GeoPackageTileImage newTileImage(final String tableName) {
+    return new GeoPackageTileImage(this, tableName);
+  }
+
+  /**
+   * Create a writer that writes an image or elevation model as a new tiles table.
+   */
+  public GeoPackageTileWriter newTileWriter(final String tableName) {
+    return new GeoPackageTileWriter(this, tableName);
   }
 
   @Override
@@ -563,6 +669,10 @@ public class GeoPackageRecordStore extends AbstractJdbcRecordStore {
     }
   }
 
+  public void setBulkLoad(final boolean bulkLoad) {
+    this.bulkLoad = bulkLoad;
+  }
+
   @Override
   public String toString() {
     if (this.file == null) {
@@ -0,0 +1,332 @@
+package com.revolsys.geopackage;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import java.io.ByteArrayInputStream;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.revolsys.geometry.model.BoundingBox;
+import com.revolsys.geometry.model.GeometryFactory;
+import com.revolsys.io.BaseCloseable;
+import com.revolsys.jdbc.JdbcConnection;
+import com.revolsys.jdbc.JdbcUtils;
+import com.revolsys.raster.AbstractGeoreferencedImage;
+import com.revolsys.raster.BufferedImages;
+import com.revolsys.raster.GeoreferencedImageMapTile;
+import com.revolsys.raster.TiledGeoreferencedImage;
+
+/**
+ * A {@link TiledGeoreferencedImage} for a GeoPackage tiles table. Each zoom level in
+ * gpkg_tile_matrix is a resolution of the image and the tiles are read from the table by
+ * (zoom_level, tile_column, tile_row) when they are drawn. The tiles are read using one
+ * connection and prepared statement, which are released when the image is closed.
+ */
+public class GeoPackageTileImage extends AbstractGeoreferencedImage
+  implements BaseCloseable, TiledGeoreferencedImage {
+
+  private class GeoPackageMapTile extends GeoreferencedImageMapTile {
+    private final GeoPackageTileMatrix tileMatrix;
+
+    private final int tileColumn;
+
+    private final int tileRow;
+
+    private GeoPackageMapTile(final GeoPackageTileMatrix tileMatrix, final int tileColumn,
+      final int tileRow) {
+      super(tileMatrix.newTileBoundingBox(tileColumn, tileRow), tileMatrix.getTileWidth(),
+        tileMatrix.getTileHeight());
+      this.tileMatrix = tileMatrix;
+      this.tileColumn = tileColumn;
+      this.tileRow = tileRow;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      } else if (obj instanceof GeoPackageMapTile) {
+        final GeoPackageMapTile other = (GeoPackageMapTile)obj;
+        if (this.tileMatrix != other.tileMatrix) {
+          return false;
+        } else if (this.tileColumn != other.tileColumn) {
+          return false;
+        } else if (this.tileRow != other.tileRow) {
+          return false;
+        } else {
+          return true;
+        }
+      } else {
+        return false;
+      }
+    }
+
+    @Override
+    public int hashCode() {
+      final int prime = 31;
+      int result = 1;
+      result = prime * result + this.tileMatrix.getZoomLevel();
+      result = prime * result + this.tileColumn;
+      result = prime * result + this.tileRow;
+      return result;
+    }
+
+    @Override
+    protected BufferedImage loadBuffferedImage() {
+      return readTile(this.tileMatrix.getZoomLevel(), this.tileColumn, this.tileRow);
+    }
+  }
+
+  private boolean closed;
+
+  private final boolean closeRecordStore;
+
+  private JdbcConnection connection;
+
+  private final GeoPackageRecordStore recordStore;
+
+  private final String tableName;
+
+  /** Lower resolution first. */
+  private final List<GeoPackageTileMatrix> tileMatrices = new ArrayList<>();
+
+  private final String tileSql;
+
+  private PreparedStatement tileStatement;
+
+  public GeoPackageTileImage(final GeoPackageRecordStore recordStore, final String tableName) {
+    this(recordStore, tableName, false);
+  }
+
+  /**
+   * @param closeRecordStore True if the record store is closed when the image is closed.
+   */
+  public GeoPackageTileImage(final GeoPackageRecordStore recordStore, final String tableName,
+    final boolean closeRecordStore) {
+    this.recordStore = recordStore;
+    this.tableName = tableName;
+    this.closeRecordStore = closeRecordStore;
+    this.tileSql = "SELECT tile_data FROM \"" + tableName
+      + "\" WHERE zoom_level = ? AND tile_column = ? AND tile_row = ?";
+    try (
+      JdbcConnection connection = recordStore.getJdbcConnection()) {
+      final String sql = "SELECT * FROM gpkg_tile_matrix_set WHERE table_name = ?";
+      final BoundingBox boundingBox;
+      try (
+        PreparedStatement statement = connection.prepareStatement(sql)) {
+        statement.setString(1, tableName);
+        try (
+          ResultSet resultSet = statement.executeQuery()) {
+          if (resultSet.next()) {
+            final int coordinateSystemId = resultSet.getInt("srs_id");
+            final GeometryFactory geometryFactory = recordStore.getGeometryFactory(connection,
+              coordinateSystemId);
+            final double minX = resultSet.getDouble("min_x");
+            final double minY = resultSet.getDouble("min_y");
+            final double maxX = resultSet.getDouble("max_x");
+            final double maxY = resultSet.getDouble("max_y");
+            boundingBox = geometryFactory.newBoundingBox(minX, minY, maxX, maxY);
+          } else {
+            throw new IllegalArgumentException(
+              "Cannot find gpkg_tile_matrix_set for " + tableName + " in " + recordStore);
+          }
+        }
+      } catch (final SQLException e) {
+        throw connection.getException("Read tile matrix set", sql, e);
+      }
+      readTileMatrices(connection, boundingBox);
+      if (this.tileMatrices.isEmpty()) {
+        throw new IllegalArgumentException(
+          "Cannot find gpkg_tile_matrix for " + tableName + " in " + recordStore);
+      }
+      final GeoPackageTileMatrix tileMatrix = this.tileMatrices.get(0);
+      setImageWidth(tileMatrix.getMatrixWidth() * tileMatrix.getTileWidth());
+      setImageHeight(tileMatrix.getMatrixHeight() * tileMatrix.getTileHeight());
+      setResolutionX(tileMatrix.getPixelXSize());
+      setResolutionY(tileMatrix.getPixelYSize());
+      setBoundingBox(boundingBox);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    if (!this.closed) {
+      this.closed = true;
+      JdbcUtils.close(this.tileStatement);
+      this.tileStatement = null;
+      if (this.connection != null) {
+        this.connection.close();
+        this.connection = null;
+      }
+      if (this.closeRecordStore) {
+        this.recordStore.close();
+      }
+    }
+  }
+
+  @Override
+  public List<GeoreferencedImageMapTile> getOverlappingMapTiles(BoundingBox boundingBox,
+    final double resolution) {
+    final List<GeoreferencedImageMapTile> tiles = new ArrayList<>();
+    boundingBox = boundingBox.bboxToCs(this);
+    if (bboxIntersects(boundingBox)) {
+      final GeoPackageTileMatrix tileMatrix = getTileMatrix(resolution);
+      final int maxColumn = tileMatrix.getMatrixWidth() - 1;
+      final int maxRow = tileMatrix.getMatrixHeight() - 1;
+      final int minTileColumn = Math.max(0, tileMatrix.getTileColumn(boundingBox.getMinX()));
+      final int maxTileColumn = Math.min(maxColumn,
+        tileMatrix.getTileColumn(boundingBox.getMaxX()));
+      final int minTileRow = Math.max(0, tileMatrix.getTileRow(boundingBox.getMaxY()));
+      final int maxTileRow = Math.min(maxRow, tileMatrix.getTileRow(boundingBox.getMinY()));
+      for (int tileRow = minTileRow; tileRow <= maxTileRow; tileRow++) {
+        for (int tileColumn = minTileColumn; tileColumn <= maxTileColumn; tileColumn++) {
+          tiles.add(new GeoPackageMapTile(tileMatrix, tileColumn, tileRow));
+        }
+      }
+    }
+    return tiles;
+  }
+
+  /**
+   * Get the lowest resolution image, composed from the tiles of the lowest zoom level.
+   */
+  @Override
+  public synchronized RenderedImage getRenderedImage() {
+    RenderedImage renderedImage = super.getRenderedImage();
+    if (renderedImage == null) {
+      final GeoPackageTileMatrix tileMatrix = this.tileMatrices.get(0);
+      final int tileWidth = tileMatrix.getTileWidth();
+      final int tileHeight = tileMatrix.getTileHeight();
+      final BufferedImage image = new BufferedImage(getImageWidth(), getImageHeight(),
+        BufferedImage.TYPE_INT_ARGB);
+      final Graphics2D graphics = image.createGraphics();
+      try {
+        for (int tileRow = 0; tileRow < tileMatrix.getMatrixHeight(); tileRow++) {
+          for (int tileColumn = 0; tileColumn < tileMatrix.getMatrixWidth(); tileColumn++) {
+            final BufferedImage tileImage = readTile(tileMatrix.getZoomLevel(), tileColumn,
+              tileRow);
+            if (tileImage != null) {
+              graphics.drawImage(tileImage, tileColumn * tileWidth, tileRow * tileHeight, null);
+            }
+          }
+        }
+      } finally {
+        graphics.dispose();
+      }
+      renderedImage = image;
+      setRenderedImage(renderedImage);
+    }
+    return renderedImage;
+  }
+
+  @Override
+  public double getResolution(final BoundingBox boundingBox, final double resolution) {
+    final GeoPackageTileMatrix tileMatrix = getTileMatrix(resolution);
+    return tileMatrix.getPixelXSize();
+  }
+
+  public String getTableName() {
+    return this.tableName;
+  }
+
+  public List<GeoPackageTileMatrix> getTileMatrices() {
+    return this.tileMatrices;
+  }
+
+  /**
+   * Get the zoom level with the lowest resolution that is at least the requested resolution.
+   * A level that is within 5% of the requested resolution is used instead of the next level.
+   */
+  public GeoPackageTileMatrix getTileMatrix(final double resolution) {
+    GeoPackageTileMatrix previousTileMatrix = this.tileMatrices.get(0);
+    for (final GeoPackageTileMatrix tileMatrix : this.tileMatrices) {
+      final double levelResolution = tileMatrix.getPixelXSize();
+      if (resolution > levelResolution) {
+        if (tileMatrix == previousTileMatrix) {
+          return tileMatrix;
+        } else {
+          final double ratio = levelResolution / resolution;
+          if (ratio < 0.95) {
+            return previousTileMatrix;
+          } else {
+            return tileMatrix;
+          }
+        }
+      }
+      previousTileMatrix = tileMatrix;
+    }
+    return previousTileMatrix;
+  }
+
+  /**
+   * Read the tile image. Returns null if there is no tile at that position or the image is
+   * closed.
+   */
+  public synchronized BufferedImage readTile(final int zoomLevel, final int tileColumn,
+    final int tileRow) {
+    if (this.closed) {
+      return null;
+    }
+    if (this.connection == null) {
+      this.connection = this.recordStore.getJdbcConnection();
+    }
+    final JdbcConnection connection = this.connection;
+    try {
+      if (this.tileStatement == null) {
+        this.tileStatement = connection.prepareStatement(this.tileSql);
+      }
+      final PreparedStatement statement = this.tileStatement;
+      statement.setInt(1, zoomLevel);
+      statement.setInt(2, tileColumn);
+      statement.setInt(3, tileRow);
+      try (
+        ResultSet resultSet = statement.executeQuery()) {
+        if (resultSet.next()) {
+          final byte[] tileData = resultSet.getBytes(1);
+          if (tileData != null) {
+            return BufferedImages.readImageIo(new ByteArrayInputStream(tileData));
+          }
+        }
+        return null;
+      }
+    } catch (final SQLException e) {
+      throw connection.getException("Read tile", this.tileSql, e);
+    }
+  }
+
+  private void readTileMatrices(final JdbcConnection connection,
+    final BoundingBox tileMatrixSetBoundingBox) {
+    final String sql = "SELECT * FROM gpkg_tile_matrix WHERE table_name = ? ORDER BY zoom_level";
+    try (
+      PreparedStatement statement = connection.prepareStatement(sql)) {
+      statement.setString(1, this.tableName);
+      try (
+        ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          final int zoomLevel = resultSet.getInt("zoom_level");
+          final int matrixWidth = resultSet.getInt("matrix_width");
+          final int matrixHeight = resultSet.getInt("matrix_height");
+          final int tileWidth = resultSet.getInt("tile_width");
+          final int tileHeight = resultSet.getInt("tile_height");
+          final double pixelXSize = resultSet.getDouble("pixel_x_size");
+          final double pixelYSize = resultSet.getDouble("pixel_y_size");
+          final GeoPackageTileMatrix tileMatrix = new GeoPackageTileMatrix(
+            tileMatrixSetBoundingBox, zoomLevel, matrixWidth, matrixHeight, tileWidth, tileHeight,
+            pixelXSize, pixelYSize);
+          this.tileMatrices.add(tileMatrix);
+        }
+      }
+    } catch (final SQLException e) {
+      throw connection.getException("Read tile matrix", sql, e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return this.recordStore + "/" + this.tableName;
+  }
+}
@@ -0,0 +1,102 @@
+package com.revolsys.geopackage;
+
+import com.revolsys.geometry.model.BoundingBox;
+import com.revolsys.geometry.model.GeometryFactory;
+
+/**
+ * A row from gpkg_tile_matrix. Tile column 0, row 0 is at the North-West corner of the tile
+ * matrix set bounding box.
+ */
+public class GeoPackageTileMatrix {
+
+  private final BoundingBox tileMatrixSetBoundingBox;
+
+  private final int zoomLevel;
+
+  private final int matrixWidth;
+
+  private final int matrixHeight;
+
+  private final int tileWidth;
+
+  private final int tileHeight;
+
+  private final double pixelXSize;
+
+  private final double pixelYSize;
+
+  public GeoPackageTileMatrix(final BoundingBox tileMatrixSetBoundingBox, final int zoomLevel,
+    final int matrixWidth, final int matrixHeight, final int tileWidth, final int tileHeight,
+    final double pixelXSize, final double pixelYSize) {
+    this.tileMatrixSetBoundingBox = tileMatrixSetBoundingBox;
+    this.zoomLevel = zoomLevel;
+    this.matrixWidth = matrixWidth;
+    this.matrixHeight = matrixHeight;
+    this.tileWidth = tileWidth;
+    this.tileHeight = tileHeight;
+    this.pixelXSize = pixelXSize;
+    this.pixelYSize = pixelYSize;
+  }
+
+  public int getMatrixHeight() {
+    return this.matrixHeight;
+  }
+
+  public int getMatrixWidth() {
+    return this.matrixWidth;
+  }
+
+  public double getPixelXSize() {
+    return this.pixelXSize;
+  }
+
+  public double getPixelYSize() {
+    return this.pixelYSize;
+  }
+
+  public int getTileColumn(final double x) {
+    final double minX = this.tileMatrixSetBoundingBox.getMinX();
+    final int tileColumn = (int)Math.floor((x - minX) / getTileSpanX());
+    return Math.max(0, Math.min(tileColumn, this.matrixWidth - 1));
+  }
+
+  public int getTileHeight() {
+    return this.tileHeight;
+  }
+
+  public int getTileRow(final double y) {
+    final double maxY = this.tileMatrixSetBoundingBox.getMaxY();
+    final int tileRow = (int)Math.floor((maxY - y) / getTileSpanY());
+    return Math.max(0, Math.min(tileRow, this.matrixHeight - 1));
+  }
+
+  public double getTileSpanX() {
+    return this.tileWidth * this.pixelXSize;
+  }
+
+  public double getTileSpanY() {
+    return this.tileHeight * this.pixelYSize;
+  }
+
+  public int getTileWidth() {
+    return this.tileWidth;
+  }
+
+  public int getZoomLevel() {
+    return this.zoomLevel;
+  }
+
+  public BoundingBox newTileBoundingBox(final int tileColumn, final int tileRow) {
+    final GeometryFactory geometryFactory = this.tileMatrixSetBoundingBox.getGeometryFactory();
+    final double tileSpanX = getTileSpanX();
+    final double tileSpanY = getTileSpanY();
+    final double minX = this.tileMatrixSetBoundingBox.getMinX() + tileColumn * tileSpanX;
+    final double maxY = this.tileMatrixSetBoundingBox.getMaxY() - tileRow * tileSpanY;
+    return geometryFactory.newBoundingBox(minX, maxY - tileSpanY, minX + tileSpanX, maxY);
+  }
+
+  @Override
+  public String toString() {
+    return this.zoomLevel + " (" + this.matrixWidth + "x" + this.matrixHeight + ")";
+  }
+}
@@ -0,0 +1,689 @@
+package com.revolsys.geopackage;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import javax.imageio.ImageIO;
+
+import org.jeometry.common.date.Dates;
+import org.jeometry.common.exception.Exceptions;
+
+import com.revolsys.elevation.gridded.GriddedElevationModel;
+import com.revolsys.geometry.model.BoundingBox;
+import com.revolsys.geometry.model.GeometryFactory;
+import com.revolsys.jdbc.JdbcConnection;
+import com.revolsys.raster.GeoreferencedImage;
+import com.revolsys.raster.GeoreferencedImageWriter;
+import com.revolsys.spring.resource.Resource;
+
+/**
+ * Write a {@link GeoreferencedImage} or {@link GriddedElevationModel} to a GeoPackage tiles table
+ * as a pyramid of zoom levels.
+ *
+ * <p>
+ * The highest zoom level has the resolution of the source. Each lower zoom level has half the
+ * resolution and is built from the four tiles below it, down to the zoom level where the source
+ * fits in one tile. The tiles are built by a {@link RecursiveTask} for each tile on the
+ * {@link ForkJoinPool#commonPool()} so the zoom levels are built in parallel and the source is
+ * only read once. Tiles that don't overlap the source aren't written.
+ * </p>
+ *
+ * <p>
+ * Elevation models are written as 16-bit PNG tiles using the GeoPackage tiled gridded coverage
+ * extension with the scale and offset calculated from the min and max values of the model.
+ * </p>
+ */
+public class GeoPackageTileWriter implements GeoreferencedImageWriter {
+
+  private class ElevationTileSource extends TileSource {
+    private final GriddedElevationModel elevationModel;
+
+    private final double offset;
+
+    private final double scale;
+
+    private ElevationTileSource(final GriddedElevationModel elevationModel) {
+      super(elevationModel.getBoundingBox(), elevationModel.getGridCellWidth(),
+        elevationModel.getGridCellHeight());
+      this.elevationModel = elevationModel;
+      final double minValue = elevationModel.getMinValue();
+      final double maxValue = elevationModel.getMaxValue();
+      if (Double.isFinite(minValue) && Double.isFinite(maxValue)) {
+        this.offset = minValue;
+        final double range = maxValue - minValue;
+        if (range > 0) {
+          this.scale = range / (ELEVATION_NULL - 1);
+        } else {
+          this.scale = 1;
+        }
+      } else {
+        this.offset = 0;
+        this.scale = 1;
+      }
+    }
+
+    @Override
+    protected BufferedImage newParentTile(final GeoPackageTileMatrix tileMatrix,
+      final BufferedImage[] children) {
+      final int tileWidth = tileMatrix.getTileWidth();
+      final int tileHeight = tileMatrix.getTileHeight();
+      final BufferedImage tile = new BufferedImage(tileWidth, tileHeight,
+        BufferedImage.TYPE_USHORT_GRAY);
+      final WritableRaster raster = tile.getRaster();
+      final int halfWidth = tileWidth / 2;
+      final int halfHeight = tileHeight / 2;
+      for (int pixelY = 0; pixelY < tileHeight; pixelY++) {
+        for (int pixelX = 0; pixelX < tileWidth; pixelX++) {
+          final int childIndex = (pixelY < halfHeight ? 0 : 2) + (pixelX < halfWidth ? 0 : 1);
+          final BufferedImage child = children[childIndex];
+          int value = ELEVATION_NULL;
+          if (child != null) {
+            final Raster childRaster = child.getRaster();
+            final int childX = (pixelX % halfWidth) * 2;
+            final int childY = (pixelY % halfHeight) * 2;
+            long total = 0;
+            int count = 0;
+            for (int y = childY; y < childY + 2; y++) {
+              for (int x = childX; x < childX + 2; x++) {
+                final int childValue = childRaster.getSample(x, y, 0);
+                if (childValue != ELEVATION_NULL) {
+                  total += childValue;
+                  count++;
+                }
+              }
+            }
+            if (count > 0) {
+              value = (int)Math.round((double)total / count);
+            }
+          }
+          raster.setSample(pixelX, pixelY, 0, value);
+        }
+      }
+      return tile;
+    }
+
+    @Override
+    protected BufferedImage newTile(final GeoPackageTileMatrix tileMatrix,
+      final BoundingBox tileBoundingBox) {
+      final GriddedElevationModel elevationModel = this.elevationModel;
+      final int tileWidth = tileMatrix.getTileWidth();
+      final int tileHeight = tileMatrix.getTileHeight();
+      final double pixelXSize = tileMatrix.getPixelXSize();
+      final double pixelYSize = tileMatrix.getPixelYSize();
+      final double minX = tileBoundingBox.getMinX();
+      final double maxY = tileBoundingBox.getMaxY();
+      final BufferedImage tile = new BufferedImage(tileWidth, tileHeight,
+        BufferedImage.TYPE_USHORT_GRAY);
+      final WritableRaster raster = tile.getRaster();
+      boolean hasValue = false;
+      for (int pixelY = 0; pixelY < tileHeight; pixelY++) {
+        final double y = maxY - (pixelY + 0.5) * pixelYSize;
+        for (int pixelX = 0; pixelX < tileWidth; pixelX++) {
+          final double x = minX + (pixelX + 0.5) * pixelXSize;
+          final double elevation = elevationModel.getValue(x, y);
+          int value = ELEVATION_NULL;
+          if (Double.isFinite(elevation)) {
+            value = (int)Math.round((elevation - this.offset) / this.scale);
+            value = Math.max(0, Math.min(value, ELEVATION_NULL - 1));
+            hasValue = true;
+          }
+          raster.setSample(pixelX, pixelY, 0, value);
+        }
+      }
+      if (hasValue) {
+        return tile;
+      } else {
+        return null;
+      }
+    }
+  }
+
+  private class ImageTileSource extends TileSource {
+    private final BufferedImage image;
+
+    private ImageTileSource(final BoundingBox boundingBox, final BufferedImage image) {
+      super(boundingBox, boundingBox.getWidth() / image.getWidth(),
+        boundingBox.getHeight() / image.getHeight());
+      this.image = image;
+    }
+
+    private Graphics2D newGraphics(final BufferedImage tile) {
+      final Graphics2D graphics = tile.createGraphics();
+      graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+        RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+      if (tile.getType() == BufferedImage.TYPE_INT_RGB) {
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, tile.getWidth(), tile.getHeight());
+      }
+      return graphics;
+    }
+
+    private BufferedImage newImageTile(final GeoPackageTileMatrix tileMatrix) {
+      int imageType = BufferedImage.TYPE_INT_ARGB;
+      if (!"png".equalsIgnoreCase(GeoPackageTileWriter.this.formatName)) {
+        imageType = BufferedImage.TYPE_INT_RGB;
+      }
+      return new BufferedImage(tileMatrix.getTileWidth(), tileMatrix.getTileHeight(), imageType);
+    }
+
+    @Override
+    protected BufferedImage newParentTile(final GeoPackageTileMatrix tileMatrix,
+      final BufferedImage[] children) {
+      final BufferedImage tile = newImageTile(tileMatrix);
+      final int halfWidth = tile.getWidth() / 2;
+      final int halfHeight = tile.getHeight() / 2;
+      final Graphics2D graphics = newGraphics(tile);
+      try {
+        for (int i = 0; i < children.length; i++) {
+          final BufferedImage child = children[i];
+          if (child != null) {
+            final int x = i % 2 * halfWidth;
+            final int y = i / 2 * halfHeight;
+            graphics.drawImage(child, x, y, halfWidth, halfHeight, null);
+          }
+        }
+      } finally {
+        graphics.dispose();
+      }
+      return tile;
+    }
+
+    @Override
+    protected BufferedImage newTile(final GeoPackageTileMatrix tileMatrix,
+      final BoundingBox tileBoundingBox) {
+      final double pixelXSize = tileMatrix.getPixelXSize();
+      final double pixelYSize = tileMatrix.getPixelYSize();
+      final BufferedImage tile = newImageTile(tileMatrix);
+      final Graphics2D graphics = newGraphics(tile);
+      try {
+        final AffineTransform transform = new AffineTransform(this.resolutionX / pixelXSize, 0, 0,
+          this.resolutionY / pixelYSize,
+          (this.boundingBox.getMinX() - tileBoundingBox.getMinX()) / pixelXSize,
+          (tileBoundingBox.getMaxY() - this.boundingBox.getMaxY()) / pixelYSize);
+        graphics.drawImage(this.image, transform, null);
+      } finally {
+        graphics.dispose();
+      }
+      return tile;
+    }
+  }
+
+  private class TileTask extends RecursiveTask<BufferedImage> {
+    private static final long serialVersionUID = 1L;
+
+    private final TileSource source;
+
+    private final int zoomLevel;
+
+    private final int tileColumn;
+
+    private final int tileRow;
+
+    private TileTask(final TileSource source, final int zoomLevel, final int tileColumn,
+      final int tileRow) {
+      this.source = source;
+      this.zoomLevel = zoomLevel;
+      this.tileColumn = tileColumn;
+      this.tileRow = tileRow;
+    }
+
+    @Override
+    protected BufferedImage compute() {
+      final List<GeoPackageTileMatrix> tileMatrices = this.source.tileMatrices;
+      final GeoPackageTileMatrix tileMatrix = tileMatrices.get(this.zoomLevel);
+      final BoundingBox tileBoundingBox = tileMatrix.newTileBoundingBox(this.tileColumn,
+        this.tileRow);
+      if (!tileBoundingBox.bboxIntersects(this.source.boundingBox)) {
+        return null;
+      }
+      BufferedImage tile;
+      if (this.zoomLevel == tileMatrices.size() - 1) {
+        tile = this.source.newTile(tileMatrix, tileBoundingBox);
+      } else {
+        final List<TileTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+          final int childColumn = this.tileColumn * 2 + i % 2;
+          final int childRow = this.tileRow * 2 + i / 2;
+          tasks.add(new TileTask(this.source, this.zoomLevel + 1, childColumn, childRow));
+        }
+        ForkJoinTask.invokeAll(tasks);
+        final BufferedImage[] children = new BufferedImage[4];
+        boolean hasChild = false;
+        for (int i = 0; i < 4; i++) {
+          final BufferedImage child = tasks.get(i).join();
+          children[i] = child;
+          hasChild |= child != null;
+        }
+        if (hasChild) {
+          tile = this.source.newParentTile(tileMatrix, children);
+        } else {
+          tile = null;
+        }
+      }
+      if (tile != null) {
+        final byte[] tileData = encodeTile(tile);
+        insertTile(this.zoomLevel, this.tileColumn, this.tileRow, tileData);
+      }
+      return tile;
+    }
+  }
+
+  private abstract class TileSource {
+    protected final BoundingBox boundingBox;
+
+    protected final double resolutionX;
+
+    protected final double resolutionY;
+
+    private final List<GeoPackageTileMatrix> tileMatrices = new ArrayList<>();
+
+    private BoundingBox tileMatrixSetBoundingBox;
+
+    private TileSource(final BoundingBox boundingBox, final double resolutionX,
+      final double resolutionY) {
+      this.boundingBox = boundingBox;
+      this.resolutionX = resolutionX;
+      this.resolutionY = resolutionY;
+      final int tileWidth = GeoPackageTileWriter.this.tileWidth;
+      final int tileHeight = GeoPackageTileWriter.this.tileHeight;
+      final int maxMatrixWidth = (int)Math
+        .ceil(boundingBox.getWidth() / (resolutionX * tileWidth));
+      final int maxMatrixHeight = (int)Math
+        .ceil(boundingBox.getHeight() / (resolutionY * tileHeight));
+      int zoomLevelCount = GeoPackageTileWriter.this.zoomLevelCount;
+      if (zoomLevelCount <= 0) {
+        zoomLevelCount = 1;
+        while (1 << zoomLevelCount - 1 < Math.max(maxMatrixWidth, maxMatrixHeight)) {
+          zoomLevelCount++;
+        }
+      }
+      final int maxZoomLevel = zoomLevelCount - 1;
+      final int factor = 1 << maxZoomLevel;
+      final int matrixWidth = Math.max(1, (maxMatrixWidth + factor - 1) / factor);
+      final int matrixHeight = Math.max(1, (maxMatrixHeight + factor - 1) / factor);
+
+      final double minX = boundingBox.getMinX();
+      final double maxY = boundingBox.getMaxY();
+      final double maxX = minX + matrixWidth * tileWidth * resolutionX * factor;
+      final double minY = maxY - matrixHeight * tileHeight * resolutionY * factor;
+      final GeometryFactory geometryFactory = boundingBox.getGeometryFactory();
+      this.tileMatrixSetBoundingBox = geometryFactory.newBoundingBox(minX, minY, maxX, maxY);
+      for (int zoomLevel = 0; zoomLevel < zoomLevelCount; zoomLevel++) {
+        final int levelFactor = 1 << maxZoomLevel - zoomLevel;
+        final GeoPackageTileMatrix tileMatrix = new GeoPackageTileMatrix(
+          this.tileMatrixSetBoundingBox, zoomLevel, matrixWidth << zoomLevel,
+          matrixHeight << zoomLevel, tileWidth, tileHeight, resolutionX * levelFactor,
+          resolutionY * levelFactor);
+        this.tileMatrices.add(tileMatrix);
+      }
+    }
+
+    protected abstract BufferedImage newParentTile(GeoPackageTileMatrix tileMatrix,
+      BufferedImage[] children);
+
+    protected abstract BufferedImage newTile(GeoPackageTileMatrix tileMatrix,
+      BoundingBox tileBoundingBox);
+  }
+
+  private static final String GRIDDED_COVERAGE_DEFINITION = "http://docs.opengeospatial.org/is/17-066r1/17-066r1.html";
+
+  private static final int ELEVATION_NULL = 65535;
+
+  private final boolean closeRecordStore;
+
+  private JdbcConnection connection;
+
+  private String formatName = "png";
+
+  private GeometryFactory geometryFactory;
+
+  private PreparedStatement insertTileAncillaryStatement;
+
+  private PreparedStatement insertTileStatement;
+
+  private final GeoPackageRecordStore recordStore;
+
+  private String tableName;
+
+  private int tileHeight = 256;
+
+  private int tileWidth = 256;
+
+  private int zoomLevelCount;
+
+  public GeoPackageTileWriter(final GeoPackageRecordStore recordStore) {
+    this(recordStore, "tiles");
+  }
+
+  public GeoPackageTileWriter(final GeoPackageRecordStore recordStore, final String tableName) {
+    this.recordStore = recordStore;
+    this.tableName = tableName;
+    this.closeRecordStore = false;
+  }
+
+  /**
+   * Create a writer for the GeoPackage file, creating the file if it doesn't exist. The record
+   * store is closed when the writer is closed.
+   */
+  public GeoPackageTileWriter(final Resource resource) {
+    this.recordStore = GeoPackage.createRecordStore(resource);
+    this.tableName = "tiles";
+    this.closeRecordStore = true;
+  }
+
+  @Override
+  public void close() {
+    if (this.closeRecordStore) {
+      this.recordStore.close();
+    }
+  }
+
+  private void createGriddedCoverageTables() throws SQLException {
+    executeSql("CREATE TABLE IF NOT EXISTS gpkg_2d_gridded_coverage_ancillary ("
+      + "id INTEGER PRIMARY KEY AUTOINCREMENT," //
+      + "tile_matrix_set_name TEXT NOT NULL UNIQUE," //
+      + "datatype TEXT NOT NULL DEFAULT 'integer'," //
+      + "scale REAL NOT NULL DEFAULT 1.0," //
+      + "offset REAL NOT NULL DEFAULT 0.0," //
+      + "precision REAL DEFAULT 1.0," //
+      + "data_null REAL," //
+      + "grid_cell_encoding TEXT DEFAULT 'grid-value-is-center'," //
+      + "uom TEXT," //
+      + "field_name TEXT DEFAULT 'Height'," //
+      + "quantity_definition TEXT DEFAULT 'Height'," //
+      + "CONSTRAINT fk_g2dgtct_name FOREIGN KEY(tile_matrix_set_name) REFERENCES gpkg_tile_matrix_set(table_name),"
+      + "CHECK (datatype in ('integer','float')))");
+    executeSql("CREATE TABLE IF NOT EXISTS gpkg_2d_gridded_tile_ancillary ("
+      + "id INTEGER PRIMARY KEY AUTOINCREMENT," //
+      + "tpudt_name TEXT NOT NULL," //
+      + "tpudt_id INTEGER NOT NULL," //
+      + "scale REAL NOT NULL DEFAULT 1.0," //
+      + "offset REAL NOT NULL DEFAULT 0.0," //
+      + "min REAL DEFAULT NULL," //
+      + "max REAL DEFAULT NULL," //
+      + "mean REAL DEFAULT NULL," //
+      + "std_dev REAL DEFAULT NULL," //
+      + "CONSTRAINT fk_g2dgtat_name FOREIGN KEY (tpudt_name) REFERENCES gpkg_contents(table_name),"
+      + "UNIQUE (tpudt_name, tpudt_id))");
+    for (final String tableName : new String[] {
+      "gpkg_2d_gridded_coverage_ancillary", "gpkg_2d_gridded_tile_ancillary", this.tableName
+    }) {
+      try (
+        PreparedStatement statement = this.connection.prepareStatement(
+          "INSERT OR IGNORE INTO gpkg_extensions (table_name, column_name, extension_name, definition, scope) VALUES (?, ?, 'gpkg_2d_gridded_coverage', ?, 'read-write')")) {
+        statement.setString(1, tableName);
+        if (tableName.equals(this.tableName)) {
+          statement.setString(2, "tile_data");
+        } else {
+          statement.setString(2, null);
+        }
+        statement.setString(3, GRIDDED_COVERAGE_DEFINITION);
+        statement.executeUpdate();
+      }
+    }
+  }
+
+  private byte[] encodeTile(final BufferedImage tile) {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try {
+      String formatName = this.formatName;
+      if (tile.getType() == BufferedImage.TYPE_USHORT_GRAY) {
+        formatName = "png";
+      }
+      if (!ImageIO.write(tile, formatName, out)) {
+        throw new IllegalArgumentException("Cannot find writer for: " + formatName);
+      }
+    } catch (final IOException e) {
+      throw Exceptions.wrap("Unable to encode tile", e);
+    }
+    return out.toByteArray();
+  }
+
+  private void executeSql(final String sql) throws SQLException {
+    try (
+      Statement statement = this.connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+
+  public String getFormatName() {
+    return this.formatName;
+  }
+
+  public GeometryFactory getGeometryFactory() {
+    return this.geometryFactory;
+  }
+
+  public String getTableName() {
+    return this.tableName;
+  }
+
+  public int getTileHeight() {
+    return this.tileHeight;
+  }
+
+  public int getTileWidth() {
+    return this.tileWidth;
+  }
+
+  public int getZoomLevelCount() {
+    return this.zoomLevelCount;
+  }
+
+  private void insertMetaData(final TileSource source, final String dataType)
+    throws SQLException {
+    final String tableName = this.tableName;
+    executeSql("CREATE TABLE \"" + tableName + "\" (" //
+      + "id INTEGER PRIMARY KEY AUTOINCREMENT," //
+      + "zoom_level INTEGER NOT NULL," //
+      + "tile_column INTEGER NOT NULL," //
+      + "tile_row INTEGER NOT NULL," //
+      + "tile_data BLOB NOT NULL," //
+      + "UNIQUE (zoom_level, tile_column, tile_row))");
+
+    final BoundingBox boundingBox = source.boundingBox;
+    final int coordinateSystemId = boundingBox.getHorizontalCoordinateSystemId();
+    try (
+      PreparedStatement statement = this.connection.prepareStatement(
+        "INSERT INTO gpkg_contents (table_name, data_type, identifier, description, last_change, min_x, min_y, max_x, max_y, srs_id) VALUES (?, ?, ?, '', ?, ?, ?, ?, ?, ?)")) {
+      statement.setString(1, tableName);
+      statement.setString(2, dataType);
+      statement.setString(3, tableName);
+      statement.setString(4, Dates.format("yyyy-MM-dd'T'HH:mm'Z'"));
+      statement.setDouble(5, boundingBox.getMinX());
+      statement.setDouble(6, boundingBox.getMinY());
+      statement.setDouble(7, boundingBox.getMaxX());
+      statement.setDouble(8, boundingBox.getMaxY());
+      statement.setInt(9, coordinateSystemId);
+      statement.executeUpdate();
+    }
+
+    final BoundingBox tileMatrixSetBoundingBox = source.tileMatrixSetBoundingBox;
+    try (
+      PreparedStatement statement = this.connection.prepareStatement(
+        "INSERT INTO gpkg_tile_matrix_set (table_name, srs_id, min_x, min_y, max_x, max_y) VALUES (?, ?, ?, ?, ?, ?)")) {
+      statement.setString(1, tableName);
+      statement.setInt(2, coordinateSystemId);
+      statement.setDouble(3, tileMatrixSetBoundingBox.getMinX());
+      statement.setDouble(4, tileMatrixSetBoundingBox.getMinY());
+      statement.setDouble(5, tileMatrixSetBoundingBox.getMaxX());
+      statement.setDouble(6, tileMatrixSetBoundingBox.getMaxY());
+      statement.executeUpdate();
+    }
+
+    try (
+      PreparedStatement statement = this.connection.prepareStatement(
+        "INSERT INTO gpkg_tile_matrix (table_name, zoom_level, matrix_width, matrix_height, tile_width, tile_height, pixel_x_size, pixel_y_size) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+      for (final GeoPackageTileMatrix tileMatrix : source.tileMatrices) {
+        statement.setString(1, tableName);
+        statement.setInt(2, tileMatrix.getZoomLevel());
+        statement.setInt(3, tileMatrix.getMatrixWidth());
+        statement.setInt(4, tileMatrix.getMatrixHeight());
+        statement.setInt(5, tileMatrix.getTileWidth());
+        statement.setInt(6, tileMatrix.getTileHeight());
+        statement.setDouble(7, tileMatrix.getPixelXSize());
+        statement.setDouble(8, tileMatrix.getPixelYSize());
+        statement.executeUpdate();
+      }
+    }
+
+    if (source instanceof ElevationTileSource) {
+      final ElevationTileSource elevationSource = (ElevationTileSource)source;
+      createGriddedCoverageTables();
+      try (
+        PreparedStatement statement = this.connection.prepareStatement(
+          "INSERT INTO gpkg_2d_gridded_coverage_ancillary (tile_matrix_set_name, datatype, scale, offset, data_null) VALUES (?, 'integer', ?, ?, ?)")) {
+        statement.setString(1, tableName);
+        statement.setDouble(2, elevationSource.scale);
+        statement.setDouble(3, elevationSource.offset);
+        statement.setDouble(4, ELEVATION_NULL);
+        statement.executeUpdate();
+      }
+    }
+  }
+
+  private synchronized void insertTile(final int zoomLevel, final int tileColumn,
+    final int tileRow, final byte[] tileData) {
+    try {
+      final PreparedStatement statement = this.insertTileStatement;
+      statement.setInt(1, zoomLevel);
+      statement.setInt(2, tileColumn);
+      statement.setInt(3, tileRow);
+      statement.setBytes(4, tileData);
+      statement.executeUpdate();
+      if (this.insertTileAncillaryStatement != null) {
+        this.insertTileAncillaryStatement.executeUpdate();
+      }
+    } catch (final SQLException e) {
+      throw this.connection.getException("Insert tile", null, e);
+    }
+  }
+
+  public void setFormatName(final String formatName) {
+    this.formatName = formatName;
+  }
+
+  public void setGeometryFactory(final GeometryFactory geometryFactory) {
+    this.geometryFactory = geometryFactory;
+  }
+
+  public void setTableName(final String tableName) {
+    this.tableName = tableName;
+  }
+
+  public void setTileHeight(final int tileHeight) {
+    this.tileHeight = tileHeight;
+  }
+
+  /**
+   * Set the tile width and height in pixels. The default is 256.
+   */
+  public void setTileSize(final int tileSize) {
+    this.tileWidth = tileSize;
+    this.tileHeight = tileSize;
+  }
+
+  public void setTileWidth(final int tileWidth) {
+    this.tileWidth = tileWidth;
+  }
+
+  /**
+   * Set the number of zoom levels. The default of 0 creates zoom levels until the source fits in
+   * one tile.
+   */
+  public void setZoomLevelCount(final int zoomLevelCount) {
+    this.zoomLevelCount = zoomLevelCount;
+  }
+
+  @Override
+  public String toString() {
+    return this.recordStore + "/" + this.tableName;
+  }
+
+  /**
+   * Write the elevation model to a new 2d-gridded-coverage tiles table. The tiles are in the
+   * coordinate system of the elevation model.
+   */
+  public void write(final GriddedElevationModel elevationModel) {
+    final ElevationTileSource source = new ElevationTileSource(elevationModel);
+    writeTiles(source, "2d-gridded-coverage");
+  }
+
+  /**
+   * Write the image to a new tiles table. The image is converted to the
+   * {@link #getGeometryFactory()} coordinate system if one was set.
+   */
+  @Override
+  public void write(final GeoreferencedImage sourceImage) {
+    GeoreferencedImage image = sourceImage;
+    if (this.geometryFactory != null) {
+      image = image.imageToCs(this.geometryFactory);
+    }
+    final BufferedImage bufferedImage = image.getBufferedImage();
+    final ImageTileSource source = new ImageTileSource(image.getBoundingBox(), bufferedImage);
+    writeTiles(source, "tiles");
+  }
+
+  private void writeTiles(final TileSource source, final String dataType) {
+    final String tableName = this.tableName;
+    if (this.recordStore.isTableExists(tableName)) {
+      throw new IllegalArgumentException(
+        "Table " + tableName + " already exists in " + this.recordStore);
+    }
+    this.recordStore.createTileMatrixTables();
+    this.recordStore.addSpatialRefSys(source.boundingBox.getHorizontalCoordinateSystem());
+    try (
+      JdbcConnection connection = this.recordStore.getJdbcConnection(false)) {
+      this.connection = connection;
+      try {
+        insertMetaData(source, dataType);
+        this.insertTileStatement = connection.prepareStatement("INSERT INTO \"" + tableName
+          + "\" (zoom_level, tile_column, tile_row, tile_data) VALUES (?, ?, ?, ?)");
+        if (source instanceof ElevationTileSource) {
+          this.insertTileAncillaryStatement = connection.prepareStatement(
+            "INSERT INTO gpkg_2d_gridded_tile_ancillary (tpudt_name, tpudt_id) VALUES ('"
+              + tableName + "', last_insert_rowid())");
+        }
+        final GeoPackageTileMatrix tileMatrix = source.tileMatrices.get(0);
+        final List<TileTask> tasks = new ArrayList<>();
+        for (int tileRow = 0; tileRow < tileMatrix.getMatrixHeight(); tileRow++) {
+          for (int tileColumn = 0; tileColumn < tileMatrix.getMatrixWidth(); tileColumn++) {
+            tasks.add(new TileTask(source, 0, tileColumn, tileRow));
+          }
+        }
+        ForkJoinTask.invokeAll(tasks);
+        connection.commit();
+      } catch (final SQLException e) {
+        throw connection.getException("Write tiles", null, e);
+      } finally {
+        try {
+          if (this.insertTileStatement != null) {
+            this.insertTileStatement.close();
+          }
+          if (this.insertTileAncillaryStatement != null) {
+            this.insertTileAncillaryStatement.close();
+          }
+        } catch (final SQLException e) {
+        }
+        this.insertTileStatement = null;
+        this.insertTileAncillaryStatement = null;
+        this.connection = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package com.revolsys.geopackage.function;
+
+import java.sql.SQLException;
+
+import org.sqlite.Function;
+import org.sqlite.SQLiteConnection;
+
+import com.revolsys.geometry.index.hprtree.HilbertPackedRTree;
+
+/**
+ * RS_HilbertCode(minx, maxx, miny, maxy) returns the Hilbert code of the centre of the envelope
+ * within the extent used to create the function. Used to insert rows in spatial order.
+ */
+public class GeoPackageHilbertCodeFunction extends Function {
+
+  public static void add(final SQLiteConnection dbConnection, final double minX,
+    final double minY, final double maxX, final double maxY) throws SQLException {
+    final GeoPackageHilbertCodeFunction function = new GeoPackageHilbertCodeFunction(minX, minY,
+      maxX, maxY);
+    Function.create(dbConnection, "RS_HilbertCode", function, 4, 0);
+  }
+
+  private final double minX;
+
+  private final double minY;
+
+  private final double scaleX;
+
+  private final double scaleY;
+
+  public GeoPackageHilbertCodeFunction(final double minX, final double minY, final double maxX,
+    final double maxY) {
+    this.minX = minX;
+    this.minY = minY;
+    final double width = maxX - minX;
+    final double height = maxY - minY;
+    this.scaleX = width > 0 ? (HilbertPackedRTree.HILBERT_SIZE - 1) / width : 0;
+    this.scaleY = height > 0 ? (HilbertPackedRTree.HILBERT_SIZE - 1) / height : 0;
+  }
+
+  @Override
+  protected void xFunc() throws SQLException {
+    final int argCount = args();
+    if (argCount != 4) {
+      throw new SQLException("Four arguments are required. args: " + argCount);
+    }
+    final double centreX = (value_double(0) + value_double(1)) / 2;
+    final double centreY = (value_double(2) + value_double(3)) / 2;
+    int x = 0;
+    int y = 0;
+    if (Double.isFinite(centreX) && Double.isFinite(centreY)) {
+      x = (int)((centreX - this.minX) * this.scaleX);
+      y = (int)((centreY - this.minY) * this.scaleY);
+    }
+    result(HilbertPackedRTree.hilbertCode(x, y));
+  }
+
+}
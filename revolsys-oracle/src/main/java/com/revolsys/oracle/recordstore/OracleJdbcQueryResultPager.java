@@ -22,6 +22,15 @@ public class OracleJdbcQueryResultPager extends JdbcQueryResultPager {
     super(recordStore, properties, query);
   }
 
+  /**
+   * Add a ROWNUM limit so Oracle can stop the sorted query after the page.
+   */
+  @Override
+  protected String getKeysetSql(final Query query, final int limit) {
+    final String sql = super.getKeysetSql(query, limit);
+    return "SELECT * FROM (" + sql + ") WHERE ROWNUM <= " + limit;
+  }
+
   /**
    * Update the cached results for the current page.
    */
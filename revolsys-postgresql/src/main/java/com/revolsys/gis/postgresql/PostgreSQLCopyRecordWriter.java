@@ -0,0 +1,791 @@
+package com.revolsys.gis.postgresql;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.PreDestroy;
+
+import org.jeometry.common.data.type.DataTypes;
+import org.jeometry.common.date.Dates;
+import org.jeometry.common.exception.Exceptions;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.postgresql.jdbc.PgConnection;
+
+import com.revolsys.gis.postgresql.type.PostgreSQLGeometryJdbcFieldDefinition;
+import com.revolsys.io.AbstractRecordWriter;
+import com.revolsys.io.FileUtil;
+import com.revolsys.jdbc.JdbcConnection;
+import com.revolsys.jdbc.field.JdbcFieldDefinition;
+import com.revolsys.jdbc.io.JdbcRecordDefinition;
+import com.revolsys.record.Record;
+import com.revolsys.record.RecordState;
+import com.revolsys.record.io.format.json.Json;
+import com.revolsys.record.schema.FieldDefinition;
+import com.revolsys.record.schema.RecordDefinition;
+import com.revolsys.record.schema.RecordDefinitionProxy;
+import com.revolsys.transaction.Transaction;
+import com.revolsys.util.Booleans;
+
+/**
+ * Bulk load records into a PostgreSQL table using <code>COPY ... FROM STDIN (FORMAT BINARY)</code>.
+ * Each value is encoded directly into the PostgreSQL binary format for the column type (geometry
+ * columns are written as EWKB). The records are only visible to other connections once the writer
+ * is closed.
+ *
+ * <p>If {@link #setUseStagingTable(boolean)} is set the records are copied into an unlogged
+ * staging table and merged into the table when the writer is closed. Records with the same
+ * primary key as an existing row update that row.</p>
+ */
+public class PostgreSQLCopyRecordWriter extends AbstractRecordWriter {
+  interface CopyEncoder {
+    void encode(DataOutputStream out, Object value) throws IOException;
+  }
+
+  private static final byte[] COPY_HEADER = {
+    'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte)0xFF, '\r', '\n', 0
+  };
+
+  private static final int NUMERIC_NAN = 0xC000;
+
+  private static final int NUMERIC_NEGATIVE_INFINITY = 0xF000;
+
+  private static final int NUMERIC_POSITIVE_INFINITY = 0xD000;
+
+  private static final long POSTGRES_EPOCH_DAY = 10957;
+
+  private static final long POSTGRES_EPOCH_SECONDS = 946684800;
+
+  private static final Map<String, CopyEncoder> ENCODER_BY_TYPE_NAME = new HashMap<>();
+
+  static {
+    ENCODER_BY_TYPE_NAME.put("bool", PostgreSQLCopyRecordWriter::writeBoolean);
+    ENCODER_BY_TYPE_NAME.put("int2", PostgreSQLCopyRecordWriter::writeShort);
+    ENCODER_BY_TYPE_NAME.put("int4", PostgreSQLCopyRecordWriter::writeInt);
+    ENCODER_BY_TYPE_NAME.put("int8", PostgreSQLCopyRecordWriter::writeLong);
+    ENCODER_BY_TYPE_NAME.put("float4", PostgreSQLCopyRecordWriter::writeFloat);
+    ENCODER_BY_TYPE_NAME.put("float8", PostgreSQLCopyRecordWriter::writeDouble);
+    ENCODER_BY_TYPE_NAME.put("numeric", PostgreSQLCopyRecordWriter::writeNumeric);
+    ENCODER_BY_TYPE_NAME.put("text", PostgreSQLCopyRecordWriter::writeString);
+    ENCODER_BY_TYPE_NAME.put("varchar", PostgreSQLCopyRecordWriter::writeString);
+    ENCODER_BY_TYPE_NAME.put("bpchar", PostgreSQLCopyRecordWriter::writeString);
+    ENCODER_BY_TYPE_NAME.put("name", PostgreSQLCopyRecordWriter::writeString);
+    ENCODER_BY_TYPE_NAME.put("json", PostgreSQLCopyRecordWriter::writeJson);
+    ENCODER_BY_TYPE_NAME.put("jsonb", PostgreSQLCopyRecordWriter::writeJsonb);
+    ENCODER_BY_TYPE_NAME.put("date", PostgreSQLCopyRecordWriter::writeDate);
+    ENCODER_BY_TYPE_NAME.put("timestamp", PostgreSQLCopyRecordWriter::writeTimestamp);
+    ENCODER_BY_TYPE_NAME.put("timestamptz", PostgreSQLCopyRecordWriter::writeTimestampTz);
+    ENCODER_BY_TYPE_NAME.put("bytea", PostgreSQLCopyRecordWriter::writeBytes);
+    ENCODER_BY_TYPE_NAME.put("uuid", PostgreSQLCopyRecordWriter::writeUuid);
+  }
+
+  static CopyEncoder getEncoder(final String typeName) {
+    return ENCODER_BY_TYPE_NAME.get(typeName);
+  }
+
+  static CopyEncoder newArrayEncoder(final CopyEncoder elementEncoder,
+    final int elementTypeId) {
+    return (out, value) -> {
+      List<?> values;
+      if (value instanceof List) {
+        values = (List<?>)value;
+      } else if (value instanceof Collection) {
+        values = new ArrayList<>((Collection<?>)value);
+      } else if (value instanceof Object[]) {
+        values = Arrays.asList((Object[])value);
+      } else {
+        values = Arrays.asList(value);
+      }
+      boolean hasNull = false;
+      for (final Object element : values) {
+        if (element == null) {
+          hasNull = true;
+        }
+      }
+      final ByteArrayOutputStream arrayBytes = new ByteArrayOutputStream();
+      final DataOutputStream arrayOut = new DataOutputStream(arrayBytes);
+      if (values.isEmpty()) {
+        arrayOut.writeInt(0);
+        arrayOut.writeInt(0);
+        arrayOut.writeInt(elementTypeId);
+      } else {
+        arrayOut.writeInt(1);
+        arrayOut.writeInt(hasNull ? 1 : 0);
+        arrayOut.writeInt(elementTypeId);
+        arrayOut.writeInt(values.size());
+        arrayOut.writeInt(1);
+        for (final Object element : values) {
+          if (element == null) {
+            arrayOut.writeInt(-1);
+          } else {
+            elementEncoder.encode(arrayOut, element);
+          }
+        }
+      }
+      arrayOut.flush();
+      out.writeInt(arrayBytes.size());
+      arrayBytes.writeTo(out);
+    };
+  }
+
+  static CopyEncoder newGeometryEncoder(final PostgreSQLGeometryJdbcFieldDefinition field) {
+    return (out, value) -> {
+      try {
+        final byte[] ewkb = field.getInsertUpdateValue(value);
+        if (ewkb == null) {
+          out.writeInt(-1);
+        } else {
+          writeBytes(out, ewkb);
+        }
+      } catch (final SQLException e) {
+        throw Exceptions.wrap(e);
+      }
+    };
+  }
+
+  static String quoteIdentifier(final String name) {
+    return '"' + name.replace("\"", "\"\"") + '"';
+  }
+
+  private static void writeBoolean(final DataOutputStream out, final Object value)
+    throws IOException {
+    final boolean booleanValue = Booleans.getBoolean(value);
+    out.writeInt(1);
+    out.writeByte(booleanValue ? 1 : 0);
+  }
+
+  private static void writeBytes(final DataOutputStream out, final byte[] bytes)
+    throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static void writeBytes(final DataOutputStream out, final Object value)
+    throws IOException {
+    if (value instanceof byte[]) {
+      writeBytes(out, (byte[])value);
+    } else {
+      throw new IllegalArgumentException("Expecting a byte[] not " + value.getClass());
+    }
+  }
+
+  private static void writeDate(final DataOutputStream out, final Object value)
+    throws IOException {
+    final Date date = Dates.getSqlDate(value);
+    final long epochDay = date.toLocalDate().toEpochDay();
+    out.writeInt(4);
+    out.writeInt((int)(epochDay - POSTGRES_EPOCH_DAY));
+  }
+
+  private static void writeDouble(final DataOutputStream out, final Object value)
+    throws IOException {
+    double doubleValue;
+    if (value instanceof Number) {
+      doubleValue = ((Number)value).doubleValue();
+    } else {
+      doubleValue = Double.parseDouble(value.toString());
+    }
+    out.writeInt(8);
+    out.writeDouble(doubleValue);
+  }
+
+  private static void writeFloat(final DataOutputStream out, final Object value)
+    throws IOException {
+    float floatValue;
+    if (value instanceof Number) {
+      floatValue = ((Number)value).floatValue();
+    } else {
+      floatValue = Float.parseFloat(value.toString());
+    }
+    out.writeInt(4);
+    out.writeFloat(floatValue);
+  }
+
+  static void writeHeader(final DataOutputStream out) throws IOException {
+    out.write(COPY_HEADER);
+    out.writeInt(0);
+    out.writeInt(0);
+  }
+
+  private static void writeInt(final DataOutputStream out, final Object value)
+    throws IOException {
+    int intValue;
+    if (value instanceof Number) {
+      intValue = ((Number)value).intValue();
+    } else {
+      intValue = Integer.parseInt(value.toString());
+    }
+    out.writeInt(4);
+    out.writeInt(intValue);
+  }
+
+  private static void writeJson(final DataOutputStream out, final Object value)
+    throws IOException {
+    final String json = toJsonString(value);
+    final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    writeBytes(out, bytes);
+  }
+
+  private static void writeJsonb(final DataOutputStream out, final Object value)
+    throws IOException {
+    final String json = toJsonString(value);
+    final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    // jsonb binary format is a version number followed by the JSON text
+    out.writeInt(bytes.length + 1);
+    out.writeByte(1);
+    out.write(bytes);
+  }
+
+  private static void writeLong(final DataOutputStream out, final Object value)
+    throws IOException {
+    long longValue;
+    if (value instanceof Number) {
+      longValue = ((Number)value).longValue();
+    } else {
+      longValue = Long.parseLong(value.toString());
+    }
+    out.writeInt(8);
+    out.writeLong(longValue);
+  }
+
+  /**
+   * Write a numeric using the PostgreSQL binary format of base 10000 digits.
+   */
+  private static void writeNumeric(final DataOutputStream out, final Object value)
+    throws IOException {
+    BigDecimal number;
+    if (value instanceof BigDecimal) {
+      number = (BigDecimal)value;
+    } else if (value instanceof Double || value instanceof Float) {
+      final double doubleValue = ((Number)value).doubleValue();
+      if (Double.isNaN(doubleValue)) {
+        writeNumericSpecial(out, NUMERIC_NAN);
+        return;
+      } else if (doubleValue == Double.POSITIVE_INFINITY) {
+        writeNumericSpecial(out, NUMERIC_POSITIVE_INFINITY);
+        return;
+      } else if (doubleValue == Double.NEGATIVE_INFINITY) {
+        writeNumericSpecial(out, NUMERIC_NEGATIVE_INFINITY);
+        return;
+      } else {
+        number = BigDecimal.valueOf(doubleValue);
+      }
+    } else {
+      number = new BigDecimal(value.toString().trim());
+    }
+    if (number.scale() < 0) {
+      number = number.setScale(0);
+    }
+    final int displayScale = number.scale();
+    final boolean negative = number.signum() < 0;
+    final String digits = number.unscaledValue().abs().toString();
+
+    final StringBuilder integerDigits = new StringBuilder();
+    final StringBuilder fractionDigits = new StringBuilder();
+    final int digitCount = digits.length();
+    if (displayScale == 0) {
+      integerDigits.append(digits);
+    } else if (digitCount > displayScale) {
+      integerDigits.append(digits, 0, digitCount - displayScale);
+      fractionDigits.append(digits, digitCount - displayScale, digitCount);
+    } else {
+      integerDigits.append('0');
+      for (int i = digitCount; i < displayScale; i++) {
+        fractionDigits.append('0');
+      }
+      fractionDigits.append(digits);
+    }
+    while (integerDigits.length() % 4 != 0) {
+      integerDigits.insert(0, '0');
+    }
+    while (fractionDigits.length() % 4 != 0) {
+      fractionDigits.append('0');
+    }
+    final String allDigits = integerDigits.append(fractionDigits).toString();
+    final int groupCount = allDigits.length() / 4;
+    final short[] groups = new short[groupCount];
+    for (int i = 0; i < groupCount; i++) {
+      groups[i] = Short.parseShort(allDigits.substring(i * 4, i * 4 + 4));
+    }
+    int weight = (allDigits.length() - fractionDigits.length()) / 4 - 1;
+    int startIndex = 0;
+    while (startIndex < groupCount && groups[startIndex] == 0) {
+      startIndex++;
+      weight--;
+    }
+    int endIndex = groupCount;
+    while (endIndex > startIndex && groups[endIndex - 1] == 0) {
+      endIndex--;
+    }
+    final int numericDigitCount = endIndex - startIndex;
+    if (numericDigitCount == 0) {
+      weight = 0;
+    }
+    out.writeInt(8 + numericDigitCount * 2);
+    out.writeShort(numericDigitCount);
+    out.writeShort(weight);
+    out.writeShort(negative ? 0x4000 : 0);
+    out.writeShort(displayScale);
+    for (int i = startIndex; i < endIndex; i++) {
+      out.writeShort(groups[i]);
+    }
+  }
+
+  /**
+   * Write a NaN or infinity numeric, infinity requires PostgreSQL 14 or later.
+   */
+  private static void writeNumericSpecial(final DataOutputStream out, final int sign)
+    throws IOException {
+    out.writeInt(8);
+    out.writeShort(0);
+    out.writeShort(0);
+    out.writeShort(sign);
+    out.writeShort(0);
+  }
+
+  private static void writeShort(final DataOutputStream out, final Object value)
+    throws IOException {
+    short shortValue;
+    if (value instanceof Number) {
+      shortValue = ((Number)value).shortValue();
+    } else {
+      shortValue = Short.parseShort(value.toString());
+    }
+    out.writeInt(2);
+    out.writeShort(shortValue);
+  }
+
+  private static void writeString(final DataOutputStream out, final Object value)
+    throws IOException {
+    final String string = DataTypes.toString(value);
+    final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+    writeBytes(out, bytes);
+  }
+
+  private static void writeTimestamp(final DataOutputStream out, final Object value)
+    throws IOException {
+    final Timestamp timestamp = Dates.getTimestamp(value);
+    final long seconds = timestamp.toLocalDateTime().toEpochSecond(ZoneOffset.UTC);
+    final long micros = (seconds - POSTGRES_EPOCH_SECONDS) * 1000000
+      + timestamp.getNanos() / 1000;
+    out.writeInt(8);
+    out.writeLong(micros);
+  }
+
+  private static void writeTimestampTz(final DataOutputStream out, final Object value)
+    throws IOException {
+    final Timestamp timestamp = Dates.getTimestamp(value);
+    final Instant instant = timestamp.toInstant();
+    final long micros = (instant.getEpochSecond() - POSTGRES_EPOCH_SECONDS) * 1000000
+      + instant.getNano() / 1000;
+    out.writeInt(8);
+    out.writeLong(micros);
+  }
+
+  static void writeTrailer(final DataOutputStream out) throws IOException {
+    out.writeShort(-1);
+  }
+
+  private static void writeUuid(final DataOutputStream out, final Object value)
+    throws IOException {
+    UUID uuid;
+    if (value instanceof UUID) {
+      uuid = (UUID)value;
+    } else {
+      uuid = UUID.fromString(value.toString());
+    }
+    out.writeInt(16);
+    out.writeLong(uuid.getMostSignificantBits());
+    out.writeLong(uuid.getLeastSignificantBits());
+  }
+
+  static void writeValue(final DataOutputStream out, final CopyEncoder encoder,
+    final Object value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+    } else {
+      encoder.encode(out, value);
+    }
+  }
+
+  private static String toJsonString(final Object value) {
+    if (value instanceof CharSequence) {
+      return value.toString();
+    } else {
+      return Json.toString(value);
+    }
+  }
+
+  private PostgreSQLRecordStore recordStore;
+
+  private JdbcRecordDefinition tableRecordDefinition;
+
+  private JdbcConnection connection;
+
+  private PGCopyOutputStream copyOut;
+
+  private DataOutputStream out;
+
+  private final List<JdbcFieldDefinition> fields = new ArrayList<>();
+
+  private final List<CopyEncoder> encoders = new ArrayList<>();
+
+  /** The record definition the {@link #recordFieldIndexes} were found for. */
+  private RecordDefinition recordFieldIndexesDefinition;
+
+  /** The index in the records of each copied field, or -1 if the records don't have the field. */
+  private int[] recordFieldIndexes;
+
+  private boolean copyIdFields = true;
+
+  private boolean useStagingTable = false;
+
+  private String stagingTableName;
+
+  private final String tableName;
+
+  private int bufferSize = 1024 * 1024;
+
+  private long count = 0;
+
+  public PostgreSQLCopyRecordWriter(final PostgreSQLRecordStore recordStore,
+    final RecordDefinitionProxy recordDefinition) {
+    super(recordStore.getRecordDefinition(recordDefinition));
+    this.recordStore = recordStore;
+    this.tableRecordDefinition = (JdbcRecordDefinition)getRecordDefinition();
+    if (this.tableRecordDefinition == null) {
+      throw new IllegalArgumentException(
+        "Cannot find table " + recordDefinition.getPathName() + " in " + recordStore);
+    }
+    final String schemaName = this.tableRecordDefinition.getDbSchemaName();
+    final String dbTableName = this.tableRecordDefinition.getDbTableName();
+    if (schemaName == null || schemaName.length() == 0) {
+      this.tableName = quoteIdentifier(dbTableName);
+    } else {
+      this.tableName = quoteIdentifier(schemaName) + "." + quoteIdentifier(dbTableName);
+    }
+  }
+
+  private void appendColumnNames(final StringBuilder sql) {
+    boolean first = true;
+    for (final JdbcFieldDefinition field : this.fields) {
+      if (first) {
+        first = false;
+      } else {
+        sql.append(", ");
+      }
+      field.appendColumnName(sql, true);
+    }
+  }
+
+  @Override
+  @PreDestroy
+  public synchronized void close() {
+    if (this.recordStore != null) {
+      try {
+        if (this.copyOut != null) {
+          writeTrailer(this.out);
+          this.out.flush();
+          this.copyOut.endCopy();
+        }
+        if (this.stagingTableName != null) {
+          mergeStagingTable();
+        }
+        if (isCommit()) {
+          this.connection.commit();
+        }
+      } catch (final IOException | SQLException e) {
+        cancel();
+        throw Exceptions.wrap("Unable to copy records into " + this.tableName, e);
+      } finally {
+        closeDo();
+      }
+    }
+  }
+
+  private void cancel() {
+    if (this.copyOut != null) {
+      try {
+        if (this.copyOut.isActive()) {
+          this.copyOut.cancelCopy();
+        }
+      } catch (final SQLException e) {
+      }
+    }
+    if (isCommit()) {
+      try {
+        this.connection.rollback();
+      } catch (final SQLException e) {
+      }
+    } else if (this.stagingTableName != null) {
+      try {
+        this.connection.executeUpdate("DROP TABLE IF EXISTS " + this.stagingTableName);
+      } catch (final RuntimeException e) {
+      }
+    }
+  }
+
+  private void closeDo() {
+    FileUtil.closeSilent(this.connection);
+    this.connection = null;
+    this.copyOut = null;
+    this.out = null;
+    this.recordStore = null;
+  }
+
+  public int getBufferSize() {
+    return this.bufferSize;
+  }
+
+  public long getCount() {
+    return this.count;
+  }
+
+  /**
+   * Get the index in the record's definition of each copied field. The indexes are found once for
+   * each record definition instead of looking up the field name for each value.
+   */
+  private int[] getRecordFieldIndexes(final RecordDefinition recordDefinition) {
+    if (recordDefinition != this.recordFieldIndexesDefinition
+      || this.recordFieldIndexes == null) {
+      final int fieldCount = this.fields.size();
+      final int[] indexes = new int[fieldCount];
+      for (int i = 0; i < fieldCount; i++) {
+        final JdbcFieldDefinition field = this.fields.get(i);
+        if (recordDefinition == this.tableRecordDefinition) {
+          indexes[i] = field.getIndex();
+        } else if (recordDefinition == null) {
+          indexes[i] = -1;
+        } else {
+          indexes[i] = recordDefinition.getFieldIndex(field.getName());
+        }
+      }
+      this.recordFieldIndexesDefinition = recordDefinition;
+      this.recordFieldIndexes = indexes;
+    }
+    return this.recordFieldIndexes;
+  }
+
+  private void init() throws SQLException {
+    this.connection = this.recordStore.getJdbcConnection();
+    if (this.connection.getDataSource() != null) {
+      this.connection.setAutoCommit(false);
+    }
+    final String tableName = this.tableName;
+    final Map<String, CopyEncoder> encoderByColumnName = newEncoders(tableName);
+    for (final FieldDefinition field : this.tableRecordDefinition.getFields()) {
+      final JdbcFieldDefinition jdbcField = (JdbcFieldDefinition)field;
+      if (!jdbcField.isGenerated() && (this.copyIdFields || !jdbcField.isIdField())) {
+        final String columnName = jdbcField.getDbName();
+        CopyEncoder encoder;
+        if (jdbcField instanceof PostgreSQLGeometryJdbcFieldDefinition) {
+          encoder = newGeometryEncoder((PostgreSQLGeometryJdbcFieldDefinition)jdbcField);
+        } else {
+          encoder = encoderByColumnName.get(columnName);
+        }
+        if (encoder == null) {
+          throw new IllegalArgumentException("COPY BINARY not supported for column " + tableName
+            + "." + columnName + " use a JdbcRecordWriter");
+        }
+        this.fields.add(jdbcField);
+        this.encoders.add(encoder);
+      }
+    }
+
+    String copyTableName = tableName;
+    if (this.useStagingTable) {
+      final String uuid = UUID.randomUUID().toString().replace("-", "");
+      this.stagingTableName = quoteIdentifier("copy_" + uuid);
+      this.connection.executeUpdate("CREATE TEMP TABLE " + this.stagingTableName + " (LIKE "
+        + tableName + " INCLUDING DEFAULTS)");
+      copyTableName = this.stagingTableName;
+    }
+
+    final StringBuilder sql = new StringBuilder("COPY ");
+    sql.append(copyTableName);
+    sql.append(" (");
+    appendColumnNames(sql);
+    sql.append(") FROM STDIN (FORMAT BINARY)");
+
+    final PgConnection pgConnection = this.connection.unwrap(PgConnection.class);
+    final CopyManager copyManager = pgConnection.getCopyAPI();
+    final CopyIn copyIn = copyManager.copyIn(sql.toString());
+    this.copyOut = new PGCopyOutputStream(copyIn, this.bufferSize);
+    this.out = new DataOutputStream(this.copyOut);
+    try {
+      writeHeader(this.out);
+    } catch (final IOException e) {
+      throw Exceptions.wrap(e);
+    }
+  }
+
+  private boolean isCommit() {
+    return this.connection != null && this.connection.getDataSource() != null
+      && !Transaction.isHasCurrentTransaction();
+  }
+
+  public boolean isCopyIdFields() {
+    return this.copyIdFields;
+  }
+
+  public boolean isUseStagingTable() {
+    return this.useStagingTable;
+  }
+
+  private void mergeStagingTable() throws SQLException {
+    final StringBuilder sql = new StringBuilder("INSERT INTO ");
+    sql.append(this.tableName);
+    sql.append(" (");
+    appendColumnNames(sql);
+    sql.append(") SELECT ");
+    appendColumnNames(sql);
+    sql.append(" FROM ");
+    sql.append(this.stagingTableName);
+
+    final List<FieldDefinition> idFields = this.tableRecordDefinition.getIdFields();
+    if (this.copyIdFields && !idFields.isEmpty()) {
+      sql.append(" ON CONFLICT (");
+      boolean first = true;
+      for (final FieldDefinition idField : idFields) {
+        if (first) {
+          first = false;
+        } else {
+          sql.append(", ");
+        }
+        idField.appendColumnName(sql, true);
+      }
+      sql.append(") DO ");
+      boolean hasUpdate = false;
+      for (final JdbcFieldDefinition field : this.fields) {
+        if (!field.isIdField()) {
+          if (hasUpdate) {
+            sql.append(", ");
+          } else {
+            sql.append("UPDATE SET ");
+            hasUpdate = true;
+          }
+          field.appendColumnName(sql, true);
+          sql.append(" = EXCLUDED.");
+          field.appendColumnName(sql, true);
+        }
+      }
+      if (!hasUpdate) {
+        sql.append("NOTHING");
+      }
+    }
+    this.connection.executeUpdate(sql.toString());
+    this.connection.executeUpdate("DROP TABLE " + this.stagingTableName);
+    this.stagingTableName = null;
+  }
+
+  private Map<String, CopyEncoder> newEncoders(final String tableName) throws SQLException {
+    final Map<String, CopyEncoder> encoderByColumnName = new HashMap<>();
+    final String sql = "SELECT a.attname, t.typname, e.typname AS element_typname, e.oid AS element_oid "
+      + "FROM pg_attribute a "
+      + "JOIN pg_type t ON a.atttypid = t.oid "
+      + "LEFT JOIN pg_type e ON t.typelem = e.oid "
+      + "WHERE a.attrelid = ?::regclass AND a.attnum > 0 AND NOT a.attisdropped";
+    try (
+      PreparedStatement statement = this.connection.prepareStatement(sql)) {
+      statement.setString(1, tableName);
+      try (
+        ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          final String columnName = resultSet.getString(1);
+          final String typeName = resultSet.getString(2);
+          CopyEncoder encoder;
+          if (typeName.startsWith("_")) {
+            final String elementTypeName = resultSet.getString(3);
+            final int elementTypeId = resultSet.getInt(4);
+            final CopyEncoder elementEncoder = ENCODER_BY_TYPE_NAME.get(elementTypeName);
+            if (elementEncoder == null) {
+              encoder = null;
+            } else {
+              encoder = newArrayEncoder(elementEncoder, elementTypeId);
+            }
+          } else {
+            encoder = ENCODER_BY_TYPE_NAME.get(typeName);
+          }
+          if (encoder != null) {
+            encoderByColumnName.put(columnName, encoder);
+          }
+        }
+      }
+    }
+    return encoderByColumnName;
+  }
+
+  public void setBufferSize(final int bufferSize) {
+    this.bufferSize = bufferSize;
+  }
+
+  /**
+   * Include the primary key columns in the copy. If false the primary key values are generated by
+   * the column defaults (e.g. serial sequences).
+   *
+   * @param copyIdFields True if the id fields are copied.
+   */
+  public void setCopyIdFields(final boolean copyIdFields) {
+    this.copyIdFields = copyIdFields;
+  }
+
+  public void setUseStagingTable(final boolean useStagingTable) {
+    this.useStagingTable = useStagingTable;
+  }
+
+  @Override
+  public String toString() {
+    return "COPY " + this.tableName;
+  }
+
+  @Override
+  public synchronized void write(final Record record) {
+    try {
+      if (this.out == null) {
+        init();
+      }
+      final DataOutputStream out = this.out;
+      final int[] fieldIndexes = getRecordFieldIndexes(record.getRecordDefinition());
+      final int fieldCount = fieldIndexes.length;
+      out.writeShort(fieldCount);
+      for (int i = 0; i < fieldCount; i++) {
+        final int fieldIndex = fieldIndexes[i];
+        Object value = null;
+        if (fieldIndex != -1) {
+          value = record.getValue(fieldIndex);
+        }
+        final CopyEncoder encoder = this.encoders.get(i);
+        writeValue(out, encoder, value);
+      }
+      this.count++;
+      record.setState(RecordState.PERSISTED);
+      this.recordStore.addStatistic("Insert", record);
+    } catch (final IOException | SQLException e) {
+      cancel();
+      closeDo();
+      throw Exceptions.wrap("Unable to copy\n" + record, e);
+    } catch (final RuntimeException | Error e) {
+      cancel();
+      closeDo();
+      throw e;
+    }
+  }
+}
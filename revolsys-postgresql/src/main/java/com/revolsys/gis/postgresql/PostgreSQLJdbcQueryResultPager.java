@@ -69,6 +69,11 @@ public class PostgreSQLJdbcQueryResultPager extends JdbcQueryResultPager {
     }
   }
 
+  @Override
+  protected String getKeysetSql(final Query query, final int limit) {
+    return super.getKeysetSql(query, limit) + " LIMIT " + limit;
+  }
+
   @Override
   public List<Record> getList() {
     synchronized (this) {
@@ -92,6 +97,14 @@ public class PostgreSQLJdbcQueryResultPager extends JdbcQueryResultPager {
     return this.numResults;
   }
 
+  @Override
+  public void setCursor(final String cursor) {
+    synchronized (this) {
+      super.setCursor(cursor);
+      this.results = super.getList();
+    }
+  }
+
   /**
    * Update the cached results for the current page.
    */
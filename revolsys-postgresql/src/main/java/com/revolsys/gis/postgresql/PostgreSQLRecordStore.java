@@ -48,6 +48,7 @@ import com.revolsys.record.query.functions.EnvelopeIntersects;
 import com.revolsys.record.query.functions.JsonValue;
 import com.revolsys.record.schema.FieldDefinition;
 import com.revolsys.record.schema.RecordDefinition;
+import com.revolsys.record.schema.RecordDefinitionProxy;
 import com.revolsys.record.schema.RecordStore;
 import com.revolsys.util.Property;
 
@@ -356,6 +357,17 @@ public class PostgreSQLRecordStore extends AbstractJdbcRecordStore {
     return this.useSchemaSequencePrefix;
   }
 
+  /**
+   * Construct a new writer that bulk loads records into the table using COPY BINARY.
+   *
+   * @param recordDefinition The table to write to.
+   * @return The writer.
+   */
+  public PostgreSQLCopyRecordWriter newCopyRecordWriter(
+    final RecordDefinitionProxy recordDefinition) {
+    return new PostgreSQLCopyRecordWriter(this, recordDefinition);
+  }
+
   @Override
   protected JdbcRecordDefinition newRecordDefinition(final JdbcRecordStoreSchema schema,
     final PathName pathName, String dbTableName) {
@@ -1,18 +1,27 @@
 package com.revolsys.gis.postgresql.type;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.Map;
 
 import org.jeometry.common.data.type.DataType;
+import org.jeometry.common.exception.Exceptions;
 
 import com.revolsys.geometry.model.BoundingBox;
 import com.revolsys.geometry.model.Geometry;
 import com.revolsys.geometry.model.GeometryDataTypes;
 import com.revolsys.geometry.model.GeometryFactory;
+import com.revolsys.geometry.wkb.WkbByteBufferReader;
+import com.revolsys.geometry.wkb.WkbChannelWriter;
 import com.revolsys.jdbc.field.JdbcFieldDefinition;
 import com.revolsys.record.query.ColumnIndexes;
+import com.revolsys.record.query.Query;
+import com.revolsys.record.schema.RecordStore;
 import com.revolsys.util.Property;
 
 public class PostgreSQLGeometryJdbcFieldDefinition extends JdbcFieldDefinition {
@@ -30,6 +39,30 @@ public class PostgreSQLGeometryJdbcFieldDefinition extends JdbcFieldDefinition {
     setGeometryFactory(geometryFactory.convertAxisCount(axisCount));
   }
 
+  /**
+   * Geometries are inserted and updated as EWKB bytea values.
+   */
+  @Override
+  public void addInsertStatementPlaceHolder(final StringBuilder sql, final boolean generateKeys) {
+    sql.append("ST_GeomFromEWKB(?)");
+  }
+
+  /**
+   * Geometries are selected as EWKB bytea values to avoid encoding and parsing the hex text
+   * representation.
+   */
+  @Override
+  public void appendSelect(final Query query, final RecordStore recordStore, final Appendable sql) {
+    try {
+      sql.append("ST_AsEWKB(");
+      super.appendName(sql);
+      sql.append(") ");
+      appendColumnName(sql, true);
+    } catch (final IOException e) {
+      throw Exceptions.wrap(e);
+    }
+  }
+
   @Override
   public JdbcFieldDefinition clone() {
     final GeometryFactory geometryFactory = getGeometryFactory();
@@ -38,35 +71,51 @@ public class PostgreSQLGeometryJdbcFieldDefinition extends JdbcFieldDefinition {
       geometryFactory);
   }
 
-  public Object getInsertUpdateValue(final Object value) throws SQLException {
+  /**
+   * Convert the value to EWKB. Empty geometries are written as an empty geometry of the column's
+   * type (e.g. MULTIPOLYGON EMPTY) so they are stored as an empty geometry, not NULL.
+   *
+   * @param value The value.
+   * @return The EWKB or null if the value was null.
+   * @throws SQLException If the value could not be converted.
+   */
+  public byte[] getInsertUpdateValue(final Object value) throws SQLException {
     final GeometryFactory geometryFactory = getGeometryFactory();
+    Geometry geometry;
     if (value == null) {
       return null;
     } else if (value instanceof Geometry) {
-      final Geometry geometry = (Geometry)value;
-      if (geometry.isEmpty()) {
-        return geometry;
-      } else {
-        final DataType dataType = getDataType();
-        return new PostgreSQLGeometryWrapper(dataType, geometryFactory, geometry);
-      }
+      geometry = (Geometry)value;
     } else if (value instanceof BoundingBox) {
-      BoundingBox boundingBox = (BoundingBox)value;
-      boundingBox = boundingBox.bboxToCs(geometryFactory);
-      return new PostgreSQLBoundingBoxWrapper(boundingBox);
+      final BoundingBox boundingBox = (BoundingBox)value;
+      geometry = boundingBox.toPolygon(geometryFactory, 1, 1);
     } else if (Property.hasValue(value)) {
-      return value;
+      geometry = toFieldValue(value);
     } else {
       return null;
     }
+    if (geometry == null) {
+      return null;
+    } else {
+      if (geometry.isEmpty()) {
+        geometry = newEmptyGeometry(geometry, geometryFactory);
+      } else {
+        geometry = geometry.convertGeometry(geometryFactory);
+      }
+      return toEwkb(geometry);
+    }
   }
 
   @Override
   public Object getValueFromResultSet(final ResultSet resultSet, final ColumnIndexes indexes,
     final boolean internStrings) throws SQLException {
     final Object postgresValue = resultSet.getObject(indexes.incrementAndGet());
-    final Object value = toJava(postgresValue);
-    return value;
+    if (postgresValue instanceof byte[]) {
+      final byte[] ewkb = (byte[])postgresValue;
+      return toGeometry(ewkb);
+    } else {
+      return toJava(postgresValue);
+    }
   }
 
   @Override
@@ -74,6 +123,25 @@ public class PostgreSQLGeometryJdbcFieldDefinition extends JdbcFieldDefinition {
     return false;
   }
 
+  /**
+   * Get an empty geometry of the column's type, or the empty geometry for a GEOMETRY column.
+   */
+  private Geometry newEmptyGeometry(final Geometry geometry,
+    final GeometryFactory geometryFactory) {
+    final DataType dataType = getDataType();
+    if (dataType == GeometryDataTypes.POINT || dataType == GeometryDataTypes.MULTI_POINT) {
+      return geometryFactory.point();
+    } else if (dataType == GeometryDataTypes.LINE_STRING
+      || dataType == GeometryDataTypes.MULTI_LINE_STRING) {
+      return geometryFactory.lineString();
+    } else if (dataType == GeometryDataTypes.POLYGON
+      || dataType == GeometryDataTypes.MULTI_POLYGON) {
+      return geometryFactory.polygon();
+    } else {
+      return geometry.convertGeometry(geometryFactory);
+    }
+  }
+
   @Override
   public void setGeometryFactory(final GeometryFactory geometryFactory) {
     if (geometryFactory != null) {
@@ -84,12 +152,11 @@ public class PostgreSQLGeometryJdbcFieldDefinition extends JdbcFieldDefinition {
   @Override
   public int setInsertPreparedStatementValue(final PreparedStatement statement,
     final int parameterIndex, final Object value) throws SQLException {
-    final Object jdbcValue = getInsertUpdateValue(value);
-    if (jdbcValue == null) {
-      final int sqlType = getSqlType();
-      statement.setNull(parameterIndex, sqlType);
+    final byte[] ewkb = getInsertUpdateValue(value);
+    if (ewkb == null) {
+      statement.setNull(parameterIndex, Types.BINARY);
     } else {
-      statement.setObject(parameterIndex, jdbcValue);
+      statement.setBytes(parameterIndex, ewkb);
     }
     return parameterIndex + 1;
   }
@@ -107,6 +174,27 @@ public class PostgreSQLGeometryJdbcFieldDefinition extends JdbcFieldDefinition {
     return parameterIndex + 1;
   }
 
+  private byte[] toEwkb(final Geometry geometry) {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (
+      WkbChannelWriter writer = new WkbChannelWriter(out)) {
+      final DataType dataType = getDataType();
+      writer.writeEwkb(dataType, geometry);
+    }
+    return out.toByteArray();
+  }
+
+  private Geometry toGeometry(final byte[] ewkb) {
+    final GeometryFactory geometryFactory = getGeometryFactory();
+    final ByteBuffer buffer = ByteBuffer.wrap(ewkb);
+    final Geometry geometry = WkbByteBufferReader.readGeometry(geometryFactory, buffer);
+    if (geometryFactory.isSameCoordinateSystem(geometry.getGeometryFactory())) {
+      return geometry;
+    } else {
+      return geometry.convertGeometry(geometryFactory);
+    }
+  }
+
   public Object toJava(final Object object) throws SQLException {
     if (object instanceof PostgreSQLGeometryWrapper) {
       final PostgreSQLGeometryWrapper geometryType = (PostgreSQLGeometryWrapper)object;
@@ -21,6 +21,7 @@ import com.revolsys.geometry.model.LineString;
 import com.revolsys.geometry.model.Point;
 import com.revolsys.geometry.model.editor.BoundingBoxEditor;
 import com.revolsys.geometry.model.impl.PointDoubleXY;
+import com.revolsys.io.BaseCloseable;
 import com.revolsys.io.FileUtil;
 import com.revolsys.io.IoFactory;
 import com.revolsys.raster.GeoreferencedImage;
@@ -162,6 +163,22 @@ public class GeoreferencedImageLayer extends AbstractLayer {
     firePropertyChange("hasChanges", true, false);
   }
 
+  /**
+   * Close the image if it holds resources such as a database connection.
+   */
+  private void closeImage(final GeoreferencedImage image) {
+    if (image instanceof BaseCloseable) {
+      ((BaseCloseable)image).close();
+    }
+  }
+
+  @Override
+  public void delete() {
+    final GeoreferencedImage image = this.image;
+    super.delete();
+    closeImage(image);
+  }
+
   public void deleteTiePoint(final MappedLocation tiePoint) {
     if (isEditable()) {
       this.image.deleteTiePoint(tiePoint);
@@ -411,6 +428,9 @@ public class GeoreferencedImageLayer extends AbstractLayer {
       }
     }
     firePropertyChange("image", old, this.image);
+    if (old != image) {
+      closeImage(old);
+    }
   }
 
   public void setOpacity(int opacity) {
@@ -11,6 +11,7 @@ import com.revolsys.io.map.MapSerializer;
 import com.revolsys.record.Record;
 import com.revolsys.record.io.format.json.JsonObject;
 import com.revolsys.record.io.format.json.JsonObjectHash;
+import com.revolsys.record.query.CompiledCondition;
 import com.revolsys.record.query.Condition;
 import com.revolsys.record.query.QueryValue;
 import com.revolsys.record.schema.RecordDefinition;
@@ -18,6 +19,8 @@ import com.revolsys.record.schema.RecordDefinitionProxy;
 import com.revolsys.util.UriTemplate;
 
 public class RecordDefinitionSqlFilter implements Predicate<Record>, MapSerializer {
+  private CompiledCondition compiledCondition;
+
   private Condition condition;
 
   private boolean initialized;
@@ -32,6 +35,11 @@ public class RecordDefinitionSqlFilter implements Predicate<Record>, MapSerializ
     this.query = query;
   }
 
+  private synchronized CompiledCondition getCompiledCondition() {
+    getCondition();
+    return this.compiledCondition;
+  }
+
   public synchronized Condition getCondition() {
     if (this.condition == null) {
       if (!this.initialized) {
@@ -51,6 +59,9 @@ public class RecordDefinitionSqlFilter implements Predicate<Record>, MapSerializ
 
             final String query = new UriTemplate(this.query).expandString(uriVariables);
             this.condition = QueryValue.parseWhere(recordDefinition, query);
+            if (this.condition != null) {
+              this.compiledCondition = this.condition.compile(recordDefinition);
+            }
           } catch (final Throwable e) {
             Logs.error(this, "Invalid query: " + this.query, e);
           }
@@ -66,7 +77,7 @@ public class RecordDefinitionSqlFilter implements Predicate<Record>, MapSerializ
 
   @Override
   public boolean test(final Record record) {
-    final Condition condition = getCondition();
+    final CompiledCondition condition = getCompiledCondition();
     if (condition == null) {
       return false;
     } else {
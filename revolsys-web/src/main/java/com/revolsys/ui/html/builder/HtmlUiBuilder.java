@@ -50,6 +50,7 @@ import com.revolsys.record.io.RecordReader;
 import com.revolsys.record.io.format.json.Json;
 import com.revolsys.record.io.format.xml.XmlWriter;
 import com.revolsys.record.query.Query;
+import com.revolsys.record.query.QueryCursor;
 import com.revolsys.record.schema.RecordStore;
 import com.revolsys.transaction.Transaction;
 import com.revolsys.ui.html.decorator.Decorator;
@@ -1217,25 +1218,48 @@ public class HtmlUiBuilder<T> implements BeanFactoryAware, ServletContextAware {
           }
         }
 
-        final int offset = HttpServletUtils.getIntegerParameter(request, "start");
-        query = query.clone();
-        query.setOffset(offset);
-        query.setLimit(recordCountMax);
+        // A cursor parameter (empty for the first page) selects keyset pagination
+        final String cursor = request.getParameter("cursor");
+        final boolean keyset = cursor != null;
+        if (keyset) {
+          query = QueryCursor.newKeysetQuery(query, cursor);
+          query.setLimit(recordCountMax + 1);
+        } else {
+          final int offset = HttpServletUtils.getIntegerParameter(request, "start");
+          query = query.clone();
+          query.setOffset(offset);
+          query.setLimit(recordCountMax);
+        }
 
         final List<KeySerializer> serializers = getSerializers(pageName, "list");
 
+        Record lastRecord = null;
+        boolean hasNextPage = false;
         try (
           RecordReader reader = recordStore.getRecords(query)) {
-          for (Record record : reader) {
-            record = convertRecord(record);
+          for (final Record record : reader) {
+            if (rows.size() == recordCountMax) {
+              hasNextPage = true;
+              break;
+            }
+            lastRecord = record;
+            final Record convertedRecord = convertRecord(record);
             final List<String> row = new ArrayList<>();
             for (final KeySerializer serializer : serializers) {
-              final String html = serializer.toString(record);
+              final String html = serializer.toString(convertedRecord);
               row.add(html);
             }
             rows.add(row);
           }
         }
+        if (keyset) {
+          if (hasNextPage) {
+            final String nextCursor = QueryCursor.newQueryCursor(query, lastRecord).toString();
+            response.put("cursor", nextCursor);
+          } else {
+            response.put("cursor", null);
+          }
+        }
       }
       response.put("draw", HttpServletUtils.getIntegerParameter(request, "draw"));
       response.put("recordsTotal", recordCount);
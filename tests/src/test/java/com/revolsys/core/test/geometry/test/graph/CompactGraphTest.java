@@ -0,0 +1,71 @@
+package com.revolsys.core.test.geometry.test.graph;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.revolsys.geometry.graph.Edge;
+import com.revolsys.geometry.graph.Graph;
+import com.revolsys.geometry.graph.Node;
+import com.revolsys.geometry.graph.algorithm.CompactGraph;
+import com.revolsys.geometry.graph.algorithm.CompactShortestPath;
+import com.revolsys.geometry.graph.algorithm.ContractionHierarchy;
+import com.revolsys.geometry.graph.algorithm.ShortestPath;
+import com.revolsys.geometry.model.GeometryFactory;
+
+public class CompactGraphTest {
+
+  private static final GeometryFactory GEOMETRY_FACTORY = GeometryFactory.fixed2d(1000, 1000);
+
+  private static double getLength(final List<Edge<Object>> path) {
+    double length = 0;
+    for (final Edge<Object> edge : path) {
+      length += edge.getLength();
+    }
+    return length;
+  }
+
+  private Graph<Object> newGridGraph(final Random random, final int size) {
+    final Graph<Object> graph = new Graph<>();
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        if (x < size - 1 && random.nextDouble() < 0.9) {
+          graph.addEdge(null, GEOMETRY_FACTORY.lineString(2, x * 10.0, y * 10.0,
+            (x + 1) * 10.0, y * 10.0 + random.nextInt(5)));
+        }
+        if (y < size - 1 && random.nextDouble() < 0.9) {
+          graph.addEdge(null, GEOMETRY_FACTORY.lineString(2, x * 10.0, y * 10.0,
+            x * 10.0 + random.nextInt(5), y * 10.0 + 5, x * 10.0, (y + 1) * 10.0));
+        }
+      }
+    }
+    return graph;
+  }
+
+  @Test
+  public void testShortestPath() {
+    final Random random = new Random(1);
+    final Graph<Object> graph = newGridGraph(random, 20);
+    final CompactGraph compactGraph = new CompactGraph(graph);
+    final ContractionHierarchy hierarchy = new ContractionHierarchy(compactGraph);
+    final CompactShortestPath aStar = compactGraph.newQuery();
+    final CompactShortestPath hierarchyQuery = hierarchy.newQuery();
+    final List<Node<Object>> nodes = graph.getNodes();
+    for (int i = 0; i < 50; i++) {
+      final Node<Object> fromNode = nodes.get(random.nextInt(nodes.size()));
+      final Node<Object> toNode = nodes.get(random.nextInt(nodes.size()));
+      final double expected = getLength(new ShortestPath<>(graph, fromNode).getPath(toNode));
+      for (final CompactShortestPath query : new CompactShortestPath[] {
+        aStar, hierarchyQuery
+      }) {
+        final List<Edge<Object>> path = query.findPath(graph, fromNode, toNode);
+        Assert.assertEquals(query.toString(), expected, getLength(path), 1e-6);
+        if (!path.isEmpty()) {
+          Assert.assertEquals(expected, query.getDistance(), 1e-6);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package com.revolsys.core.test.geometry.test.graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.revolsys.geometry.graph.Graph;
+import com.revolsys.geometry.graph.Node;
+import com.revolsys.geometry.model.GeometryFactory;
+import com.revolsys.geometry.model.LineString;
+
+public class GraphTest {
+
+  private static final GeometryFactory GEOMETRY_FACTORY = GeometryFactory.fixed2d(1000, 1000);
+
+  @Test
+  public void testAddEdgesBulk() {
+    final Random random = new Random(1);
+    final List<LineString> lines = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      final double x1 = random.nextInt(20);
+      final double y1 = random.nextInt(20);
+      final double x2 = random.nextInt(20);
+      final double y2 = random.nextInt(20);
+      lines.add(GEOMETRY_FACTORY.lineString(2, x1, y1, (x1 + x2) / 2 + 0.5, y1, x2, y2));
+    }
+    final Graph<LineString> expectedGraph = new Graph<>();
+    for (final LineString line : lines) {
+      expectedGraph.addEdge(line, line);
+    }
+
+    final Graph<LineString> graph = new Graph<>();
+    graph.addEdge(lines.get(0), lines.get(0));
+    final int count = graph.addEdgesBulk(lines.subList(1, lines.size()), line -> line);
+    Assert.assertEquals(lines.size() - 1, count);
+    Assert.assertEquals(expectedGraph.getEdgeCount(), graph.getEdgeCount());
+    Assert.assertEquals(expectedGraph.getNodeCount(), graph.getNodeCount());
+    for (final Node<LineString> expectedNode : expectedGraph.getNodes()) {
+      final Node<LineString> node = graph.findNode(expectedNode);
+      Assert.assertNotNull(expectedNode.toString(), node);
+      Assert.assertEquals(expectedNode.toString(), expectedNode.getInEdgeCount(),
+        node.getInEdgeCount());
+      Assert.assertEquals(expectedNode.toString(), expectedNode.getOutEdgeCount(),
+        node.getOutEdgeCount());
+    }
+  }
+
+  @Test
+  public void testAddEdgesBulkNegativeZero() {
+    final GeometryFactory geometryFactory = GeometryFactory.DEFAULT_2D;
+    final List<LineString> lines = new ArrayList<>();
+    lines.add(geometryFactory.lineString(2, -10.0, -10.0, 0.0, 0.0));
+    lines.add(geometryFactory.lineString(2, -0.0, -0.0, 10.0, 10.0));
+    lines.add(geometryFactory.lineString(2, 0.0, -0.0, 10.0, -10.0));
+
+    final Graph<LineString> graph = new Graph<>();
+    Assert.assertEquals(lines.size(), graph.addEdgesBulk(lines, line -> line));
+    Assert.assertEquals(4, graph.getNodeCount());
+  }
+}
@@ -0,0 +1,46 @@
+package com.revolsys.core.test.geometry.test.old.index;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.revolsys.geometry.index.hprtree.HilbertPackedRTree;
+
+public class HilbertPackedRTreeTest {
+
+  @Test
+  public void testReadItemCountLimit() throws Exception {
+    final Path file = Files.createTempFile("hprtree", ".idx");
+    try {
+      final ByteBuffer header = ByteBuffer.allocate(32);
+      header.put(HilbertPackedRTree.FILE_TYPE_BYTES);
+      header.putShort(HilbertPackedRTree.VERSION);
+      header.putInt(HilbertPackedRTree.DEFAULT_NODE_CAPACITY);
+      header.putInt(HilbertPackedRTree.MAX_FILE_ITEM_COUNT + 1);
+      header.putInt(1);
+      Files.write(file, header.array());
+      try {
+        HilbertPackedRTree.read(file, id -> id);
+        Assert.fail("Expected the item count to be rejected");
+      } catch (final IllegalArgumentException e) {
+        Assert.assertTrue(e.getMessage(),
+          e.getMessage().contains(Integer.toString(HilbertPackedRTree.MAX_FILE_ITEM_COUNT)));
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  public void testSpatialIndex() throws Exception {
+    final SpatialIndexTester tester = new SpatialIndexTester();
+    tester.setSpatialIndex(new HilbertPackedRTree<>());
+    tester.init();
+    tester.run();
+    Assert.assertTrue(tester.isSuccess());
+  }
+
+}
@@ -5,10 +5,19 @@ import java.util.Collection;
 import java.util.List;
 
 import com.revolsys.core.test.geometry.test.old.junit.GeometryUtils;
+import com.revolsys.geometry.algorithm.match.AreaSimilarityMeasure;
 import com.revolsys.geometry.model.Geometry;
+import com.revolsys.geometry.model.GeometryDataTypes;
 import com.revolsys.geometry.model.GeometryFactory;
 import com.revolsys.geometry.model.Polygon;
+import com.revolsys.geometry.model.Polygonal;
 import com.revolsys.geometry.operation.union.CascadedPolygonUnion;
+import com.revolsys.record.ArrayRecord;
+import com.revolsys.record.Record;
+import com.revolsys.record.io.ListRecordReader;
+import com.revolsys.record.io.RecordReader;
+import com.revolsys.record.schema.RecordDefinition;
+import com.revolsys.record.schema.RecordDefinitionBuilder;
 
 import junit.framework.TestCase;
 
@@ -77,4 +86,35 @@ public class CascadedPolygonUnionTest extends TestCase {
 
     runTest(geoms, CascadedPolygonUnionTester.MIN_SIMILARITY_MEAURE);
   }
+
+  public void testDiscsParallel() throws Exception {
+    final Collection<Polygon> geoms = newDiscs(40, 0.55);
+    final Polygonal union = CascadedPolygonUnion.union(geoms);
+    final Polygonal parallelUnion = CascadedPolygonUnion.unionParallel(geoms);
+    assertEquals(union.getArea(), parallelUnion.getArea(), 1e-6);
+    final double areaMeasure = new AreaSimilarityMeasure().measure(union, parallelUnion);
+    assertTrue(areaMeasure > CascadedPolygonUnionTester.MIN_SIMILARITY_MEAURE);
+  }
+
+  public void testUnionRecords() throws Exception {
+    final Collection<Polygon> geoms = newDiscs(30, 0.55);
+    final RecordDefinition recordDefinition = new RecordDefinitionBuilder("DISC") //
+      .addField("GEOMETRY", GeometryDataTypes.POLYGON) //
+      .getRecordDefinition();
+    final List<Record> records = new ArrayList<>();
+    for (final Polygon polygon : geoms) {
+      final Record record = new ArrayRecord(recordDefinition);
+      record.setGeometryValue(polygon);
+      records.add(record);
+    }
+    final Polygonal union = CascadedPolygonUnion.union(geoms);
+    // 900 polygons in 7 batches of 128 and a partial batch exercise the merge levels
+    try (
+      RecordReader reader = new ListRecordReader(recordDefinition, records)) {
+      final Polygonal batchUnion = CascadedPolygonUnion.unionRecords(reader, 128);
+      assertEquals(union.getArea(), batchUnion.getArea(), 1e-6);
+      final double areaMeasure = new AreaSimilarityMeasure().measure(union, batchUnion);
+      assertTrue(areaMeasure > CascadedPolygonUnionTester.MIN_SIMILARITY_MEAURE);
+    }
+  }
 }
@@ -44,11 +44,15 @@ public class QueryValueTest {
   public void assertConditionFalse(final Condition trueCondition1, final Record record) {
     final boolean result1 = trueCondition1.test(record);
     Assert.assertFalse(result1);
+    final boolean compiledResult1 = trueCondition1.compile(this.recordDefinition).test(record);
+    Assert.assertFalse(compiledResult1);
   }
 
   public void assertConditionTrue(final Condition trueCondition1, final Record record) {
     final boolean result1 = trueCondition1.test(record);
     Assert.assertTrue(result1);
+    final boolean compiledResult1 = trueCondition1.compile(this.recordDefinition).test(record);
+    Assert.assertTrue(compiledResult1);
   }
 
   public void run() {
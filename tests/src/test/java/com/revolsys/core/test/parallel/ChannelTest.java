@@ -0,0 +1,127 @@
+package com.revolsys.core.test.parallel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.revolsys.parallel.channel.Channel;
+import com.revolsys.parallel.channel.ClosedException;
+import com.revolsys.parallel.channel.store.RingBuffer;
+
+public class ChannelTest {
+
+  @Test
+  public void testRingBufferChannel() throws InterruptedException {
+    final int writerCount = 3;
+    final int readerCount = 2;
+    final int valueCount = 100000;
+    final Channel<Long> channel = new Channel<>(new RingBuffer<>(16));
+    for (int i = 0; i < writerCount; i++) {
+      channel.writeConnect();
+    }
+    for (int i = 0; i < readerCount; i++) {
+      channel.readConnect();
+    }
+    final AtomicLong count = new AtomicLong();
+    final AtomicLong sum = new AtomicLong();
+    final List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < writerCount; i++) {
+      final boolean batch = i % 2 == 0;
+      threads.add(new Thread(() -> {
+        final List<Long> values = new ArrayList<>();
+        for (long value = 1; value <= valueCount; value++) {
+          if (batch) {
+            values.add(value);
+            if (values.size() == 50) {
+              channel.writeAll(values);
+              values.clear();
+            }
+          } else {
+            channel.write(value);
+          }
+        }
+        channel.writeAll(values);
+        channel.writeDisconnect();
+      }));
+    }
+    for (int i = 0; i < readerCount; i++) {
+      final boolean batch = i % 2 == 0;
+      threads.add(new Thread(() -> {
+        final List<Long> values = new ArrayList<>();
+        try {
+          while (true) {
+            values.clear();
+            if (batch) {
+              channel.readAll(values, 20);
+            } else {
+              values.add(channel.read());
+            }
+            for (final Long value : values) {
+              count.incrementAndGet();
+              sum.addAndGet(value);
+            }
+          }
+        } catch (final ClosedException e) {
+        }
+      }));
+    }
+    for (final Thread thread : threads) {
+      thread.start();
+    }
+    for (final Thread thread : threads) {
+      thread.join(60000);
+    }
+    Assert.assertEquals((long)writerCount * valueCount, count.get());
+    Assert.assertEquals((long)writerCount * valueCount * (valueCount + 1) / 2, sum.get());
+  }
+
+  @Test
+  public void testRingBufferNullValues() throws InterruptedException {
+    final RingBuffer<String> buffer = new RingBuffer<>(4);
+    Assert.assertTrue(buffer.offer(null));
+    Assert.assertEquals(1, buffer.size());
+    Assert.assertNull(buffer.poll("empty"));
+    Assert.assertEquals("empty", buffer.poll("empty"));
+
+    final Channel<String> channel = new Channel<>(new RingBuffer<>(4));
+    channel.readConnect();
+    channel.writeConnect();
+    channel.write("a");
+    channel.write(null);
+    channel.write("b");
+    channel.write(null);
+    Assert.assertEquals("a", channel.read());
+    Assert.assertNull(channel.read());
+    final List<String> values = new ArrayList<>();
+    Assert.assertEquals(2, channel.readAll(values, 10));
+    Assert.assertEquals(Arrays.asList("b", null), values);
+
+    // A null written while the reader is waiting is returned instead of waiting for the timeout
+    final Thread writer = new Thread(() -> {
+      try {
+        Thread.sleep(50);
+      } catch (final InterruptedException e) {
+      }
+      channel.write(null);
+      channel.write("c");
+    });
+    writer.start();
+    Assert.assertNull(channel.read(60000));
+    Assert.assertEquals("c", channel.read(60000));
+    writer.join();
+  }
+
+  @Test
+  public void testRingBufferReadTimeout() {
+    final Channel<String> channel = new Channel<>(new RingBuffer<>(4));
+    channel.readConnect();
+    channel.writeConnect();
+    Assert.assertNull(channel.read(10));
+    channel.write("a");
+    Assert.assertEquals("a", channel.read(10));
+  }
+}
@@ -0,0 +1,63 @@
+package com.revolsys.core.test.parallel;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.revolsys.parallel.channel.Channel;
+import com.revolsys.parallel.channel.store.RingBuffer;
+import com.revolsys.parallel.process.LambdaInProcess;
+import com.revolsys.parallel.process.ProcessMetrics;
+import com.revolsys.parallel.process.ProcessNetwork;
+
+public class ProcessNetworkTest {
+
+  private void assertPipeline(final boolean sharedExecutor) {
+    final int valueCount = 10000;
+    final Channel<Integer> channel = new Channel<>(new RingBuffer<>(8));
+    channel.writeConnect();
+    final AtomicLong sum = new AtomicLong();
+    final AtomicLong recordsIn = new AtomicLong(-1);
+    final ProcessNetwork processNetwork = new ProcessNetwork();
+    if (sharedExecutor) {
+      processNetwork.setExecutor(ProcessNetwork.getSharedExecutor());
+    }
+    processNetwork.addProcess("source", () -> {
+      for (int i = 1; i <= valueCount; i++) {
+        channel.write(i);
+      }
+      channel.writeDisconnect();
+    });
+    final LambdaInProcess<Integer> sink = new LambdaInProcess<>("sink");
+    sink.setIn(channel);
+    sink.setProcess(sum::addAndGet);
+    sink.setPostRun(() -> {
+      for (final ProcessMetrics metrics : processNetwork.getMetrics()) {
+        if (metrics.getProcess() == sink) {
+          Assert.assertTrue(metrics.isRunning());
+          recordsIn.set(metrics.getRecordsIn());
+        }
+      }
+    });
+    processNetwork.addProcess(sink);
+    processNetwork.startAndWait();
+    Assert.assertEquals((long)valueCount * (valueCount + 1) / 2, sum.get());
+
+    Assert.assertEquals(valueCount, recordsIn.get());
+    Assert.assertEquals(valueCount, channel.getReadCount());
+    Assert.assertEquals(valueCount, channel.getWriteCount());
+    // The metrics are removed when the processes stop
+    Assert.assertTrue(processNetwork.getMetrics().isEmpty());
+  }
+
+  @Test
+  public void testSharedExecutor() {
+    assertPipeline(true);
+  }
+
+  @Test
+  public void testThreads() {
+    assertPipeline(false);
+  }
+}
@@ -0,0 +1,58 @@
+package com.revolsys.core.test.record.io.test;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.revolsys.collection.list.DoubleList;
+import com.revolsys.record.io.format.json.JsonParser;
+import com.revolsys.record.io.format.json.JsonParser.EventType;
+
+public class JsonParserTest {
+
+  private static final String[] NUMBERS = {
+    "0", "-0", "1", "-1.5", "123.456", "-123.4567891234", "1e10", "1E-5", "2.5e+3",
+    "9007199254740993", "12345678901234567890", "0.1", "0.30000000000000004", "1e23", "1e-23",
+    "4.9e-324", "1.7976931348623157e308"
+  };
+
+  @Test
+  public void testGetDoubles() {
+    final DoubleList values = new DoubleList();
+    try (
+      JsonParser parser = new JsonParser(new StringReader("[1.5,-2, 3e2]"))) {
+      Assert.assertEquals(EventType.startDocument, parser.next());
+      Assert.assertEquals(3, parser.getDoubles(values));
+      Assert.assertEquals(EventType.endArray, parser.getEvent());
+    }
+    try (
+      JsonParser parser = new JsonParser(new StringReader("[]"))) {
+      Assert.assertEquals(EventType.startDocument, parser.next());
+      Assert.assertEquals(0, parser.getDoubles(values));
+    }
+    Assert.assertArrayEquals(new double[] {
+      1.5, -2, 300
+    }, values.toDoubleArray(), 0);
+  }
+
+  @Test
+  public void testNextDouble() {
+    final String json = "[" + String.join(",", NUMBERS) + "]";
+    try (
+      JsonParser parser = new JsonParser(new StringReader(json))) {
+      Assert.assertEquals(EventType.startDocument, parser.next());
+      Assert.assertEquals(EventType.startArray, parser.next());
+      for (int i = 0; i < NUMBERS.length; i++) {
+        final String number = NUMBERS[i];
+        final double value = parser.nextDouble();
+        Assert.assertEquals(number, Double.doubleToLongBits(Double.parseDouble(number)),
+          Double.doubleToLongBits(value));
+        Assert.assertEquals(number, new BigDecimal(number), parser.getCurrentValue());
+        parser.next();
+      }
+      Assert.assertEquals(EventType.endArray, parser.getEvent());
+    }
+  }
+}
@@ -0,0 +1,383 @@
+package com.revolsys.core.test.record.io.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.jeometry.common.io.PathName;
+
+import org.jeometry.common.data.type.DataTypes;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.revolsys.geometry.model.Geometry;
+import com.revolsys.geometry.model.GeometryDataTypes;
+import com.revolsys.geometry.model.GeometryFactory;
+import com.revolsys.geopackage.GeoPackage;
+import com.revolsys.geopackage.GeoPackageRecordStore;
+import com.revolsys.io.file.Paths;
+import com.revolsys.jdbc.io.JdbcQueryIterator;
+import com.revolsys.record.ArrayRecord;
+import com.revolsys.record.Record;
+import com.revolsys.record.batch.RecordBatch;
+import com.revolsys.record.batch.RecordBatchReader;
+import com.revolsys.record.batch.RecordBatchWriter;
+import com.revolsys.record.io.ListRecordReader;
+import com.revolsys.record.io.RecordReader;
+import com.revolsys.record.io.RecordWriter;
+import com.revolsys.record.io.format.csv.CsvRecordReader;
+import com.revolsys.record.io.format.shp.ShapefileRecordReader;
+import com.revolsys.record.io.format.xbase.XbaseRecordReader;
+import com.revolsys.record.query.Query;
+import com.revolsys.record.schema.RecordDefinition;
+import com.revolsys.record.schema.RecordDefinitionBuilder;
+import com.revolsys.spring.resource.PathResource;
+
+public class RecordBatchTest {
+
+  private static final List<Integer> DELETED_INDEXES = Arrays.asList(0, 5, 6, 7, 13, 29);
+
+  private static final GeometryFactory GEOMETRY_FACTORY = GeometryFactory.fixed2d(3005, 1000.0,
+    1000.0);
+
+  private static final int POINT_COUNT = 30;
+
+  private static final String[] WKTS = {
+    "POINT(1 2)", //
+    "LINESTRING(1 2,3 4,5 6)", //
+    "POLYGON((0 0,10 0,10 10,0 10,0 0),(2 2,2 4,4 4,4 2,2 2))", //
+    "MULTIPOINT((1 1),(2 2))", //
+    "MULTILINESTRING((1 1,2 2),(3 3,4 4,5 5))", //
+    "MULTIPOLYGON(((0 0,1 0,1 1,0 0)),((5 5,6 5,6 6,5 5)))", //
+    "GEOMETRYCOLLECTION(POINT(1 1),LINESTRING(2 2,3 3))", //
+    "POLYGON EMPTY"
+  };
+
+  /**
+   * Compare the ID, NAME and geometry as the field types and names are changed by the formats.
+   */
+  private static void assertPointRecordsEqual(final List<Record> expected,
+    final List<Record> actual) {
+    Assert.assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      final Record expectedRecord = expected.get(i);
+      final Record record = actual.get(i);
+      Assert.assertEquals(expectedRecord.getInteger("ID"), record.getInteger("ID"));
+      Assert.assertEquals(expectedRecord.getString("NAME"), record.getString("NAME"));
+      Assert.assertEquals(expectedRecord.getGeometry(), record.getGeometry());
+    }
+  }
+
+  /**
+   * Read the records using the reader's native {@link RecordBatchReader#readBatch(RecordBatch)}
+   * and compare them to the records returned by the record iterator.
+   */
+  private static void assertReadBatchEqualsIterator(final List<Record> expected,
+    final RecordBatchReader reader) {
+    final RecordDefinition recordDefinition = reader.getRecordDefinition();
+    final List<Record> actual = readBatches(reader, 4);
+    assertRecordsEqual(recordDefinition, expected, actual);
+  }
+
+  private static void assertRecordsEqual(final RecordDefinition recordDefinition,
+    final List<Record> expected, final List<Record> actual) {
+    Assert.assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      final Record expectedRecord = expected.get(i);
+      final Record record = actual.get(i);
+      for (final String fieldName : recordDefinition.getFieldNames()) {
+        final Object expectedValue = expectedRecord.getValue(fieldName);
+        final Object value = record.getValue(fieldName);
+        if (expectedValue instanceof Geometry) {
+          Assert.assertTrue(fieldName + " " + i,
+            ((Geometry)expectedValue).equalsExact((Geometry)value));
+        } else {
+          Assert.assertEquals(fieldName + " " + i, expectedValue, value);
+        }
+      }
+    }
+  }
+
+  private static CsvRecordReader newCsvRecordReader(final Path file) {
+    final CsvRecordReader reader = new CsvRecordReader(new PathResource(file));
+    reader.setProperty("pointXFieldName", "X");
+    reader.setProperty("pointYFieldName", "Y");
+    reader.setProperty("geometryFactory", GEOMETRY_FACTORY);
+    return reader;
+  }
+
+  private static RecordDefinition newPointRecordDefinition() {
+    final RecordDefinitionBuilder builder = new RecordDefinitionBuilder("BATCH_POINT") //
+      .addField("ID", DataTypes.INT, 9) //
+      .addField("NAME", DataTypes.STRING, 20) //
+      .addField("GEOMETRY", GeometryDataTypes.POINT);
+    builder.setGeometryFactory(GEOMETRY_FACTORY);
+    return builder.getRecordDefinition();
+  }
+
+  private static List<Record> newPointRecords(final RecordDefinition recordDefinition) {
+    final List<Record> records = new ArrayList<>();
+    for (int i = 0; i < POINT_COUNT; i++) {
+      final Record record = new ArrayRecord(recordDefinition);
+      record.setValue("ID", i);
+      record.setValue("NAME", "name " + i);
+      record.setGeometryValue(GEOMETRY_FACTORY.point(1000000 + i * 10, 500000 + i * 5));
+      records.add(record);
+    }
+    return records;
+  }
+
+  private static RecordDefinition newRecordDefinition() {
+    return new RecordDefinitionBuilder("BatchTest") //
+      .addField("id", DataTypes.INT) //
+      .addField("code", DataTypes.LONG) //
+      .addField("name", DataTypes.STRING) //
+      .addField("amount", DataTypes.DECIMAL) //
+      .addField("length", DataTypes.DOUBLE) //
+      .addField("active", DataTypes.BOOLEAN) //
+      .addField("date", DataTypes.SQL_DATE) //
+      .addField("geometry", GeometryDataTypes.GEOMETRY) //
+      .getRecordDefinition();
+  }
+
+  private static List<Record> newRecords(final RecordDefinition recordDefinition,
+    final int count) {
+    final GeometryFactory geometryFactory = GeometryFactory.fixed2d(3005, 1000.0, 1000.0);
+    final List<Record> records = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      final Record record = new ArrayRecord(recordDefinition);
+      record.setValue("id", i);
+      if (i % 5 != 0) {
+        record.setValue("code", 10000000000L + i);
+        record.setValue("name", "name " + i % 7);
+      }
+      record.setValue("amount", new BigDecimal(i).movePointLeft(2));
+      record.setValue("length", i / 3.0);
+      record.setValue("active", i % 2 == 0);
+      record.setValue("date", new java.sql.Date(1500000000000L + i * 86400000L));
+      if (i % 9 != 0) {
+        final Geometry geometry = geometryFactory.geometry(WKTS[i % WKTS.length]);
+        record.setGeometryValue(geometry);
+      }
+      records.add(record);
+    }
+    return records;
+  }
+
+  private static List<Record> readBatches(final RecordBatchReader reader, final int capacity) {
+    final List<Record> records = new ArrayList<>();
+    reader.forEachBatch(capacity, batch -> {
+      Assert.assertTrue(batch.getRecordCount() <= capacity);
+      for (int i = 0; i < batch.getRecordCount(); i++) {
+        records.add(batch.newRecord(i));
+      }
+    });
+    return records;
+  }
+
+  private static List<Record> readRecords(final Iterable<Record> reader) {
+    final List<Record> records = new ArrayList<>();
+    for (final Record record : reader) {
+      records.add(record);
+    }
+    return records;
+  }
+
+  @Test
+  public void testBatch() {
+    final RecordDefinition recordDefinition = newRecordDefinition();
+    final List<Record> records = newRecords(recordDefinition, 100);
+    final RecordBatch batch = new RecordBatch(recordDefinition, records.size());
+    for (final Record record : records) {
+      batch.addRecord(record);
+    }
+    Assert.assertTrue(batch.isFull());
+    final List<Record> actual = new ArrayList<>();
+    for (int i = 0; i < batch.getRecordCount(); i++) {
+      actual.add(batch.newRecord(i));
+    }
+    assertRecordsEqual(recordDefinition, records, actual);
+
+    batch.clear();
+    Assert.assertTrue(batch.isEmpty());
+    final int index = batch.addRecord();
+    Assert.assertNull(batch.getValue(index, "name"));
+    Assert.assertNull(batch.getValue(index, "geometry"));
+  }
+
+  @Test
+  public void testBatchReaderWriter() {
+    final RecordDefinition recordDefinition = newRecordDefinition();
+    final List<Record> records = newRecords(recordDefinition, 250);
+    final List<Record> actual = new ArrayList<>();
+    final ListRecordReader listReader = new ListRecordReader(recordDefinition, records);
+    try (
+      RecordBatchReader batchReader = RecordBatchReader.newBatchReader(listReader);
+      RecordReader reader = batchReader.newRecordReader(64)) {
+      final RecordBatchWriter batchWriter = new RecordBatchWriter() {
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public RecordDefinition getRecordDefinition() {
+          return recordDefinition;
+        }
+
+        @Override
+        public void write(final RecordBatch batch) {
+          Assert.assertTrue(batch.getRecordCount() <= 32);
+          for (int i = 0; i < batch.getRecordCount(); i++) {
+            actual.add(batch.newRecord(i));
+          }
+        }
+      };
+      try (
+        RecordWriter writer = batchWriter.newRecordWriter(32)) {
+        for (final Record record : reader) {
+          writer.write(record);
+        }
+      }
+    }
+    assertRecordsEqual(recordDefinition, records, actual);
+  }
+
+  @Test
+  public void testCsvReadBatch() throws IOException {
+    final Path directory = Files.createTempDirectory("batch");
+    try {
+      final Path file = directory.resolve("points.csv");
+      final List<String> lines = new ArrayList<>();
+      lines.add("ID,NAME,X,Y");
+      for (int i = 0; i < POINT_COUNT; i++) {
+        if (i % 7 == 3) {
+          lines.add(i + ",\"name, " + i + "\",," + (500000 + i * 5));
+        } else {
+          lines.add(i + ",name " + i + "," + (1000000 + i * 10) + "," + (500000 + i * 5));
+        }
+      }
+      Files.write(file, lines, StandardCharsets.UTF_8);
+
+      final List<Record> expected;
+      try (
+        CsvRecordReader reader = newCsvRecordReader(file)) {
+        expected = readRecords(reader);
+      }
+      Assert.assertEquals(POINT_COUNT, expected.size());
+      Assert.assertEquals(GEOMETRY_FACTORY.point(1000010, 500005), expected.get(1).getGeometry());
+      Assert.assertNull(expected.get(3).getGeometry());
+      try (
+        CsvRecordReader reader = newCsvRecordReader(file)) {
+        assertReadBatchEqualsIterator(expected, reader);
+      }
+    } finally {
+      Paths.deleteDirectories(directory);
+    }
+  }
+
+  @Test
+  public void testGeoPackageReadBatch() throws IOException {
+    final File file = File.createTempFile("batch", ".gpkg");
+    file.delete();
+    try {
+      final RecordDefinition recordDefinition = newPointRecordDefinition();
+      final List<Record> records = newPointRecords(recordDefinition);
+      try (
+        RecordWriter writer = RecordWriter.newRecordWriter(recordDefinition, file)) {
+        for (final Record record : records) {
+          writer.write(record);
+        }
+      }
+
+      try (
+        GeoPackageRecordStore recordStore = GeoPackage.openRecordStore(file)) {
+        recordStore.initialize();
+        final Query query = Query.orderBy(PathName.newPathName("BATCH_POINT"), "ID");
+        final List<Record> expected;
+        try (
+          JdbcQueryIterator iterator = new JdbcQueryIterator(recordStore, query,
+            Collections.emptyMap())) {
+          expected = readRecords(iterator);
+        }
+        assertPointRecordsEqual(records, expected);
+        try (
+          JdbcQueryIterator iterator = new JdbcQueryIterator(recordStore, query,
+            Collections.emptyMap())) {
+          assertReadBatchEqualsIterator(expected, iterator);
+        }
+      }
+    } finally {
+      file.delete();
+    }
+  }
+
+  /**
+   * Mark some of the .dbf records as deleted. The geometries for the deleted records must be
+   * skipped so the remaining records have the correct geometry.
+   */
+  @Test
+  public void testShapefileDeletedRecordsReadBatch() throws IOException {
+    final Path directory = Files.createTempDirectory("batch");
+    try {
+      final File file = directory.resolve("points.shp").toFile();
+      final RecordDefinition recordDefinition = newPointRecordDefinition();
+      final List<Record> records = newPointRecords(recordDefinition);
+      try (
+        RecordWriter writer = RecordWriter.newRecordWriter(recordDefinition, file)) {
+        for (final Record record : records) {
+          writer.write(record);
+        }
+      }
+
+      final Path dbfPath = directory.resolve("points.dbf");
+      final byte[] dbf = Files.readAllBytes(dbfPath);
+      final int headerLength = dbf[8] & 0xFF | (dbf[9] & 0xFF) << 8;
+      final int recordLength = dbf[10] & 0xFF | (dbf[11] & 0xFF) << 8;
+      final List<Record> notDeletedRecords = new ArrayList<>();
+      for (int i = 0; i < records.size(); i++) {
+        if (DELETED_INDEXES.contains(i)) {
+          dbf[headerLength + i * recordLength] = '*';
+        } else {
+          notDeletedRecords.add(records.get(i));
+        }
+      }
+      Files.write(dbfPath, dbf);
+
+      final List<Record> expected;
+      try (
+        ShapefileRecordReader reader = new ShapefileRecordReader(new PathResource(file),
+          ArrayRecord.FACTORY)) {
+        expected = readRecords(reader);
+      }
+      assertPointRecordsEqual(notDeletedRecords, expected);
+      try (
+        ShapefileRecordReader reader = new ShapefileRecordReader(new PathResource(file),
+          ArrayRecord.FACTORY)) {
+        assertReadBatchEqualsIterator(expected, reader);
+      }
+
+      final List<Record> expectedDbf;
+      try (
+        XbaseRecordReader reader = new XbaseRecordReader(new PathResource(dbfPath),
+          ArrayRecord.FACTORY)) {
+        expectedDbf = readRecords(reader);
+      }
+      Assert.assertEquals(notDeletedRecords.size(), expectedDbf.size());
+      Assert.assertEquals("name 1", expectedDbf.get(0).getString("NAME"));
+      try (
+        XbaseRecordReader reader = new XbaseRecordReader(new PathResource(dbfPath),
+          ArrayRecord.FACTORY)) {
+        assertReadBatchEqualsIterator(expectedDbf, reader);
+      }
+    } finally {
+      Paths.deleteDirectories(directory);
+    }
+  }
+}
@@ -0,0 +1,215 @@
+package com.revolsys.core.test.record.io.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.jeometry.common.data.type.DataTypes;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.revolsys.geometry.model.BoundingBox;
+import com.revolsys.geometry.model.GeometryDataTypes;
+import com.revolsys.geometry.model.GeometryFactory;
+import com.revolsys.io.file.Paths;
+import com.revolsys.record.ArrayRecord;
+import com.revolsys.record.Record;
+import com.revolsys.record.io.RecordWriter;
+import com.revolsys.record.io.format.shp.ShapefileRecordReader;
+import com.revolsys.record.query.Condition;
+import com.revolsys.record.query.Q;
+import com.revolsys.record.query.Query;
+import com.revolsys.record.schema.RecordDefinition;
+import com.revolsys.record.schema.RecordDefinitionBuilder;
+import com.revolsys.spring.resource.PathResource;
+
+/**
+ * Check that pushing the bounding box and field names into the {@link ShapefileRecordReader}
+ * returns the same records as reading all the records and filtering them.
+ */
+public class ShapefileRecordReaderTest {
+
+  private static final List<String> FIELD_NAMES = Arrays.asList("ID", "MEMO", "NAME", "COUNT");
+
+  private static final GeometryFactory GEOMETRY_FACTORY = GeometryFactory.fixed2d(3005, 1000.0,
+    1000.0);
+
+  private static final BoundingBox[] QUERY_BOUNDING_BOXES = {
+    GEOMETRY_FACTORY.newBoundingBox(1000420, 500730, 1001190, 501260),
+    GEOMETRY_FACTORY.newBoundingBox(1000055, 500055, 1000060, 500060),
+    GEOMETRY_FACTORY.newBoundingBox(999000, 499000, 1003000, 503000),
+    GEOMETRY_FACTORY.newBoundingBox(900000, 400000, 900100, 400100)
+  };
+
+  private static final int SIZE = 20;
+
+  private static void assertRecordsEqual(final List<Record> expected, final List<Record> actual,
+    final Collection<String> fieldNames) {
+    Assert.assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      final Record expectedRecord = expected.get(i);
+      final Record record = actual.get(i);
+      Assert.assertEquals(expectedRecord.getGeometry(), record.getGeometry());
+      for (final String fieldName : FIELD_NAMES) {
+        final Object value = record.getValue(fieldName);
+        if (fieldNames == null || fieldNames.contains(fieldName)) {
+          Assert.assertEquals(fieldName, expectedRecord.getValue(fieldName), value);
+        } else {
+          Assert.assertNull(fieldName, value);
+        }
+      }
+    }
+  }
+
+  private static List<Record> filter(final List<Record> records, final BoundingBox boundingBox) {
+    final List<Record> filtered = new ArrayList<>();
+    for (final Record record : records) {
+      if (record.getGeometry().getBoundingBox().bboxIntersects(boundingBox)) {
+        filtered.add(record);
+      }
+    }
+    return filtered;
+  }
+
+  private static List<Record> read(final File file, final BoundingBox boundingBox,
+    final Collection<String> fieldNames) throws IOException {
+    final List<Record> records = new ArrayList<>();
+    try (
+      ShapefileRecordReader reader = new ShapefileRecordReader(new PathResource(file),
+        ArrayRecord.FACTORY)) {
+      reader.setBoundingBox(boundingBox);
+      reader.setFieldNames(fieldNames);
+      for (final Record record : reader) {
+        records.add(record);
+      }
+    }
+    return records;
+  }
+
+  /**
+   * Write a shapefile of squares on a grid. The MEMO field is written as a 10 character field and
+   * then changed to a memo field in the .dbf header.
+   */
+  private static File writeShapefile(final Path directory) throws IOException {
+    final File file = directory.resolve("pushdown.shp").toFile();
+    final RecordDefinition recordDefinition = new RecordDefinitionBuilder("PUSHDOWN") //
+      .addField("ID", DataTypes.INT, 9) //
+      .addField("MEMO", DataTypes.STRING, 10) //
+      .addField("NAME", DataTypes.STRING, 20) //
+      .addField("COUNT", DataTypes.INT, 9) //
+      .addField("GEOMETRY", GeometryDataTypes.POLYGON) //
+      .getRecordDefinition();
+    try (
+      RecordWriter writer = RecordWriter.newRecordWriter(recordDefinition, file)) {
+      for (int i = 0; i < SIZE * SIZE; i++) {
+        final double x1 = 1000000 + i % SIZE * 100;
+        final double y1 = 500000 + i / SIZE * 100;
+        final double x2 = x1 + 50 + i % 7 * 10;
+        final double y2 = y1 + 50 + i % 5 * 10;
+        final Record record = new ArrayRecord(recordDefinition);
+        record.setValue("ID", i);
+        record.setValue("MEMO", String.format("%010d", i + 1));
+        record.setValue("NAME", "name " + i);
+        record.setValue("COUNT", i % 11);
+        record
+          .setGeometryValue(GEOMETRY_FACTORY.polygon(2, x1, y1, x1, y2, x2, y2, x2, y1, x1, y1));
+        writer.write(record);
+      }
+    }
+
+    final Path dbfPath = directory.resolve("pushdown.dbf");
+    final byte[] dbf = Files.readAllBytes(dbfPath);
+    boolean found = false;
+    for (int offset = 32; dbf[offset] != 0x0D; offset += 32) {
+      final String fieldName = new String(dbf, offset, 11, StandardCharsets.US_ASCII).trim();
+      if (fieldName.startsWith("MEMO")) {
+        dbf[offset + 11] = 'M';
+        found = true;
+      }
+    }
+    Assert.assertTrue(found);
+    Files.write(dbfPath, dbf);
+    return file;
+  }
+
+  @Test
+  public void testBoundingBoxPushdown() throws IOException {
+    final Path directory = Files.createTempDirectory("shppushdown");
+    try {
+      final File file = writeShapefile(directory);
+      final List<Record> allRecords = read(file, null, null);
+      Assert.assertEquals(SIZE * SIZE, allRecords.size());
+      Assert.assertEquals("name 1", allRecords.get(1).getValue("NAME"));
+      Assert.assertEquals(1, allRecords.get(1).getInteger("COUNT").intValue());
+      for (final BoundingBox boundingBox : QUERY_BOUNDING_BOXES) {
+        final List<Record> expected = filter(allRecords, boundingBox);
+        assertRecordsEqual(expected, read(file, boundingBox, null), null);
+      }
+    } finally {
+      Paths.deleteDirectories(directory);
+    }
+  }
+
+  @Test
+  public void testFieldPushdown() throws IOException {
+    final Path directory = Files.createTempDirectory("shppushdown");
+    try {
+      final File file = writeShapefile(directory);
+      final List<Record> allRecords = read(file, null, null);
+      final List<List<String>> fieldNamesList = Arrays.asList(Arrays.asList("ID", "COUNT"),
+        Arrays.asList("NAME"), Arrays.asList("MEMO", "COUNT"), Arrays.<String> asList());
+      for (final List<String> fieldNames : fieldNamesList) {
+        assertRecordsEqual(allRecords, read(file, null, fieldNames), fieldNames);
+        for (final BoundingBox boundingBox : QUERY_BOUNDING_BOXES) {
+          final List<Record> expected = filter(allRecords, boundingBox);
+          assertRecordsEqual(expected, read(file, boundingBox, fieldNames), fieldNames);
+        }
+      }
+    } finally {
+      Paths.deleteDirectories(directory);
+    }
+  }
+
+  @Test
+  public void testQueryPushdown() throws IOException {
+    final Path directory = Files.createTempDirectory("shppushdown");
+    try {
+      final File file = writeShapefile(directory);
+      final List<Record> allRecords = read(file, null, null);
+      final RecordDefinition recordDefinition = allRecords.get(0).getRecordDefinition();
+      for (final BoundingBox boundingBox : QUERY_BOUNDING_BOXES) {
+        final Query query = Query.intersects(recordDefinition, boundingBox);
+        query.and(Q.greaterThan("COUNT", 3));
+        query.select("ID", "NAME");
+        final Condition condition = query.getWhereCondition();
+
+        final List<Record> expected = new ArrayList<>();
+        for (final Record record : allRecords) {
+          if (condition.test(record)) {
+            expected.add(record);
+          }
+        }
+        final List<Record> records = new ArrayList<>();
+        try (
+          ShapefileRecordReader reader = new ShapefileRecordReader(new PathResource(file),
+            ArrayRecord.FACTORY)) {
+          reader.setQuery(query);
+          for (final Record record : reader) {
+            if (condition.test(record)) {
+              records.add(record);
+            }
+          }
+        }
+        assertRecordsEqual(expected, records, Arrays.asList("ID", "NAME", "COUNT"));
+      }
+    } finally {
+      Paths.deleteDirectories(directory);
+    }
+  }
+}
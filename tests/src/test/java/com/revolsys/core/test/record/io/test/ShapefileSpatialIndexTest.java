@@ -0,0 +1,201 @@
+package com.revolsys.core.test.record.io.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jeometry.common.data.type.DataTypes;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.revolsys.geometry.index.hprtree.HilbertPackedRTree;
+import com.revolsys.geometry.model.BoundingBox;
+import com.revolsys.geometry.model.GeometryDataTypes;
+import com.revolsys.geometry.model.GeometryFactory;
+import com.revolsys.io.file.Paths;
+import com.revolsys.record.ArrayRecord;
+import com.revolsys.record.Record;
+import com.revolsys.record.io.RecordWriter;
+import com.revolsys.record.io.format.shp.ShapefileRecordReader;
+import com.revolsys.record.io.format.shp.ShapefileSpatialIndex;
+import com.revolsys.record.schema.RecordDefinition;
+import com.revolsys.record.schema.RecordDefinitionBuilder;
+import com.revolsys.spring.resource.PathResource;
+
+public class ShapefileSpatialIndexTest {
+
+  private static final GeometryFactory GEOMETRY_FACTORY = GeometryFactory.fixed2d(3005, 1000.0,
+    1000.0);
+
+  private static final RecordDefinition RECORD_DEFINITION = new RecordDefinitionBuilder(
+    "INDEX_TEST") //
+    .addField("ID", DataTypes.INT) //
+    .addField("GEOMETRY", GeometryDataTypes.POLYGON) //
+    .getRecordDefinition();
+
+  private static final int SIZE = 20;
+
+  private static int[] getExpectedIndexes(final List<BoundingBox> boundingBoxes,
+    final BoundingBox boundingBox) {
+    final List<Integer> indexes = new ArrayList<>();
+    for (int i = 0; i < boundingBoxes.size(); i++) {
+      if (boundingBoxes.get(i).bboxIntersects(boundingBox)) {
+        indexes.add(i);
+      }
+    }
+    final int[] expected = new int[indexes.size()];
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] = indexes.get(i);
+    }
+    return expected;
+  }
+
+  private static List<Record> readAll(final File file) throws IOException {
+    final List<Record> records = new ArrayList<>();
+    try (
+      ShapefileRecordReader reader = new ShapefileRecordReader(new PathResource(file),
+        ArrayRecord.FACTORY)) {
+      for (final Record record : reader) {
+        records.add(record);
+      }
+    }
+    return records;
+  }
+
+  private static List<Integer> readIds(final File file, final BoundingBox boundingBox,
+    final boolean useSpatialIndex) throws IOException {
+    final List<Integer> ids = new ArrayList<>();
+    try (
+      ShapefileRecordReader reader = new ShapefileRecordReader(new PathResource(file),
+        ArrayRecord.FACTORY)) {
+      reader.setBoundingBox(boundingBox);
+      reader.setUseSpatialIndex(useSpatialIndex);
+      for (final Record record : reader) {
+        ids.add(record.getInteger("ID"));
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * Write a shapefile of squares on a grid, the square for record i is offset by shift.
+   */
+  private static List<BoundingBox> writeShapefile(final File file, final double shift) {
+    final List<BoundingBox> boundingBoxes = new ArrayList<>();
+    try (
+      RecordWriter writer = RecordWriter.newRecordWriter(RECORD_DEFINITION, file)) {
+      for (int i = 0; i < SIZE * SIZE; i++) {
+        final double x1 = 1000000 + i % SIZE * 100 + shift;
+        final double y1 = 500000 + i / SIZE * 100 + shift;
+        final double x2 = x1 + 50 + i % 7 * 10;
+        final double y2 = y1 + 50 + i % 5 * 10;
+        final Record record = new ArrayRecord(RECORD_DEFINITION);
+        record.setValue("ID", i);
+        record
+          .setGeometryValue(GEOMETRY_FACTORY.polygon(2, x1, y1, x1, y2, x2, y2, x2, y1, x1, y1));
+        writer.write(record);
+        boundingBoxes.add(GEOMETRY_FACTORY.newBoundingBox(x1, y1, x2, y2));
+      }
+    }
+    return boundingBoxes;
+  }
+
+  @Test
+  public void testBuildIndex() throws IOException {
+    final Path directory = Files.createTempDirectory("shpindex");
+    try {
+      final File file = directory.resolve("test.shp").toFile();
+      final List<BoundingBox> boundingBoxes = writeShapefile(file, 0);
+      final Path indexPath = ShapefileSpatialIndex.getIndexPath(file.toPath());
+      Assert.assertFalse(Files.exists(indexPath));
+
+      final HilbertPackedRTree<Integer> index = ShapefileSpatialIndex.getIndex(file);
+      Assert.assertTrue(Files.exists(indexPath));
+      Assert.assertEquals(Files.getLastModifiedTime(file.toPath()),
+        Files.getLastModifiedTime(indexPath));
+
+      final BoundingBox boundingBox = GEOMETRY_FACTORY.newBoundingBox(1000420, 500730, 1001190,
+        501260);
+      final int[] expected = getExpectedIndexes(boundingBoxes, boundingBox);
+      Assert.assertTrue(expected.length > 0);
+      Assert.assertArrayEquals(expected,
+        ShapefileSpatialIndex.getRecordIndexes(index, boundingBox));
+      Assert.assertArrayEquals(new int[] {
+        expected[1], expected[2]
+      }, ShapefileSpatialIndex.getRecordIndexes(index, boundingBox, expected[1], expected[3]));
+    } finally {
+      Paths.deleteDirectories(directory);
+    }
+  }
+
+  @Test
+  public void testQueryMatchesFullScan() throws IOException {
+    final Path directory = Files.createTempDirectory("shpindex");
+    try {
+      final File file = directory.resolve("test.shp").toFile();
+      writeShapefile(file, 0);
+      final BoundingBox[] boundingBoxes = {
+        GEOMETRY_FACTORY.newBoundingBox(1000420, 500730, 1001190, 501260),
+        GEOMETRY_FACTORY.newBoundingBox(1000055, 500055, 1000060, 500060),
+        GEOMETRY_FACTORY.newBoundingBox(999000, 499000, 1003000, 503000),
+        GEOMETRY_FACTORY.newBoundingBox(900000, 400000, 900100, 400100)
+      };
+      for (final BoundingBox boundingBox : boundingBoxes) {
+        final List<Integer> expected = new ArrayList<>();
+        for (final Record record : readAll(file)) {
+          if (record.getGeometry().getBoundingBox().bboxIntersects(boundingBox)) {
+            expected.add(record.getInteger("ID"));
+          }
+        }
+        Assert.assertEquals(boundingBox.toString(), expected, readIds(file, boundingBox, true));
+        Assert.assertEquals(boundingBox.toString(), expected, readIds(file, boundingBox, false));
+      }
+    } finally {
+      Paths.deleteDirectories(directory);
+    }
+  }
+
+  @Test
+  public void testStaleIndex() throws IOException {
+    final Path directory = Files.createTempDirectory("shpindex");
+    try {
+      final File file = directory.resolve("test.shp").toFile();
+      final Path shpPath = file.toPath();
+      final Path indexPath = ShapefileSpatialIndex.getIndexPath(shpPath);
+      final BoundingBox boundingBox = GEOMETRY_FACTORY.newBoundingBox(1000000, 500000, 1000010,
+        500010);
+
+      final List<BoundingBox> oldBoundingBoxes = writeShapefile(file, 0);
+      ShapefileSpatialIndex.getIndex(file);
+      final byte[] oldIndexBytes = Files.readAllBytes(indexPath);
+      final int[] oldIndexes = getExpectedIndexes(oldBoundingBoxes, boundingBox);
+      Assert.assertTrue(oldIndexes.length > 0);
+
+      // Move the records and put back the old sidecar with the same time as the .shp file, the
+      // sidecar is trusted and read instead of being rebuilt
+      final List<BoundingBox> boundingBoxes = writeShapefile(file, 40);
+      final FileTime shpTime = Files.getLastModifiedTime(shpPath);
+      Files.write(indexPath, oldIndexBytes);
+      Files.setLastModifiedTime(indexPath, shpTime);
+      Assert.assertArrayEquals(oldIndexes,
+        ShapefileSpatialIndex.getRecordIndexes(ShapefileSpatialIndex.getIndex(file), boundingBox));
+
+      // Once the .shp file time differs the stale sidecar is rebuilt
+      final FileTime newShpTime = FileTime.fromMillis(shpTime.toMillis() + 10000);
+      Files.setLastModifiedTime(shpPath, newShpTime);
+      final int[] expected = getExpectedIndexes(boundingBoxes, boundingBox);
+      Assert.assertEquals(0, expected.length);
+      Assert.assertArrayEquals(expected,
+        ShapefileSpatialIndex.getRecordIndexes(ShapefileSpatialIndex.getIndex(file), boundingBox));
+      Assert.assertEquals(newShpTime, Files.getLastModifiedTime(indexPath));
+      Assert.assertArrayEquals(expected, ShapefileSpatialIndex
+        .getRecordIndexes(HilbertPackedRTree.read(indexPath, Integer::valueOf), boundingBox));
+    } finally {
+      Paths.deleteDirectories(directory);
+    }
+  }
+}
@@ -0,0 +1,168 @@
+package com.revolsys.core.test.record.io.test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.jeometry.common.data.type.DataType;
+import org.jeometry.common.data.type.DataTypes;
+import org.jeometry.common.data.type.FunctionDataType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.revolsys.geometry.model.GeometryDataTypes;
+import com.revolsys.geometry.model.GeometryFactory;
+import com.revolsys.record.ArrayRecord;
+import com.revolsys.record.Record;
+import com.revolsys.record.comparator.RecordFieldComparator;
+import com.revolsys.record.io.ExternalRecordSorter;
+import com.revolsys.record.io.ListRecordReader;
+import com.revolsys.record.io.SortedRecordReader;
+import com.revolsys.record.schema.RecordDefinition;
+import com.revolsys.record.schema.RecordDefinitionBuilder;
+
+public class SortedRecordReaderTest {
+
+  /**
+   * A value that isn't serializable.
+   */
+  private static class Label {
+    private final String text;
+
+    private Label(final String text) {
+      this.text = text;
+    }
+
+    @Override
+    public String toString() {
+      return this.text;
+    }
+  }
+
+  private static class LabelRecord extends ArrayRecord {
+    private static final long serialVersionUID = 1L;
+
+    private LabelRecord(final RecordDefinition recordDefinition) {
+      super(recordDefinition);
+    }
+  }
+
+  private static final DataType LABEL = new FunctionDataType("label", Label.class, value -> {
+    if (value == null || value instanceof Label) {
+      return value;
+    } else {
+      return new Label(value.toString());
+    }
+  }, value -> value.toString());
+
+  private static List<Record> newRecords(final RecordDefinition recordDefinition,
+    final int count) {
+    final GeometryFactory geometryFactory = GeometryFactory.fixed2d(3005, 1000.0, 1000.0);
+    final Random random = new Random(1);
+    final List<Record> records = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      final Record record = new ArrayRecord(recordDefinition);
+      record.setValue("id", i);
+      record.setValue("group", random.nextInt(10));
+      if (i % 7 != 0) {
+        record.setValue("name", "name " + random.nextInt(count));
+      }
+      record.setValue("amount", new BigDecimal(i).movePointLeft(2));
+      record.setValue("timestamp", new Timestamp(1500000000000L + i));
+      record.setValue("geometry", geometryFactory.lineString(2, i, i * 2.0, i + 1, i * 2.0 + 1));
+      records.add(record);
+    }
+    return records;
+  }
+
+  private void assertSorted(final int maxRecordsInMemory, final int expectedRunCount) {
+    final RecordDefinition recordDefinition = new RecordDefinitionBuilder("SortTest") //
+      .addField("id", DataTypes.INT) //
+      .addField("group", DataTypes.INT) //
+      .addField("name", DataTypes.STRING) //
+      .addField("amount", DataTypes.DECIMAL) //
+      .addField("timestamp", DataTypes.TIMESTAMP) //
+      .addField("geometry", GeometryDataTypes.LINE_STRING) //
+      .getRecordDefinition();
+    final List<Record> records = newRecords(recordDefinition, 1000);
+    final Comparator<Record> comparator = new RecordFieldComparator("group", "name");
+    final List<Record> expected = new ArrayList<>(records);
+    Collections.sort(expected, comparator);
+
+    try (
+      ExternalRecordSorter sorter = new ExternalRecordSorter(comparator, maxRecordsInMemory)) {
+      for (final Record record : records) {
+        sorter.add(record);
+      }
+      final Iterator<Record> sorted = sorter.sort();
+      Assert.assertEquals(expectedRunCount, sorter.getRunCount());
+      for (final Record expectedRecord : expected) {
+        Assert.assertTrue(sorted.hasNext());
+        final Record record = sorted.next();
+        for (final String fieldName : recordDefinition.getFieldNames()) {
+          Assert.assertEquals(fieldName, expectedRecord.getValue(fieldName),
+            record.getValue(fieldName));
+        }
+      }
+      Assert.assertFalse(sorted.hasNext());
+    }
+
+    try (
+      SortedRecordReader reader = new SortedRecordReader(
+        new ListRecordReader(recordDefinition, records), comparator, maxRecordsInMemory)) {
+      int i = 0;
+      for (final Record record : reader) {
+        Assert.assertEquals(expected.get(i++).getValue("id"), record.getValue("id"));
+      }
+      Assert.assertEquals(expected.size(), i);
+    }
+  }
+
+  @Test
+  public void testRecordClassAndValues() {
+    final RecordDefinition recordDefinition = new RecordDefinitionBuilder("LabelTest") //
+      .addField("id", DataTypes.INT) //
+      .addField("label", LABEL) //
+      .getRecordDefinition();
+    final List<Record> records = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      final Record record = new LabelRecord(recordDefinition);
+      record.setValue("id", 99 - i);
+      record.setValue("label", new Label("label " + i));
+      records.add(record);
+    }
+    try (
+      ExternalRecordSorter sorter = new ExternalRecordSorter(new RecordFieldComparator("id"),
+        10)) {
+      for (final Record record : records) {
+        sorter.add(record);
+      }
+      final Iterator<Record> sorted = sorter.sort();
+      Assert.assertEquals(10, sorter.getRunCount());
+      for (int i = 0; i < 100; i++) {
+        final Record record = sorted.next();
+        Assert.assertEquals(LabelRecord.class, record.getClass());
+        Assert.assertEquals(i, record.getInteger("id").intValue());
+        final Object label = record.getValue("label");
+        Assert.assertTrue(label instanceof Label);
+        Assert.assertEquals("label " + (99 - i), label.toString());
+      }
+      Assert.assertFalse(sorted.hasNext());
+    }
+  }
+
+  @Test
+  public void testSortInMemory() {
+    assertSorted(1000, 0);
+  }
+
+  @Test
+  public void testSortRuns() {
+    assertSorted(64, 16);
+  }
+}
@@ -0,0 +1,116 @@
+package com.revolsys.core.test.record.io.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jeometry.common.data.type.DataTypes;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.revolsys.record.ArrayRecord;
+import com.revolsys.record.Record;
+import com.revolsys.record.io.ParallelRecordReader;
+import com.revolsys.record.io.format.xbase.XbaseRecordReader;
+import com.revolsys.record.io.format.xbase.XbaseRecordWriter;
+import com.revolsys.record.schema.RecordDefinition;
+import com.revolsys.record.schema.RecordDefinitionBuilder;
+import com.revolsys.spring.resource.PathResource;
+
+public class XbaseRecordReaderTest {
+
+  private static final int RECORD_COUNT = 1003;
+
+  private static List<Integer> getExpectedIds() {
+    final List<Integer> ids = new ArrayList<>();
+    for (int i = 0; i < RECORD_COUNT; i++) {
+      ids.add(i);
+    }
+    return ids;
+  }
+
+  private static File writeFile() throws IOException {
+    final File file = File.createTempFile("split", ".dbf");
+    final RecordDefinition recordDefinition = new RecordDefinitionBuilder("SPLIT_TEST") //
+      .addField("ID", DataTypes.INT, 9) //
+      .addField("NAME", DataTypes.STRING, 20) //
+      .getRecordDefinition();
+    try (
+      XbaseRecordWriter writer = new XbaseRecordWriter(recordDefinition,
+        new PathResource(file))) {
+      for (int i = 0; i < RECORD_COUNT; i++) {
+        final Record record = new ArrayRecord(recordDefinition);
+        record.setValue("ID", i);
+        record.setValue("NAME", "name " + i);
+        writer.write(record);
+      }
+    }
+    return file;
+  }
+
+  private List<Integer> readIds(final Iterable<Record> reader) {
+    final List<Integer> ids = new ArrayList<>();
+    for (final Record record : reader) {
+      final int id = record.getInteger("ID");
+      ids.add(id);
+      Assert.assertEquals("name " + id, record.getString("NAME"));
+    }
+    return ids;
+  }
+
+  @Test
+  public void testParallelReader() throws IOException {
+    final File file = writeFile();
+    try {
+      final List<Integer> expected = getExpectedIds();
+      try (
+        XbaseRecordReader reader = new XbaseRecordReader(new PathResource(file),
+          ArrayRecord.FACTORY);
+        ParallelRecordReader parallelReader = reader.newParallelReader(4, true)) {
+        Assert.assertEquals(expected, readIds(parallelReader));
+      }
+
+      try (
+        XbaseRecordReader reader = new XbaseRecordReader(new PathResource(file),
+          ArrayRecord.FACTORY);
+        ParallelRecordReader parallelReader = reader.newParallelReader(4, false)) {
+        final List<Integer> ids = readIds(parallelReader);
+        Collections.sort(ids);
+        Assert.assertEquals(expected, ids);
+      }
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void testSplitReaders() throws IOException {
+    final File file = writeFile();
+    try {
+      try (
+        XbaseRecordReader reader = new XbaseRecordReader(new PathResource(file),
+          ArrayRecord.FACTORY)) {
+        final List<XbaseRecordReader> splitReaders = reader.newSplitReaders(4);
+        Assert.assertEquals(4, splitReaders.size());
+        // The header is read without opening the reader that was split
+        Assert.assertEquals(0, reader.getRecordCount());
+
+        final List<Integer> ids = new ArrayList<>();
+        for (final XbaseRecordReader splitReader : splitReaders) {
+          try {
+            ids.addAll(readIds(splitReader));
+          } finally {
+            splitReader.close();
+          }
+        }
+        Assert.assertEquals(getExpectedIds(), ids);
+
+        Assert.assertEquals(Collections.singletonList(reader), reader.newSplitReaders(1));
+      }
+    } finally {
+      file.delete();
+    }
+  }
+}
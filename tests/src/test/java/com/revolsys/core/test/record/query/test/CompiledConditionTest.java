@@ -0,0 +1,253 @@
+package com.revolsys.core.test.record.query.test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jeometry.common.data.type.DataTypes;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.revolsys.collection.map.LinkedHashMapEx;
+import com.revolsys.collection.map.MapEx;
+import com.revolsys.record.ArrayRecord;
+import com.revolsys.record.Record;
+import com.revolsys.record.query.Column;
+import com.revolsys.record.query.CompiledCondition;
+import com.revolsys.record.query.Condition;
+import com.revolsys.record.query.Q;
+import com.revolsys.record.query.SqlCondition;
+import com.revolsys.record.query.Value;
+import com.revolsys.record.query.functions.Lower;
+import com.revolsys.record.query.functions.Upper;
+import com.revolsys.record.schema.FieldDefinition;
+import com.revolsys.record.schema.RecordDefinition;
+import com.revolsys.record.schema.RecordDefinitionBuilder;
+
+/**
+ * Check that the {@link CompiledCondition} returns the same result as {@link Condition#test(MapEx)}
+ * for records of the record definition, records of another record definition and maps.
+ */
+public class CompiledConditionTest {
+
+  private static final RecordDefinition OTHER_RECORD_DEFINITION = new RecordDefinitionBuilder(
+    "OTHER") //
+      .addField("NAME", DataTypes.STRING, 20) //
+      .addField("ID", DataTypes.INT) //
+      .addField("AMOUNT", DataTypes.DOUBLE) //
+      .getRecordDefinition();
+
+  private static final RecordDefinition RECORD_DEFINITION = new RecordDefinitionBuilder(
+    "COMPILED") //
+      .addField("ID", DataTypes.INT) //
+      .addField("NAME", DataTypes.STRING, 20) //
+      .addField("AMOUNT", DataTypes.DOUBLE) //
+      .addField("CODE", DataTypes.STRING, 5) //
+      .getRecordDefinition();
+
+  private static final FieldDefinition AMOUNT = RECORD_DEFINITION.getField("AMOUNT");
+
+  private static final FieldDefinition ID = RECORD_DEFINITION.getField("ID");
+
+  private static final FieldDefinition NAME = RECORD_DEFINITION.getField("NAME");
+
+  private static final Object[][] VALUES = {
+    {
+      1, "foobar", 1.5, "A"
+    }, {
+      2, "Foo Bar", 10.0, "b"
+    }, {
+      3, null, null, null
+    }, {
+      4, "", -3.0, "A"
+    }, {
+      5, "barfoo", 10.0, "1"
+    }, {
+      10, "FOOBAR", 0.0, "10"
+    }
+  };
+
+  private static final List<MapEx> RECORDS = newRecords();
+
+  private static void assertCompiled(final Condition condition) {
+    for (final RecordDefinition recordDefinition : Arrays.asList(RECORD_DEFINITION, null)) {
+      final CompiledCondition compiled = condition.compile(recordDefinition);
+      for (final MapEx record : RECORDS) {
+        final boolean expected = condition.test(record);
+        Assert.assertEquals(condition + " " + record, expected, compiled.test(record));
+      }
+    }
+  }
+
+  /**
+   * The condition only contains literal values so it is evaluated when it is compiled and the
+   * record is not used.
+   */
+  private static void assertConstant(final Condition condition, final boolean expected) {
+    assertCompiled(condition);
+    Assert.assertEquals(condition.toString(), expected,
+      condition.compile(RECORD_DEFINITION).test(null));
+  }
+
+  private static List<MapEx> newRecords() {
+    final List<MapEx> records = new ArrayList<>();
+    for (final Object[] values : VALUES) {
+      final Record record = new ArrayRecord(RECORD_DEFINITION);
+      final Record otherRecord = new ArrayRecord(OTHER_RECORD_DEFINITION);
+      final MapEx map = new LinkedHashMapEx();
+      for (int i = 0; i < values.length; i++) {
+        final Object value = values[i];
+        final String fieldName = RECORD_DEFINITION.getFieldName(i);
+        record.setValue(i, value);
+        if (OTHER_RECORD_DEFINITION.hasField(fieldName)) {
+          otherRecord.setValue(fieldName, value);
+        }
+        if (value != null) {
+          map.put(fieldName, value);
+        }
+      }
+      records.add(record);
+      records.add(otherRecord);
+      records.add(map);
+    }
+    return records;
+  }
+
+  @Test
+  public void testAndOrNot() {
+    assertCompiled(Q.and(Q.equal(ID, 1), Q.equal(NAME, "foobar")));
+    assertCompiled(Q.and(Q.greaterThan(ID, 1), Q.lessThan(AMOUNT, 10)));
+    assertCompiled(Q.or(Q.equal(ID, 1), Q.isNull(NAME), Q.equal(AMOUNT, 10)));
+    assertCompiled(Q.not(Q.in(ID, 1, 2, 3)));
+    assertCompiled(Q.not(Q.or(Q.like(NAME, "%foo%"), Q.isNull(AMOUNT))));
+  }
+
+  @Test
+  public void testBetween() {
+    assertCompiled(Q.between(ID, 2, 5));
+    assertCompiled(Q.between(ID, 5, 2));
+    assertCompiled(Q.between(ID, 10, 10));
+    assertCompiled(Q.between(AMOUNT, -3, 1.5));
+    assertCompiled(Q.between(AMOUNT, 0, new BigDecimal("10.0")));
+    assertCompiled(Q.between(ID, null, 5));
+    assertCompiled(Q.between(ID, 1, null));
+  }
+
+  @Test
+  public void testCompare() {
+    for (final Object value : Arrays.asList(1, 2, 3, 10, 11, -1)) {
+      assertCompiled(Q.equal(ID, value));
+      assertCompiled(Q.notEqual(ID, value));
+      assertCompiled(Q.greaterThan(ID, value));
+      assertCompiled(Q.greaterThanEqual(ID, value));
+      assertCompiled(Q.lessThan(ID, value));
+      assertCompiled(Q.lessThanEqual(ID, value));
+    }
+    for (final Object value : Arrays.asList("foobar", "Foo Bar", "", "zzz")) {
+      assertCompiled(Q.equal(NAME, value));
+      assertCompiled(Q.notEqual(NAME, value));
+      assertCompiled(Q.greaterThan(NAME, value));
+      assertCompiled(Q.lessThanEqual(NAME, value));
+    }
+    assertCompiled(Q.equal(Value.newValue("foobar"), new Column("NAME")));
+    assertCompiled(Q.lessThan(Value.newValue(5), new Column("ID")));
+    assertCompiled(Q.equal(new Column("ID"), new Column("AMOUNT")));
+    assertCompiled(Q.lessThan(new Column("AMOUNT"), new Column("ID")));
+  }
+
+  @Test
+  public void testConstantFolding() {
+    assertConstant(Q.equal(Value.newValue(1), Value.newValue(1)), true);
+    assertConstant(Q.notEqual(Value.newValue(1), Value.newValue(1)), false);
+    assertConstant(Q.lessThan(Value.newValue(1), Value.newValue(2)), true);
+    assertConstant(Q.like(Value.newValue("foobar"), "%oba%"), true);
+    assertConstant(Q.equal(new Upper(Value.newValue("abc")), Value.newValue("ABC")), true);
+    assertConstant(Q.equal(new Lower(Value.newValue("ABC")), Value.newValue("ABC")), false);
+    assertConstant(Q.and(Q.equal(Value.newValue(1), Value.newValue(2)), Q.equal(ID, 1)), false);
+    assertConstant(Q.or(Q.equal(Value.newValue(1), Value.newValue(1)), Q.equal(ID, 1)), true);
+    assertConstant(Q.not(Q.equal(Value.newValue(1), Value.newValue(2))), true);
+    assertCompiled(Q.and(Q.equal(Value.newValue(1), Value.newValue(1)), Q.equal(ID, 1)));
+    assertCompiled(Q.or(Q.equal(Value.newValue(1), Value.newValue(2)), Q.equal(ID, 1)));
+  }
+
+  @Test
+  public void testFallback() {
+    final AtomicInteger count = new AtomicInteger();
+    final Condition sqlCondition = new SqlCondition("ID > 2") {
+      @Override
+      public boolean test(final MapEx record) {
+        count.incrementAndGet();
+        final Integer id = record.getInteger("ID");
+        return id != null && id > 2;
+      }
+    };
+    final CompiledCondition compiled = sqlCondition.compile(RECORD_DEFINITION);
+    for (final MapEx record : RECORDS) {
+      final int expectedCount = count.get() + 1;
+      Assert.assertEquals(record.toString(), record.getInteger("ID") > 2, compiled.test(record));
+      Assert.assertEquals(expectedCount, count.get());
+    }
+    assertCompiled(Q.and(Q.equal(NAME, "foobar"), sqlCondition));
+    assertCompiled(Q.or(Q.isNull(NAME), sqlCondition));
+
+    // LIKE with a column pattern is evaluated using the condition
+    assertCompiled(Q.like("NAME", new Column("CODE")));
+    assertCompiled(Q.iLike("NAME", new Column("CODE")));
+  }
+
+  @Test
+  public void testIn() {
+    assertCompiled(Q.in(ID, 1, 2, 3));
+    assertCompiled(Q.in(ID, 10));
+    assertCompiled(Q.in(ID, 1, 2L, new BigDecimal("10")));
+    assertCompiled(Q.in(NAME, "foobar", "barfoo", "FOOBAR"));
+    assertCompiled(Q.in(AMOUNT, 10.0, -3.0));
+    assertCompiled(Q.in(AMOUNT, 10, 1.5));
+    assertCompiled(Q.in("ID", Arrays.asList("1", "5")));
+  }
+
+  @Test
+  public void testLike() {
+    for (final Object like : Arrays.asList("%foo%", "foo%", "%bar", "foobar", "FOOBAR", "%o%b%",
+      "%", "", "%O B%", 10, "1%", "%[a]%", "%.%")) {
+      assertCompiled(Q.like(NAME, like));
+      assertCompiled(Q.iLike(NAME, like));
+      assertCompiled(Q.like(ID, like));
+      assertCompiled(Q.iLike(ID, like));
+    }
+    assertCompiled(Q.like(new Upper(new Column("NAME")), "FOO%"));
+    assertCompiled(Q.iLike(new Lower(new Column("NAME")), "%BAR"));
+  }
+
+  @Test
+  public void testNullOperands() {
+    assertCompiled(Q.isNull(NAME));
+    assertCompiled(Q.isNotNull(NAME));
+    assertCompiled(Q.isNull(AMOUNT));
+    assertCompiled(Q.isNotNull("AMOUNT"));
+    assertCompiled(Q.equal(NAME, (Object)null));
+    assertCompiled(Q.notEqual(NAME, (Object)null));
+    assertCompiled(Q.lessThan(AMOUNT, (Object)null));
+    assertCompiled(Q.greaterThan(AMOUNT, (Object)null));
+    assertCompiled(Q.equal(new Column("NAME"), new Column("CODE")));
+    assertCompiled(Q.equal(new Column("MISSING"), Value.newValue(1)));
+  }
+
+  @Test
+  public void testTypeConversion() {
+    assertCompiled(Q.equal("ID", "2"));
+    assertCompiled(Q.equal("ID", 2L));
+    assertCompiled(Q.equal("ID", new BigDecimal("2")));
+    assertCompiled(Q.equal("ID", new BigDecimal("2.5")));
+    assertCompiled(Q.notEqual("ID", "10"));
+    assertCompiled(Q.greaterThan("ID", "3"));
+    assertCompiled(Q.lessThanEqual("ID", 2.5));
+    assertCompiled(Q.equal("AMOUNT", 10));
+    assertCompiled(Q.greaterThan("AMOUNT", 1));
+    assertCompiled(Q.lessThan("AMOUNT", new BigDecimal("1.5")));
+    assertCompiled(Q.equal("CODE", 10));
+    assertCompiled(Q.greaterThanEqual("CODE", 1));
+  }
+}
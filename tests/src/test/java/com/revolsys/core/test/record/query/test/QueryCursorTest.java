@@ -0,0 +1,107 @@
+package com.revolsys.core.test.record.query.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.jeometry.common.data.type.DataTypes;
+import org.jeometry.common.io.PathName;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.revolsys.collection.ResultPager;
+import com.revolsys.geopackage.GeoPackage;
+import com.revolsys.geopackage.GeoPackageRecordStore;
+import com.revolsys.jdbc.io.JdbcQueryResultPager;
+import com.revolsys.record.ArrayRecord;
+import com.revolsys.record.Record;
+import com.revolsys.record.io.RecordWriter;
+import com.revolsys.record.query.Query;
+import com.revolsys.record.query.QueryCursor;
+import com.revolsys.record.schema.RecordDefinition;
+import com.revolsys.record.schema.RecordDefinitionBuilder;
+
+public class QueryCursorTest {
+
+  private static final int RECORD_COUNT = 57;
+
+  @Test
+  public void testKeysetPagination() throws IOException {
+    final File file = File.createTempFile("keyset", ".gpkg");
+    file.delete();
+    try {
+      final RecordDefinitionBuilder builder = new RecordDefinitionBuilder("KEYSET_TEST") //
+        .addField("ID", DataTypes.LONG, true) //
+        .addField("NAME", DataTypes.STRING, 20) //
+        .addField("RANK", DataTypes.INT);
+      builder.setIdFieldName("ID");
+      final RecordDefinition recordDefinition = builder.getRecordDefinition();
+      final List<Record> records = new ArrayList<>();
+      try (
+        RecordWriter writer = RecordWriter.newRecordWriter(recordDefinition, file)) {
+        for (int i = 1; i <= RECORD_COUNT; i++) {
+          final Record record = new ArrayRecord(recordDefinition);
+          record.setValue("ID", i);
+          record.setValue("NAME", "name " + i);
+          record.setValue("RANK", i % 7);
+          writer.write(record);
+          records.add(record);
+        }
+      }
+      records.sort(Comparator.<Record> comparingInt(record -> record.getInteger("RANK"))
+        .reversed()
+        .thenComparingLong(record -> record.getLong("ID")));
+
+      try (
+        GeoPackageRecordStore recordStore = GeoPackage.openRecordStore(file)) {
+        recordStore.initialize();
+        final RecordDefinition tableDefinition = recordStore
+          .getRecordDefinition(PathName.newPathName("KEYSET_TEST"));
+        final Query query = new Query(tableDefinition);
+        query.addOrderBy("RANK", false);
+
+        final List<Long> ids = new ArrayList<>();
+        int pageCount = 0;
+        try (
+          ResultPager<Record> pager = recordStore.page(query)) {
+          final JdbcQueryResultPager jdbcPager = (JdbcQueryResultPager)pager;
+          String cursor = null;
+          do {
+            jdbcPager.setCursor(10, cursor);
+            final List<Record> page = jdbcPager.getList();
+            Assert.assertTrue(page.size() <= 10);
+            for (final Record record : page) {
+              ids.add(record.getLong("ID"));
+            }
+            pageCount++;
+            cursor = jdbcPager.getNextCursor();
+          } while (cursor != null);
+        }
+        Assert.assertEquals(6, pageCount);
+        final List<Long> expectedIds = new ArrayList<>();
+        for (final Record record : records) {
+          expectedIds.add(record.getLong("ID"));
+        }
+        Assert.assertEquals(expectedIds, ids);
+      }
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void testToken() {
+    final QueryCursor cursor = new QueryCursor(Arrays.asList("a/b+c \u00e9", 12, "2020-01-02"));
+    final String token = cursor.toString();
+    Assert.assertTrue(token, token.matches("[A-Za-z0-9_-]+"));
+    final QueryCursor parsedCursor = QueryCursor.parse(token);
+    Assert.assertEquals(3, parsedCursor.getValues().size());
+    Assert.assertEquals("a/b+c \u00e9", parsedCursor.getValues().get(0));
+    Assert.assertEquals(12, ((Number)parsedCursor.getValues().get(1)).intValue());
+    Assert.assertNull(QueryCursor.parse(null));
+    Assert.assertNull(QueryCursor.parse(""));
+  }
+}
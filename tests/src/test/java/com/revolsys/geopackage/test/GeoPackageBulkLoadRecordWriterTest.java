@@ -0,0 +1,155 @@
+package com.revolsys.geopackage.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.jeometry.common.data.type.DataTypes;
+import org.jeometry.common.io.PathName;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.revolsys.geometry.model.GeometryDataTypes;
+import com.revolsys.geometry.model.GeometryFactory;
+import com.revolsys.geopackage.GeoPackage;
+import com.revolsys.geopackage.GeoPackageRecordStore;
+import com.revolsys.jdbc.JdbcConnection;
+import com.revolsys.record.ArrayRecord;
+import com.revolsys.record.Record;
+import com.revolsys.record.io.RecordWriter;
+import com.revolsys.record.schema.RecordDefinition;
+import com.revolsys.record.schema.RecordDefinitionBuilder;
+
+public class GeoPackageBulkLoadRecordWriterTest {
+
+  private static final GeometryFactory GEOMETRY_FACTORY = GeometryFactory.fixed2d(3005, 1000.0,
+    1000.0);
+
+  private static final int RECORD_COUNT = 2500;
+
+  private static double[] selectDoubles(final JdbcConnection connection, final String sql,
+    final Object... parameters) throws SQLException {
+    try (
+      PreparedStatement statement = connection.prepareStatement(sql)) {
+      for (int i = 0; i < parameters.length; i++) {
+        statement.setObject(i + 1, parameters[i]);
+      }
+      try (
+        ResultSet resultSet = statement.executeQuery()) {
+        Assert.assertTrue(sql, resultSet.next());
+        final int columnCount = resultSet.getMetaData().getColumnCount();
+        final double[] values = new double[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+          values[i] = resultSet.getDouble(i + 1);
+        }
+        return values;
+      }
+    }
+  }
+
+  private static String selectString(final JdbcConnection connection, final String sql)
+    throws SQLException {
+    try (
+      PreparedStatement statement = connection.prepareStatement(sql);
+      ResultSet resultSet = statement.executeQuery()) {
+      Assert.assertTrue(sql, resultSet.next());
+      return resultSet.getString(1);
+    }
+  }
+
+  private void assertRtree(final GeoPackageRecordStore recordStore, final int expectedCount)
+    throws SQLException {
+    try (
+      JdbcConnection connection = recordStore.getJdbcConnection()) {
+      final String tableName = selectString(connection,
+        "SELECT table_name FROM gpkg_geometry_columns");
+      final String columnName = selectString(connection,
+        "SELECT column_name FROM gpkg_geometry_columns");
+      final String rtreeName = "rtree_" + tableName + "_" + columnName;
+
+      final double[] triggerCount = selectDoubles(connection,
+        "SELECT count(*) FROM sqlite_master WHERE type = 'trigger' AND tbl_name = ? AND name LIKE ?",
+        tableName, rtreeName + "_%");
+      Assert.assertEquals("R-tree triggers", 6, triggerCount[0], 0);
+
+      final double[] rtree = selectDoubles(connection,
+        "SELECT count(*), min(minx), max(maxx), min(miny), max(maxy) FROM \"" + rtreeName + "\"");
+      Assert.assertEquals("R-tree count", expectedCount, rtree[0], 0);
+      Assert.assertEquals(getX(1), rtree[1], 0);
+      Assert.assertEquals(getX(expectedCount), rtree[2], 0);
+      Assert.assertEquals(getY(1), rtree[3], 0);
+      Assert.assertEquals(getY(expectedCount), rtree[4], 0);
+
+      final double[] entry = selectDoubles(connection,
+        "SELECT minx, maxx, miny, maxy FROM \"" + rtreeName + "\" WHERE id = ?", 1234);
+      Assert.assertArrayEquals(new double[] {
+        getX(1234), getX(1234), getY(1234), getY(1234)
+      }, entry, 0);
+
+      final double[] contents = selectDoubles(connection,
+        "SELECT min_x, min_y, max_x, max_y FROM gpkg_contents WHERE table_name = ?", tableName);
+      Assert.assertArrayEquals(new double[] {
+        getX(1), getY(1), getX(RECORD_COUNT), getY(RECORD_COUNT)
+      }, contents, 0);
+    }
+  }
+
+  private double getX(final int i) {
+    return 1000000 + i * 10;
+  }
+
+  private double getY(final int i) {
+    return 500000 + i * 5;
+  }
+
+  private Record newRecord(final RecordDefinition recordDefinition, final int i) {
+    final Record record = new ArrayRecord(recordDefinition);
+    record.setValue("ID", i);
+    record.setValue("NAME", "name " + i);
+    record.setGeometryValue(GEOMETRY_FACTORY.point(getX(i), getY(i)));
+    return record;
+  }
+
+  @Test
+  public void testBulkLoad() throws IOException, SQLException {
+    final File file = File.createTempFile("bulkload", ".gpkg");
+    file.delete();
+    try {
+      final RecordDefinitionBuilder builder = new RecordDefinitionBuilder("BULK_LOAD") //
+        .addField("ID", DataTypes.LONG, true) //
+        .addField("NAME", DataTypes.STRING, 20) //
+        .addField("GEOMETRY", GeometryDataTypes.POINT);
+      builder.setIdFieldName("ID");
+      builder.setGeometryFactory(GEOMETRY_FACTORY);
+      final RecordDefinition recordDefinition = builder.getRecordDefinition();
+      try (
+        RecordWriter writer = RecordWriter.newRecordWriter(recordDefinition, file)) {
+        for (int i = 1; i <= RECORD_COUNT; i++) {
+          writer.write(newRecord(recordDefinition, i));
+        }
+      }
+
+      try (
+        GeoPackageRecordStore recordStore = GeoPackage.openRecordStore(file)) {
+        recordStore.initialize();
+        assertRtree(recordStore, RECORD_COUNT);
+
+        // The re-created triggers maintain the R-tree for normal inserts
+        final RecordDefinition tableDefinition = recordStore
+          .getRecordDefinition(PathName.newPathName("BULK_LOAD"));
+        recordStore.insertRecord(newRecord(tableDefinition, RECORD_COUNT + 1));
+        try (
+          JdbcConnection connection = recordStore.getJdbcConnection()) {
+          final double[] count = selectDoubles(connection,
+            "SELECT count(*) FROM \"rtree_" + tableDefinition.getDbTableName() + "_"
+              + tableDefinition.getGeometryFieldName() + "\"");
+          Assert.assertEquals(RECORD_COUNT + 1, count[0], 0);
+        }
+      }
+    } finally {
+      file.delete();
+    }
+  }
+}
@@ -0,0 +1,248 @@
+package com.revolsys.geopackage.test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.io.File;
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.revolsys.elevation.gridded.DoubleArrayGriddedElevationModel;
+import com.revolsys.elevation.gridded.GriddedElevationModel;
+import com.revolsys.geometry.model.BoundingBox;
+import com.revolsys.geometry.model.GeometryFactory;
+import com.revolsys.geopackage.GeoPackage;
+import com.revolsys.geopackage.GeoPackageRecordStore;
+import com.revolsys.geopackage.GeoPackageTileImage;
+import com.revolsys.geopackage.GeoPackageTileMatrix;
+import com.revolsys.geopackage.GeoPackageTileWriter;
+import com.revolsys.jdbc.JdbcConnection;
+import com.revolsys.raster.BufferedGeoreferencedImage;
+import com.revolsys.raster.GeoreferencedImageMapTile;
+import com.revolsys.spring.resource.PathResource;
+
+public class GeoPackageTileWriterTest {
+
+  private static final int ELEVATION_NULL = 65535;
+
+  private static final GeometryFactory GEOMETRY_FACTORY = GeometryFactory.fixed2d(3005, 1000.0,
+    1000.0);
+
+  private static final double MIN_X = 1000000;
+
+  private static final double MIN_Y = 500000;
+
+  private static void assertColor(final Color expected, final BufferedImage tile, final int x,
+    final int y) {
+    Assert.assertEquals(x + "," + y, expected.getRGB(), tile.getRGB(x, y));
+  }
+
+  private static void assertTransparent(final BufferedImage tile, final int x, final int y) {
+    Assert.assertEquals(x + "," + y, 0, tile.getRGB(x, y) >>> 24);
+  }
+
+  private static double getElevation(final int gridX, final int gridY) {
+    return 100 + gridX * 0.5 + gridY * 2;
+  }
+
+  private static List<Integer> getTileCounts(final GeoPackageRecordStore recordStore,
+    final String tableName) throws SQLException {
+    final List<Integer> counts = new ArrayList<>();
+    try (
+      JdbcConnection connection = recordStore.getJdbcConnection();
+      PreparedStatement statement = connection
+        .prepareStatement("SELECT zoom_level, count(*) FROM \""
+          + tableName + "\" GROUP BY zoom_level ORDER BY zoom_level");
+      ResultSet resultSet = statement.executeQuery()) {
+      while (resultSet.next()) {
+        Assert.assertEquals(counts.size(), resultSet.getInt(1));
+        counts.add(resultSet.getInt(2));
+      }
+    }
+    return counts;
+  }
+
+  private static boolean isNull(final int gridX, final int gridY) {
+    return gridX >= 30 && gridX < 35 && gridY >= 10 && gridY < 13;
+  }
+
+  private void assertTileMatrices(final GeoPackageTileImage image, final double resolution) {
+    final List<GeoPackageTileMatrix> tileMatrices = image.getTileMatrices();
+    Assert.assertEquals(3, tileMatrices.size());
+    for (int zoomLevel = 0; zoomLevel < 3; zoomLevel++) {
+      final GeoPackageTileMatrix tileMatrix = tileMatrices.get(zoomLevel);
+      Assert.assertEquals(zoomLevel, tileMatrix.getZoomLevel());
+      Assert.assertEquals(1 << zoomLevel, tileMatrix.getMatrixWidth());
+      Assert.assertEquals(1 << zoomLevel, tileMatrix.getMatrixHeight());
+      Assert.assertEquals(resolution * (4 >> zoomLevel), tileMatrix.getPixelXSize(), 0);
+      Assert.assertEquals(resolution * (4 >> zoomLevel), tileMatrix.getPixelYSize(), 0);
+    }
+  }
+
+  @Test
+  public void testWriteElevationModel() throws IOException, SQLException {
+    final File file = File.createTempFile("tiles", ".gpkg");
+    file.delete();
+    try {
+      final int gridWidth = 40;
+      final int gridHeight = 20;
+      final double[] values = new double[gridWidth * gridHeight];
+      for (int gridY = 0; gridY < gridHeight; gridY++) {
+        for (int gridX = 0; gridX < gridWidth; gridX++) {
+          double elevation = getElevation(gridX, gridY);
+          if (isNull(gridX, gridY)) {
+            elevation = Double.NaN;
+          }
+          values[gridY * gridWidth + gridX] = elevation;
+        }
+      }
+      final GriddedElevationModel elevationModel = new DoubleArrayGriddedElevationModel(
+        GEOMETRY_FACTORY, MIN_X, MIN_Y, gridWidth, gridHeight, 1, values);
+
+      try (
+        GeoPackageRecordStore recordStore = GeoPackage.createRecordStore(file)) {
+        final GeoPackageTileWriter writer = new GeoPackageTileWriter(recordStore, "dem");
+        writer.setTileSize(16);
+        writer.write(elevationModel);
+        writer.close();
+      }
+
+      try (
+        GeoPackageRecordStore recordStore = GeoPackage.openRecordStore(file)) {
+        recordStore.initialize();
+        Assert.assertEquals(Arrays.asList(1, 2, 6), getTileCounts(recordStore, "dem"));
+
+        final double offset;
+        final double scale;
+        try (
+          JdbcConnection connection = recordStore.getJdbcConnection();
+          PreparedStatement statement = connection.prepareStatement(
+            "SELECT scale, offset, data_null FROM gpkg_2d_gridded_coverage_ancillary WHERE tile_matrix_set_name = 'dem'");
+          ResultSet resultSet = statement.executeQuery()) {
+          Assert.assertTrue(resultSet.next());
+          scale = resultSet.getDouble(1);
+          offset = resultSet.getDouble(2);
+          Assert.assertEquals(ELEVATION_NULL, resultSet.getDouble(3), 0);
+        }
+        final double minValue = getElevation(0, 0);
+        final double maxValue = getElevation(gridWidth - 1, gridHeight - 1);
+        Assert.assertEquals(minValue, offset, 0);
+        Assert.assertEquals((maxValue - minValue) / (ELEVATION_NULL - 1), scale, 1e-12);
+
+        try (
+          GeoPackageTileImage image = new GeoPackageTileImage(recordStore, "dem")) {
+          assertTileMatrices(image, 1);
+
+          // Tile row 0 is the top row of tiles, pixel row 0 is the top row of pixels
+          for (int tileRow = 0; tileRow < 2; tileRow++) {
+            for (int tileColumn = 0; tileColumn < 3; tileColumn++) {
+              final BufferedImage tile = image.readTile(2, tileColumn, tileRow);
+              Assert.assertNotNull(tile);
+              final Raster raster = tile.getRaster();
+              for (int pixelY = 0; pixelY < 16; pixelY++) {
+                for (int pixelX = 0; pixelX < 16; pixelX++) {
+                  final int gridX = tileColumn * 16 + pixelX;
+                  final int gridY = gridHeight - 1 - tileRow * 16 - pixelY;
+                  final int sample = raster.getSample(pixelX, pixelY, 0);
+                  final String message = gridX + "," + gridY;
+                  if (gridX >= gridWidth || gridY < 0 || isNull(gridX, gridY)) {
+                    Assert.assertEquals(message, ELEVATION_NULL, sample);
+                  } else {
+                    Assert.assertEquals(message, getElevation(gridX, gridY),
+                      sample * scale + offset, scale);
+                  }
+                }
+              }
+            }
+          }
+          Assert.assertEquals(0, image.readTile(2, 0, 1).getRaster().getSample(0, 3, 0));
+          Assert.assertEquals(ELEVATION_NULL - 1,
+            image.readTile(2, 2, 0).getRaster().getSample(7, 0, 0));
+          Assert.assertNull(image.readTile(2, 3, 0));
+          Assert.assertNull(image.readTile(1, 0, 1));
+        }
+      }
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void testWriteImage() throws IOException, SQLException {
+    final File file = File.createTempFile("tiles", ".gpkg");
+    file.delete();
+    try {
+      final BufferedImage sourceImage = new BufferedImage(600, 300, BufferedImage.TYPE_INT_ARGB);
+      final Graphics2D graphics = sourceImage.createGraphics();
+      try {
+        graphics.setColor(Color.RED);
+        graphics.fillRect(0, 0, 600, 150);
+        graphics.setColor(Color.BLUE);
+        graphics.fillRect(0, 150, 600, 150);
+      } finally {
+        graphics.dispose();
+      }
+      final BoundingBox boundingBox = GEOMETRY_FACTORY.newBoundingBox(MIN_X, MIN_Y, MIN_X + 600,
+        MIN_Y + 300);
+      try (
+        GeoPackageTileWriter writer = new GeoPackageTileWriter(new PathResource(file))) {
+        writer.write(new BufferedGeoreferencedImage(boundingBox, sourceImage));
+      }
+
+      try (
+        GeoPackageRecordStore recordStore = GeoPackage.openRecordStore(file)) {
+        recordStore.initialize();
+        Assert.assertEquals(Arrays.asList(1, 2, 6), getTileCounts(recordStore, "tiles"));
+      }
+
+      // The image owns the record store that was opened to read it
+      final GeoPackageTileImage image = (GeoPackageTileImage)new GeoPackage()
+        .readGeoreferencedImage(new PathResource(file));
+      try {
+        assertTileMatrices(image, 1);
+        final BoundingBox imageBoundingBox = image.getBoundingBox();
+        Assert.assertEquals(MIN_X, imageBoundingBox.getMinX(), 0);
+        Assert.assertEquals(MIN_Y + 300, imageBoundingBox.getMaxY(), 0);
+
+        // Tile row 0 is the top row of tiles
+        final BufferedImage topLeft = image.readTile(2, 0, 0);
+        assertColor(Color.RED, topLeft, 10, 10);
+        assertColor(Color.BLUE, topLeft, 10, 200);
+        final BufferedImage bottomLeft = image.readTile(2, 0, 1);
+        assertColor(Color.BLUE, bottomLeft, 10, 10);
+        assertTransparent(bottomLeft, 10, 100);
+        final BufferedImage topRight = image.readTile(2, 2, 0);
+        assertColor(Color.RED, topRight, 50, 10);
+        assertTransparent(topRight, 100, 10);
+        Assert.assertNull(image.readTile(2, 3, 0));
+        Assert.assertNull(image.readTile(2, 0, 2));
+
+        final BufferedImage overview = image.readTile(0, 0, 0);
+        assertColor(Color.RED, overview, 10, 10);
+        assertColor(Color.BLUE, overview, 10, 60);
+        assertTransparent(overview, 10, 100);
+
+        // Tiles outside the tile matrix are not created for a view larger than the image
+        final BoundingBox viewBoundingBox = GEOMETRY_FACTORY.newBoundingBox(MIN_X - 5000,
+          MIN_Y - 5000, MIN_X + 5000, MIN_Y + 5000);
+        final List<GeoreferencedImageMapTile> tiles = image.getOverlappingMapTiles(viewBoundingBox,
+          1);
+        Assert.assertEquals(16, tiles.size());
+      } finally {
+        image.close();
+      }
+      Assert.assertNull(image.readTile(2, 0, 0));
+    } finally {
+      file.delete();
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package com.revolsys.gis.postgresql;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.revolsys.geometry.model.GeometryDataTypes;
+import com.revolsys.geometry.model.GeometryFactory;
+import com.revolsys.geometry.model.Point;
+import com.revolsys.geometry.wkb.WkbByteBufferReader;
+import com.revolsys.gis.postgresql.PostgreSQLCopyRecordWriter.CopyEncoder;
+import com.revolsys.gis.postgresql.type.PostgreSQLGeometryJdbcFieldDefinition;
+
+public class PostgreSQLCopyRecordWriterTest {
+
+  private static final GeometryFactory GEOMETRY_FACTORY = GeometryFactory.fixed2d(3005, 1000.0,
+    1000.0);
+
+  private static void assertNumeric(final byte[] bytes, final int weight, final int sign,
+    final int displayScale, final int... digits) throws IOException {
+    final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+    Assert.assertEquals("ndigits", digits.length, in.readShort());
+    Assert.assertEquals("weight", weight, in.readShort());
+    Assert.assertEquals("sign", sign, in.readShort() & 0xFFFF);
+    Assert.assertEquals("dscale", displayScale, in.readShort());
+    for (final int digit : digits) {
+      Assert.assertEquals("digit", digit, in.readShort());
+    }
+    Assert.assertEquals(0, in.available());
+  }
+
+  private static byte[] readValue(final DataInputStream in) throws IOException {
+    final int length = in.readInt();
+    if (length == -1) {
+      return null;
+    } else {
+      final byte[] bytes = new byte[length];
+      in.readFully(bytes);
+      return bytes;
+    }
+  }
+
+  @Test
+  public void testEncodeRecords() throws IOException {
+    final PostgreSQLGeometryJdbcFieldDefinition geometryField = new PostgreSQLGeometryJdbcFieldDefinition(
+      "geom", "GEOMETRY", GeometryDataTypes.POINT, Types.OTHER, false, null, null, 3005, 2,
+      GEOMETRY_FACTORY);
+    final List<CopyEncoder> encoders = Arrays.asList(PostgreSQLCopyRecordWriter.getEncoder("int4"),
+      PostgreSQLCopyRecordWriter.getEncoder("text"),
+      PostgreSQLCopyRecordWriter.getEncoder("numeric"),
+      PostgreSQLCopyRecordWriter.getEncoder("float8"),
+      PostgreSQLCopyRecordWriter.newGeometryEncoder(geometryField));
+    final Point point = GEOMETRY_FACTORY.point(1200000.5, 450000.25);
+    final List<List<Object>> rows = Arrays.asList(
+      Arrays.asList(12, "abc", new BigDecimal("12345.678"), Double.NaN, point),
+      Arrays.asList(-3, null, new BigDecimal("-0.5"), null, null));
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final DataOutputStream out = new DataOutputStream(bytes);
+    PostgreSQLCopyRecordWriter.writeHeader(out);
+    for (final List<Object> row : rows) {
+      out.writeShort(encoders.size());
+      for (int i = 0; i < encoders.size(); i++) {
+        PostgreSQLCopyRecordWriter.writeValue(out, encoders.get(i), row.get(i));
+      }
+    }
+    PostgreSQLCopyRecordWriter.writeTrailer(out);
+    out.flush();
+
+    final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    final byte[] signature = new byte[11];
+    in.readFully(signature);
+    Assert.assertEquals("PGCOPY\n\u00ff\r\n\0",
+      new String(signature, StandardCharsets.ISO_8859_1));
+    Assert.assertEquals("flags", 0, in.readInt());
+    Assert.assertEquals("extension", 0, in.readInt());
+
+    Assert.assertEquals(5, in.readShort());
+    Assert.assertEquals(12, ByteBuffer.wrap(readValue(in)).getInt());
+    Assert.assertEquals("abc", new String(readValue(in), StandardCharsets.UTF_8));
+    assertNumeric(readValue(in), 1, 0, 3, 1, 2345, 6780);
+    Assert.assertTrue(Double.isNaN(ByteBuffer.wrap(readValue(in)).getDouble()));
+    final Point readPoint = WkbByteBufferReader.readGeometry(GEOMETRY_FACTORY,
+      ByteBuffer.wrap(readValue(in)));
+    Assert.assertEquals(3005, readPoint.getHorizontalCoordinateSystemId());
+    Assert.assertEquals(point.getX(), readPoint.getX(), 0);
+    Assert.assertEquals(point.getY(), readPoint.getY(), 0);
+
+    Assert.assertEquals(5, in.readShort());
+    Assert.assertEquals(-3, ByteBuffer.wrap(readValue(in)).getInt());
+    Assert.assertNull(readValue(in));
+    assertNumeric(readValue(in), -1, 0x4000, 1, 5000);
+    Assert.assertNull(readValue(in));
+    Assert.assertNull(readValue(in));
+
+    Assert.assertEquals("trailer", -1, in.readShort());
+    Assert.assertEquals(0, in.available());
+  }
+
+  @Test
+  public void testNumericSpecialValues() throws IOException {
+    final CopyEncoder encoder = PostgreSQLCopyRecordWriter.getEncoder("numeric");
+    final Object[] values = {
+      Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Float.NaN
+    };
+    final int[] signs = {
+      0xC000, 0xD000, 0xF000, 0xC000
+    };
+    for (int i = 0; i < values.length; i++) {
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      final DataOutputStream out = new DataOutputStream(bytes);
+      PostgreSQLCopyRecordWriter.writeValue(out, encoder, values[i]);
+      final DataInputStream in = new DataInputStream(
+        new ByteArrayInputStream(bytes.toByteArray()));
+      assertNumeric(readValue(in), 0, signs[i], 0);
+    }
+  }
+
+  @Test
+  public void testQuoteIdentifier() {
+    Assert.assertEquals("\"Table\"", PostgreSQLCopyRecordWriter.quoteIdentifier("Table"));
+    Assert.assertEquals("\"a\"\"b\"", PostgreSQLCopyRecordWriter.quoteIdentifier("a\"b"));
+  }
+}
@@ -0,0 +1,85 @@
+package com.revolsys.tests.elevation.gridded;
+
+import java.awt.image.DataBufferInt;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.revolsys.elevation.gridded.DoubleArrayGriddedElevationModel;
+import com.revolsys.elevation.gridded.GriddedElevationModel;
+import com.revolsys.elevation.gridded.rasterizer.AbstractGriddedElevationModelRasterizer;
+import com.revolsys.elevation.gridded.rasterizer.ColorGradientGriddedElevationModelRasterizer;
+import com.revolsys.elevation.gridded.rasterizer.HillShadeGriddedElevationModelRasterizer;
+import com.revolsys.elevation.gridded.rasterizer.SlopeColorGradientGriddedElevationModelRasterizer;
+import com.revolsys.geometry.model.GeometryFactory;
+
+/**
+ * Check that rasterizing strips of rows in parallel gives the same image as rasterizing all the
+ * rows on one thread.
+ */
+public class GriddedElevationModelRasterizerTest {
+
+  private static final GeometryFactory GEOMETRY_FACTORY = GeometryFactory.fixed2d(3005, 1000.0,
+    1000.0);
+
+  private static final int GRID_HEIGHT = 77;
+
+  private static final int GRID_WIDTH = 101;
+
+  private static final int[] STRIP_HEIGHTS = {
+    1, 7, 64, GRID_HEIGHT, 200
+  };
+
+  private static void assertParallelEqualsSequential(
+    final AbstractGriddedElevationModelRasterizer rasterizer) {
+    final int size = GRID_WIDTH * GRID_HEIGHT;
+    final DataBufferInt expected = new DataBufferInt(size);
+    rasterizer.setParallel(false);
+    rasterizer.rasterize(expected);
+
+    rasterizer.setParallel(true);
+    for (final int stripHeight : STRIP_HEIGHTS) {
+      rasterizer.setStripHeight(stripHeight);
+      final DataBufferInt actual = new DataBufferInt(size);
+      rasterizer.rasterize(actual);
+      Assert.assertArrayEquals(rasterizer.getName() + " " + stripHeight, expected.getData(),
+        actual.getData());
+    }
+  }
+
+  private static GriddedElevationModel newElevationModel() {
+    final double[] values = new double[GRID_WIDTH * GRID_HEIGHT];
+    for (int gridY = 0; gridY < GRID_HEIGHT; gridY++) {
+      for (int gridX = 0; gridX < GRID_WIDTH; gridX++) {
+        double elevation = 100 + 40 * Math.sin(gridX / 9.0) + 25 * Math.cos(gridY / 5.0)
+          + gridX * 0.3;
+        if (gridX % 17 == 3 && gridY % 13 == 5) {
+          elevation = Double.NaN;
+        }
+        values[gridY * GRID_WIDTH + gridX] = elevation;
+      }
+    }
+    return new DoubleArrayGriddedElevationModel(GEOMETRY_FACTORY, 1000000, 500000, GRID_WIDTH,
+      GRID_HEIGHT, 2, values);
+  }
+
+  @Test
+  public void testColorGradient() {
+    final GriddedElevationModel elevationModel = newElevationModel();
+    assertParallelEqualsSequential(
+      new ColorGradientGriddedElevationModelRasterizer(elevationModel));
+  }
+
+  @Test
+  public void testHillShade() {
+    final GriddedElevationModel elevationModel = newElevationModel();
+    assertParallelEqualsSequential(new HillShadeGriddedElevationModelRasterizer(elevationModel));
+  }
+
+  @Test
+  public void testSlopeColorGradient() {
+    final GriddedElevationModel elevationModel = newElevationModel();
+    assertParallelEqualsSequential(
+      new SlopeColorGradientGriddedElevationModelRasterizer(elevationModel));
+  }
+}
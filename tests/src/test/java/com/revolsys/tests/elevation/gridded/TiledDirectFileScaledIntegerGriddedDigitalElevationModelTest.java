@@ -0,0 +1,103 @@
+package com.revolsys.tests.elevation.gridded;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.revolsys.elevation.gridded.scaledint.ScaledIntegerGriddedDigitalElevation;
+import com.revolsys.elevation.gridded.scaledint.ScaledIntegerGriddedDigitalElevationModelFile;
+import com.revolsys.elevation.gridded.scaledint.TiledDirectFileScaledIntegerGriddedDigitalElevationModel;
+import com.revolsys.geometry.model.GeometryFactory;
+import com.revolsys.io.file.Paths;
+import com.revolsys.util.Strings;
+
+public class TiledDirectFileScaledIntegerGriddedDigitalElevationModelTest {
+
+  private static final int COORDINATE_SYSTEM_ID = 3005;
+
+  private static final GeometryFactory GEOMETRY_FACTORY = GeometryFactory
+    .fixed3d(COORDINATE_SYSTEM_ID, 1000.0, 1000.0, 1000.0);
+
+  private static final String FILE_PREFIX = "test";
+
+  private static final int TILE_SIZE = 8;
+
+  private static double getElevation(final int gridX, final int gridY) {
+    return gridX * 100 + gridY + 0.5;
+  }
+
+  private void assertValues(final Path baseDirectory, final boolean memoryMapped) {
+    final TiledDirectFileScaledIntegerGriddedDigitalElevationModel model = new TiledDirectFileScaledIntegerGriddedDigitalElevationModel(
+      baseDirectory, FILE_PREFIX, GEOMETRY_FACTORY, 0, 0, TILE_SIZE, 1);
+    model.setMemoryMapped(memoryMapped);
+    try {
+      final int minX = -TILE_SIZE - 3;
+      final int minY = -TILE_SIZE - 5;
+      final int width = TILE_SIZE * 3 + 1;
+      final int height = TILE_SIZE * 3 - 2;
+      final int[] values = new int[width * height];
+      model.getValues(minX, minY, width, height, values);
+      for (int row = 0; row < height; row++) {
+        for (int column = 0; column < width; column++) {
+          final int gridX = minX + column;
+          final int gridY = minY + row;
+          final String message = gridX + "," + gridY;
+          final double cellValue = model.getValueFast(gridX, gridY);
+          final int value = values[row * width + column];
+          if (Double.isNaN(cellValue)) {
+            Assert.assertEquals(message, Integer.MIN_VALUE, value);
+          } else {
+            Assert.assertEquals(message, getElevation(gridX, gridY), cellValue, 0);
+            Assert.assertEquals(message, cellValue, value / 1000.0, 0);
+          }
+        }
+      }
+      Assert.assertTrue(Double.isNaN(model.getValueFast(TILE_SIZE + 1, TILE_SIZE + 1)));
+    } finally {
+      model.close();
+    }
+  }
+
+  @Test
+  public void testGetValuesAcrossTiles() throws IOException {
+    final Path baseDirectory = Files.createTempDirectory("sigdem");
+    try {
+      final String tileWidth = Integer.toString(TILE_SIZE);
+      final Path tileDirectory = baseDirectory
+        .resolve(ScaledIntegerGriddedDigitalElevation.FILE_EXTENSION)
+        .resolve(Integer.toString(COORDINATE_SYSTEM_ID))
+        .resolve(tileWidth);
+      for (int tileIndexY = -1; tileIndexY <= 1; tileIndexY++) {
+        for (int tileIndexX = -1; tileIndexX <= 1; tileIndexX++) {
+          // Leave one tile missing
+          if (tileIndexX != 1 || tileIndexY != 1) {
+            final int tileX = tileIndexX * TILE_SIZE;
+            final int tileY = tileIndexY * TILE_SIZE;
+            final String fileName = Strings.toString("_", FILE_PREFIX, COORDINATE_SYSTEM_ID,
+              tileWidth, tileX, tileY) + "." + ScaledIntegerGriddedDigitalElevation.FILE_EXTENSION;
+            final Path path = tileDirectory.resolve(Integer.toString(tileX)).resolve(fileName);
+            final ScaledIntegerGriddedDigitalElevationModelFile tile = new ScaledIntegerGriddedDigitalElevationModelFile(
+              path, GEOMETRY_FACTORY, tileX, tileY, TILE_SIZE, TILE_SIZE, 1);
+            tile.setCreateMissing(true);
+            try {
+              for (int gridY = 0; gridY < TILE_SIZE; gridY++) {
+                for (int gridX = 0; gridX < TILE_SIZE; gridX++) {
+                  tile.setValue(gridX, gridY, getElevation(tileX + gridX, tileY + gridY));
+                }
+              }
+            } finally {
+              tile.close();
+            }
+          }
+        }
+      }
+      assertValues(baseDirectory, false);
+      assertValues(baseDirectory, true);
+    } finally {
+      Paths.deleteDirectories(baseDirectory);
+    }
+  }
+}
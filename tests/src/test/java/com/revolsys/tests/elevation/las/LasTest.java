@@ -1,5 +1,8 @@
 package com.revolsys.tests.elevation.las;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteOrder;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -29,10 +32,13 @@ import com.revolsys.elevation.cloud.PointCloud;
 import com.revolsys.elevation.cloud.las.LasPointCloud;
 import com.revolsys.elevation.cloud.las.LasPointCloudHeader;
 import com.revolsys.elevation.cloud.las.LasPointCloudWriter;
+import com.revolsys.elevation.cloud.las.LasPointColumns;
 import com.revolsys.elevation.cloud.las.pointformat.LasPoint;
 import com.revolsys.elevation.cloud.las.pointformat.LasPointFormat;
 import com.revolsys.geometry.model.GeometryFactory;
 import com.revolsys.geometry.model.GeometryFactoryWithOffsets;
+import com.revolsys.io.channels.ChannelReader;
+import com.revolsys.io.channels.ChannelWriter;
 import com.revolsys.util.Debug;
 import com.revolsys.util.Property;
 import com.revolsys.util.ServiceInitializer;
@@ -521,6 +527,47 @@ public class LasTest {
     };
   }
 
+  @Test
+  public void testColumns() {
+    for (final LasPointFormat recordFormat : LAZ_TEST_FORMATS) {
+      try (
+        LasPointCloud cloud = new LasPointCloud(recordFormat, GEOMETRY_FACTORY_0)) {
+        addClassificationAndFlags(cloud);
+        final List<LasPoint> points = cloud.getPoints();
+        Assert.assertTrue("columns", points instanceof LasPointColumns);
+
+        final long[] expectedCounts = new long[256];
+        for (final LasPoint point : points) {
+          expectedCounts[point.getClassification()]++;
+        }
+        cloud.refreshClassificationCounts();
+        Assert.assertArrayEquals("classificationCounts", expectedCounts,
+          cloud.getClassificationCounts());
+
+        final LasPoint point = points.get(3);
+        point.setIntensity(1234).setClassification((short)2).setWithheld(true);
+        final LasPoint point2 = points.get(3);
+        Assert.assertEquals("intensity", 1234, point2.getIntensity());
+        Assert.assertEquals("classification", 2, point2.getClassification());
+        Assert.assertTrue("withheld", point2.isWithheld());
+        assertPointEqual(point2, point2.clone());
+
+        // Reading a point record into a column point updates its row
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (
+          ChannelWriter writer = new ChannelWriter(bytes)) {
+          writer.setByteOrder(ByteOrder.LITTLE_ENDIAN);
+          point2.writeLasPoint(writer);
+        }
+        final ChannelReader reader = new ChannelReader(
+          new ByteArrayInputStream(bytes.toByteArray()));
+        reader.setByteOrder(ByteOrder.LITTLE_ENDIAN);
+        points.get(4).read(cloud, reader);
+        assertPointEqual(point2, points.get(4));
+      }
+    }
+  }
+
   @Test
   public void testManyLas() {
     for (final LasPointFormat recordFormat : LasPointFormat.values()) {
@@ -548,6 +595,40 @@ public class LasTest {
     }
   }
 
+  @Test
+  public void testParallelDecompress() {
+    final Consumer<LasPointCloud> cloudAction = newPointsAction(120001);
+    for (final LasPointFormat recordFormat : LAZ_TEST_FORMATS) {
+      final Map<String, MapEx> writeVariations = getWriteVariations(recordFormat, "laz");
+      for (final Entry<String, MapEx> entry : writeVariations.entrySet()) {
+        final String label = "parallel_" + recordFormat.name() + "_" + entry.getKey();
+        final Path file = DIR.resolve("laz/parallel/" + label + ".laz");
+        com.revolsys.io.file.Paths.createParentDirectories(file);
+        try (
+          LasPointCloud cloud = new LasPointCloud(recordFormat, GEOMETRY_FACTORY_OFFSET)) {
+          cloudAction.accept(cloud);
+          cloud.writePointCloud(file, entry.getValue());
+          final List<LasPoint> points = cloud.getPoints();
+
+          final MapEx orderedProperties = new LinkedHashMapEx("decompressThreadCount", 4);
+          try (
+            LasPointCloud cloud2 = PointCloud.newPointCloud(file, orderedProperties)) {
+            assertPointsEqual(label, points, cloud2);
+          }
+
+          final MapEx unorderedProperties = new LinkedHashMapEx("decompressThreadCount", 4)
+            .add("decompressOrdered", false);
+          try (
+            LasPointCloud cloud2 = PointCloud.newPointCloud(file, unorderedProperties)) {
+            final AtomicInteger count = new AtomicInteger();
+            cloud2.forEachPoint(point -> count.incrementAndGet());
+            Assert.assertEquals(label + " pointCount", points.size(), count.get());
+          }
+        }
+      }
+    }
+  }
+
   @Test
   public void testWriter() {
     final BiFunction<LasPointCloudWriter, Integer, List<LasPoint>> writerAction = (writer,